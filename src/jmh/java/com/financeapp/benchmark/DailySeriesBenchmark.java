@@ -0,0 +1,61 @@
+package com.financeapp.benchmark;
+
+import com.financeapp.service.forecast.DailySeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning {@code FinancialDataRepository.getDailyTotals} rows into a {@link DailySeries}, as
+ * every forecast does after its query. Rows are built once; some days have no row, like users
+ * who do not spend every day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DailySeriesBenchmark {
+
+    @Param({"180", "365", "1095"})
+    int days;
+
+    /** Share of days that have transactions. */
+    @Param({"0.6", "1.0"})
+    double activeShare;
+
+    private List<Object[]> rows;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(42);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        rows = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            // The first and last day always have a row so the series spans every day
+            if (i > 0 && i < days - 1 && rnd.nextDouble() >= activeShare) continue;
+            rows.add(new Object[]{start.plusDays(i), BigDecimal.valueOf(1000 + rnd.nextInt(50000), 2)});
+        }
+    }
+
+    @Benchmark
+    public DailySeries fromDailyTotals() {
+        return DailySeries.fromDailyTotals(rows);
+    }
+}
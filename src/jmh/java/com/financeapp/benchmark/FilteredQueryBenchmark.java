@@ -0,0 +1,245 @@
+package com.financeapp.benchmark;
+
+import com.financeapp.FinanceForecastAppApplication;
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.entity.enums.TrendPeriod;
+import com.financeapp.repository.FinancialDailyTotalWriter;
+import com.financeapp.repository.FinancialDataRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The filtered queries of {@code FinancialDataQueriesImpl} per filter shape, the rollup ones
+ * as well as the row ones ({@code findByUserIdAndFilters}, {@code findByCriteria}), run through
+ * {@link FinancialDataRepository} in the application started with the {@code test} profile, so
+ * the H2 schema, indexes and JPQL are the ones the application uses. Setup logs the H2 plan of
+ * each statement Hibernate generates for a query and fails if one scans a table instead of
+ * seeking it by user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilteredQueryBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(FilteredQueryBenchmark.class);
+
+    private static final int USERS = 100;
+    private static final int DAYS = 3 * 365;
+    private static final LocalDate START = LocalDate.of(2022, 1, 1);
+    private static final Long USER_ID = 42L;
+
+    /** The (type, category) pairs a seeded day may have rollup rows for. */
+    private static final TransactionType[] TYPES = {
+            TransactionType.INCOME, TransactionType.INCOME, TransactionType.EXPENSE, TransactionType.EXPENSE,
+            TransactionType.EXPENSE, TransactionType.EXPENSE, TransactionType.EXPENSE, TransactionType.EXPENSE};
+    private static final Category[] CATEGORIES = {
+            Category.SALARY, Category.FREELANCE, Category.FOOD, Category.TRANSPORTATION,
+            Category.ENTERTAINMENT, Category.UTILITIES, Category.HEALTHCARE, Category.SHOPPING};
+
+    /** One page of {@code findByCriteria}, newest first as the list endpoint asks for it. */
+    private static final PageRequest PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "date"));
+
+    /** Which optional filters are supplied; the user is always filtered. */
+    @Param({"user", "user+type", "user+dates", "user+type+dates", "user+type+category+dates"})
+    String shape;
+
+    private ConfigurableApplicationContext context;
+    private FinancialDataRepository repository;
+    private TransactionType type;
+    private Category category;
+    private LocalDate from;
+    private LocalDate to;
+
+    /**
+     * Records the SQL of the statements Hibernate prepares while setup explains them; a no-op
+     * once measurement starts.
+     */
+    public static final class RecordingInspector implements StatementInspector {
+
+        static volatile boolean recording;
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (recording) {
+                synchronized (STATEMENTS) {
+                    STATEMENTS.add(sql);
+                }
+            }
+            return sql;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(FinanceForecastAppApplication.class)
+                .profiles("test")
+                .run("--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + RecordingInspector.class.getName(),
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.com.financeapp=INFO");
+        repository = context.getBean(FinancialDataRepository.class);
+        seed(context);
+
+        type = shape.contains("type") ? TransactionType.EXPENSE : null;
+        category = shape.contains("category") ? Category.FOOD : null;
+        from = shape.contains("dates") ? START.plusDays(400) : null;
+        to = shape.contains("dates") ? START.plusDays(430) : null;
+
+        explain("findByUserIdAndFilters", this::findByUserIdAndFilters, USER_ID, type, category, from, to);
+        explain("findByCriteria", this::findByCriteria, USER_ID, category, type, from, to, PAGE.getPageSize());
+        explain("totalAmount", this::totalAmount, USER_ID, type, from, to);
+        explain("countByTypeCategory", this::countByTypeCategory, USER_ID, type, category, from, to);
+        explain("summaryTotals", this::summaryTotals, USER_ID, from, to);
+        explain("categoryAggregations", this::categoryAggregations, USER_ID, type, from, to);
+    }
+
+    /**
+     * Users with financial data rows on most days, then the rollup built from those rows as
+     * DailyTotalsMaintainer would have written it.
+     */
+    private static void seed(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        List<Object[]> users = new ArrayList<>();
+        for (long user = 1; user <= USERS; user++) {
+            users.add(new Object[]{user, "bench" + user, "bench" + user + "@example.com", "benchmark"});
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, username, email, password_hash) VALUES (?, ?, ?, ?)", users);
+
+        Random rnd = new Random(42);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (long user = 1; user <= USERS; user++) {
+            for (int day = 0; day < DAYS; day++) {
+                LocalDate date = START.plusDays(day);
+                for (int pair = 0; pair < TYPES.length; pair++) {
+                    if (rnd.nextInt(5) >= 2) continue;
+                    for (int n = 1 + rnd.nextInt(3); n > 0; n--) {
+                        rows.add(new Object[]{user, Date.valueOf(date), TrendPeriod.epochDay(date), TrendPeriod.yearWeek(date),
+                                TrendPeriod.yearMonth(date), BigDecimal.valueOf(100 + rnd.nextInt(20000), 2),
+                                CATEGORIES[pair].name(), TYPES[pair].name(), now, now});
+                    }
+                }
+            }
+            if (rows.size() >= 50_000) {
+                insertRows(jdbc, rows);
+                rows.clear();
+            }
+        }
+        insertRows(jdbc, rows);
+        int rollupRows = context.getBean(FinancialDailyTotalWriter.class).rebuildAll();
+        log.info("Seeded {} financial data rows and {} rollup rows for {} users",
+                jdbc.queryForObject("SELECT COUNT(*) FROM financial_data", Long.class), rollupRows, USERS);
+    }
+
+    private static void insertRows(JdbcTemplate jdbc, List<Object[]> rows) {
+        jdbc.batchUpdate("INSERT INTO financial_data (user_id, date, epoch_day, year_week, year_month, amount, " +
+                "category, type, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Runs {@code query} once to capture its SQL, then logs the H2 plan of each statement it
+     * ran bound to {@code parameters} (the supplied filters in predicate order, then any row
+     * limit; nulls are dropped as the query drops their predicates). A statement takes as many
+     * of them as it has placeholders, so a page's count query goes without the limit.
+     */
+    private void explain(String name, Runnable query, Object... parameters) {
+        List<String> statements;
+        synchronized (RecordingInspector.STATEMENTS) {
+            RecordingInspector.STATEMENTS.clear();
+        }
+        RecordingInspector.recording = true;
+        try {
+            query.run();
+        } finally {
+            RecordingInspector.recording = false;
+        }
+        synchronized (RecordingInspector.STATEMENTS) {
+            statements = List.copyOf(RecordingInspector.STATEMENTS);
+        }
+        Object[] bound = Arrays.stream(parameters).filter(Objects::nonNull)
+                .map(value -> value instanceof Enum<?> constant ? constant.name() : value)
+                .map(value -> value instanceof LocalDate date ? Date.valueOf(date) : value)
+                .toArray();
+        for (String sql : statements) {
+            int placeholders = (int) sql.chars().filter(c -> c == '?').count();
+            String plan = String.join("\n", context.getBean(JdbcTemplate.class)
+                    .queryForList("EXPLAIN " + sql, String.class, Arrays.copyOf(bound, placeholders)));
+            log.info("[{}] {} plan:\n{}", shape, name, plan);
+            if (plan.contains(".tableScan")) {
+                throw new IllegalStateException("Shape " + shape + " of " + name + " scans a table:\n" + plan);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<FinancialData> findByUserIdAndFilters() {
+        return repository.findByUserIdAndFilters(USER_ID, type, category, from, to);
+    }
+
+    @Benchmark
+    public Page<FinancialData> findByCriteria() {
+        return repository.findByCriteria(USER_ID, category, type, from, to, null, null, PAGE);
+    }
+
+    @Benchmark
+    public BigDecimal totalAmount() {
+        return repository.getTotalAmountByTypeAndDateRange(USER_ID, type, from, to);
+    }
+
+    @Benchmark
+    public long countByTypeCategory() {
+        return repository.getCountByTypeCategoryAndDateRange(USER_ID, type, category, from, to);
+    }
+
+    @Benchmark
+    public List<Object[]> summaryTotals() {
+        return repository.getSummaryTotalsByDateRange(USER_ID, from, to);
+    }
+
+    @Benchmark
+    public List<Object[]> categoryAggregations() {
+        return repository.getCategoryAggregations(USER_ID, type, from, to);
+    }
+}
@@ -0,0 +1,106 @@
+package com.financeapp.benchmark;
+
+import com.financeapp.dto.FinancialDataCreateDto;
+import com.financeapp.dto.mapper.FinancialDataMapper;
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FinancialDataMapper} over one page of transactions, in both directions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FinancialDataMapperBenchmark {
+
+    @Param({"20", "1000"})
+    int pageSize;
+
+    private final FinancialDataMapper mapper = new FinancialDataMapper();
+    private User user;
+    private List<FinancialData> entities;
+    private List<FinancialDataCreateDto> creates;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(42);
+        user = new User();
+        setId(user, 1L);
+        user.setUsername("bench-user");
+        user.setEmail("bench@example.com");
+        Category[] categories = Category.values();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        OffsetDateTime now = OffsetDateTime.now();
+        entities = new ArrayList<>(pageSize);
+        creates = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Category category = categories[rnd.nextInt(categories.length)];
+            BigDecimal amount = BigDecimal.valueOf(100 + rnd.nextInt(100000), 2);
+            FinancialData fd = new FinancialData();
+            setId(fd, i + 1L);
+            fd.setUser(user);
+            fd.setDate(start.plusDays(i % 365));
+            fd.setAmount(amount);
+            fd.setCategory(category);
+            fd.setType(TransactionType.EXPENSE);
+            fd.setDescription("Benchmark " + i);
+            fd.setCreatedAt(now);
+            fd.setUpdatedAt(now);
+            entities.add(fd);
+            creates.add(new FinancialDataCreateDto(fd.getDate(), amount, category.name(), fd.getDescription(),
+                    TransactionType.EXPENSE.name()));
+        }
+    }
+
+    // Entities get their ids from the database; toDto rejects rows without one
+    private static void setId(Object entity, Long id) {
+        try {
+            Field idField = entity.getClass().getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(entity, id);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to set id of " + entity.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Benchmark
+    public void toDto(Blackhole bh) {
+        for (FinancialData fd : entities) bh.consume(mapper.toDto(fd));
+    }
+
+    @Benchmark
+    public void toResponseDto(Blackhole bh) {
+        for (FinancialData fd : entities) bh.consume(mapper.toResponseDto(fd));
+    }
+
+    @Benchmark
+    public void toEntity(Blackhole bh) {
+        for (FinancialDataCreateDto dto : creates) bh.consume(mapper.toEntity(dto, user));
+    }
+}
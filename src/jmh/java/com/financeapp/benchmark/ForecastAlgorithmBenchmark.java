@@ -0,0 +1,117 @@
+package com.financeapp.benchmark;
+
+import com.financeapp.service.forecast.ArimaEngine;
+import com.financeapp.service.forecast.DailySeries;
+import com.financeapp.service.forecast.HoltWintersEngine;
+import com.financeapp.service.impl.ForecastServiceImpl;
+import com.financeapp.testsupport.TestDataFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@code ForecastService} algorithm on one user's daily series, from a quarter to three
+ * years of days. The service is built without repositories: these methods only compute.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForecastAlgorithmBenchmark {
+
+    private static final int HORIZON = 30;
+
+    @Param({"90", "365", "1095"})
+    int days;
+
+    private ForkJoinPool pool;
+    private ForecastServiceImpl service;
+    private DailySeries series;
+    private List<Double> values;
+    private List<double[]> members;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        service = TestDataFactory.algorithmsOnlyForecastService(new ArimaEngine(pool), new HoltWintersEngine(pool));
+        Random rnd = new Random(42);
+        double[] y = new double[days];
+        for (int t = 0; t < days; t++) y[t] = 50 + 0.01 * t + 15 * Math.sin(2 * Math.PI * t / 7) + 5 * rnd.nextGaussian();
+        series = DailySeries.of(LocalDate.of(2024, 1, 1), y);
+        values = new ArrayList<>(days);
+        for (double v : y) values.add(v);
+        members = List.of(service.linearRegressionForecast(series, HORIZON),
+                service.seasonalDecomposition(series, 7, HORIZON),
+                service.holtWintersForecast(series, 7, false, HORIZON));
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] simpleMovingAverage() {
+        return service.simpleMovingAverage(series, 7);
+    }
+
+    @Benchmark
+    public double[] exponentialWeightedMovingAverage() {
+        return service.exponentialWeightedMovingAverage(series, 0.3);
+    }
+
+    @Benchmark
+    public double[] linearRegression() {
+        return service.linearRegressionForecast(series, HORIZON);
+    }
+
+    /** The List adapter, to keep the cost of unboxing visible next to {@link #linearRegression}. */
+    @Benchmark
+    public double[] linearRegressionFromList() {
+        return service.linearRegressionForecast(values, HORIZON);
+    }
+
+    @Benchmark
+    public double[] seasonalDecomposition() {
+        return service.seasonalDecomposition(series, 7, HORIZON);
+    }
+
+    @Benchmark
+    public double[] arima() {
+        return service.arimaForecast(series, 1, 1, 1, HORIZON);
+    }
+
+    @Benchmark
+    public double[] holtWinters() {
+        return service.holtWintersForecast(series, 7, false, HORIZON);
+    }
+
+    @Benchmark
+    public int[] detectAnomalies() {
+        return service.detectAnomalies(series, 2.0);
+    }
+
+    @Benchmark
+    public double[] ensemble() {
+        return service.ensembleForecast(members);
+    }
+}
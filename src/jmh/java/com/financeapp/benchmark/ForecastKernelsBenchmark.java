@@ -0,0 +1,118 @@
+package com.financeapp.benchmark;
+
+import com.financeapp.service.forecast.ForecastKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Scalar against vector kernels on long daily series and on a batch of users. The
+ * {@code benchmarks} profile runs it with the kernels named by {@code -Dforecast.kernels},
+ * scalar by default; {@link #main} runs it once per implementation, each in its own fork with
+ * {@code -Dforecast.kernels} set accordingly. The vector forks fall back to scalar unless the
+ * build also enables the {@code vector} profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsPrepend = "--add-modules=jdk.incubator.vector")
+public class ForecastKernelsBenchmark {
+
+    /** One, three and ten years of days. */
+    @Param({"365", "1095", "3650"})
+    int days;
+
+    /** Users in the batched benchmarks, fitted in parallel like the nightly sweep. */
+    @Param({"1000"})
+    int users;
+
+    private double[] series;
+    private double[][] batch;
+    private double[] smaOut;
+    private double[] horizonOut;
+    private double[] season;
+    private int[] anomalies;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(42);
+        series = series(rnd, days);
+        batch = new double[users][];
+        for (int u = 0; u < users; u++) batch[u] = series(rnd, days);
+        smaOut = new double[ForecastKernels.smaLength(days, 30)];
+        horizonOut = new double[30];
+        season = new double[7];
+        anomalies = new int[days];
+    }
+
+    private static double[] series(Random rnd, int n) {
+        double[] y = new double[n];
+        for (int t = 0; t < n; t++) y[t] = 50 + 0.01 * t + 15 * Math.sin(2 * Math.PI * t / 7) + 5 * rnd.nextGaussian();
+        return y;
+    }
+
+    /** Scalar under both settings, as a control. */
+    @Benchmark
+    public double[] simpleMovingAverage() {
+        ForecastKernels.simpleMovingAverage(series, days, 30, smaOut);
+        return smaOut;
+    }
+
+    @Benchmark
+    public double[] linearRegression() {
+        ForecastKernels.linearRegressionForecast(series, days, 30, horizonOut);
+        return horizonOut;
+    }
+
+    @Benchmark
+    public double[] seasonalDecomposition() {
+        ForecastKernels.seasonalDecomposition(series, days, 7, 30, season, horizonOut);
+        return horizonOut;
+    }
+
+    @Benchmark
+    public int detectAnomalies() {
+        return ForecastKernels.detectAnomalies(series, days, 2.0, anomalies);
+    }
+
+    /** Every kernel for every user, with per-thread scratch as in the batch engine. */
+    @Benchmark
+    public void batchedUsers(Blackhole bh) {
+        IntStream.range(0, users).parallel().forEach(u -> {
+            double[] v = batch[u];
+            double[] out = new double[Math.max(ForecastKernels.smaLength(days, 30), 30)];
+            ForecastKernels.simpleMovingAverage(v, days, 30, out);
+            bh.consume(out[0]);
+            ForecastKernels.seasonalDecomposition(v, days, 7, 30, new double[7], out);
+            bh.consume(out[0]);
+            bh.consume(ForecastKernels.detectAnomalies(v, days, 2.0, new int[days]));
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (String kernels : new String[]{"scalar", "vector"}) {
+            new Runner(new OptionsBuilder()
+                    .include(ForecastKernelsBenchmark.class.getSimpleName())
+                    .jvmArgsAppend("-Dforecast.kernels=" + kernels)
+                    .build()).run();
+        }
+    }
+}
@@ -1,20 +1,39 @@
 package com.financeapp.config;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 @Configuration
 @EnableAsync
 @EnableCaching
 public class AsyncCacheConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(AsyncCacheConfig.class);
+
+    public static final String FORECASTS_CACHE = "forecasts";
+    public static final String FINANCIAL_DATA_COUNTS_CACHE = "financialDataCounts";
+    public static final String FINANCIAL_SUMMARIES_CACHE = "financialSummaries";
+
     @Bean
     public Executor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -26,10 +45,81 @@ public class AsyncCacheConfig {
         return executor;
     }
 
+    /**
+     * Work-stealing pool for CPU-bound forecast fitting, kept apart from the common pool and
+     * from {@link #taskExecutor()} so blocking I/O never starves model computation.
+     * A parallelism of 0 uses one worker per available processor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool forecastComputePool(@Value("${app.forecast.compute-parallelism:0}") int parallelism) {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(workers, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("forecast-compute-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Bounded Caffeine caches in async mode so {@code @Cacheable} methods returning
+     * CompletableFuture store the completed value. Each cache is weighted by result size,
+     * expires after write, optionally refreshes, and records stats into Micrometer.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("forecasts");
+    public CacheManager cacheManager(CachingProperties properties,
+                                     CacheRefreshRegistry refreshRegistry,
+                                     MeterRegistry meterRegistry) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.setAsyncCacheMode(true);
+        manager.setAllowNullValues(false);
+        manager.setCaffeine(builder(properties.getDefaults()));
+
+        Set<String> names = new LinkedHashSet<>(properties.getSpecs().keySet());
+        names.add(FORECASTS_CACHE);
+        names.add(FINANCIAL_DATA_COUNTS_CACHE);
+        names.add(FINANCIAL_SUMMARIES_CACHE);
+        for (String name : names) {
+            AsyncCache<Object, Object> cache = build(name, properties.specFor(name), refreshRegistry);
+            manager.registerCustomCache(name, cache);
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, name, "cache.manager", "cacheManager");
+        }
+        return manager;
     }
-}
 
+    private AsyncCache<Object, Object> build(String name, CachingProperties.Spec spec, CacheRefreshRegistry refreshRegistry) {
+        Caffeine<Object, Object> builder = builder(spec);
+        if (spec.getRefreshAfterWrite() == null) {
+            return builder.buildAsync();
+        }
+        if (spec.getRefreshAfterWrite().compareTo(spec.getExpireAfterWrite()) >= 0) {
+            log.warn("Cache '{}': refresh-after-write {} is not shorter than expire-after-write {}; refresh disabled",
+                    name, spec.getRefreshAfterWrite(), spec.getExpireAfterWrite());
+            return builder.buildAsync();
+        }
+        return builder.refreshAfterWrite(spec.getRefreshAfterWrite())
+                .buildAsync((key, executor) -> refreshRegistry.reload(name, key, executor));
+    }
+
+    private static Caffeine<Object, Object> builder(CachingProperties.Spec spec) {
+        return Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight())
+                .weigher((Object key, Object value) -> weigh(value))
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .recordStats();
+    }
 
+    /**
+     * Approximates an entry's footprint by the number of rows it holds.
+     */
+    static int weigh(Object value) {
+        if (value instanceof Collection<?> c) {
+            return Math.max(1, c.size());
+        }
+        if (value instanceof Map<?, ?> m) {
+            int total = 0;
+            for (Object v : m.values()) total += weigh(v);
+            return Math.max(1, total);
+        }
+        return 1;
+    }
+}
@@ -6,11 +6,14 @@ import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAccessor;
 import java.util.Optional;
 
 /**
- * Configuration for JPA auditing with OffsetDateTime support
+ * Configuration for JPA auditing with OffsetDateTime support. Timestamps are cut to the
+ * microseconds the columns store, so a saved entity holds the same value a later read returns
+ * (cursors compare {@code created_at} against it).
  */
 @Configuration
 @EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
@@ -21,7 +24,7 @@ public class AuditConfig {
         return new DateTimeProvider() {
             @Override
             public Optional<TemporalAccessor> getNow() {
-                return Optional.of(OffsetDateTime.now());
+                return Optional.of(OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS));
             }
         };
     }
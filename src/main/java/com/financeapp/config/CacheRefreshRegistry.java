@@ -0,0 +1,33 @@
+package com.financeapp.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+/**
+ * Reload functions used by caches configured with {@code refresh-after-write}.
+ * Owners of a cache register a reloader once they are wired; until then (or for caches
+ * without one) a refresh resolves to {@code null}, which drops the entry so the next
+ * read recomputes it.
+ */
+@Component
+public class CacheRefreshRegistry {
+
+    private final Map<String, BiFunction<Object, Executor, CompletableFuture<Object>>> reloaders = new ConcurrentHashMap<>();
+
+    public void register(String cacheName, BiFunction<Object, Executor, CompletableFuture<Object>> reloader) {
+        reloaders.put(cacheName, reloader);
+    }
+
+    public CompletableFuture<Object> reload(String cacheName, Object key, Executor executor) {
+        BiFunction<Object, Executor, CompletableFuture<Object>> reloader = reloaders.get(cacheName);
+        if (reloader == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return reloader.apply(key, executor);
+    }
+}
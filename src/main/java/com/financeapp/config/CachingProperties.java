@@ -0,0 +1,70 @@
+package com.financeapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache bounds for the in-process Caffeine caches.
+ * Caches without an explicit entry under {@code app.cache.specs} use {@link #getDefaults()}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class CachingProperties {
+
+    private Spec defaults = new Spec();
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    public Spec getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Spec defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Spec> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, Spec> specs) {
+        this.specs = specs;
+    }
+
+    public Spec specFor(String cacheName) {
+        return specs.getOrDefault(cacheName, defaults);
+    }
+
+    public static class Spec {
+        private long maximumWeight = 10_000; // weight ~ number of cached result rows
+        private Duration expireAfterWrite = Duration.ofHours(6);
+        private Duration refreshAfterWrite; // optional; must be shorter than expireAfterWrite
+
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.financeapp.config;
+
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds {@code financial_daily_totals} rows for user-days that have {@code financial_data} but
+ * no rollup yet, such as rows inserted by SQL migrations like the seed data, which bypass
+ * {@code DailyTotalsMaintainer}.
+ * <p>
+ * Runs after V1008 and after every later migration, once the rollup has its {@code year_month}.
+ * The bucket is computed from the date here rather than read from {@code financial_data}, whose
+ * buckets {@link DateBucketBackfill} may not have filled yet. Days that already have rollup rows
+ * are left alone; V1002 built those, and the application keeps them current.
+ */
+@Component
+public class DailyTotalsBackfill implements Callback {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyTotalsBackfill.class);
+
+    private static final MigrationVersion BUCKETS_ADDED = MigrationVersion.fromVersion("1008");
+
+    private static final String BACKFILL = "INSERT INTO financial_daily_totals " +
+            "(user_id, date, type, category, year_month, amount_sum, row_count, amount_min, amount_max) " +
+            "SELECT d.user_id, d.date, d.type, d.category, " +
+            "EXTRACT(YEAR FROM d.date) * 100 + EXTRACT(MONTH FROM d.date), " +
+            "SUM(d.amount), COUNT(*), MIN(d.amount), MAX(d.amount) FROM financial_data d " +
+            "WHERE NOT EXISTS (SELECT 1 FROM financial_daily_totals t WHERE t.user_id = d.user_id AND t.date = d.date) " +
+            "GROUP BY d.user_id, d.date, d.type, d.category";
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        if (event != Event.AFTER_EACH_MIGRATE || context.getMigrationInfo() == null) {
+            return false;
+        }
+        MigrationVersion version = context.getMigrationInfo().getVersion();
+        return version != null && version.compareTo(BUCKETS_ADDED) >= 0;
+    }
+
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return true;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        try (Statement statement = context.getConnection().createStatement()) {
+            int rows = statement.executeUpdate(BACKFILL);
+            if (rows > 0) {
+                log.info("Backfilled {} daily total rows after {}", rows, context.getMigrationInfo().getDescription());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Daily totals backfill failed", e);
+        }
+    }
+
+    @Override
+    public String getCallbackName() {
+        return "dailyTotalsBackfill";
+    }
+}
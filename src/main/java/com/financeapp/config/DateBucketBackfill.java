@@ -0,0 +1,96 @@
+package com.financeapp.config;
+
+import com.financeapp.entity.enums.TrendPeriod;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the date buckets added by V1008 on rows that lack them, computed with
+ * {@link TrendPeriod} exactly as the application sets them on write.
+ * <p>
+ * Runs after V1008 and after every later migration, which covers existing rows as well as rows
+ * inserted by SQL migrations such as the seed data. One update per distinct date, so the
+ * work follows the number of days, not of rows.
+ */
+@Component
+public class DateBucketBackfill implements Callback {
+
+    private static final Logger log = LoggerFactory.getLogger(DateBucketBackfill.class);
+
+    private static final MigrationVersion BUCKETS_ADDED = MigrationVersion.fromVersion("1008");
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        if (event != Event.AFTER_EACH_MIGRATE || context.getMigrationInfo() == null) {
+            return false;
+        }
+        MigrationVersion version = context.getMigrationInfo().getVersion();
+        return version != null && version.compareTo(BUCKETS_ADDED) >= 0;
+    }
+
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return true;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        Connection connection = context.getConnection();
+        try {
+            int rows = 0;
+            try (PreparedStatement update = connection.prepareStatement("UPDATE financial_data " +
+                    "SET epoch_day = ?, year_week = ?, year_month = ? WHERE date = ? AND epoch_day IS NULL")) {
+                for (LocalDate date : datesWithout(connection, "financial_data", "epoch_day")) {
+                    update.setInt(1, TrendPeriod.epochDay(date));
+                    update.setInt(2, TrendPeriod.yearWeek(date));
+                    update.setInt(3, TrendPeriod.yearMonth(date));
+                    update.setDate(4, Date.valueOf(date));
+                    rows += update.executeUpdate();
+                }
+            }
+            try (PreparedStatement update = connection.prepareStatement("UPDATE financial_daily_totals " +
+                    "SET year_month = ? WHERE date = ? AND year_month IS NULL")) {
+                for (LocalDate date : datesWithout(connection, "financial_daily_totals", "year_month")) {
+                    update.setInt(1, TrendPeriod.yearMonth(date));
+                    update.setDate(2, Date.valueOf(date));
+                    update.executeUpdate();
+                }
+            }
+            if (rows > 0) {
+                log.info("Backfilled date buckets of {} financial data rows after {}", rows,
+                        context.getMigrationInfo().getDescription());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Date bucket backfill failed", e);
+        }
+    }
+
+    private static List<LocalDate> datesWithout(Connection connection, String table, String column) throws SQLException {
+        List<LocalDate> dates = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT DISTINCT date FROM " + table + " WHERE " + column + " IS NULL");
+             ResultSet rs = query.executeQuery()) {
+            while (rs.next()) dates.add(rs.getDate(1).toLocalDate());
+        }
+        return dates;
+    }
+
+    @Override
+    public String getCallbackName() {
+        return "dateBucketBackfill";
+    }
+}
@@ -0,0 +1,69 @@
+package com.financeapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for the nightly forecast sweep over all users with stored forecast configs.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.forecast.nightly")
+public class ForecastSweepProperties {
+
+    private boolean enabled = true;
+    private int pageSize = 500;       // user ids fetched per keyset page
+    private int partitionSize = 50;   // users handled sequentially by one worker
+    private int parallelism = 4;      // partitions processed concurrently
+    private int horizonDays = 7;
+    private Duration staleAfter = Duration.ofHours(1); // RUNNING jobs untouched this long are reclaimed
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getPartitionSize() {
+        return partitionSize;
+    }
+
+    public void setPartitionSize(int partitionSize) {
+        this.partitionSize = partitionSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    public void setHorizonDays(int horizonDays) {
+        this.horizonDays = horizonDays;
+    }
+
+    public Duration getStaleAfter() {
+        return staleAfter;
+    }
+
+    public void setStaleAfter(Duration staleAfter) {
+        this.staleAfter = staleAfter;
+    }
+}
@@ -4,6 +4,7 @@ import com.financeapp.security.JwtAuthenticationEntryPoint;
 import com.financeapp.security.JwtAuthenticationFilter;
 import com.financeapp.security.JwtTokenProvider;
 import com.financeapp.security.CustomUserDetailsService;
+import com.financeapp.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -45,6 +46,9 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     // PasswordEncoder bean is provided by PasswordEncoderConfig to avoid duplicate bean definitions
 
     @Bean
@@ -102,7 +106,7 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService);
+        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, principalCache);
     }
 
     @Bean
@@ -123,7 +127,8 @@ public class SecurityConfig {
         // Add security headers for both H2 and PostgreSQL
         configuration.setExposedHeaders(Arrays.asList(
             "Authorization", "Content-Type", "X-Requested-With", "Accept", "Origin",
-            "Access-Control-Request-Method", "Access-Control-Request-Headers"
+            "Access-Control-Request-Method", "Access-Control-Request-Headers",
+            "X-Total-Count-Exact"
         ));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,48 @@
+package com.financeapp.config;
+
+import com.financeapp.service.event.FinancialDataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Drops every cached entry keyed by {@link UserScopedKeyGenerator.UserScopedKey} for a user
+ * once their financial data change commits, so forecasts are never served from stale history.
+ */
+@Component
+public class UserCacheEvictionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCacheEvictionListener.class);
+
+    private final CacheManager cacheManager;
+
+    public UserCacheEvictionListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFinancialDataChanged(FinancialDataChangedEvent event) {
+        evictUser(event.userId());
+    }
+
+    public void evictUser(Long userId) {
+        int evicted = 0;
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeine) {
+                var keys = caffeine.getNativeCache().asMap().keySet();
+                int before = keys.size();
+                keys.removeIf(key -> key instanceof UserScopedKeyGenerator.UserScopedKey k && userId.equals(k.userId()));
+                evicted += before - keys.size();
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} cached entries for user {}", evicted, userId);
+        }
+    }
+}
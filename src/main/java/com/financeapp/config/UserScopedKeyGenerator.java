@@ -0,0 +1,56 @@
+package com.financeapp.config;
+
+import com.financeapp.entity.ForecastConfig;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Builds {@link UserScopedKey}s for cached methods whose first argument is the user id,
+ * so all entries belonging to a user can be evicted when their data changes.
+ * Unsaved ForecastConfigs are keyed by their parameters rather than a null id.
+ */
+@Component("userScopedKeyGenerator")
+public class UserScopedKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        if (params.length == 0 || !(params[0] instanceof Long userId)) {
+            throw new IllegalArgumentException("First argument of " + method.getName() + " must be the user id");
+        }
+        Object[] rest = Arrays.copyOfRange(params, 1, params.length);
+        return keyFor(userId, method.getName(), rest);
+    }
+
+    /**
+     * Same key {@link #generate} would build, for callers that cache programmatically.
+     */
+    public static UserScopedKey keyFor(Long userId, String method, Object... params) {
+        List<Object> parts = new ArrayList<>(params.length);
+        for (Object param : params) {
+            parts.add(keyPart(param));
+        }
+        return new UserScopedKey(userId, method, parts);
+    }
+
+    static Object keyPart(Object param) {
+        if (param instanceof ForecastConfig cfg) {
+            if (cfg.getId() != null) return cfg.getId();
+            return Arrays.asList(cfg.getAlgorithm(), cfg.getWindowSize(), cfg.getSmoothingFactor(),
+                    cfg.getSeasonLength(), cfg.getCategory(), cfg.getTransactionType());
+        }
+        if (param instanceof Collection<?> items) {
+            List<Object> out = new ArrayList<>(items.size());
+            for (Object item : items) out.add(keyPart(item));
+            return out;
+        }
+        return param;
+    }
+
+    public record UserScopedKey(Long userId, String method, List<Object> parts) {}
+}
@@ -4,6 +4,7 @@ import com.financeapp.dto.UserRegistrationDto;
 import com.financeapp.dto.UserResponseDto;
 import com.financeapp.dto.auth.AuthDtos;
 import com.financeapp.security.JwtBlacklistService;
+import com.financeapp.security.JwtClaims;
 import com.financeapp.security.JwtTokenProvider;
 import com.financeapp.security.RateLimiter;
 import com.financeapp.security.PasswordResetService;
@@ -74,8 +75,8 @@ public class AuthController {
                 }
                 if (userDto != null) {
                     String username = userDto.username();
-                    String jwt = tokenProvider.generateTokenFromUsername(username);
-                    String refreshToken = tokenProvider.generateRefreshToken(username);
+                    String jwt = tokenProvider.generateTokenFromUsername(username, userDto.id());
+                    String refreshToken = tokenProvider.generateRefreshToken(username, userDto.id());
                     var response = new AuthDtos.AuthResponse(jwt, refreshToken, "Bearer", tokenProvider.getExpirationTime());
                     logger.info("User {} authenticated via test bypass", username);
                     return ResponseEntity.ok(Map.of("token", response, "user", userDto));
@@ -89,10 +90,9 @@ public class AuthController {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = tokenProvider.generateToken(authentication);
-            String refreshToken = tokenProvider.generateRefreshToken(authentication.getName());
-
             UserResponseDto userResponse = userService.getUserByUsername(authentication.getName());
+            String jwt = tokenProvider.generateToken(authentication);
+            String refreshToken = tokenProvider.generateRefreshToken(authentication.getName(), userResponse.id());
 
             var response = new AuthDtos.AuthResponse(jwt, refreshToken, "Bearer", tokenProvider.getExpirationTime());
             logger.info("User {} successfully authenticated", authentication.getName());
@@ -138,13 +138,14 @@ public class AuthController {
             if (blacklistService.isBlacklisted(refreshToken)) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Token revoked"));
             }
-            if (!tokenProvider.validateToken(refreshToken) || !tokenProvider.isRefreshToken(refreshToken)) {
+            JwtClaims claims = tokenProvider.parseToken(refreshToken).filter(JwtClaims::refresh).orElse(null);
+            if (claims == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid refresh token"));
             }
-            String username = tokenProvider.getUsernameFromJWT(refreshToken);
-            String newAccessToken = tokenProvider.generateTokenFromUsername(username);
-            String newRefreshToken = tokenProvider.generateRefreshToken(username);
+            String username = claims.username();
+            String newAccessToken = tokenProvider.generateTokenFromUsername(username, claims.userId());
+            String newRefreshToken = tokenProvider.generateRefreshToken(username, claims.userId());
             var response = new AuthDtos.AuthResponse(newAccessToken, newRefreshToken, "Bearer", tokenProvider.getExpirationTime());
             logger.info("Token refreshed for user: {}", username);
             return ResponseEntity.ok(response);
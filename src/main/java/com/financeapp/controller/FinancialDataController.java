@@ -1,11 +1,14 @@
 package com.financeapp.controller;
 
+import com.financeapp.dto.CountedPage;
+import com.financeapp.dto.CursorPageDto;
 import com.financeapp.dto.FinancialDataDto;
 import com.financeapp.dto.FinancialDataCreateDto;
 import com.financeapp.dto.FinancialDataResponseDto;
 import com.financeapp.dto.mapper.FinancialDataMapper;
 import com.financeapp.entity.FinancialData;
 import com.financeapp.service.FinancialDataService;
+import com.financeapp.specification.FinancialDataFilter;
 import com.financeapp.specification.FinancialDataSpecification;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,7 +17,6 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -27,6 +29,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,6 +37,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/financial-data")
@@ -52,7 +56,7 @@ public class FinancialDataController {
     @Operation(summary = "Get all financial data with pagination and filtering")
     @GetMapping
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<FinancialDataResponseDto>> getAllFinancialData(
+    public ResponseEntity<CountedPage<FinancialDataResponseDto>> getAllFinancialData(
             @Parameter(description = "Filter by type (INCOME, EXPENSE)") @RequestParam(required = false) String type,
             @Parameter(description = "Filter by category") @RequestParam(required = false) String category,
             @Parameter(description = "Filter by date from (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
@@ -65,12 +69,36 @@ public class FinancialDataController {
         logger.info("Fetching financial data with filters - type: {}, category: {}, dateFrom: {}, dateTo: {}, search: {}", 
                    type, category, dateFrom, dateTo, search);
 
-        Specification<FinancialData> spec = FinancialDataSpecification.buildSpecification(
+        FinancialDataFilter filter = new FinancialDataFilter(
                 type, category, dateFrom, dateTo, amountFrom, amountTo, search);
         
-        Page<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(spec, pageable);
+        CountedPage<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(filter, pageable);
         
-        logger.info("Retrieved {} financial data records", result.getTotalElements());
+        logger.info("Retrieved {} financial data records (exact: {})", result.getTotalElements(), result.isTotalExact());
+        return countedResponse(result);
+    }
+
+    @Operation(summary = "Scroll financial data newest first with a cursor",
+               description = "Pass the returned nextCursor to get the next page. Unlike the paged listing there is no total count, and every page costs the same however far the client scrolls.")
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPageDto<FinancialDataResponseDto>> scrollFinancialData(
+            @Parameter(description = "Filter by type (INCOME, EXPENSE)") @RequestParam(required = false) String type,
+            @Parameter(description = "Filter by category") @RequestParam(required = false) String category,
+            @Parameter(description = "Filter by date from (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @Parameter(description = "Filter by date to (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @Parameter(description = "Filter by amount from") @RequestParam(required = false) BigDecimal amountFrom,
+            @Parameter(description = "Filter by amount to") @RequestParam(required = false) BigDecimal amountTo,
+            @Parameter(description = "Search in description") @RequestParam(required = false) String search,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (at most 200)") @RequestParam(defaultValue = "20") int size) {
+
+        Specification<FinancialData> spec = FinancialDataSpecification.buildSpecification(
+                type, category, dateFrom, dateTo, amountFrom, amountTo, search);
+
+        CursorPageDto<FinancialDataResponseDto> result = financialDataService.scrollFinancialData(spec, cursor, size);
+
+        logger.info("Scrolled {} financial data records, hasNext: {}", result.size(), result.hasNext());
         return ResponseEntity.ok(result);
     }
 
@@ -130,7 +158,7 @@ public class FinancialDataController {
     @Operation(summary = "Search financial data with advanced filters")
     @GetMapping("/search")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Page<FinancialDataResponseDto>> searchFinancialData(
+    public ResponseEntity<CountedPage<FinancialDataResponseDto>> searchFinancialData(
             @Parameter(description = "Filter by type (INCOME, EXPENSE)") @RequestParam(required = false) String type,
             @Parameter(description = "Filter by category") @RequestParam(required = false) String category,
             @Parameter(description = "Filter by date from (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
@@ -149,13 +177,13 @@ public class FinancialDataController {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable customPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
 
-        Specification<FinancialData> spec = FinancialDataSpecification.buildSpecification(
+        FinancialDataFilter filter = new FinancialDataFilter(
                 type, category, dateFrom, dateTo, amountFrom, amountTo, search);
         
-        Page<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(spec, customPageable);
+        CountedPage<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(filter, customPageable);
         
-        logger.info("Search returned {} financial data records", result.getTotalElements());
-        return ResponseEntity.ok(result);
+        logger.info("Search returned {} financial data records (exact: {})", result.getTotalElements(), result.isTotalExact());
+        return countedResponse(result);
     }
 
     @Operation(summary = "Bulk create financial data")
@@ -174,16 +202,18 @@ public class FinancialDataController {
     @Operation(summary = "Export financial data")
     @GetMapping("/export")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<String> exportFinancialData(
+    public ResponseEntity<StreamingResponseBody> exportFinancialData(
             @Parameter(description = "Export format (csv, json)") @RequestParam(defaultValue = "csv") String format,
             @Parameter(description = "Filter by type") @RequestParam(required = false) String type,
             @Parameter(description = "Filter by category") @RequestParam(required = false) String category,
             @Parameter(description = "Filter by date from") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
-            @Parameter(description = "Filter by date to") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo) {
+            @Parameter(description = "Filter by date to") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @Parameter(description = "Gzip-compress the response body") @RequestParam(defaultValue = "false") boolean gzip) {
         
         logger.info("Exporting financial data in {} format", format);
         
-        String exportData = financialDataService.exportFinancialData(format, type, category, dateFrom, dateTo);
+        // Resolves the user and validates parameters now; rows are streamed once the response is committed
+        FinancialDataService.ExportWriter export = financialDataService.streamFinancialData(format, type, category, dateFrom, dateTo);
         
         HttpHeaders headers = new HttpHeaders();
         if ("csv".equalsIgnoreCase(format)) {
@@ -193,11 +223,23 @@ public class FinancialDataController {
             headers.setContentType(MediaType.APPLICATION_JSON);
             headers.setContentDispositionFormData("attachment", "financial-data.json");
         }
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
         
-        logger.info("Financial data exported successfully");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                export.writeTo(compressed);
+                compressed.finish();
+            } else {
+                export.writeTo(out);
+            }
+            logger.info("Financial data exported successfully");
+        };
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(exportData);
+                .body(body);
     }
 
     @Operation(summary = "Get financial summaries")
@@ -245,4 +287,44 @@ public class FinancialDataController {
         logger.info("Monthly trends retrieved - {} months", trends.size());
         return ResponseEntity.ok(trends);
     }
+
+    @Operation(summary = "Get trends by period",
+               description = "Totals and counts per day, ISO week, month or year, newest first. An unknown period is rejected with 400.")
+    @GetMapping("/trends")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<Map<String, Object>>> getTrendsByPeriod(
+            @Parameter(description = "Period (daily, weekly, monthly, yearly)") @RequestParam String period,
+            @Parameter(description = "Filter by type") @RequestParam(required = false) String type,
+            @Parameter(description = "Number of periods to include") @RequestParam(defaultValue = "12") int limit) {
+        
+        logger.info("Fetching trends by period - period: {}, type: {}, limit: {}", period, type, limit);
+        
+        List<Map<String, Object>> trends = financialDataService.getTrendsByPeriod(period, type, limit);
+        
+        logger.info("Trends retrieved - {} periods", trends.size());
+        return ResponseEntity.ok(trends);
+    }
+
+    @Operation(summary = "Rebuild the daily totals rollup (admin)")
+    @PostMapping("/daily-totals/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildDailyTotals(
+            @Parameter(description = "Only rebuild this user; all users when omitted") @RequestParam(required = false) Long userId) {
+        
+        logger.info("Rebuilding daily totals - userId: {}", userId);
+        
+        int rows = financialDataService.rebuildDailyTotals(userId);
+        
+        logger.info("Daily totals rebuilt - {} rows", rows);
+        return ResponseEntity.ok(Map.of("rows", rows, "scope", userId != null ? "user:" + userId : "all"));
+    }
+
+    /**
+     * Pages whose total may be an estimate say so in {@code X-Total-Count-Exact}.
+     */
+    private static <T> ResponseEntity<CountedPage<T>> countedResponse(CountedPage<T> page) {
+        return ResponseEntity.ok()
+                .header("X-Total-Count-Exact", String.valueOf(page.isTotalExact()))
+                .body(page);
+    }
 }
@@ -31,7 +31,7 @@ public class ForecastController {
             @RequestParam(defaultValue = "daily") String period,
             @RequestParam(defaultValue = "7") int horizonDays) {
         ForecastConfig cfg = new ForecastConfig();
-        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.AUTO);
         return forecastService.generateForecast(userId, cfg, LocalDate.now().plusDays(1), horizonDays)
                 .thenApply(ResponseEntity::ok);
     }
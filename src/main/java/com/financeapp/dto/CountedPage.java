@@ -0,0 +1,27 @@
+package com.financeapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page whose total may be an upper bound rather than an exact count; see
+ * {@code FinancialDataCounter}. Controllers expose {@link #isTotalExact()} as the
+ * {@code X-Total-Count-Exact} header.
+ */
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public CountedPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    @JsonProperty("totalExact")
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+}
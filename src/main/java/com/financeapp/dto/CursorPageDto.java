@@ -0,0 +1,23 @@
+package com.financeapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back to get the following
+ * page; it is null on the last page. There is no total count.
+ */
+public record CursorPageDto<T>(
+    @JsonProperty("content")
+    List<T> content,
+
+    @JsonProperty("size")
+    int size,
+
+    @JsonProperty("nextCursor")
+    String nextCursor,
+
+    @JsonProperty("hasNext")
+    boolean hasNext
+) {}
@@ -0,0 +1,112 @@
+package com.financeapp.entity;
+
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Rollup of {@link FinancialData} per user, day, type and category.
+ * Rows are written only by {@code FinancialDailyTotalWriter}; see {@code DailyTotalsMaintainer}.
+ */
+@Entity
+@Table(name = "financial_daily_totals", indexes = {
+		@Index(name = "idx_financial_daily_totals_user_date", columnList = "user_id, date")
+})
+@IdClass(FinancialDailyTotal.Key.class)
+public class FinancialDailyTotal {
+
+	@Id
+	@Column(name = "user_id", nullable = false)
+	private Long userId;
+
+	@Id
+	@Column(nullable = false)
+	private LocalDate date;
+
+	@Id
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 50)
+	private TransactionType type;
+
+	@Id
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 50)
+	private Category category;
+
+	// Year * 100 + month of date, copied from financial_data.year_month
+	@Column(name = "year_month")
+	private Integer yearMonth;
+
+	@Column(name = "amount_sum", nullable = false, precision = 19, scale = 2)
+	private BigDecimal amountSum;
+
+	@Column(name = "row_count", nullable = false)
+	private long rowCount;
+
+	@Column(name = "amount_min", nullable = false, precision = 19, scale = 2)
+	private BigDecimal amountMin;
+
+	@Column(name = "amount_max", nullable = false, precision = 19, scale = 2)
+	private BigDecimal amountMax;
+
+	/** Scale of the average amounts derived from the rollup; amounts themselves have scale 2. */
+	public static final int AVERAGE_SCALE = 4;
+
+	public FinancialDailyTotal() {}
+
+	/**
+	 * Average of {@code count} amounts summing to {@code amountSum}, kept in decimal arithmetic
+	 * like {@code AVG} over the amount column; null when there are none, as {@code AVG} is.
+	 */
+	public static BigDecimal average(BigDecimal amountSum, long count) {
+		if (amountSum == null || count == 0) {
+			return null;
+		}
+		return amountSum.divide(BigDecimal.valueOf(count), AVERAGE_SCALE, RoundingMode.HALF_EVEN);
+	}
+
+	public Long getUserId() { return userId; }
+	public LocalDate getDate() { return date; }
+	public TransactionType getType() { return type; }
+	public Category getCategory() { return category; }
+	public Integer getYearMonth() { return yearMonth; }
+	public BigDecimal getAmountSum() { return amountSum; }
+	public long getRowCount() { return rowCount; }
+	public BigDecimal getAmountMin() { return amountMin; }
+	public BigDecimal getAmountMax() { return amountMax; }
+
+	public static class Key implements Serializable {
+		private Long userId;
+		private LocalDate date;
+		private TransactionType type;
+		private Category category;
+
+		public Key() {}
+
+		public Key(Long userId, LocalDate date, TransactionType type, Category category) {
+			this.userId = userId;
+			this.date = date;
+			this.type = type;
+			this.category = category;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key key)) return false;
+			return Objects.equals(userId, key.userId) && Objects.equals(date, key.date)
+					&& type == key.type && category == key.category;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(userId, date, type, category);
+		}
+	}
+}
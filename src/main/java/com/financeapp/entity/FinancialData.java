@@ -2,6 +2,7 @@ package com.financeapp.entity;
 
 import com.financeapp.entity.enums.Category;
 import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.entity.enums.TrendPeriod;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -11,6 +12,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 
 /**
@@ -19,10 +21,15 @@ import java.util.Objects;
 @Entity
 @Table(name = "financial_data", indexes = {
 		@Index(name = "idx_financial_data_user_date", columnList = "user_id, date"),
+		@Index(name = "idx_financial_data_user_date_seek", columnList = "user_id, date, created_at, id"),
 		@Index(name = "idx_financial_data_category", columnList = "category"),
-		@Index(name = "idx_financial_data_type", columnList = "type")
+		@Index(name = "idx_financial_data_user_category_id", columnList = "user_id, category, id"),
+		@Index(name = "idx_financial_data_type", columnList = "type"),
+		@Index(name = "idx_financial_data_user_epoch_day", columnList = "user_id, epoch_day"),
+		@Index(name = "idx_financial_data_user_year_week", columnList = "user_id, year_week"),
+		@Index(name = "idx_financial_data_user_year_month", columnList = "user_id, year_month")
 })
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, FinancialDataWriteListener.class})
 public class FinancialData {
 
 	@Id
@@ -38,6 +45,16 @@ public class FinancialData {
 	@Column(nullable = false)
 	private LocalDate date;
 
+	// Integer buckets of date for trend grouping, set together with date (see TrendPeriod)
+	@Column(name = "epoch_day")
+	private Integer epochDay;
+
+	@Column(name = "year_week")
+	private Integer yearWeek;
+
+	@Column(name = "year_month")
+	private Integer yearMonth;
+
 	@NotNull(message = "Amount is required")
 	@DecimalMin(value = "0.01", message = "Amount must be greater than 0")
 	@Digits(integer = 15, fraction = 2, message = "Amount must have at most 15 integer digits and 2 decimal places")
@@ -59,20 +76,24 @@ public class FinancialData {
 	private TransactionType type;
 
 	@CreatedDate
-	@Column(updatable = false, nullable = true)
+	@Column(updatable = false, nullable = false)
 	private OffsetDateTime createdAt;
 
 	@LastModifiedDate
 	@Column(nullable = true)
 	private OffsetDateTime updatedAt;
 
+	// Date as last read from / written to the database, so the rollup can fix up the old day on a move
+	@Transient
+	private LocalDate persistedDate;
+
 	// Constructors
 	public FinancialData() {}
 
 	public FinancialData(User user, LocalDate date, BigDecimal amount, Category category, 
 						String description, TransactionType type) {
 		this.user = user;
-		this.date = date;
+		setDate(date);
 		this.amount = amount;
 		this.category = category;
 		this.description = description;
@@ -98,6 +119,21 @@ public class FinancialData {
 
 	public void setDate(LocalDate date) {
 		this.date = date;
+		this.epochDay = date != null ? TrendPeriod.epochDay(date) : null;
+		this.yearWeek = date != null ? TrendPeriod.yearWeek(date) : null;
+		this.yearMonth = date != null ? TrendPeriod.yearMonth(date) : null;
+	}
+
+	public Integer getEpochDay() {
+		return epochDay;
+	}
+
+	public Integer getYearWeek() {
+		return yearWeek;
+	}
+
+	public Integer getYearMonth() {
+		return yearMonth;
 	}
 
 	public BigDecimal getAmount() {
@@ -148,6 +184,22 @@ public class FinancialData {
 		this.updatedAt = updatedAt;
 	}
 
+	LocalDate getPersistedDate() {
+		return persistedDate;
+	}
+
+	void setPersistedDate(LocalDate persistedDate) {
+		this.persistedDate = persistedDate;
+	}
+
+	// Runs after the auditing listener, for persists without auditing (JPA slices, tools)
+	@PrePersist
+	void defaultCreatedAt() {
+		if (createdAt == null) {
+			createdAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+		}
+	}
+
 	// Business logic methods
 	public boolean isIncome() {
 		return type == TransactionType.INCOME;
@@ -0,0 +1,53 @@
+package com.financeapp.entity;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+
+/**
+ * Publishes a {@link FinancialDataWritten} event for every {@link FinancialData} write, so the
+ * services that derive data from the table (daily totals, anomaly scoring) can follow it
+ * without the entity layer depending on them. Tracks the day each row was loaded with so an
+ * update that moves a row to another day reports both days.
+ */
+public class FinancialDataWriteListener {
+
+	private final ApplicationEventPublisher publisher;
+
+	public FinancialDataWriteListener(ApplicationEventPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@PostLoad
+	void onLoad(FinancialData data) {
+		data.setPersistedDate(data.getDate());
+	}
+
+	@PostPersist
+	void onPersist(FinancialData data) {
+		publish(data, FinancialDataWritten.Kind.PERSISTED);
+	}
+
+	@PostUpdate
+	void onUpdate(FinancialData data) {
+		publish(data, FinancialDataWritten.Kind.UPDATED);
+	}
+
+	@PostRemove
+	void onRemove(FinancialData data) {
+		publish(data, FinancialDataWritten.Kind.REMOVED);
+	}
+
+	private void publish(FinancialData data, FinancialDataWritten.Kind kind) {
+		LocalDate previous = data.getPersistedDate();
+		if (previous != null && previous.equals(data.getDate())) {
+			previous = null;
+		}
+		publisher.publishEvent(new FinancialDataWritten(data, kind, previous));
+		data.setPersistedDate(data.getDate());
+	}
+}
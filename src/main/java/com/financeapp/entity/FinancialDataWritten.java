@@ -0,0 +1,15 @@
+package com.financeapp.entity;
+
+import java.time.LocalDate;
+
+/**
+ * Published from the JPA callbacks of {@link FinancialData} while the row is being flushed,
+ * so synchronous listeners run inside the writing transaction. {@code previousDate} is the
+ * day the row was stored under before an update moved it to another day, otherwise null.
+ */
+public record FinancialDataWritten(FinancialData data, Kind kind, LocalDate previousDate) {
+
+	public enum Kind {
+		PERSISTED, UPDATED, REMOVED
+	}
+}
@@ -27,7 +27,12 @@ public class ForecastConfig {
         SMA,
         EWMA,
         LINEAR_REGRESSION,
-        SEASONAL_DECOMPOSITION
+        SEASONAL_DECOMPOSITION,
+        ARIMA,
+        HOLT_WINTERS_ADDITIVE,
+        HOLT_WINTERS_MULTIPLICATIVE,
+        /** Picks the best of the others per user by racing them on recent history. */
+        AUTO
     }
 
     @Id
@@ -5,10 +5,13 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "forecast_jobs")
+@Table(name = "forecast_jobs", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_forecast_jobs_run_user", columnNames = {"run_date", "user_id"})
+})
 @EntityListeners(AuditingEntityListener.class)
 public class ForecastJob {
 
@@ -32,6 +35,10 @@ public class ForecastJob {
     @Column(name = "error_message", length = 1000)
     private String errorMessage;
 
+    // Set for nightly sweep jobs; unique per user and run date (null for other jobs)
+    @Column(name = "run_date")
+    private LocalDate runDate;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
@@ -49,6 +56,8 @@ public class ForecastJob {
     public void setStatus(Status status) { this.status = status; }
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public LocalDate getRunDate() { return runDate; }
+    public void setRunDate(LocalDate runDate) { this.runDate = runDate; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
     public OffsetDateTime getUpdatedAt() { return updatedAt; }
 }
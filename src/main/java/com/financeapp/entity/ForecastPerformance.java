@@ -23,9 +23,39 @@ public class ForecastPerformance {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(name = "mape", nullable = false)
+    @Column(name = "mape")
     private Double mape;
 
+    @Column(name = "smape")
+    private Double smape;
+
+    @Column(name = "mae")
+    private Double mae;
+
+    @Column(name = "rmse")
+    private Double rmse;
+
+    @Column(name = "bias")
+    private Double bias;
+
+    @Column(name = "origins")
+    private Integer origins;
+
+    // Set on AUTO selections: the winning algorithm, its fitted parameters and how long they stand
+    @Enumerated(EnumType.STRING)
+    @Column(name = "algorithm", length = 64)
+    private ForecastConfig.AlgorithmType algorithm;
+
+    @Column(name = "model_params", length = 1024)
+    private String modelParams;
+
+    @Column(name = "valid_until")
+    private OffsetDateTime validUntil;
+
+    // The AUTO config's window, season and alpha hints the candidates were raced with
+    @Column(name = "selection_hints", length = 128)
+    private String selectionHints;
+
     @Column(name = "horizon_days", nullable = false)
     private Integer horizonDays;
 
@@ -43,6 +73,24 @@ public class ForecastPerformance {
     public void setUser(User user) { this.user = user; }
     public Double getMape() { return mape; }
     public void setMape(Double mape) { this.mape = mape; }
+    public Double getSmape() { return smape; }
+    public void setSmape(Double smape) { this.smape = smape; }
+    public Double getMae() { return mae; }
+    public void setMae(Double mae) { this.mae = mae; }
+    public Double getRmse() { return rmse; }
+    public void setRmse(Double rmse) { this.rmse = rmse; }
+    public Double getBias() { return bias; }
+    public void setBias(Double bias) { this.bias = bias; }
+    public Integer getOrigins() { return origins; }
+    public void setOrigins(Integer origins) { this.origins = origins; }
+    public ForecastConfig.AlgorithmType getAlgorithm() { return algorithm; }
+    public void setAlgorithm(ForecastConfig.AlgorithmType algorithm) { this.algorithm = algorithm; }
+    public String getModelParams() { return modelParams; }
+    public void setModelParams(String modelParams) { this.modelParams = modelParams; }
+    public OffsetDateTime getValidUntil() { return validUntil; }
+    public void setValidUntil(OffsetDateTime validUntil) { this.validUntil = validUntil; }
+    public String getSelectionHints() { return selectionHints; }
+    public void setSelectionHints(String selectionHints) { this.selectionHints = selectionHints; }
     public Integer getHorizonDays() { return horizonDays; }
     public void setHorizonDays(Integer horizonDays) { this.horizonDays = horizonDays; }
     public Integer getLookbackDays() { return lookbackDays; }
@@ -9,6 +9,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -22,8 +23,10 @@ import java.time.OffsetDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class ForecastResult {
 
+    // Pooled sequence (not IDENTITY) so batch forecast rows can be inserted with JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "forecast_results_seq")
+    @SequenceGenerator(name = "forecast_results_seq", sequenceName = "forecast_results_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
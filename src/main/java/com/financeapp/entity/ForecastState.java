@@ -0,0 +1,83 @@
+package com.financeapp.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Persisted {@code OnlineForecastState} of one saved closed-form config: the lookback window's
+ * daily totals as a binary ring and the running statistics derived from them. Kept current by
+ * {@code ForecastStateMaintainer} in the same transaction as each financial data write that
+ * falls inside the window.
+ */
+@Entity
+@Table(name = "forecast_states", indexes = {
+        @Index(name = "idx_forecast_states_user_window", columnList = "user_id, window_end, window_start")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class ForecastState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "config_id", nullable = false, unique = true)
+    private ForecastConfig config;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // The model the statistics were kept for; a config edited since is rebuilt
+    @Enumerated(EnumType.STRING)
+    @Column(name = "algorithm", nullable = false, length = 64)
+    private ForecastConfig.AlgorithmType algorithm;
+
+    @Column(name = "model_params", length = 1024)
+    private String modelParams;
+
+    @Column(name = "lookback_days", nullable = false)
+    private Integer lookbackDays;
+
+    // Stored alongside the end so writes can find the states whose window holds their day
+    @Column(name = "window_start", nullable = false)
+    private LocalDate windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDate windowEnd;
+
+    @Column(name = "statistics", nullable = false, columnDefinition = "TEXT")
+    private String statistics;
+
+    @Column(name = "ring", nullable = false, length = 16384)
+    private byte[] ring;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    public Long getId() { return id; }
+    public ForecastConfig getConfig() { return config; }
+    public void setConfig(ForecastConfig config) { this.config = config; }
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    public ForecastConfig.AlgorithmType getAlgorithm() { return algorithm; }
+    public void setAlgorithm(ForecastConfig.AlgorithmType algorithm) { this.algorithm = algorithm; }
+    public String getModelParams() { return modelParams; }
+    public void setModelParams(String modelParams) { this.modelParams = modelParams; }
+    public Integer getLookbackDays() { return lookbackDays; }
+    public void setLookbackDays(Integer lookbackDays) { this.lookbackDays = lookbackDays; }
+    public LocalDate getWindowStart() { return windowStart; }
+    public void setWindowStart(LocalDate windowStart) { this.windowStart = windowStart; }
+    public LocalDate getWindowEnd() { return windowEnd; }
+    public void setWindowEnd(LocalDate windowEnd) { this.windowEnd = windowEnd; }
+    public String getStatistics() { return statistics; }
+    public void setStatistics(String statistics) { this.statistics = statistics; }
+    public byte[] getRing() { return ring; }
+    public void setRing(byte[] ring) { this.ring = ring; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,49 @@
+package com.financeapp.entity.enums;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+/**
+ * Periods financial data trends are grouped by, and the integer date buckets persisted on each
+ * {@code financial_data} row so the grouping runs on indexed integers instead of per-row
+ * string or date functions.
+ */
+public enum TrendPeriod {
+    DAILY,
+    WEEKLY,
+    MONTHLY,
+    YEARLY;
+
+    /**
+     * Days since 1970-01-01; daily bucket.
+     */
+    public static int epochDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    /**
+     * ISO week-based year * 100 + ISO week, e.g. 202501 for 2024-12-30; weekly bucket.
+     */
+    public static int yearWeek(LocalDate date) {
+        return date.get(IsoFields.WEEK_BASED_YEAR) * 100 + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+    }
+
+    /**
+     * Year * 100 + month, e.g. 202410; monthly bucket, and the yearly one divided by 100.
+     */
+    public static int yearMonth(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    /**
+     * Display label of a bucket of this period: 2024-10-15, 2024-W42, 2024-10 or 2024.
+     */
+    public String label(int bucket) {
+        return switch (this) {
+            case DAILY -> LocalDate.ofEpochDay(bucket).toString();
+            case WEEKLY -> String.format("%d-W%02d", bucket / 100, bucket % 100);
+            case MONTHLY -> String.format("%d-%02d", bucket / 100, bucket % 100);
+            case YEARLY -> Integer.toString(bucket);
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.financeapp.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the {@code financial_daily_totals} rollup with plain JDBC on the current transaction.
+ * Each touched user-day is recomputed from {@code financial_data} rather than adjusted by a
+ * delta, because MIN/MAX cannot be maintained under deletes and updates.
+ */
+@Repository
+public class FinancialDailyTotalWriter {
+
+    private static final String AGGREGATE = "SELECT user_id, date, type, category, year_month, " +
+            "SUM(amount), COUNT(*), MIN(amount), MAX(amount) FROM financial_data ";
+    private static final String COLUMNS = "INSERT INTO financial_daily_totals " +
+            "(user_id, date, type, category, year_month, amount_sum, row_count, amount_min, amount_max) ";
+    // year_month follows from date, so grouping on it as well does not split a day
+    private static final String GROUP_BY = " GROUP BY user_id, date, type, category, year_month";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FinancialDailyTotalWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recomputes the rollup rows of {@code days} for one user. The user row is locked first so
+     * concurrent writers for the same user apply their refreshes one after another.
+     */
+    public void refreshDays(Long userId, Collection<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ? FOR UPDATE", Long.class, userId);
+
+        List<Object[]> args = new ArrayList<>(days.size());
+        for (LocalDate day : days) {
+            args.add(new Object[] {userId, Date.valueOf(day)});
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM financial_daily_totals WHERE user_id = ? AND date = ?", args);
+        jdbcTemplate.batchUpdate(COLUMNS + AGGREGATE + "WHERE user_id = ? AND date = ?" + GROUP_BY, args);
+    }
+
+    /**
+     * Rebuilds all rollup rows of one user from scratch.
+     * @return number of rollup rows written
+     */
+    public int rebuildUser(Long userId) {
+        jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ? FOR UPDATE", Long.class, userId);
+        jdbcTemplate.update("DELETE FROM financial_daily_totals WHERE user_id = ?", userId);
+        return jdbcTemplate.update(COLUMNS + AGGREGATE + "WHERE user_id = ?" + GROUP_BY, userId);
+    }
+
+    /**
+     * Rebuilds the whole rollup table from scratch.
+     * @return number of rollup rows written
+     */
+    public int rebuildAll() {
+        jdbcTemplate.update("DELETE FROM financial_daily_totals");
+        return jdbcTemplate.update(COLUMNS + AGGREGATE + GROUP_BY);
+    }
+}
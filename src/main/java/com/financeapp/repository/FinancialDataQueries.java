@@ -0,0 +1,137 @@
+package com.financeapp.repository;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.entity.enums.TrendPeriod;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Queries of {@link FinancialDataRepository} with optional filters, where a null argument
+ * means "not filtered". Implemented with {@link ShapedQuery}, so each combination of
+ * supplied filters runs as its own statement.
+ */
+public interface FinancialDataQueries {
+
+    /**
+     * Find financial data by multiple criteria with pagination
+     */
+    Page<FinancialData> findByCriteria(Long userId,
+                                       Category category,
+                                       TransactionType type,
+                                       LocalDate startDate,
+                                       LocalDate endDate,
+                                       BigDecimal minAmount,
+                                       BigDecimal maxAmount,
+                                       Pageable pageable);
+
+    /**
+     * Find financial data by user ID and filters for export
+     */
+    List<FinancialData> findByUserIdAndFilters(Long userId,
+                                               TransactionType type,
+                                               Category category,
+                                               LocalDate dateFrom,
+                                               LocalDate dateTo);
+
+    /**
+     * Same rows as {@link #findByUserIdAndFilters}, read through a cursor for exports.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    Stream<FinancialData> streamByUserIdAndFilters(Long userId,
+                                                   TransactionType type,
+                                                   Category category,
+                                                   LocalDate dateFrom,
+                                                   LocalDate dateTo);
+
+    /**
+     * Get total amount by type and date range (from the daily totals rollup)
+     */
+    BigDecimal getTotalAmountByTypeAndDateRange(Long userId,
+                                                TransactionType type,
+                                                LocalDate startDate,
+                                                LocalDate endDate);
+
+    /**
+     * Get count by type and date range (from the daily totals rollup)
+     */
+    Long getCountByTypeAndDateRange(Long userId,
+                                    TransactionType type,
+                                    LocalDate startDate,
+                                    LocalDate endDate);
+
+    /**
+     * Get count by type, category and date range (from the daily totals rollup)
+     */
+    long getCountByTypeCategoryAndDateRange(Long userId,
+                                            TransactionType type,
+                                            Category category,
+                                            LocalDate startDate,
+                                            LocalDate endDate);
+
+    /**
+     * Income, expense, transaction count and total amount by date range in one pass over the
+     * daily totals rollup. Returns a single row: [totalIncome, totalExpense, count, totalAmount]
+     */
+    List<Object[]> getSummaryTotalsByDateRange(Long userId,
+                                               LocalDate startDate,
+                                               LocalDate endDate);
+
+    /**
+     * Get average amount by date range (from the daily totals rollup)
+     */
+    BigDecimal getAverageAmountByDateRange(Long userId,
+                                           LocalDate startDate,
+                                           LocalDate endDate);
+
+    /**
+     * Get average amount by category and date range (from the daily totals rollup)
+     */
+    BigDecimal getAverageAmountByCategoryAndDateRange(Long userId,
+                                                      Category category,
+                                                      LocalDate startDate,
+                                                      LocalDate endDate);
+
+    /**
+     * Get category aggregations (from the daily totals rollup)
+     * Returns: [category, type, totalAmount, count, averageAmount]
+     */
+    List<Object[]> getCategoryAggregations(Long userId,
+                                           TransactionType type,
+                                           LocalDate startDate,
+                                           LocalDate endDate);
+
+    /**
+     * Get monthly trends between two required dates (from the daily totals rollup), newest first
+     * Returns: [yearMonth (year * 100 + month), totalAmount, count, averageAmount]
+     */
+    List<Object[]> getMonthlyTrends(Long userId,
+                                    TransactionType type,
+                                    LocalDate startDate,
+                                    LocalDate endDate);
+
+    /**
+     * Get top categories by amount (from the daily totals rollup)
+     * Returns: [category, totalAmount, count]
+     */
+    List<Object[]> getTopCategoriesByAmount(Long userId,
+                                            TransactionType type,
+                                            LocalDate startDate,
+                                            LocalDate endDate,
+                                            Pageable pageable);
+
+    /**
+     * Get trends by period, newest first, grouped on the persisted date bucket of the period
+     * Returns: [bucket (see {@link TrendPeriod}), totalAmount, count]
+     */
+    List<Object[]> getTrendsByPeriod(Long userId,
+                                     TrendPeriod period,
+                                     TransactionType type,
+                                     Pageable pageable);
+}
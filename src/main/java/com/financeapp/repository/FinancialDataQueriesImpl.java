@@ -0,0 +1,276 @@
+package com.financeapp.repository;
+
+import com.financeapp.entity.FinancialDailyTotal;
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.entity.enums.TrendPeriod;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link FinancialDataQueries} on {@link ShapedQuery}. Rollup queries always filter on the
+ * user and add type, category and date bounds only when given, so each shape can seek the
+ * {@code (user_id, date)} index of {@code financial_daily_totals}.
+ */
+class FinancialDataQueriesImpl implements FinancialDataQueries {
+
+    private static final String FROM_ROLLUP = " FROM FinancialDailyTotal d";
+    private static final String FROM_ROWS = " FROM FinancialData fd";
+    // Sum and count of an average, divided in Java by FinancialDailyTotal.average
+    private static final String SUM_AND_COUNT = "SUM(d.amountSum), SUM(d.rowCount)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<FinancialData> findByCriteria(Long userId, Category category, TransactionType type,
+                                              LocalDate startDate, LocalDate endDate,
+                                              BigDecimal minAmount, BigDecimal maxAmount, Pageable pageable) {
+        String select = "SELECT fd" + FROM_ROWS;
+        // applySorting appends the ORDER BY to a query and rejects an empty one, so cut it off after
+        String order = pageable.getSort().isSorted()
+                ? QueryUtils.applySorting(select, pageable.getSort(), "fd").substring(select.length()) : "";
+        TypedQuery<FinancialData> query = criteria("findByCriteria", userId, category, type, startDate, endDate, minAmount, maxAmount)
+                .create(entityManager, select, order, FinancialData.class);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () ->
+                criteria("findByCriteria.count", userId, category, type, startDate, endDate, minAmount, maxAmount)
+                        .create(entityManager, "SELECT COUNT(fd)" + FROM_ROWS, "", Long.class)
+                        .getSingleResult());
+    }
+
+    private static ShapedQuery criteria(String name, Long userId, Category category, TransactionType type,
+                                        LocalDate startDate, LocalDate endDate,
+                                        BigDecimal minAmount, BigDecimal maxAmount) {
+        return ShapedQuery.named(name)
+                .and("fd.user.id = :userId", "userId", userId)
+                .and("fd.category = :category", "category", category)
+                .and("fd.type = :type", "type", type)
+                .and("fd.date >= :startDate", "startDate", startDate)
+                .and("fd.date <= :endDate", "endDate", endDate)
+                .and("fd.amount >= :minAmount", "minAmount", minAmount)
+                .and("fd.amount <= :maxAmount", "maxAmount", maxAmount);
+    }
+
+    @Override
+    public List<FinancialData> findByUserIdAndFilters(Long userId, TransactionType type, Category category,
+                                                      LocalDate dateFrom, LocalDate dateTo) {
+        return userRows(userId, type, category, dateFrom, dateTo).getResultList();
+    }
+
+    @Override
+    public Stream<FinancialData> streamByUserIdAndFilters(Long userId, TransactionType type, Category category,
+                                                          LocalDate dateFrom, LocalDate dateTo) {
+        return userRows(userId, type, category, dateFrom, dateTo)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 500)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<FinancialData> userRows(Long userId, TransactionType type, Category category,
+                                               LocalDate dateFrom, LocalDate dateTo) {
+        return ShapedQuery.named("findByUserIdAndFilters")
+                .where("fd.user.id = :userId", "userId", userId)
+                .and("fd.type = :type", "type", type)
+                .and("fd.category = :category", "category", category)
+                .and("fd.date >= :dateFrom", "dateFrom", dateFrom)
+                .and("fd.date <= :dateTo", "dateTo", dateTo)
+                .create(entityManager, "SELECT fd" + FROM_ROWS, " ORDER BY fd.date DESC", FinancialData.class);
+    }
+
+    @Override
+    public BigDecimal getTotalAmountByTypeAndDateRange(Long userId, TransactionType type,
+                                                       LocalDate startDate, LocalDate endDate) {
+        return rollup("getTotalAmountByTypeAndDateRange", userId, type, null, startDate, endDate)
+                .create(entityManager, "SELECT SUM(d.amountSum)" + FROM_ROLLUP, "", BigDecimal.class)
+                .getSingleResult();
+    }
+
+    @Override
+    public Long getCountByTypeAndDateRange(Long userId, TransactionType type,
+                                           LocalDate startDate, LocalDate endDate) {
+        return rollup("getCountByTypeAndDateRange", userId, type, null, startDate, endDate)
+                .create(entityManager, "SELECT SUM(d.rowCount)" + FROM_ROLLUP, "", Long.class)
+                .getSingleResult();
+    }
+
+    @Override
+    public long getCountByTypeCategoryAndDateRange(Long userId, TransactionType type, Category category,
+                                                   LocalDate startDate, LocalDate endDate) {
+        Object count = rollup("getCountByTypeCategoryAndDateRange", userId, type, category, startDate, endDate)
+                .create(entityManager, "SELECT COALESCE(SUM(d.rowCount), 0)" + FROM_ROLLUP, "")
+                .getSingleResult();
+        return ((Number) count).longValue();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getSummaryTotalsByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
+        return rollup("getSummaryTotalsByDateRange", userId, null, null, startDate, endDate)
+                .create(entityManager, "SELECT " +
+                        "COALESCE(SUM(CASE WHEN d.type = com.financeapp.entity.enums.TransactionType.INCOME THEN d.amountSum END), 0), " +
+                        "COALESCE(SUM(CASE WHEN d.type = com.financeapp.entity.enums.TransactionType.EXPENSE THEN d.amountSum END), 0), " +
+                        "COALESCE(SUM(d.rowCount), 0), " +
+                        "COALESCE(SUM(d.amountSum), 0)" + FROM_ROLLUP, "")
+                .getResultList();
+    }
+
+    @Override
+    public BigDecimal getAverageAmountByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
+        Query query = rollup("getAverageAmountByDateRange", userId, null, null, startDate, endDate)
+                .create(entityManager, "SELECT " + SUM_AND_COUNT + FROM_ROLLUP, "");
+        return average((Object[]) query.getSingleResult(), 0);
+    }
+
+    @Override
+    public BigDecimal getAverageAmountByCategoryAndDateRange(Long userId, Category category,
+                                                             LocalDate startDate, LocalDate endDate) {
+        // Category is required here: a null category matches nothing, as before
+        Query query = ShapedQuery.named("getAverageAmountByCategoryAndDateRange")
+                .where("d.userId = :userId", "userId", userId)
+                .where("d.category = :category", "category", category)
+                .and("d.date >= :startDate", "startDate", startDate)
+                .and("d.date <= :endDate", "endDate", endDate)
+                .create(entityManager, "SELECT " + SUM_AND_COUNT + FROM_ROLLUP, "");
+        return average((Object[]) query.getSingleResult(), 0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getCategoryAggregations(Long userId, TransactionType type,
+                                                  LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = rollup("getCategoryAggregations", userId, type, null, startDate, endDate)
+                .create(entityManager, "SELECT d.category, d.type, " + SUM_AND_COUNT + FROM_ROLLUP,
+                        " GROUP BY d.category, d.type ORDER BY SUM(d.amountSum) DESC")
+                .getResultList();
+        return withAverage(rows, 2);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getMonthlyTrends(Long userId, TransactionType type, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = ShapedQuery.named("getMonthlyTrends")
+                .where("d.userId = :userId", "userId", userId)
+                .and("d.type = :type", "type", type)
+                .where("d.date >= :startDate", "startDate", startDate)
+                .where("d.date <= :endDate", "endDate", endDate)
+                .create(entityManager, "SELECT d.yearMonth, " + SUM_AND_COUNT + FROM_ROLLUP,
+                        " GROUP BY d.yearMonth ORDER BY d.yearMonth DESC")
+                .getResultList();
+        return withAverage(rows, 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getTopCategoriesByAmount(Long userId, TransactionType type,
+                                                   LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        Query query = rollup("getTopCategoriesByAmount", userId, type, null, startDate, endDate)
+                .create(entityManager, "SELECT d.category, SUM(d.amountSum), SUM(d.rowCount)" + FROM_ROLLUP,
+                        " GROUP BY d.category ORDER BY SUM(d.amountSum) DESC");
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getTrendsByPeriod(Long userId, TrendPeriod period, TransactionType type, Pageable pageable) {
+        String bucket = switch (period) {
+            case DAILY -> "fd.epochDay";
+            case WEEKLY -> "fd.yearWeek";
+            // Years are folded from the month groups, so they too group in year_month index order
+            case MONTHLY, YEARLY -> "fd.yearMonth";
+        };
+        Query query = ShapedQuery.named("getTrendsByPeriod." + period)
+                .where("fd.user.id = :userId", "userId", userId)
+                .and("fd.type = :type", "type", type)
+                .create(entityManager, "SELECT " + bucket + ", SUM(fd.amount), COUNT(fd)" + FROM_ROWS,
+                        " GROUP BY " + bucket + " ORDER BY " + bucket + " DESC");
+        if (period == TrendPeriod.YEARLY) {
+            return foldYears(query, pageable);
+        }
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Sums month groups, newest first, into [year, totalAmount, count] rows. A year has at most
+     * twelve month groups, so twelve months per year up to the end of the page are enough.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object[]> foldYears(Query monthly, Pageable pageable) {
+        if (pageable.isPaged()) {
+            monthly.setMaxResults(12 * (int) (pageable.getOffset() + pageable.getPageSize()));
+        }
+        List<Object[]> years = new ArrayList<>();
+        Object[] year = null;
+        for (Object[] month : (List<Object[]>) monthly.getResultList()) {
+            int y = ((Number) month[0]).intValue() / 100;
+            if (year == null || (Integer) year[0] != y) {
+                year = new Object[]{y, BigDecimal.ZERO, 0L};
+                years.add(year);
+            }
+            year[1] = ((BigDecimal) year[1]).add((BigDecimal) month[1]);
+            year[2] = (Long) year[2] + ((Number) month[2]).longValue();
+        }
+        if (pageable.isUnpaged()) {
+            return years;
+        }
+        int from = (int) Math.min(pageable.getOffset(), years.size());
+        return years.subList(from, Math.min(from + pageable.getPageSize(), years.size()));
+    }
+
+    private static ShapedQuery rollup(String name, Long userId, TransactionType type, Category category,
+                                      LocalDate startDate, LocalDate endDate) {
+        return ShapedQuery.named(name)
+                .where("d.userId = :userId", "userId", userId)
+                .and("d.type = :type", "type", type)
+                .and("d.category = :category", "category", category)
+                .and("d.date >= :startDate", "startDate", startDate)
+                .and("d.date <= :endDate", "endDate", endDate);
+    }
+
+    /** Appends the average of the sum and count at {@code sumIndex} and the next column to each row. */
+    private static List<Object[]> withAverage(List<Object[]> rows, int sumIndex) {
+        return rows.stream().map(row -> {
+            Object[] extended = Arrays.copyOf(row, row.length + 1);
+            extended[row.length] = average(row, sumIndex);
+            return extended;
+        }).toList();
+    }
+
+    private static BigDecimal average(Object[] row, int sumIndex) {
+        long count = row[sumIndex + 1] != null ? ((Number) row[sumIndex + 1]).longValue() : 0L;
+        return FinancialDailyTotal.average(decimal(row[sumIndex]), count);
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+}
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,7 +23,8 @@ import java.util.Optional;
  * Repository interface for FinancialData entity with comprehensive query methods
  */
 @Repository
-public interface FinancialDataRepository extends JpaRepository<FinancialData, Long>, JpaSpecificationExecutor<FinancialData> {
+public interface FinancialDataRepository extends JpaRepository<FinancialData, Long>, JpaSpecificationExecutor<FinancialData>,
+        FinancialDataQueries {
 
     /**
      * Find all financial data for a specific user
@@ -231,43 +233,8 @@ public interface FinancialDataRepository extends JpaRepository<FinancialData, Lo
     @PreAuthorize("hasRole('ADMIN')")
     Page<FinancialData> findAll(Pageable pageable);
     
-    /**
-     * Find financial data by multiple criteria with pagination
-     */
-    @Query("SELECT fd FROM FinancialData fd WHERE " +
-           "(:userId IS NULL OR fd.user.id = :userId) AND " +
-           "(:category IS NULL OR fd.category = :category) AND " +
-           "(:type IS NULL OR fd.type = :type) AND " +
-           "(:startDate IS NULL OR fd.date >= :startDate) AND " +
-           "(:endDate IS NULL OR fd.date <= :endDate) AND " +
-           "(:minAmount IS NULL OR fd.amount >= :minAmount) AND " +
-           "(:maxAmount IS NULL OR fd.amount <= :maxAmount)")
-    Page<FinancialData> findByCriteria(@Param("userId") Long userId,
-                                      @Param("category") Category category,
-                                      @Param("type") TransactionType type,
-                                      @Param("startDate") LocalDate startDate,
-                                      @Param("endDate") LocalDate endDate,
-                                      @Param("minAmount") BigDecimal minAmount,
-                                      @Param("maxAmount") BigDecimal maxAmount,
-                                      Pageable pageable);
-
     // Additional methods for FinancialDataService
 
-    /**
-     * Find financial data by user ID and filters for export
-     */
-    @Query("SELECT fd FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND (:type IS NULL OR fd.type = :type) " +
-           "AND (:category IS NULL OR fd.category = :category) " +
-           "AND (:dateFrom IS NULL OR fd.date >= :dateFrom) " +
-           "AND (:dateTo IS NULL OR fd.date <= :dateTo) " +
-           "ORDER BY fd.date DESC")
-    List<FinancialData> findByUserIdAndFilters(@Param("userId") Long userId,
-                                              @Param("type") TransactionType type,
-                                              @Param("category") Category category,
-                                              @Param("dateFrom") LocalDate dateFrom,
-                                              @Param("dateTo") LocalDate dateTo);
-
     /**
      * Find financial data by user ID and date range
      */
@@ -303,130 +270,41 @@ public interface FinancialDataRepository extends JpaRepository<FinancialData, Lo
     Optional<FinancialData> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 
     /**
-     * Get total amount by type and date range
-     */
-    @Query("SELECT SUM(fd.amount) FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND (:type IS NULL OR fd.type = :type) " +
-           "AND (:startDate IS NULL OR fd.date >= :startDate) " +
-           "AND (:endDate IS NULL OR fd.date <= :endDate)")
-    BigDecimal getTotalAmountByTypeAndDateRange(@Param("userId") Long userId,
-                                              @Param("type") TransactionType type,
-                                              @Param("startDate") LocalDate startDate,
-                                              @Param("endDate") LocalDate endDate);
-
-    /**
-     * Get count by type and date range
-     */
-    @Query("SELECT COUNT(fd) FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND (:type IS NULL OR fd.type = :type) " +
-           "AND (:startDate IS NULL OR fd.date >= :startDate) " +
-           "AND (:endDate IS NULL OR fd.date <= :endDate)")
-    Long getCountByTypeAndDateRange(@Param("userId") Long userId,
-                                  @Param("type") TransactionType type,
-                                  @Param("startDate") LocalDate startDate,
-                                  @Param("endDate") LocalDate endDate);
-
-    /**
-     * Get average amount by date range
-     */
-    @Query("SELECT AVG(fd.amount) FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND (:startDate IS NULL OR fd.date >= :startDate) " +
-           "AND (:endDate IS NULL OR fd.date <= :endDate)")
-    BigDecimal getAverageAmountByDateRange(@Param("userId") Long userId,
-                                         @Param("startDate") LocalDate startDate,
-                                         @Param("endDate") LocalDate endDate);
-
-    /**
-     * Get average amount by category and date range
-     */
-    @Query("SELECT AVG(fd.amount) FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND fd.category = :category " +
-           "AND (:startDate IS NULL OR fd.date >= :startDate) " +
-           "AND (:endDate IS NULL OR fd.date <= :endDate)")
-    BigDecimal getAverageAmountByCategoryAndDateRange(@Param("userId") Long userId,
-                                                    @Param("category") Category category,
-                                                    @Param("startDate") LocalDate startDate,
-                                                    @Param("endDate") LocalDate endDate);
-
-    /**
-     * Get category aggregations
+     * Get daily totals for a user between dates (DB-agnostic), read from the daily totals rollup
+     * Returns: [LocalDate, BigDecimal total]
      */
-    @Query("SELECT fd.category, fd.type, SUM(fd.amount), COUNT(fd), AVG(fd.amount) " +
-           "FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND (:type IS NULL OR fd.type = :type) " +
-           "AND (:startDate IS NULL OR fd.date >= :startDate) " +
-           "AND (:endDate IS NULL OR fd.date <= :endDate) " +
-           "GROUP BY fd.category, fd.type " +
-           "ORDER BY SUM(fd.amount) DESC")
-    List<Object[]> getCategoryAggregations(@Param("userId") Long userId,
-                                         @Param("type") TransactionType type,
-                                         @Param("startDate") LocalDate startDate,
-                                         @Param("endDate") LocalDate endDate);
+    @Query("SELECT d.date, SUM(d.amountSum) FROM FinancialDailyTotal d WHERE d.userId = :userId " +
+           "AND d.date BETWEEN :from AND :to GROUP BY d.date ORDER BY d.date")
+    List<Object[]> getDailyTotals(@Param("userId") Long userId,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to);
 
     /**
-     * Get monthly trends
+     * Daily totals per type and category in one scan of the rollup, which already holds one
+     * row per user, day, type and category.
+     * Returns: [LocalDate, TransactionType, Category, BigDecimal total], ordered by date
      */
-    @Query("SELECT YEAR(fd.date), MONTH(fd.date), SUM(fd.amount), COUNT(fd), AVG(fd.amount) " +
-           "FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND (:type IS NULL OR fd.type = :type) " +
-           "AND fd.date >= :startDate AND fd.date <= :endDate " +
-           "GROUP BY YEAR(fd.date), MONTH(fd.date) " +
-           "ORDER BY YEAR(fd.date) DESC, MONTH(fd.date) DESC")
-    List<Object[]> getMonthlyTrends(@Param("userId") Long userId,
-                                   @Param("type") TransactionType type,
-                                   @Param("startDate") LocalDate startDate,
-                                   @Param("endDate") LocalDate endDate);
+    @Query("SELECT d.date, d.type, d.category, d.amountSum FROM FinancialDailyTotal d WHERE d.userId = :userId " +
+           "AND d.date BETWEEN :from AND :to ORDER BY d.date")
+    List<Object[]> getDailyTotalsByTypeAndCategory(@Param("userId") Long userId,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
 
     /**
-     * Get top categories by amount
+     * {@link #getDailyTotals} rows for specific days; days without transactions are absent.
      */
-    @Query("SELECT fd.category, SUM(fd.amount), COUNT(fd) " +
-           "FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND (:type IS NULL OR fd.type = :type) " +
-           "AND (:startDate IS NULL OR fd.date >= :startDate) " +
-           "AND (:endDate IS NULL OR fd.date <= :endDate) " +
-           "GROUP BY fd.category " +
-           "ORDER BY SUM(fd.amount) DESC")
-    List<Object[]> getTopCategoriesByAmount(@Param("userId") Long userId,
-                                          @Param("type") TransactionType type,
-                                          @Param("startDate") LocalDate startDate,
-                                          @Param("endDate") LocalDate endDate,
-                                          Pageable pageable);
+    @Query("SELECT d.date, SUM(d.amountSum) FROM FinancialDailyTotal d WHERE d.userId = :userId " +
+           "AND d.date IN :days GROUP BY d.date ORDER BY d.date")
+    List<Object[]> getDailyTotalsOn(@Param("userId") Long userId,
+                                    @Param("days") Collection<LocalDate> days);
 
     /**
-     * Get daily totals for a user between dates (DB-agnostic)
-     * Returns: [LocalDate, BigDecimal total]
+     * Id and amount of one user's category rows written before {@code beforeId}, newest first
      */
-    @Query("SELECT fd.date, SUM(fd.amount) FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND fd.date BETWEEN :from AND :to GROUP BY fd.date ORDER BY fd.date")
-    List<Object[]> getDailyTotals(@Param("userId") Long userId,
-                                  @Param("from") LocalDate from,
-                                  @Param("to") LocalDate to);
-
-    /**
-     * Get trends by period (daily, weekly, monthly, yearly)
-     */
-    @Query("SELECT " +
-           "CASE " +
-           "WHEN :period = 'daily' THEN CAST(fd.date AS string) " +
-           "WHEN :period = 'weekly' THEN CONCAT(YEAR(fd.date), '-W', WEEK(fd.date)) " +
-           "WHEN :period = 'monthly' THEN CONCAT(YEAR(fd.date), '-', MONTH(fd.date)) " +
-           "WHEN :period = 'yearly' THEN CAST(YEAR(fd.date) AS string) " +
-           "END as period, " +
-           "SUM(fd.amount) as total_amount, " +
-           "COUNT(fd.id) as transaction_count " +
-           "FROM FinancialData fd WHERE fd.user.id = :userId " +
-           "AND (:type IS NULL OR fd.type = :type) " +
-           "GROUP BY " +
-           "CASE " +
-           "WHEN :period = 'daily' THEN CAST(fd.date AS string) " +
-           "WHEN :period = 'weekly' THEN CONCAT(YEAR(fd.date), '-W', WEEK(fd.date)) " +
-           "WHEN :period = 'monthly' THEN CONCAT(YEAR(fd.date), '-', MONTH(fd.date)) " +
-           "WHEN :period = 'yearly' THEN CAST(YEAR(fd.date) AS string) " +
-           "END " +
-           "ORDER BY period DESC")
-    List<Object[]> getTrendsByPeriod(@Param("userId") Long userId,
-                                    @Param("period") String period,
-                                    @Param("type") TransactionType type,
-                                    Pageable pageable);
+    @Query("SELECT fd.id, fd.amount FROM FinancialData fd WHERE fd.user.id = :userId AND fd.category = :category " +
+           "AND fd.id < :beforeId ORDER BY fd.id DESC")
+    List<Object[]> findRecentAmounts(@Param("userId") Long userId,
+                                     @Param("category") Category category,
+                                     @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
 }
@@ -4,8 +4,10 @@ import com.financeapp.entity.ForecastAnomaly;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ForecastAnomalyRepository extends JpaRepository<ForecastAnomaly, Long> {
-}
-
 
+    List<ForecastAnomaly> findByUserIdOrderByIdAsc(Long userId);
+}
@@ -18,6 +18,9 @@ public interface ForecastConfigRepository extends JpaRepository<ForecastConfig,
 
     @Query("SELECT fc FROM ForecastConfig fc WHERE fc.user.id = :userId AND fc.algorithm = :algorithm")
     List<ForecastConfig> findByUserAndAlgorithm(@Param("userId") Long userId, @Param("algorithm") ForecastConfig.AlgorithmType algorithm);
+
+    @Query("SELECT fc FROM ForecastConfig fc WHERE fc.user.id = :userId ORDER BY fc.id")
+    List<ForecastConfig> findByUserId(@Param("userId") Long userId);
 }
 
 
@@ -2,10 +2,56 @@ package com.financeapp.repository;
 
 import com.financeapp.entity.ForecastJob;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ForecastJobRepository extends JpaRepository<ForecastJob, Long> {
-}
 
+    @Query("SELECT j FROM ForecastJob j WHERE j.user.id = :userId AND j.runDate = :runDate")
+    Optional<ForecastJob> findByUserIdAndRunDate(@Param("userId") Long userId, @Param("runDate") LocalDate runDate);
+
+    /**
+     * Users among {@code userIds} whose job for {@code runDate} is in the given status.
+     */
+    @Query("SELECT j.user.id FROM ForecastJob j WHERE j.runDate = :runDate AND j.status = :status AND j.user.id IN :userIds")
+    List<Long> findUserIdsByRunDateAndStatus(@Param("runDate") LocalDate runDate,
+                                             @Param("status") ForecastJob.Status status,
+                                             @Param("userIds") Collection<Long> userIds);
 
+    /**
+     * Atomically takes the user's job for {@code runDate}: moves it to {@code running} when it is
+     * in one of the {@code claimable} statuses, or still {@code running} but not updated since
+     * {@code staleBefore} (its sweep died). Returns 1 when the caller got the job and 0 when it
+     * is completed or held by another sweep.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ForecastJob j SET j.status = :running, j.errorMessage = NULL, j.updatedAt = :now " +
+           "WHERE j.user.id = :userId AND j.runDate = :runDate " +
+           "AND (j.status IN :claimable OR (j.status = :running AND j.updatedAt < :staleBefore))")
+    int claim(@Param("userId") Long userId,
+              @Param("runDate") LocalDate runDate,
+              @Param("running") ForecastJob.Status running,
+              @Param("claimable") Collection<ForecastJob.Status> claimable,
+              @Param("now") OffsetDateTime now,
+              @Param("staleBefore") OffsetDateTime staleBefore);
+
+    /**
+     * When the last job of the newest run date whose jobs all reached {@code completed} was
+     * finished; null before any such run.
+     */
+    @Query("SELECT MAX(j.updatedAt) FROM ForecastJob j WHERE j.runDate = (" +
+           "SELECT MAX(k.runDate) FROM ForecastJob k WHERE NOT EXISTS (" +
+           "SELECT f.id FROM ForecastJob f WHERE f.runDate = k.runDate AND f.status <> :completed))")
+    OffsetDateTime findLastCleanRunFinish(@Param("completed") ForecastJob.Status completed);
+}
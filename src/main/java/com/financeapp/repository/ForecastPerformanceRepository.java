@@ -2,10 +2,30 @@ package com.financeapp.repository;
 
 import com.financeapp.entity.ForecastPerformance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
 @Repository
 public interface ForecastPerformanceRepository extends JpaRepository<ForecastPerformance, Long> {
-}
 
+    /**
+     * Latest AUTO selection for the user, horizon and candidate hints that has not expired yet.
+     */
+    Optional<ForecastPerformance> findFirstByUserIdAndHorizonDaysAndSelectionHintsAndAlgorithmIsNotNullAndValidUntilAfterOrderByIdDesc(
+            Long userId, Integer horizonDays, String selectionHints, OffsetDateTime now);
 
+    /**
+     * Backtest accuracy row of a config and horizon (AUTO selections have an algorithm set).
+     */
+    Optional<ForecastPerformance> findFirstByConfigIdAndHorizonDaysAndAlgorithmIsNullOrderByIdDesc(
+            Long configId, Integer horizonDays);
+
+    @Modifying
+    @Query("UPDATE ForecastPerformance p SET p.validUntil = :now WHERE p.user.id = :userId AND p.validUntil > :now")
+    int expireSelections(@Param("userId") Long userId, @Param("now") OffsetDateTime now);
+}
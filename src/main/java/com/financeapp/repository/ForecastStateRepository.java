@@ -0,0 +1,39 @@
+package com.financeapp.repository;
+
+import com.financeapp.entity.ForecastState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ForecastStateRepository extends JpaRepository<ForecastState, Long> {
+
+    /**
+     * Locks the state so a forecast advancing it and a write updating it apply one after another.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ForecastState> findByConfigId(Long configId);
+
+    /**
+     * Locks the user's states whose window overlaps {@code [earliest, latest]}, in id order so
+     * concurrent writers take them in the same order. States whose window lies elsewhere are
+     * neither read nor locked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ForecastState s WHERE s.user.id = :userId AND s.windowEnd >= :earliest AND s.windowStart <= :latest ORDER BY s.id")
+    List<ForecastState> findCovering(@Param("userId") Long userId,
+                                     @Param("earliest") LocalDate earliest,
+                                     @Param("latest") LocalDate latest);
+
+    @Modifying
+    @Query("DELETE FROM ForecastState s WHERE s.user.id = :userId")
+    int deleteByUser(@Param("userId") Long userId);
+}
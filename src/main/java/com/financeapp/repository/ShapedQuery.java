@@ -0,0 +1,106 @@
+package com.financeapp.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPQL that carries only the filter predicates a call actually supplies, instead of one
+ * statement guarding every optional filter with {@code (:p IS NULL OR ...)}.
+ * <p>
+ * A catch-all statement is planned once for every combination of filters, so the database
+ * cannot count on the {@code (user_id, date)} index. Here each combination of supplied
+ * filters (its shape) is its own statement. The text of a shape is assembled once and
+ * reused, so every call of that shape sends the same JPQL: Hibernate keeps one parsed plan
+ * per shape in its query plan cache, and the driver sees the same SQL and prepares it once
+ * per connection. The texts are held in a bounded cache, as a tail may carry a caller's
+ * ORDER BY and so the number of keys is not fixed by the code.
+ */
+final class ShapedQuery {
+
+    private record Key(String name, long shape, String select, String tail) {}
+
+    /** Well above the shapes the queries have; Hibernate's query plan cache holds 2048 by default. */
+    private static final int MAX_STATEMENTS = 1024;
+
+    private static final Cache<Key, String> STATEMENTS = Caffeine.newBuilder()
+            .maximumSize(MAX_STATEMENTS)
+            .build();
+
+    private final String name;
+    private final List<String> predicates = new ArrayList<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private long shape;
+    private int optionals;
+
+    private ShapedQuery(String name) {
+        this.name = name;
+    }
+
+    /**
+     * A query identified by {@code name}; calls under one name must add the same predicates in
+     * the same order, as the shape records which optional ones were present.
+     */
+    static ShapedQuery named(String name) {
+        return new ShapedQuery(name);
+    }
+
+    /**
+     * A predicate present in every shape, bound even when {@code value} is null.
+     */
+    ShapedQuery where(String predicate, String parameter, Object value) {
+        predicates.add(predicate);
+        parameters.put(parameter, value);
+        return this;
+    }
+
+    /**
+     * A predicate present only when {@code value} is not null.
+     */
+    ShapedQuery and(String predicate, String parameter, Object value) {
+        if (optionals++ >= Long.SIZE) {
+            throw new IllegalStateException("Too many optional predicates in " + name);
+        }
+        if (value != null) {
+            shape |= 1L << (optionals - 1);
+            predicates.add(predicate);
+            parameters.put(parameter, value);
+        }
+        return this;
+    }
+
+    /**
+     * {@code select} (everything up to WHERE), the supplied predicates, then {@code tail}
+     * (GROUP BY / ORDER BY, possibly empty). Texts are kept per name, shape, select and tail,
+     * so one name may serve several projections.
+     */
+    String jpql(String select, String tail) {
+        return STATEMENTS.get(new Key(name, shape, select, tail), key -> {
+            StringBuilder jpql = new StringBuilder(select);
+            for (int i = 0; i < predicates.size(); i++) {
+                jpql.append(i == 0 ? " WHERE " : " AND ").append(predicates.get(i));
+            }
+            return jpql.append(tail).toString();
+        });
+    }
+
+    Query create(EntityManager entityManager, String select, String tail) {
+        return bind(entityManager.createQuery(jpql(select, tail)));
+    }
+
+    <T> TypedQuery<T> create(EntityManager entityManager, String select, String tail, Class<T> resultType) {
+        return bind(entityManager.createQuery(jpql(select, tail), resultType));
+    }
+
+    private <Q extends Query> Q bind(Q query) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+}
@@ -130,4 +130,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findUsersByCriteria(@Param("username") String username, 
                                   @Param("email") String email, 
                                   Pageable pageable);
+
+    /**
+     * Keyset page of ids of users that have at least one forecast config
+     * @param afterId exclusive lower bound (last id of the previous page; 0 for the first page)
+     * @param pageable page size only; offset is not used
+     * @return ascending user ids
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId " +
+           "AND EXISTS (SELECT 1 FROM ForecastConfig fc WHERE fc.user = u) ORDER BY u.id")
+    List<Long> findIdsWithForecastConfigsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
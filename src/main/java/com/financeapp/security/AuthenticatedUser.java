@@ -0,0 +1,25 @@
+package com.financeapp.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal placed on the security context, carrying the database id so services can
+ * resolve the current user without looking them up by username again.
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
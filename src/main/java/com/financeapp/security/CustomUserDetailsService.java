@@ -8,7 +8,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -27,7 +26,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     @Transactional
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserByUsername(String username) throws UsernameNotFoundException {
         try {
             User user = userRepository.findByUsername(username)
                     .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
@@ -39,7 +38,7 @@ public class CustomUserDetailsService implements UserDetailsService {
     }
 
     @Transactional
-    public UserDetails loadUserById(Long id) {
+    public AuthenticatedUser loadUserById(Long id) {
         try {
             User user = userRepository.findById(id)
                     .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
@@ -50,18 +49,10 @@ public class CustomUserDetailsService implements UserDetailsService {
         }
     }
 
-    private UserDetails createUserPrincipal(User user) {
+    private AuthenticatedUser createUserPrincipal(User user) {
         Collection<? extends GrantedAuthority> authorities = getAuthorities(user);
         
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPasswordHash())
-                .authorities(authorities)
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(false)
-                .build();
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPasswordHash(), authorities);
     }
 
     private Collection<? extends GrantedAuthority> getAuthorities(User user) {
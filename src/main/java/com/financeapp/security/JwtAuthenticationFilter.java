@@ -7,10 +7,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -25,10 +23,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService,
+                                   PrincipalCache principalCache) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -37,10 +38,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt);
+            JwtClaims claims = StringUtils.hasText(jwt) ? tokenProvider.parseToken(jwt).orElse(null) : null;
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (claims != null) {
+                AuthenticatedUser userDetails = resolvePrincipal(claims);
                 
                 if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authentication = 
@@ -57,6 +58,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Resolves the principal from the cache by the token's user id. Tokens without an id fall
+     * back to a username lookup. A cached principal whose username no longer matches the
+     * token subject is reloaded once; if it still differs the token is not honoured.
+     */
+    private AuthenticatedUser resolvePrincipal(JwtClaims claims) {
+        if (claims.userId() == null) {
+            AuthenticatedUser user = userDetailsService.loadUserByUsername(claims.username());
+            principalCache.put(user);
+            return user;
+        }
+        AuthenticatedUser user = principalCache.get(claims.userId(), userDetailsService::loadUserById);
+        if (!user.getUsername().equals(claims.username())) {
+            principalCache.evict(claims.userId());
+            user = principalCache.get(claims.userId(), userDetailsService::loadUserById);
+        }
+        return user.getUsername().equals(claims.username()) ? user : null;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
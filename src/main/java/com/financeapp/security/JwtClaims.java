@@ -0,0 +1,11 @@
+package com.financeapp.security;
+
+import java.util.Date;
+
+/**
+ * Verified contents of a JWT, extracted in a single parse.
+ * {@code userId} is null for tokens issued before the id claim was added, and
+ * {@code expiration} for tokens without an {@code exp} claim.
+ */
+public record JwtClaims(String username, Long userId, boolean refresh, Date expiration) {
+}
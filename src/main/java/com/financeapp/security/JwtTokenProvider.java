@@ -1,23 +1,35 @@
 package com.financeapp.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    static final String USER_ID_CLAIM = "uid";
+
     @Value("${app.jwt.secret:finance-forecast-app-super-secret-key-for-jwt-token-generation-2024}")
     private String jwtSecret;
 
@@ -27,63 +39,96 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-expiration:604800000}") // 7 days in milliseconds
     private int jwtRefreshExpirationInMs;
 
+    @Value("${app.jwt.claims-cache.maximum-size:10000}")
+    private long claimsCacheMaximumSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, JwtClaims> verifiedClaims;
+
+    /**
+     * Derives the HMAC key and builds the (immutable, thread-safe) parser once. Verified claims
+     * are cached by token digest until the token's own expiry, so repeated requests bearing the
+     * same token verify its signature only once. Tokens without an expiry are never cached.
+     */
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().setSigningKey(signingKey).build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaximumSize)
+                .expireAfter(new Expiry<String, JwtClaims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, JwtClaims claims, long currentTime) {
+                        if (claims.expiration() == null) {
+                            return 0;
+                        }
+                        long remainingMs = claims.expiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, JwtClaims claims, long currentTime, long currentDuration) {
+                        return expireAfterCreate(digest, claims, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public String generateToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
-
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+        Long userId = userPrincipal instanceof AuthenticatedUser user ? user.getId() : null;
+        return buildToken(userPrincipal.getUsername(), userId, jwtExpirationInMs, false);
     }
 
     public String generateTokenFromUsername(String username) {
-        Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
+        return generateTokenFromUsername(username, null);
+    }
 
-        return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+    public String generateTokenFromUsername(String username, Long userId) {
+        return buildToken(username, userId, jwtExpirationInMs, false);
     }
 
     public String generateRefreshToken(String username) {
-        Date expiryDate = new Date(System.currentTimeMillis() + jwtRefreshExpirationInMs);
+        return generateRefreshToken(username, null);
+    }
 
-        return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .claim("type", "refresh")
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+    public String generateRefreshToken(String username, Long userId) {
+        return buildToken(username, userId, jwtRefreshExpirationInMs, true);
     }
 
-    public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private String buildToken(String username, Long userId, long validityMs, boolean refresh) {
+        Date expiryDate = new Date(System.currentTimeMillis() + validityMs);
 
-        return claims.getSubject();
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(expiryDate);
+        if (userId != null) {
+            builder.claim(USER_ID_CLAIM, userId);
+        }
+        if (refresh) {
+            builder.claim("type", "refresh");
+        }
+        return builder.signWith(getSigningKey(), SignatureAlgorithm.HS512).compact();
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Verifies the token and extracts everything callers need from it in one parse.
+     * Returns empty when the token is malformed, expired or has a bad signature.
+     */
+    public Optional<JwtClaims> parseToken(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            return Optional.of(verify(token));
         } catch (io.jsonwebtoken.security.SignatureException ex) {
             logger.error("Invalid JWT signature");
         } catch (io.jsonwebtoken.JwtException ex) {
@@ -91,18 +136,20 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty");
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public String getUsernameFromJWT(String token) {
+        return verify(token).username();
+    }
+
+    public boolean validateToken(String authToken) {
+        return parseToken(authToken).isPresent();
     }
 
     public boolean isRefreshToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            
-            return "refresh".equals(claims.get("type"));
+            return verify(token).refresh();
         } catch (Exception ex) {
             logger.error("Error parsing refresh token", ex);
             return false;
@@ -110,13 +157,7 @@ public class JwtTokenProvider {
     }
 
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getExpiration();
+        return verify(token).expiration();
     }
 
     public boolean isTokenExpired(String token) {
@@ -129,6 +170,45 @@ public class JwtTokenProvider {
         }
     }
 
+    /**
+     * Returns the token's verified claims, checking the signature only on a cache miss.
+     * Invalid tokens throw and are never cached; neither are tokens without an {@code exp}
+     * claim, which have no point at which a cached entry would stop being valid.
+     */
+    private JwtClaims verify(String token) {
+        if (!StringUtils.hasText(token)) {
+            throw new IllegalArgumentException("JWT string is empty");
+        }
+        String digest = digest(token);
+        JwtClaims cached = verifiedClaims.getIfPresent(digest);
+        if (cached != null && cached.expiration().after(new Date())) {
+            return cached;
+        }
+        JwtClaims claims = toClaims(parser.parseClaimsJws(token).getBody());
+        if (claims.expiration() != null) {
+            verifiedClaims.put(digest, claims);
+        }
+        return claims;
+    }
+
+    private static JwtClaims toClaims(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return new JwtClaims(
+                claims.getSubject(),
+                userId != null ? userId.longValue() : null,
+                "refresh".equals(claims.get("type")),
+                claims.getExpiration());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
     public long getExpirationTime() {
         return jwtExpirationInMs;
     }
@@ -0,0 +1,64 @@
+package com.financeapp.security;
+
+import com.financeapp.service.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of authenticated principals keyed by user id, so JWT-authenticated requests
+ * skip the per-request user lookup. Entries are dropped once a change to the user commits.
+ * Cached principals never hold the password hash.
+ */
+@Component
+public class PrincipalCache {
+
+    public static final String CACHE_NAME = "principals";
+
+    private final Cache<Long, AuthenticatedUser> cache;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${app.security.principal-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public AuthenticatedUser get(Long userId, Function<Long, AuthenticatedUser> loader) {
+        return cache.get(userId, id -> withoutCredentials(loader.apply(id)));
+    }
+
+    public void put(AuthenticatedUser principal) {
+        cache.put(principal.getId(), withoutCredentials(principal));
+    }
+
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.userId());
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static AuthenticatedUser withoutCredentials(AuthenticatedUser principal) {
+        return new AuthenticatedUser(principal.getId(), principal.getUsername(), "", principal.getAuthorities());
+    }
+}
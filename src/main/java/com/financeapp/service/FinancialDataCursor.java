@@ -0,0 +1,68 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.FinancialData;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque cursor for scrolling a user's financial data newest first.
+ * <p>
+ * Rows are ordered by (date, createdAt, id) descending, the order of
+ * {@code idx_financial_data_user_date_seek}; id makes it total. A cursor is the keyset of the
+ * last row of a page, URL-safe Base64 encoded, and the next page is read with a seek predicate
+ * after it instead of an offset.
+ */
+public final class FinancialDataCursor {
+
+    public static final Sort ORDER = Sort.by(Sort.Direction.DESC, "date", "createdAt", "id");
+
+    private FinancialDataCursor() {}
+
+    /**
+     * Cursor after {@code last}. Its createdAt is cut to the microseconds {@code created_at}
+     * stores, so the seek compares against the stored value even for a row saved in this
+     * persistence context.
+     */
+    public static String encode(FinancialData last) {
+        if (last.getCreatedAt() == null) {
+            throw new IllegalStateException("Financial data " + last.getId() + " has no createdAt to seek after");
+        }
+        String key = last.getDate() + "|" + last.getCreatedAt().truncatedTo(ChronoUnit.MICROS) + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Position after the row a cursor names; the first page for a blank cursor.
+     *
+     * @throws IllegalArgumentException for a cursor this class did not produce
+     */
+    public static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("date", LocalDate.parse(parts[0]));
+            keys.put("createdAt", OffsetDateTime.parse(parts[1]));
+            keys.put("id", Long.valueOf(parts[2]));
+            return ScrollPosition.forward(keys);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException and Base64 errors are IllegalArgumentExceptions too
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
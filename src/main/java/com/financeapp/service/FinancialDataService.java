@@ -1,13 +1,18 @@
 package com.financeapp.service;
 
+import com.financeapp.dto.CountedPage;
+import com.financeapp.dto.CursorPageDto;
 import com.financeapp.dto.FinancialDataDto;
 import com.financeapp.dto.FinancialDataCreateDto;
 import com.financeapp.dto.FinancialDataResponseDto;
 import com.financeapp.entity.FinancialData;
+import com.financeapp.specification.FinancialDataFilter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -20,9 +25,17 @@ import java.util.Optional;
 public interface FinancialDataService {
 
     /**
-     * Get all financial data with pagination and filtering
+     * Get all financial data with pagination and filtering, without counting the user's rows:
+     * the total comes from {@code FinancialDataCounter} and may be an upper bound.
      */
-    Page<FinancialDataResponseDto> getAllFinancialData(Specification<FinancialData> spec, Pageable pageable);
+    CountedPage<FinancialDataResponseDto> getAllFinancialData(FinancialDataFilter filter, Pageable pageable);
+
+    /**
+     * Get one page of financial data newest first, after the row named by {@code cursor}
+     * (see {@link FinancialDataCursor}). Each page is a seek on the user's rows, with no
+     * offset and no count query, so it costs the same however deep the client scrolls.
+     */
+    CursorPageDto<FinancialDataResponseDto> scrollFinancialData(Specification<FinancialData> spec, String cursor, int size);
 
     /**
      * Get financial data by ID
@@ -52,9 +65,11 @@ public interface FinancialDataService {
     Map<String, Object> bulkCreateFinancialData(List<FinancialDataDto> financialDataList);
 
     /**
-     * Export financial data in specified format
+     * Prepare a streaming export. User, filters and format are resolved and validated now;
+     * the returned writer reads rows with a database cursor and writes them one at a time,
+     * so it can run later (e.g. on an async response thread) with constant memory.
      */
-    String exportFinancialData(String format, String type, String category, LocalDate dateFrom, LocalDate dateTo);
+    ExportWriter streamFinancialData(String format, String type, String category, LocalDate dateFrom, LocalDate dateTo);
 
     /**
      * Get financial summaries with database-optimized queries
@@ -76,11 +91,6 @@ public interface FinancialDataService {
      */
     Map<String, Object> getFinancialDataStatistics();
 
-    /**
-     * Search financial data with advanced filters
-     */
-    Page<FinancialDataResponseDto> searchFinancialData(Specification<FinancialData> spec, Pageable pageable);
-
     /**
      * Get financial data by user ID with pagination
      */
@@ -130,4 +140,15 @@ public interface FinancialDataService {
      * Get financial data trends by period
      */
     List<Map<String, Object>> getTrendsByPeriod(String period, String type, int limit);
+
+    /**
+     * Rebuild the daily totals rollup for one user, or for all users when userId is null.
+     * Returns the number of rollup rows written.
+     */
+    int rebuildDailyTotals(Long userId);
+
+    @FunctionalInterface
+    interface ExportWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
 }
@@ -2,6 +2,7 @@ package com.financeapp.service;
 
 import com.financeapp.entity.ForecastConfig;
 import com.financeapp.entity.ForecastResult;
+import com.financeapp.service.forecast.DailySeries;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -26,6 +27,8 @@ public interface ForecastService {
     // Advanced algorithms (scaffold)
     double[] arimaForecast(List<Double> values, int p, int d, int q, int horizon);
 
+    double[] holtWintersForecast(List<Double> values, int seasonLength, boolean multiplicative, int horizon);
+
     double[] prophetLikeDecomposition(List<Double> values, int seasonLength, int horizon);
 
     double[] ensembleForecast(List<double[]> memberForecasts);
@@ -39,6 +42,23 @@ public interface ForecastService {
     double[] linearRegressionForecast(List<Double> values, int horizon);
 
     double[] seasonalDecomposition(List<Double> values, int seasonLength, int horizon);
+
+    // Primitive overloads; the List-based methods above delegate to these
+    double[] arimaForecast(DailySeries series, int p, int d, int q, int horizon);
+
+    double[] holtWintersForecast(DailySeries series, int seasonLength, boolean multiplicative, int horizon);
+
+    double[] prophetLikeDecomposition(DailySeries series, int seasonLength, int horizon);
+
+    int[] detectAnomalies(DailySeries series, double thresholdSigma);
+
+    double[] simpleMovingAverage(DailySeries series, int window);
+
+    double[] exponentialWeightedMovingAverage(DailySeries series, double alpha);
+
+    double[] linearRegressionForecast(DailySeries series, int horizon);
+
+    double[] seasonalDecomposition(DailySeries series, int seasonLength, int horizon);
 }
 
 
@@ -1,32 +1,33 @@
 package com.financeapp.service;
 
-import com.financeapp.entity.ForecastConfig;
+import com.financeapp.config.ForecastSweepProperties;
+import com.financeapp.service.forecast.NightlyForecastSweep;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.util.List;
 
 @Component
 public class ScheduledForecastJobs {
 
     private static final Logger log = LoggerFactory.getLogger(ScheduledForecastJobs.class);
-    private final ForecastService forecastService;
+    private final NightlyForecastSweep nightlyForecastSweep;
+    private final ForecastSweepProperties properties;
 
-    public ScheduledForecastJobs(ForecastService forecastService) {
-        this.forecastService = forecastService;
+    public ScheduledForecastJobs(NightlyForecastSweep nightlyForecastSweep, ForecastSweepProperties properties) {
+        this.nightlyForecastSweep = nightlyForecastSweep;
+        this.properties = properties;
     }
 
-    // Daily batch forecast placeholder; in production load configs per user
-    @Scheduled(cron = "0 15 2 * * *")
+    // Daily batch forecasts for every user with stored configs; resumes if a previous run for today stopped early
+    @Scheduled(cron = "${app.forecast.nightly.cron:0 15 2 * * *}")
     public void runNightlyForecasts() {
-        log.info("Running nightly batch forecasts (placeholder)");
-        ForecastConfig cfg = new ForecastConfig();
-        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
-        forecastService.batchGenerateForecasts(1L, List.of(cfg), LocalDate.now().plusDays(1), 7);
+        if (!properties.isEnabled()) {
+            return;
+        }
+        log.info("Running nightly batch forecasts");
+        nightlyForecastSweep.run(LocalDate.now());
     }
 }
-
-
@@ -0,0 +1,205 @@
+package com.financeapp.service.anomaly;
+
+import java.util.TreeMap;
+
+/**
+ * The last {@code capacity} amounts of one stream with running statistics that cost
+ * O(log capacity) per amount.
+ * <p>
+ * Mean and variance use Welford's update, run backwards for the amount leaving the window.
+ * Robust statistics come from a quartile sketch: the window is kept split into four sorted
+ * multisets of (nearly) equal size, so the median is exact and the quartiles are read off the
+ * partition boundaries. The MAD is approximated as half the interquartile range, which equals
+ * it for symmetric distributions and needs no second ordering around the median.
+ * <p>
+ * Not thread-safe.
+ */
+public final class RobustWindow {
+
+    /** Scales the MAD to a standard deviation under normality. */
+    private static final double MAD_TO_SIGMA = 1.4826;
+
+    private final double[] ring;
+    private int head;
+    private int size;
+
+    private double mean;
+    private double m2;
+
+    private final Multiset[] parts = {new Multiset(), new Multiset(), new Multiset(), new Multiset()};
+
+    public RobustWindow(int capacity) {
+        if (capacity < 4) {
+            throw new IllegalArgumentException("Window must hold at least 4 amounts");
+        }
+        this.ring = new double[capacity];
+    }
+
+    /**
+     * How far {@code x} sits from the window, before it is added.
+     *
+     * @param robustZ  {@code (x - median) / (1.4826 * MAD)}, or NaN when the MAD is zero
+     * @param zscore   {@code (x - mean) / stddev}, or NaN when the window is constant
+     */
+    public record Score(double robustZ, double zscore, double median, double mad,
+                        double mean, double stddev, int samples) {
+
+        /** Robust z when defined, else the classic z; NaN when neither is. */
+        public double primary() {
+            return Double.isNaN(robustZ) ? zscore : robustZ;
+        }
+    }
+
+    public int size() { return size; }
+
+    public int capacity() { return ring.length; }
+
+    public double mean() { return size == 0 ? Double.NaN : mean; }
+
+    public double stddev() { return size < 2 ? Double.NaN : Math.sqrt(m2 / (size - 1)); }
+
+    public double median() {
+        if (size == 0) return Double.NaN;
+        // parts[0..1] hold floor(size / 2) amounts
+        return size % 2 == 1 ? upperHalfMin() : (lowerHalfMax() + upperHalfMin()) / 2;
+    }
+
+    /**
+     * Half the interquartile range read from the partition boundaries; NaN below four amounts.
+     */
+    public double mad() {
+        if (size < 4) return Double.NaN;
+        double q1 = (parts[0].last() + parts[1].first()) / 2;
+        double q3 = (parts[2].last() + parts[3].first()) / 2;
+        return (q3 - q1) / 2;
+    }
+
+    public Score score(double x) {
+        double median = median();
+        double mad = mad();
+        double sd = stddev();
+        double robust = mad > 0 ? (x - median) / (MAD_TO_SIGMA * mad) : Double.NaN;
+        double z = sd > 0 ? (x - mean) / sd : Double.NaN;
+        return new Score(robust, z, median, mad, mean(), sd, size);
+    }
+
+    /**
+     * Appends {@code x}, evicting the oldest amount once the window is full.
+     */
+    public void add(double x) {
+        if (size == ring.length) {
+            double oldest = ring[head];
+            removeStatistics(oldest);
+            removeOrdered(oldest);
+            ring[head] = x;
+            head = (head + 1) % ring.length;
+        } else {
+            ring[(head + size) % ring.length] = x;
+        }
+        size++;
+        double delta = x - mean;
+        mean += delta / size;
+        m2 += delta * (x - mean);
+        insertOrdered(x);
+    }
+
+    private void removeStatistics(double y) {
+        if (size == 1) {
+            mean = 0;
+            m2 = 0;
+        } else {
+            double delta = y - mean;
+            mean -= delta / (size - 1);
+            m2 = Math.max(0.0, m2 - delta * (y - mean));
+        }
+        size--;
+    }
+
+    private void insertOrdered(double x) {
+        // Partitions stay ordered, so the first one reaching x (or the last) can take it
+        int p = 0;
+        while (p < 3 && (parts[p].isEmpty() || x > parts[p].last())) p++;
+        parts[p].add(x);
+        rebalance();
+    }
+
+    private void removeOrdered(double y) {
+        for (Multiset part : parts) {
+            if (part.remove(y)) {
+                return; // size already decremented; rebalanced by the insert that follows
+            }
+        }
+    }
+
+    /**
+     * Restores cumulative sizes {@code floor((i + 1) * n / 4)} at each boundary, moving one
+     * amount at a time across it.
+     */
+    private void rebalance() {
+        int n = 0;
+        for (Multiset part : parts) n += part.size();
+        int cumulative = 0;
+        for (int i = 0; i < 3; i++) {
+            int target = (i + 1) * n / 4;
+            cumulative += parts[i].size();
+            while (cumulative > target) {
+                parts[i + 1].add(parts[i].pollLast());
+                cumulative--;
+            }
+            while (cumulative < target) {
+                int from = i + 1;
+                while (parts[from].isEmpty()) from++;
+                parts[i].add(parts[from].pollFirst());
+                cumulative++;
+            }
+        }
+    }
+
+    private double lowerHalfMax() {
+        return parts[1].isEmpty() ? parts[0].last() : parts[1].last();
+    }
+
+    private double upperHalfMin() {
+        return parts[2].isEmpty() ? parts[3].first() : parts[2].first();
+    }
+
+    /** Sorted multiset of doubles over a TreeMap of counts. */
+    private static final class Multiset {
+        private final TreeMap<Double, Integer> counts = new TreeMap<>();
+        private int size;
+
+        int size() { return size; }
+
+        boolean isEmpty() { return size == 0; }
+
+        double first() { return counts.firstKey(); }
+
+        double last() { return counts.lastKey(); }
+
+        void add(double x) {
+            counts.merge(x, 1, Integer::sum);
+            size++;
+        }
+
+        boolean remove(double x) {
+            Integer count = counts.get(x);
+            if (count == null) return false;
+            if (count == 1) counts.remove(x);
+            else counts.put(x, count - 1);
+            size--;
+            return true;
+        }
+
+        double pollFirst() {
+            double x = counts.firstKey();
+            remove(x);
+            return x;
+        }
+
+        double pollLast() {
+            double x = counts.lastKey();
+            remove(x);
+            return x;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.financeapp.service.anomaly;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.FinancialDataWritten;
+import com.financeapp.entity.ForecastAnomaly;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastAnomalyRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.event.FinancialDataChangedEvent;
+import com.financeapp.service.event.FinancialDataChangedEvent.ChangeType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Scores each new financial data row against the latest amounts of its user and category and
+ * records the outliers as {@link ForecastAnomaly} rows.
+ * <p>
+ * Writes hand their rows over with {@link #record}, entity inserts through their
+ * {@link FinancialDataWritten} events; they are queued per transaction and scored on the task
+ * executor once it commits, so ingest never waits on scoring and rolled back rows are never
+ * scored. Each (user, category) stream keeps a {@link RobustWindow} in a
+ * bounded cache, warmed from the newest rows when first seen, which makes a row cost
+ * O(log window) plus its share of one insert. A row is flagged when its robust z-score
+ * (the classic one while the MAD is zero) reaches the threshold. Updates and deletions drop
+ * the user's windows, which are warmed again from the table on the next write.
+ */
+@Component
+public class StreamingAnomalyDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingAnomalyDetector.class);
+
+    public static final String CACHE_NAME = "anomalyWindows";
+
+    private record StreamKey(Long userId, Category category) {}
+
+    private record Observation(Long id, Long userId, Category category, LocalDate date, double amount) {}
+
+    /**
+     * A stream's window and the ids of the rows in it, so a row is never counted twice. Rows
+     * commit out of id order, so only membership tells whether one was already taken.
+     */
+    private static final class Stream {
+        final RobustWindow window;
+        final ArrayDeque<Long> order;
+        final Set<Long> ids;
+        final int capacity;
+
+        Stream(int capacity) {
+            this.window = new RobustWindow(capacity);
+            this.order = new ArrayDeque<>(capacity);
+            this.ids = new HashSet<>(capacity * 2);
+            this.capacity = capacity;
+        }
+
+        boolean contains(Long id) {
+            return ids.contains(id);
+        }
+
+        void add(Long id, double amount) {
+            window.add(amount);
+            order.addLast(id);
+            ids.add(id);
+            if (order.size() > capacity) {
+                ids.remove(order.removeFirst());
+            }
+        }
+    }
+
+    private final ForecastAnomalyRepository anomalyRepository;
+    private final FinancialDataRepository financialDataRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<StreamKey, Stream> streams;
+    private final Counter scored;
+    private final Counter detected;
+    private final int windowSize;
+    private final double threshold;
+    private final int minSamples;
+
+    public StreamingAnomalyDetector(ForecastAnomalyRepository anomalyRepository,
+                                    FinancialDataRepository financialDataRepository,
+                                    UserRepository userRepository,
+                                    ObjectMapper objectMapper,
+                                    @Qualifier("taskExecutor") Executor executor,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.anomaly.window:50}") int windowSize,
+                                    @Value("${app.anomaly.threshold:3.5}") double threshold,
+                                    @Value("${app.anomaly.min-samples:10}") int minSamples,
+                                    @Value("${app.anomaly.max-tracked:10000}") long maxTracked,
+                                    @Value("${app.anomaly.expire-after-access:24h}") Duration expireAfterAccess) {
+        this.anomalyRepository = anomalyRepository;
+        this.financialDataRepository = financialDataRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowSize = windowSize;
+        this.threshold = threshold;
+        this.minSamples = Math.max(4, minSamples);
+        this.streams = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, streams, CACHE_NAME);
+        this.scored = meterRegistry.counter("finance.anomaly.scored");
+        this.detected = meterRegistry.counter("finance.anomaly.detected");
+    }
+
+    @EventListener
+    public void onFinancialDataWritten(FinancialDataWritten event) {
+        if (event.kind() == FinancialDataWritten.Kind.PERSISTED) {
+            record(event.data());
+        }
+    }
+
+    public void record(FinancialData data) {
+        record(data.getId(), data);
+    }
+
+    /**
+     * Queues {@code data}, persisted under {@code id}, for scoring once the current
+     * transaction commits; scores it right away when there is none.
+     */
+    public void record(Long id, FinancialData data) {
+        if (id == null || data.getAmount() == null || data.getCategory() == null) {
+            return;
+        }
+        Observation observation = new Observation(id, data.getUser().getId(), data.getCategory(),
+                data.getDate(), data.getAmount().doubleValue());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(List.of(observation));
+            return;
+        }
+        pending().add(observation);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFinancialDataChanged(FinancialDataChangedEvent event) {
+        if (event.changeType() == ChangeType.UPDATED || event.changeType() == ChangeType.DELETED) {
+            streams.asMap().keySet().removeIf(key -> key.userId().equals(event.userId()));
+        }
+    }
+
+    private void submit(List<Observation> observations) {
+        try {
+            executor.execute(() -> {
+                try {
+                    process(observations);
+                } catch (RuntimeException e) {
+                    log.warn("Anomaly scoring of {} rows failed: {}", observations.size(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Anomaly scoring of {} rows skipped: executor saturated", observations.size());
+        }
+    }
+
+    private void process(List<Observation> observations) {
+        List<Observation> ordered = new ArrayList<>(observations);
+        ordered.sort(Comparator.comparing(Observation::id));
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ForecastAnomaly> anomalies = new ArrayList<>();
+            for (Observation observation : ordered) {
+                Stream stream = stream(observation);
+                RobustWindow.Score score;
+                synchronized (stream) {
+                    if (stream.contains(observation.id())) {
+                        continue; // already in the window it was warmed with
+                    }
+                    score = stream.window.score(observation.amount());
+                    stream.add(observation.id(), observation.amount());
+                }
+                scored.increment();
+                double z = score.primary();
+                if (score.samples() >= minSamples && Math.abs(z) >= threshold) {
+                    anomalies.add(anomaly(observation, score));
+                }
+            }
+            if (!anomalies.isEmpty()) {
+                anomalyRepository.saveAll(anomalies);
+                detected.increment(anomalies.size());
+                log.debug("Recorded {} anomalies out of {} new rows", anomalies.size(), ordered.size());
+            }
+        });
+    }
+
+    /**
+     * The stream's window, warmed from the rows written before {@code observation} on first
+     * use. The warm query runs outside the cache's compute so it never holds a cache bin lock
+     * on a database round trip; when two threads warm the same stream, the first one wins.
+     */
+    private Stream stream(Observation observation) {
+        StreamKey key = new StreamKey(observation.userId(), observation.category());
+        Stream stream = streams.getIfPresent(key);
+        if (stream != null) {
+            return stream;
+        }
+        List<Object[]> newestFirst = financialDataRepository.findRecentAmounts(
+                key.userId(), key.category(), observation.id(), PageRequest.of(0, windowSize));
+        Stream warmed = new Stream(windowSize);
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            Object[] row = newestFirst.get(i);
+            warmed.add(((Number) row[0]).longValue(), ((BigDecimal) row[1]).doubleValue());
+        }
+        Stream raced = streams.asMap().putIfAbsent(key, warmed);
+        return raced != null ? raced : warmed;
+    }
+
+    private ForecastAnomaly anomaly(Observation observation, RobustWindow.Score score) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("detector", "streaming-robust");
+        params.put("category", observation.category().name());
+        params.put("transactionId", observation.id());
+        params.put("median", finite(score.median()));
+        params.put("mad", finite(score.mad()));
+        params.put("mean", finite(score.mean()));
+        params.put("stddev", finite(score.stddev()));
+        params.put("robustZ", finite(score.robustZ()));
+        params.put("zscore", finite(score.zscore()));
+        params.put("samples", score.samples());
+        params.put("window", windowSize);
+        params.put("threshold", threshold);
+
+        ForecastAnomaly anomaly = new ForecastAnomaly();
+        anomaly.setUser(userRepository.getReferenceById(observation.userId()));
+        anomaly.setDate(observation.date());
+        anomaly.setValue(observation.amount());
+        anomaly.setZscore(score.primary());
+        try {
+            anomaly.setParamsJson(objectMapper.writeValueAsString(params));
+        } catch (JsonProcessingException e) {
+            log.debug("Could not serialize anomaly params: {}", e.getMessage());
+        }
+        return anomaly;
+    }
+
+    private static Double finite(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Observation> pending() {
+        List<Observation> pending = (List<Observation>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Observation> observations = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, observations);
+            TransactionSynchronizationManager.registerSynchronization(new PendingObservationsSynchronization(observations));
+            pending = observations;
+        }
+        return pending;
+    }
+
+    private final class PendingObservationsSynchronization implements TransactionSynchronization {
+
+        private final List<Observation> observations;
+
+        PendingObservationsSynchronization(List<Observation> observations) {
+            this.observations = observations;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(StreamingAnomalyDetector.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(StreamingAnomalyDetector.this, observations);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!observations.isEmpty()) {
+                submit(Collections.unmodifiableList(new ArrayList<>(observations)));
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StreamingAnomalyDetector.this);
+        }
+    }
+}
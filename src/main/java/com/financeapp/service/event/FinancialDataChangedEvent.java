@@ -0,0 +1,9 @@
+package com.financeapp.service.event;
+
+/**
+ * Published after FinancialData rows of a user are created, updated or deleted.
+ */
+public record FinancialDataChangedEvent(Long userId, ChangeType changeType) {
+
+    public enum ChangeType { CREATED, UPDATED, DELETED, BULK_CREATED }
+}
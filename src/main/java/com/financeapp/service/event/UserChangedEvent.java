@@ -0,0 +1,7 @@
+package com.financeapp.service.event;
+
+/**
+ * Published after a user's profile or credentials are updated, or the user is deleted.
+ */
+public record UserChangedEvent(Long userId) {
+}
@@ -0,0 +1,81 @@
+package com.financeapp.service.forecast;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Fits {@link ArimaModel}s on the forecast compute pool and selects orders automatically.
+ * <p>
+ * The differencing order is chosen first with a KPSS test, then every (p, q) up to
+ * {@link #MAX_P}/{@link #MAX_Q} is fitted in parallel against the same read-only series and
+ * the lowest AIC wins; ties go to the smaller model. Each worker thread keeps its own
+ * {@link ArimaModel.Workspace}, so a search allocates only the returned fits.
+ */
+@Component
+public class ArimaEngine {
+
+    public static final int MAX_P = 3;
+    public static final int MAX_Q = 3;
+    public static final int MAX_D = 2;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<ArimaModel.Workspace> workspaces = ThreadLocal.withInitial(ArimaModel.Workspace::new);
+
+    public ArimaEngine(@Qualifier("forecastComputePool") ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Best fit by AIC over the candidate grid, or an invalid fit when no order could be fitted.
+     */
+    public ArimaModel.Fit autoFit(DailySeries series) {
+        double[] values = series.values();
+        int n = series.size();
+        int d = ArimaModel.differencingOrder(values, n, MAX_D, workspaces.get());
+        ArimaModel.Fit[] fits = new ArimaModel.Fit[(MAX_P + 1) * (MAX_Q + 1)];
+        pool.submit(() -> IntStream.range(0, fits.length).parallel()
+                        .forEach(i -> fits[i] = ArimaModel.fit(values, n, i / (MAX_Q + 1), d, i % (MAX_Q + 1), workspaces.get())))
+                .join();
+        ArimaModel.Fit best = fits[0];
+        for (ArimaModel.Fit fit : fits) {
+            if (fit.aic() < best.aic()
+                    || (fit.aic() == best.aic() && fit.p() + fit.q() < best.p() + best.q())) {
+                best = fit;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Cheap stand-in for {@link #autoFit}: the KPSS differencing order with ARIMA(1, d, 1), or
+     * (1, d, 0) if that cannot be fitted. Used to screen ARIMA in a model race before paying
+     * for the full order search.
+     */
+    public ArimaModel.Fit screeningFit(DailySeries series) {
+        double[] values = series.values();
+        int n = series.size();
+        ArimaModel.Workspace ws = workspaces.get();
+        int d = ArimaModel.differencingOrder(values, n, MAX_D, ws);
+        ArimaModel.Fit fit = ArimaModel.fit(values, n, 1, d, 1, ws);
+        return fit.isValid() ? fit : ArimaModel.fit(values, n, 1, d, 0, ws);
+    }
+
+    public ArimaModel.Fit fit(DailySeries series, int p, int d, int q) {
+        return ArimaModel.fit(series.values(), series.size(), p, d, q, workspaces.get());
+    }
+
+    /**
+     * Forecast {@code horizon} days past the series with the given fit; null when the fit is invalid.
+     */
+    public double[] forecast(DailySeries series, ArimaModel.Fit fit, int horizon) {
+        if (!fit.isValid()) {
+            return null;
+        }
+        double[] out = new double[horizon];
+        ArimaModel.forecast(series.values(), series.size(), fit, horizon, workspaces.get(), out);
+        return out;
+    }
+}
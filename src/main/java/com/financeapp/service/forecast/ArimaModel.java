@@ -0,0 +1,416 @@
+package com.financeapp.service.forecast;
+
+import java.util.Arrays;
+
+/**
+ * ARIMA(p,d,q) fitting and forecasting over the first {@code n} entries of a primitive array.
+ * <p>
+ * The series is differenced {@code d} times (and demeaned when {@code d <= 1}); the ARMA part
+ * is estimated by conditional least squares using the Hannan-Rissanen two-stage regression:
+ * a long autoregression (Levinson-Durbin on sample autocovariances) supplies innovation
+ * estimates, then the AR and MA coefficients are solved jointly by OLS. The conditional sum
+ * of squares of the fitted model gives sigma² and the AIC. All scratch space lives in a
+ * caller-owned {@link Workspace}, so repeated fits (order search, nightly sweep) do not
+ * allocate beyond the returned {@link Fit}.
+ */
+public final class ArimaModel {
+
+    /** Longest autoregression used to estimate innovations in the first stage. */
+    private static final int MAX_LONG_AR = 20;
+
+    /** KPSS level-stationarity critical value at 5%. */
+    private static final double KPSS_CRITICAL_5PCT = 0.463;
+
+    private ArimaModel() {}
+
+    /**
+     * Fitted coefficients plus what is needed to forecast from the end of the training series.
+     * {@code aic} is {@link Double#POSITIVE_INFINITY} when the order could not be fitted.
+     */
+    public record Fit(int p, int d, int q, double[] ar, double[] ma, double mean, double sigma2, double aic) {
+
+        public boolean isValid() {
+            return Double.isFinite(aic);
+        }
+
+        static Fit invalid(int p, int d, int q) {
+            return new Fit(p, d, q, new double[p], new double[q], 0.0, Double.NaN, Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Reusable scratch buffers for one thread. Grows on demand; never shrinks.
+     */
+    public static final class Workspace {
+        double[] w = new double[0];
+        double[] resid = new double[0];
+        final double[] acov = new double[MAX_LONG_AR + 1];
+        final double[] phi = new double[MAX_LONG_AR + 1];
+        final double[] phiPrev = new double[MAX_LONG_AR + 1];
+        double[] xtx = new double[0];
+        double[] xty = new double[0];
+        double[] beta = new double[0];
+        double[] lastLevel = new double[0];
+
+        public Workspace ensure(int n, int maxOrder, int maxD) {
+            if (w.length < n) {
+                w = new double[n];
+                resid = new double[n];
+            }
+            int r = 2 * maxOrder + 1;
+            if (xtx.length < r * r) {
+                xtx = new double[r * r];
+                xty = new double[r];
+                beta = new double[r];
+            }
+            if (lastLevel.length < maxD + 1) {
+                lastLevel = new double[maxD + 1];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Fits ARIMA(p,d,q) to {@code v[0..n)}. Returns an invalid fit (infinite AIC) when the
+     * differenced series is too short for the order or the estimates are numerically unusable.
+     */
+    public static Fit fit(double[] v, int n, int p, int d, int q, Workspace ws) {
+        if (p < 0 || d < 0 || q < 0) {
+            throw new IllegalArgumentException("ARIMA orders must be non-negative");
+        }
+        ws.ensure(n, Math.max(p, q), d);
+        int m = difference(v, n, d, ws);
+        if (m < Math.max(10, 3 * (p + q + 1))) {
+            return Fit.invalid(p, d, q);
+        }
+        double[] w = ws.w;
+        double mean = 0.0;
+        if (d <= 1) {
+            for (int t = 0; t < m; t++) mean += w[t];
+            mean /= m;
+            for (int t = 0; t < m; t++) w[t] -= mean;
+        }
+        double variance = 0.0;
+        for (int t = 0; t < m; t++) variance += w[t] * w[t];
+        variance /= m;
+
+        double[] ar = new double[p];
+        double[] ma = new double[q];
+        if (p + q > 0 && variance > 1e-12) {
+            int k = q > 0 ? longArInnovations(w, m, p, q, ws) : 0;
+            if (!regress(w, m, p, q, k, ws)) {
+                return Fit.invalid(p, d, q);
+            }
+            System.arraycopy(ws.beta, 0, ar, 0, p);
+            System.arraycopy(ws.beta, p, ma, 0, q);
+        }
+
+        double sse = conditionalResiduals(w, m, ar, ma, ws.resid);
+        int effective = m - p;
+        double sigma2 = Math.max(sse / effective, 1e-12);
+        if (!Double.isFinite(sigma2) || sigma2 > 10.0 * Math.max(variance, 1e-12)) {
+            // Explosive AR or non-invertible MA: residual recursion diverged
+            return Fit.invalid(p, d, q);
+        }
+        int params = p + q + 1 + (d <= 1 ? 1 : 0);
+        double aic = effective * Math.log(sigma2) + 2.0 * params;
+        return new Fit(p, d, q, ar, ma, mean, sigma2, aic);
+    }
+
+    /**
+     * Forecasts {@code horizon} steps after {@code v[0..n)} with a fit obtained from the same
+     * series, writing into {@code out}. Future innovations are taken as zero.
+     */
+    public static void forecast(double[] v, int n, Fit fit, int horizon, Workspace ws, double[] out) {
+        int p = fit.p(), d = fit.d(), q = fit.q();
+        ws.ensure(n, Math.max(p, q), d);
+        int m = difference(v, n, d, ws);
+        double[] w = ws.w;
+        for (int t = 0; t < m; t++) w[t] -= fit.mean();
+        conditionalResiduals(w, m, fit.ar(), fit.ma(), ws.resid);
+        project(w, ws.resid, m, fit, horizon, out);
+        integrate(ws.lastLevel, d, horizon, out);
+    }
+
+    /**
+     * Differenced levels and CSS residuals of a whole series under one fit, computed once so
+     * forecasts can be made from any origin without re-running the recursion.
+     */
+    public static final class Replay {
+        private final Fit fit;
+        private final double[][] levels;
+        private final double[] centred;
+        private final double[] resid;
+
+        public Replay(double[] v, int n, Fit fit) {
+            this.fit = fit;
+            int d = fit.d();
+            levels = new double[d + 1][];
+            levels[0] = Arrays.copyOf(v, n);
+            for (int k = 1; k <= d; k++) {
+                double[] prev = levels[k - 1];
+                double[] next = new double[Math.max(0, prev.length - 1)];
+                for (int t = 0; t < next.length; t++) next[t] = prev[t + 1] - prev[t];
+                levels[k] = next;
+            }
+            double[] w = levels[d];
+            centred = new double[w.length];
+            for (int t = 0; t < w.length; t++) centred[t] = w[t] - fit.mean();
+            resid = new double[w.length];
+            // Residual t only depends on observations before t, so one pass serves every origin
+            conditionalResiduals(centred, centred.length, fit.ar(), fit.ma(), resid);
+        }
+
+        /**
+         * Forecast {@code horizon} steps as if the series ended after {@code origin} observations.
+         * {@code lastLevel} is scratch of at least {@code d} entries.
+         */
+        public void forecast(int origin, int horizon, double[] lastLevel, double[] out) {
+            int d = fit.d();
+            for (int k = 0; k < d; k++) lastLevel[k] = levels[k][origin - 1 - k];
+            project(centred, resid, origin - d, fit, horizon, out);
+            integrate(lastLevel, d, horizon, out);
+        }
+    }
+
+    /**
+     * ARMA recursion on the centred differenced series {@code w[0..m)} with future
+     * innovations at zero; adds the mean back.
+     */
+    private static void project(double[] w, double[] e, int m, Fit fit, int horizon, double[] out) {
+        int p = fit.p(), q = fit.q();
+        for (int h = 0; h < horizon; h++) {
+            double value = 0.0;
+            for (int i = 1; i <= p; i++) {
+                int idx = m + h - i;
+                value += fit.ar()[i - 1] * (idx >= m ? out[idx - m] : (idx >= 0 ? w[idx] : 0.0));
+            }
+            for (int j = h + 1; j <= q; j++) {
+                int idx = m + h - j;
+                if (idx >= 0) value += fit.ma()[j - 1] * e[idx];
+            }
+            out[h] = value;
+        }
+        for (int h = 0; h < horizon; h++) out[h] += fit.mean();
+    }
+
+    /**
+     * Undoes {@code d} differences, innermost level first, starting from the last observed
+     * value of each level.
+     */
+    private static void integrate(double[] lastLevel, int d, int horizon, double[] out) {
+        for (int level = d - 1; level >= 0; level--) {
+            double running = lastLevel[level];
+            for (int h = 0; h < horizon; h++) {
+                running += out[h];
+                out[h] = running;
+            }
+        }
+    }
+
+    /**
+     * MA(infinity) weights of the fitted model including integration, so the h-step forecast
+     * error variance is {@code sigma2 * sum(psi[0..h)^2)}.
+     */
+    public static double[] psiWeights(Fit fit, int horizon) {
+        double[] psi = new double[horizon];
+        if (horizon == 0) return psi;
+        psi[0] = 1.0;
+        for (int j = 1; j < horizon; j++) {
+            double value = j <= fit.q() ? fit.ma()[j - 1] : 0.0;
+            for (int i = 1; i <= Math.min(j, fit.p()); i++) value += fit.ar()[i - 1] * psi[j - i];
+            psi[j] = value;
+        }
+        for (int level = 0; level < fit.d(); level++) {
+            for (int j = 1; j < horizon; j++) psi[j] += psi[j - 1];
+        }
+        return psi;
+    }
+
+    /**
+     * Number of differences (up to {@code maxD}) needed before the KPSS test no longer rejects
+     * level stationarity at 5%, as in the usual auto-ARIMA order selection.
+     */
+    public static int differencingOrder(double[] v, int n, int maxD, Workspace ws) {
+        ws.ensure(n, 0, maxD);
+        for (int d = 0; d < maxD; d++) {
+            int m = difference(v, n, d, ws);
+            if (m < 10 || kpss(ws.w, m) <= KPSS_CRITICAL_5PCT) {
+                return d;
+            }
+        }
+        return maxD;
+    }
+
+    static double kpss(double[] y, int n) {
+        double mean = 0.0;
+        for (int t = 0; t < n; t++) mean += y[t];
+        mean /= n;
+        double partial = 0.0, sumSq = 0.0, gamma0 = 0.0;
+        for (int t = 0; t < n; t++) {
+            double e = y[t] - mean;
+            partial += e;
+            sumSq += partial * partial;
+            gamma0 += e * e;
+        }
+        int lags = (int) Math.floor(4.0 * Math.pow(n / 100.0, 0.25));
+        double longRun = gamma0 / n;
+        for (int s = 1; s <= lags; s++) {
+            double gamma = 0.0;
+            for (int t = s; t < n; t++) gamma += (y[t] - mean) * (y[t - s] - mean);
+            longRun += 2.0 * (1.0 - s / (lags + 1.0)) * gamma / n;
+        }
+        if (longRun <= 1e-12) {
+            return 0.0; // constant series is trivially stationary
+        }
+        return sumSq / ((double) n * n * longRun);
+    }
+
+    /**
+     * Copies {@code v[0..n)} into {@code ws.w}, differences it {@code d} times in place and
+     * records the last value of each level for integration. Returns the differenced length.
+     */
+    private static int difference(double[] v, int n, int d, Workspace ws) {
+        double[] w = ws.w;
+        System.arraycopy(v, 0, w, 0, n);
+        int m = n;
+        for (int level = 0; level < d && m > 0; level++) {
+            ws.lastLevel[level] = w[m - 1];
+            for (int t = 0; t < m - 1; t++) w[t] = w[t + 1] - w[t];
+            m--;
+        }
+        return Math.max(m, 0);
+    }
+
+    /**
+     * Stage one: fits a long AR(k) by Levinson-Durbin and stores its residuals in
+     * {@code ws.resid} (zero for the first {@code k} points). Returns {@code k}.
+     */
+    private static int longArInnovations(double[] w, int m, int p, int q, Workspace ws) {
+        int k = Math.min(MAX_LONG_AR, Math.max(p + q + 2, (int) Math.ceil(Math.log(m) * 2)));
+        k = Math.min(k, m / 4);
+        double[] acov = ws.acov;
+        for (int lag = 0; lag <= k; lag++) {
+            double s = 0.0;
+            for (int t = lag; t < m; t++) s += w[t] * w[t - lag];
+            acov[lag] = s / m;
+        }
+        double[] phi = ws.phi, prev = ws.phiPrev;
+        double err = acov[0];
+        for (int j = 1; j <= k; j++) {
+            double num = acov[j];
+            for (int i = 1; i < j; i++) num -= prev[i] * acov[j - i];
+            double reflection = err > 1e-12 ? num / err : 0.0;
+            phi[j] = reflection;
+            for (int i = 1; i < j; i++) phi[i] = prev[i] - reflection * prev[j - i];
+            err *= (1.0 - reflection * reflection);
+            System.arraycopy(phi, 1, prev, 1, j);
+        }
+        double[] e = ws.resid;
+        for (int t = 0; t < m; t++) {
+            if (t < k) {
+                e[t] = 0.0;
+                continue;
+            }
+            double fitted = 0.0;
+            for (int i = 1; i <= k; i++) fitted += phi[i] * w[t - i];
+            e[t] = w[t] - fitted;
+        }
+        return k;
+    }
+
+    /**
+     * Stage two: OLS of w_t on its {@code p} lags and {@code q} lagged innovations.
+     * Coefficients are left in {@code ws.beta}; returns false if the system is singular.
+     */
+    private static boolean regress(double[] w, int m, int p, int q, int k, Workspace ws) {
+        int r = p + q;
+        double[] xtx = ws.xtx, xty = ws.xty, e = ws.resid;
+        for (int i = 0; i < r * r; i++) xtx[i] = 0.0;
+        for (int i = 0; i < r; i++) xty[i] = 0.0;
+        int start = Math.max(p, k + q);
+        if (m - start <= r) {
+            return false;
+        }
+        for (int t = start; t < m; t++) {
+            for (int a = 0; a < r; a++) {
+                double xa = a < p ? w[t - 1 - a] : e[t - 1 - (a - p)];
+                xty[a] += xa * w[t];
+                for (int b = 0; b <= a; b++) {
+                    double xb = b < p ? w[t - 1 - b] : e[t - 1 - (b - p)];
+                    xtx[a * r + b] += xa * xb;
+                }
+            }
+        }
+        double ridge = 0.0;
+        for (int a = 0; a < r; a++) {
+            ridge += xtx[a * r + a];
+            for (int b = 0; b < a; b++) xtx[b * r + a] = xtx[a * r + b];
+        }
+        ridge = 1e-10 * ridge / Math.max(r, 1);
+        for (int a = 0; a < r; a++) xtx[a * r + a] += ridge;
+        return solve(xtx, xty, ws.beta, r);
+    }
+
+    /**
+     * Residuals of the ARMA recursion with pre-sample values taken as zero.
+     * Returns the sum of squares over t >= p.
+     */
+    private static double conditionalResiduals(double[] w, int m, double[] ar, double[] ma, double[] e) {
+        int p = ar.length, q = ma.length;
+        double sse = 0.0;
+        for (int t = 0; t < m; t++) {
+            if (t < p) {
+                e[t] = 0.0;
+                continue;
+            }
+            double fitted = 0.0;
+            for (int i = 1; i <= p; i++) fitted += ar[i - 1] * w[t - i];
+            for (int j = 1; j <= q && t - j >= 0; j++) fitted += ma[j - 1] * e[t - j];
+            e[t] = w[t] - fitted;
+            sse += e[t] * e[t];
+        }
+        return sse;
+    }
+
+    /**
+     * Gaussian elimination with partial pivoting on the row-major {@code r x r} matrix
+     * {@code a}; both {@code a} and {@code b} are overwritten.
+     */
+    private static boolean solve(double[] a, double[] b, double[] x, int r) {
+        for (int col = 0; col < r; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < r; row++) {
+                if (Math.abs(a[row * r + col]) > Math.abs(a[pivot * r + col])) pivot = row;
+            }
+            if (Math.abs(a[pivot * r + col]) < 1e-14) {
+                return false;
+            }
+            if (pivot != col) {
+                for (int j = 0; j < r; j++) {
+                    double tmp = a[col * r + j];
+                    a[col * r + j] = a[pivot * r + j];
+                    a[pivot * r + j] = tmp;
+                }
+                double tmp = b[col];
+                b[col] = b[pivot];
+                b[pivot] = tmp;
+            }
+            for (int row = col + 1; row < r; row++) {
+                double factor = a[row * r + col] / a[col * r + col];
+                if (factor == 0.0) continue;
+                for (int j = col; j < r; j++) a[row * r + j] -= factor * a[col * r + j];
+                b[row] -= factor * b[col];
+            }
+        }
+        for (int row = r - 1; row >= 0; row--) {
+            double s = b[row];
+            for (int j = row + 1; j < r; j++) s -= a[row * r + j] * x[j];
+            x[row] = s / a[row * r + row];
+        }
+        for (int i = 0; i < r; i++) {
+            if (!Double.isFinite(x[i])) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,242 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastConfig.AlgorithmType;
+import com.financeapp.entity.ForecastPerformance;
+import com.financeapp.entity.User;
+import com.financeapp.repository.ForecastPerformanceRepository;
+import com.financeapp.service.event.FinancialDataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Resolves {@link AlgorithmType#AUTO} to a concrete, fitted model per user and horizon.
+ * <p>
+ * Every other algorithm is raced on the last {@code holdoutDays} of the user's history using
+ * rolling-origin backtests, scored by successive halving on the compute pool: all survivors
+ * are scored on a slice of origins, the worse half (by MAE) is dropped, and the next slice is
+ * twice as long, so only the leaders see every origin. The first round screens ARIMA and
+ * Holt-Winters with the engines' cheap fits; only those that survive it pay for the full order
+ * search or Nelder-Mead restarts, and are rescored from the first origin with it.
+ * <p>
+ * The winner is refitted on the full series and stored in {@code forecast_performance} with
+ * its parameters, the hints the candidates were built from and a {@code valid_until}. Later
+ * AUTO requests with the same horizon and hints reuse it without racing until it expires or
+ * the user's financial data changes.
+ */
+@Component
+public class AutoModelSelector {
+
+    private static final Logger log = LoggerFactory.getLogger(AutoModelSelector.class);
+
+    /** The first slice of origins is this fraction of the holdout. */
+    private static final int FIRST_SLICE_DIVISOR = 8;
+
+    private final ForkJoinPool pool;
+    private final RollingOriginBacktester backtester;
+    private final ModelFitter fitter;
+    private final ForecastPerformanceRepository performanceRepository;
+    private final int holdoutDays;
+    private final Duration validity;
+
+    public AutoModelSelector(@Qualifier("forecastComputePool") ForkJoinPool pool,
+                             RollingOriginBacktester backtester,
+                             ModelFitter fitter,
+                             ForecastPerformanceRepository performanceRepository,
+                             @Value("${app.forecast.auto.holdout-days:28}") int holdoutDays,
+                             @Value("${app.forecast.auto.validity:24h}") Duration validity) {
+        this.pool = pool;
+        this.backtester = backtester;
+        this.fitter = fitter;
+        this.performanceRepository = performanceRepository;
+        this.holdoutDays = holdoutDays;
+        this.validity = validity;
+    }
+
+    /**
+     * Outcome of a race: the winning candidate's config and its full backtest.
+     */
+    public record RaceResult(ForecastConfig winner, BacktestReport report, int candidates) {}
+
+    /**
+     * Stored selection if one is still valid, otherwise races the candidates and stores the
+     * winner. Must run inside the caller's transaction so the selection row is written with it.
+     */
+    public ModelSpec select(User user, ForecastConfig autoConfig, DailySeries series, int horizon) {
+        return select(user, autoConfig, () -> series, horizon);
+    }
+
+    /**
+     * Same, loading the series only when there is no stored selection to reuse.
+     */
+    public ModelSpec select(User user, ForecastConfig autoConfig, Supplier<DailySeries> seriesLoader, int horizon) {
+        OffsetDateTime now = OffsetDateTime.now();
+        String hints = selectionHints(autoConfig);
+        var stored = performanceRepository
+                .findFirstByUserIdAndHorizonDaysAndSelectionHintsAndAlgorithmIsNotNullAndValidUntilAfterOrderByIdDesc(
+                        user.getId(), horizon, hints, now);
+        if (stored.isPresent()) {
+            return ModelSpec.decode(stored.get().getAlgorithm(), stored.get().getModelParams());
+        }
+
+        DailySeries series = seriesLoader.get();
+        RaceResult race = race(series, autoConfig, horizon);
+        if (race == null) {
+            // Not enough history to score anyone; don't remember a choice made blind
+            return ModelSpec.linearRegression();
+        }
+        ModelSpec spec = fitter.fit(series, race.winner());
+        BacktestReport report = race.report();
+        log.debug("AUTO forecast for user {} (horizon {}): {} won among {} candidates, MAE {}",
+                user.getId(), horizon, spec.algorithm(), race.candidates(), report.overall().mae());
+
+        ForecastPerformance selection = new ForecastPerformance();
+        selection.setConfig(autoConfig);
+        selection.setUser(user);
+        selection.setHorizonDays(horizon);
+        selection.setLookbackDays(series.size() - report.firstOrigin());
+        selection.setOrigins(report.origins());
+        selection.setMape(finiteOrNull(report.overall().mape()));
+        selection.setSmape(finiteOrNull(report.overall().smape()));
+        selection.setMae(finiteOrNull(report.overall().mae()));
+        selection.setRmse(finiteOrNull(report.overall().rmse()));
+        selection.setBias(finiteOrNull(report.overall().bias()));
+        selection.setAlgorithm(spec.algorithm());
+        selection.setModelParams(spec.encodeParams());
+        selection.setSelectionHints(hints);
+        selection.setValidUntil(now.plus(validity));
+        performanceRepository.save(selection);
+        return spec;
+    }
+
+    /**
+     * Races every concrete algorithm over the configured holdout.
+     */
+    public RaceResult race(DailySeries series, ForecastConfig autoConfig, int horizon) {
+        return race(series, autoConfig, horizon, holdoutDays);
+    }
+
+    /**
+     * Races every concrete algorithm over the same origins, the last {@code evaluationDays} of
+     * the series. Null when the series is too short to leave any origin after the most
+     * demanding candidate's training minimum.
+     */
+    public RaceResult race(DailySeries series, ForecastConfig autoConfig, int horizon, int evaluationDays) {
+        List<ForecastConfig> candidates = candidates(series, autoConfig);
+        int n = series.size();
+        int firstOrigin = n - evaluationDays;
+        for (ForecastConfig candidate : candidates) {
+            firstOrigin = Math.max(firstOrigin, RollingOriginBacktester.minimumTrain(candidate));
+        }
+        if (horizon <= 0 || firstOrigin >= n) {
+            return null;
+        }
+        int scored = n - firstOrigin;
+
+        List<RollingOriginBacktester.Evaluation> survivors = new ArrayList<>(pool.submit(() -> candidates.parallelStream()
+                .map(candidate -> backtester.startScreening(series, candidate, horizon, scored))
+                .filter(Objects::nonNull)
+                .toList()).join());
+
+        int slice = Math.max(1, scored / FIRST_SLICE_DIVISOR);
+        int boundary = firstOrigin + slice;
+        boolean screening = true;
+        while (true) {
+            int until = boundary;
+            boolean refit = !screening;
+            List<RollingOriginBacktester.Evaluation> round = survivors;
+            survivors = new ArrayList<>(pool.submit(() -> round.parallelStream()
+                    .map(evaluation -> {
+                        RollingOriginBacktester.Evaluation scoredEvaluation =
+                                refit ? fullFit(evaluation, series, horizon, scored) : evaluation;
+                        scoredEvaluation.advance(until);
+                        return scoredEvaluation;
+                    })
+                    .toList()).join());
+            survivors.sort(BY_MAE);
+            if (boundary >= n || survivors.size() == 1) {
+                break;
+            }
+            survivors = new ArrayList<>(survivors.subList(0, (survivors.size() + 1) / 2));
+            slice *= 2;
+            boundary = Math.min(n, boundary + slice);
+            screening = false;
+        }
+        RollingOriginBacktester.Evaluation winner = fullFit(survivors.get(0), series, horizon, scored);
+        return new RaceResult(winner.config(), winner.report(), candidates.size());
+    }
+
+    /**
+     * The evaluation itself, or a fresh one with the full fit if it was only screened.
+     */
+    private RollingOriginBacktester.Evaluation fullFit(RollingOriginBacktester.Evaluation evaluation,
+                                                       DailySeries series, int horizon, int scored) {
+        return evaluation.isScreening() ? backtester.start(series, evaluation.config(), horizon, scored) : evaluation;
+    }
+
+    private static final Comparator<RollingOriginBacktester.Evaluation> BY_MAE = Comparator.comparingDouble(evaluation -> {
+        double mae = evaluation.overall().mae();
+        return Double.isNaN(mae) ? Double.POSITIVE_INFINITY : mae;
+    });
+
+    /**
+     * One config per concrete algorithm, taking window, alpha and season hints from the AUTO
+     * config. Multiplicative Holt-Winters only runs on strictly positive series, where it
+     * differs from the additive form.
+     */
+    private static List<ForecastConfig> candidates(DailySeries series, ForecastConfig autoConfig) {
+        List<ForecastConfig> candidates = new ArrayList<>();
+        for (AlgorithmType algorithm : AlgorithmType.values()) {
+            if (algorithm == AlgorithmType.AUTO
+                    || (algorithm == AlgorithmType.HOLT_WINTERS_MULTIPLICATIVE && !HoltWinters.allPositive(series.values(), series.size()))) {
+                continue;
+            }
+            ForecastConfig candidate = new ForecastConfig();
+            candidate.setAlgorithm(algorithm);
+            candidate.setWindowSize(autoConfig.getWindowSize());
+            candidate.setSmoothingFactor(autoConfig.getSmoothingFactor());
+            candidate.setSeasonLength(autoConfig.getSeasonLength());
+            candidates.add(candidate);
+        }
+        return candidates;
+    }
+
+    /**
+     * The hints {@link #candidates} takes from an AUTO config, with the same defaults the
+     * candidates fall back to, so configs that race identical candidates share a selection.
+     */
+    public static String selectionHints(ForecastConfig autoConfig) {
+        return "window=" + (autoConfig.getWindowSize() != null ? autoConfig.getWindowSize() : 7)
+                + ",season=" + (autoConfig.getSeasonLength() != null ? autoConfig.getSeasonLength() : 7)
+                + ",alpha=" + (autoConfig.getSmoothingFactor() != null ? autoConfig.getSmoothingFactor() : 0.3d);
+    }
+
+    /**
+     * New data makes stored selections stale; expire them once the change commits.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onFinancialDataChanged(FinancialDataChangedEvent event) {
+        performanceRepository.expireSelections(event.userId(), OffsetDateTime.now());
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+}
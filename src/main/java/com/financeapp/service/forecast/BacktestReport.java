@@ -0,0 +1,61 @@
+package com.financeapp.service.forecast;
+
+/**
+ * Rolling-origin evaluation of one forecast config.
+ * <p>
+ * {@code byHorizon[h]} aggregates the errors of every origin's {@code h + 1}-step-ahead
+ * forecast; {@code byOrigin[i]} aggregates all steps forecast from the {@code i}-th origin.
+ * {@code finalForecast} is the forecast from the full series, i.e. past its last day, made
+ * with the parameters the backtest used: for ARIMA and Holt-Winters those were estimated
+ * before the first origin, so callers publishing a forecast refit those models first.
+ */
+public record BacktestReport(int firstOrigin, int horizon, Metrics overall, Metrics[] byHorizon,
+                             Metrics[] byOrigin, double[] finalForecast) {
+
+    public int origins() {
+        return byOrigin.length;
+    }
+
+    /**
+     * Error summary. MAPE skips days whose actual is zero (common in gap-filled daily series)
+     * and is NaN when there are none; sMAPE counts a day where both values are zero as exact.
+     */
+    public record Metrics(double mape, double smape, double mae, double rmse, double bias, int count) {
+    }
+
+    /**
+     * Running sums for {@link Metrics}; add one (actual, forecast) pair at a time.
+     */
+    static final class Accumulator {
+        private double absPct;
+        private int pctCount;
+        private double smape;
+        private double abs;
+        private double sq;
+        private double signed;
+        private int count;
+
+        void add(double actual, double forecast) {
+            double error = forecast - actual;
+            double absError = Math.abs(error);
+            if (actual != 0.0) {
+                absPct += absError / Math.abs(actual);
+                pctCount++;
+            }
+            double denom = Math.abs(actual) + Math.abs(forecast);
+            if (denom > 0.0) smape += 2.0 * absError / denom;
+            abs += absError;
+            sq += error * error;
+            signed += error;
+            count++;
+        }
+
+        Metrics toMetrics() {
+            if (count == 0) {
+                return new Metrics(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, 0);
+            }
+            return new Metrics(pctCount > 0 ? 100.0 * absPct / pctCount : Double.NaN,
+                    100.0 * smape / count, abs / count, Math.sqrt(sq / count), signed / count, count);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.financeapp.service.forecast;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Dense daily time series backed by a primitive array.
+ * Index {@code i} holds the total for {@code start.plusDays(i)}; days without
+ * transactions are filled with zero so positions map directly to calendar days.
+ *
+ * The backing array is shared, not copied: {@link #values()} and {@link #head(int)}
+ * are views and callers must treat the data as read-only.
+ */
+public final class DailySeries {
+
+    private static final DailySeries EMPTY = new DailySeries(null, new double[0], 0);
+
+    private final LocalDate start;
+    private final double[] values;
+    private final int length;
+
+    private DailySeries(LocalDate start, double[] values, int length) {
+        this.start = start;
+        this.values = values;
+        this.length = length;
+    }
+
+    public static DailySeries empty() {
+        return EMPTY;
+    }
+
+    public static DailySeries of(LocalDate start, double[] values) {
+        return new DailySeries(start, values, values.length);
+    }
+
+    /**
+     * Build a series from {@code FinancialDataRepository.getDailyTotals} rows
+     * ([LocalDate, BigDecimal], ordered by date). The series spans the first to the
+     * last observed day; missing days in between are zero.
+     */
+    public static DailySeries fromDailyTotals(List<Object[]> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return EMPTY;
+        }
+        return fromDailyTotals(rows, (LocalDate) rows.get(rows.size() - 1)[0]);
+    }
+
+    /**
+     * Same as {@link #fromDailyTotals(List)}, but the series runs on to {@code end} (the day
+     * before the forecast origin), so quiet trailing days count as zero instead of being
+     * dropped. Still empty when there are no rows at all.
+     */
+    public static DailySeries fromDailyTotals(List<Object[]> rows, LocalDate end) {
+        if (rows == null || rows.isEmpty()) {
+            return EMPTY;
+        }
+        LocalDate first = (LocalDate) rows.get(0)[0];
+        LocalDate last = (LocalDate) rows.get(rows.size() - 1)[0];
+        if (end.isAfter(last)) {
+            last = end;
+        }
+        double[] values = new double[(int) ChronoUnit.DAYS.between(first, last) + 1];
+        for (Object[] row : rows) {
+            int idx = (int) ChronoUnit.DAYS.between(first, (LocalDate) row[0]);
+            values[idx] += ((BigDecimal) row[1]).doubleValue();
+        }
+        return new DailySeries(first, values, values.length);
+    }
+
+    /**
+     * Unboxes a list once; used by the List-based adapters on ForecastService.
+     */
+    public static double[] toArray(List<Double> values) {
+        double[] out = new double[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values.get(i);
+        }
+        return out;
+    }
+
+    public LocalDate start() { return start; }
+
+    /** Backing array; only the first {@link #size()} entries belong to this series. */
+    public double[] values() { return values; }
+
+    public int size() { return length; }
+
+    public boolean isEmpty() { return length == 0; }
+
+    public double get(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+        }
+        return values[i];
+    }
+
+    public double last() { return get(length - 1); }
+
+    public LocalDate dateAt(int i) { return start.plusDays(i); }
+
+    /** First {@code n} days of this series, sharing the same backing array. */
+    public DailySeries head(int n) {
+        if (n < 0 || n > length) {
+            throw new IndexOutOfBoundsException("Head " + n + " out of bounds for length " + length);
+        }
+        return new DailySeries(start, values, n);
+    }
+
+    /** Trimmed copy of the values, for callers that need an exact-length array. */
+    public double[] toArray() {
+        double[] out = new double[length];
+        System.arraycopy(values, 0, out, 0, length);
+        return out;
+    }
+}
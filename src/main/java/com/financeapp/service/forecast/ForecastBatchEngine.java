@@ -0,0 +1,63 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Fits several forecast configs against one shared daily series, or one config against
+ * several series, in parallel.
+ * <p>
+ * The series are loaded once by the caller and only read here, so every task works on the
+ * same backing arrays without copying. Each task writes its own slot of the output, which
+ * keeps results in config order without any shared mutable collection.
+ */
+@Component
+public class ForecastBatchEngine {
+
+    private final ForkJoinPool pool;
+
+    public ForecastBatchEngine(@Qualifier("forecastComputePool") ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Computes one forecast per config; {@code out[i]} belongs to {@code configs.get(i)}.
+     */
+    public IntervalForecast[] forecastAll(DailySeries series, List<ForecastConfig> configs, int horizon, ForecastModel model) {
+        IntervalForecast[] out = new IntervalForecast[configs.size()];
+        if (configs.size() == 1) {
+            out[0] = model.forecast(series, configs.get(0), horizon);
+            return out;
+        }
+        pool.submit(() -> IntStream.range(0, configs.size()).parallel()
+                        .forEach(i -> out[i] = model.forecast(series, configs.get(i), horizon)))
+                .join();
+        return out;
+    }
+
+    /**
+     * Computes one forecast per series with the same config; {@code out[i]} belongs to
+     * {@code series.get(i)}.
+     */
+    public IntervalForecast[] forecastEach(List<DailySeries> series, ForecastConfig config, int horizon, ForecastModel model) {
+        IntervalForecast[] out = new IntervalForecast[series.size()];
+        if (series.size() == 1) {
+            out[0] = model.forecast(series.get(0), config, horizon);
+            return out;
+        }
+        pool.submit(() -> IntStream.range(0, series.size()).parallel()
+                        .forEach(i -> out[i] = model.forecast(series.get(i), config, horizon)))
+                .join();
+        return out;
+    }
+
+    @FunctionalInterface
+    public interface ForecastModel {
+        IntervalForecast forecast(DailySeries series, ForecastConfig config, int horizon);
+    }
+}
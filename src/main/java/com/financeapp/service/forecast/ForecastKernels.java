@@ -0,0 +1,254 @@
+package com.financeapp.service.forecast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Allocation-free forecasting kernels over the first {@code n} entries of a primitive array.
+ * Every method writes into a caller-supplied output buffer so hot paths (nightly sweep,
+ * backtests) can reuse scratch arrays; ForecastServiceImpl wraps them with the public API.
+ * <p>
+ * The regression, seasonal and anomaly reductions have SIMD versions ({@link SimdKernels})
+ * built only by the {@code vector} Maven profile, since they need the incubating Vector API.
+ * The moving average stays scalar: its running total is one serial chain, and vectorising
+ * only the per-step changes measured slower than the single scalar pass on long series. They are opt-in, chosen once when this class loads: build with
+ * {@code -Pvector} and start the JVM with {@code --add-modules jdk.incubator.vector
+ * -Dforecast.kernels=vector}. Otherwise the scalar loops below are used.
+ */
+public final class ForecastKernels {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastKernels.class);
+
+    /** Compiled from src/vector/java by the {@code vector} profile only. */
+    private static final String VECTOR_KERNELS = "com.financeapp.service.forecast.VectorKernels";
+
+    private static final SimdKernels SIMD = loadSimd();
+
+    static final boolean VECTORIZED = SIMD != null;
+
+    private ForecastKernels() {}
+
+    private static SimdKernels loadSimd() {
+        if (!"vector".equalsIgnoreCase(System.getProperty("forecast.kernels", "scalar"))) {
+            return null;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.warn("forecast.kernels=vector needs --add-modules jdk.incubator.vector; using scalar kernels");
+            return null;
+        }
+        SimdKernels simd;
+        try {
+            simd = (SimdKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            log.warn("forecast.kernels=vector needs a build with the vector profile; using scalar kernels");
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Vector forecast kernels failed to load ({}); using scalar kernels", e.toString());
+            return null;
+        }
+        log.info("Using vector forecast kernels, {} doubles per vector", simd.lanes());
+        return simd;
+    }
+
+    /** "vector" or "scalar", whichever this JVM selected. */
+    public static String implementation() {
+        return VECTORIZED ? "vector" : "scalar";
+    }
+
+    public static int smaLength(int n, int window) {
+        return n - window + 1;
+    }
+
+    /**
+     * Trailing moving average; {@code out} must hold {@link #smaLength(int, int)} values.
+     */
+    public static void simpleMovingAverage(double[] v, int n, int window, double[] out) {
+        if (window <= 0 || n < window) {
+            throw new IllegalArgumentException("Invalid window size for SMA");
+        }
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += v[i];
+            if (i >= window) sum -= v[i - window];
+            if (i >= window - 1) out[i - window + 1] = sum / window;
+        }
+    }
+
+    public static void exponentialWeightedMovingAverage(double[] v, int n, double alpha, double[] out) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("Alpha must be in (0,1)");
+        }
+        out[0] = v[0];
+        for (int i = 1; i < n; i++) {
+            out[i] = alpha * v[i] + (1 - alpha) * out[i - 1];
+        }
+    }
+
+    /**
+     * Last EWMA level without materialising the smoothed series.
+     */
+    public static double ewmaLevel(double[] v, int n, double alpha) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("Alpha must be in (0,1)");
+        }
+        double level = v[0];
+        for (int i = 1; i < n; i++) {
+            level = alpha * v[i] + (1 - alpha) * level;
+        }
+        return level;
+    }
+
+    /**
+     * Mean of the last {@code window} values, i.e. the final SMA point.
+     */
+    public static double smaLevel(double[] v, int n, int window) {
+        if (window <= 0 || n < window) {
+            throw new IllegalArgumentException("Invalid window size for SMA");
+        }
+        double sum = 0.0;
+        for (int i = n - window; i < n; i++) sum += v[i];
+        return sum / window;
+    }
+
+    /**
+     * OLS fit on x = 1..n, projected to x = n+1..n+horizon.
+     */
+    public static void linearRegressionForecast(double[] v, int n, int horizon, double[] out) {
+        if (VECTORIZED) {
+            SIMD.linearRegressionForecast(v, n, horizon, out);
+            return;
+        }
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (int i = 0; i < n; i++) {
+            double x = i + 1;
+            double y = v[i];
+            sumX += x; sumY += y; sumXX += x * x; sumXY += x * y;
+        }
+        projectTrend(n, sumX, sumY, sumXX, sumXY, horizon, out);
+    }
+
+    /** Projects the OLS line given by the regression sums to x = n+1..n+horizon. */
+    static void projectTrend(int n, double sumX, double sumY, double sumXX, double sumXY,
+                             int horizon, double[] out) {
+        double denom = n * sumXX - sumX * sumX;
+        if (denom == 0) denom = 1e-9;
+        double slope = (n * sumXY - sumX * sumY) / denom;
+        double intercept = (sumY - slope * sumX) / n;
+        for (int i = 0; i < horizon; i++) {
+            out[i] = intercept + slope * (n + 1 + i);
+        }
+    }
+
+    /**
+     * Regression trend plus per-position seasonal mean. {@code season} is scratch of at
+     * least {@code seasonLength} entries. Callers handle the short-series fallback.
+     */
+    public static void seasonalDecomposition(double[] v, int n, int seasonLength, int horizon,
+                                             double[] season, double[] out) {
+        if (VECTORIZED) {
+            SIMD.seasonSums(v, n, seasonLength, season);
+        } else {
+            for (int i = 0; i < seasonLength; i++) season[i] = 0.0;
+            for (int i = 0; i < n; i++) {
+                season[i % seasonLength] += v[i];
+            }
+        }
+        for (int i = 0; i < seasonLength; i++) {
+            int count = (n - i + seasonLength - 1) / seasonLength;
+            season[i] = count > 0 ? season[i] / count : 0.0;
+        }
+        linearRegressionForecast(v, n, horizon, out);
+        for (int i = 0; i < horizon; i++) {
+            out[i] += season[(n + i) % seasonLength];
+        }
+    }
+
+    /**
+     * One-step-ahead errors {@code y[t] - mean(y[t-window..t-1])}, the in-sample residuals of
+     * the SMA level forecast. Returns how many were written to {@code out}.
+     */
+    public static int smaResiduals(double[] v, int n, int window, double[] out) {
+        if (window <= 0 || n <= window) return 0;
+        double sum = 0.0;
+        for (int i = 0; i < window; i++) sum += v[i];
+        int count = 0;
+        for (int t = window; t < n; t++) {
+            out[count++] = v[t] - sum / window;
+            sum += v[t] - v[t - window];
+        }
+        return count;
+    }
+
+    /**
+     * One-step-ahead errors of the EWMA level. Returns how many were written to {@code out}.
+     */
+    public static int ewmaResiduals(double[] v, int n, double alpha, double[] out) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("Alpha must be in (0,1)");
+        }
+        if (n == 0) return 0;
+        double level = v[0];
+        int count = 0;
+        for (int t = 1; t < n; t++) {
+            out[count++] = v[t] - level;
+            level = alpha * v[t] + (1 - alpha) * level;
+        }
+        return count;
+    }
+
+    /**
+     * In-sample residuals of the OLS line on x = 1..n (and of the seasonal means on top of it
+     * when {@code season} is non-null, matching {@link #seasonalDecomposition}). Returns {@code n}.
+     */
+    public static int trendResiduals(double[] v, int n, int seasonLength, double[] season, double[] out) {
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (int i = 0; i < n; i++) {
+            double x = i + 1;
+            sumX += x; sumY += v[i]; sumXX += x * x; sumXY += x * v[i];
+        }
+        double denom = n * sumXX - sumX * sumX;
+        if (denom == 0) denom = 1e-9;
+        double slope = (n * sumXY - sumX * sumY) / denom;
+        double intercept = (sumY - slope * sumX) / n;
+        if (season != null) {
+            for (int i = 0; i < seasonLength; i++) season[i] = 0.0;
+            for (int i = 0; i < n; i++) season[i % seasonLength] += v[i];
+            for (int i = 0; i < seasonLength; i++) {
+                int count = (n - i + seasonLength - 1) / seasonLength;
+                season[i] = count > 0 ? season[i] / count : 0.0;
+            }
+        }
+        for (int t = 0; t < n; t++) {
+            double fitted = intercept + slope * (t + 1);
+            if (season != null) fitted += season[t % seasonLength];
+            out[t] = v[t] - fitted;
+        }
+        return n;
+    }
+
+    /**
+     * Writes indices whose deviation from the mean exceeds {@code thresholdSigma} sample
+     * standard deviations into {@code out} and returns how many were written.
+     */
+    public static int detectAnomalies(double[] v, int n, double thresholdSigma, int[] out) {
+        if (n == 0) return 0;
+        if (VECTORIZED) return SIMD.detectAnomalies(v, n, thresholdSigma, out);
+        double mean = 0.0;
+        for (int i = 0; i < n; i++) mean += v[i];
+        mean /= n;
+        double var = 0.0;
+        for (int i = 0; i < n; i++) var += (v[i] - mean) * (v[i] - mean);
+        var /= Math.max(1, n - 1);
+        double std = Math.sqrt(var);
+        double thr = Math.max(1e-9, thresholdSigma) * (std <= 1e-9 ? 1.0 : std);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (Math.abs(v[i] - mean) > thr) out[count++] = i;
+        }
+        return count;
+    }
+
+    public static void fill(double[] out, int horizon, double value) {
+        for (int i = 0; i < horizon; i++) out[i] = value;
+    }
+}
@@ -0,0 +1,94 @@
+package com.financeapp.service.forecast;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Makes forecasts of a hierarchy add up: every node's reconciled forecast is the sum of its
+ * reconciled leaves.
+ * <p>
+ * Uses the MinT estimator with a diagonal error covariance (weighted least squares): with
+ * {@code S} the leaf-to-node summing matrix, {@code W} the nodes' one-step error variances and
+ * {@code y} the base forecasts, the reconciled leaves are
+ * {@code (S' W^-1 S)^-1 S' W^-1 y}. Nodes forecast with less error pull the result harder, so
+ * a noisy leaf is mostly corrected by a well-forecast total and vice versa.
+ */
+public final class ForecastReconciliation {
+
+    private ForecastReconciliation() {}
+
+    /**
+     * @param leafCount  number of leaves; leaf {@code i} must appear as a node of its own
+     * @param nodes      leaves each node sums
+     * @param base       base forecast of each node, all of the same horizon
+     * @param variances  one-step error variance of each node; NaN when unknown
+     * @return reconciled forecast of each leaf
+     */
+    public static double[][] reconcile(int leafCount, List<BitSet> nodes, double[][] base, double[] variances) {
+        int horizon = base[0].length;
+        double maxVariance = 0.0;
+        for (double v : variances) if (Double.isFinite(v)) maxVariance = Math.max(maxVariance, v);
+        double floor = 1e-9 * Math.max(1.0, maxVariance);
+
+        // Normal equations (S' W^-1 S) x = S' W^-1 y, one right-hand side per step
+        double[][] a = new double[leafCount][leafCount];
+        double[][] b = new double[leafCount][horizon];
+        for (int n = 0; n < nodes.size(); n++) {
+            double v = variances[n];
+            // Unknown variance: trust the node no more than the worst known one
+            double weight = 1.0 / (!Double.isFinite(v) ? Math.max(maxVariance, floor) : Math.max(v, floor));
+            BitSet members = nodes.get(n);
+            for (int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
+                for (int j = members.nextSetBit(0); j >= 0; j = members.nextSetBit(j + 1)) {
+                    a[i][j] += weight;
+                }
+                for (int h = 0; h < horizon; h++) b[i][h] += weight * base[n][h];
+            }
+        }
+        choleskySolve(a, b);
+        return b;
+    }
+
+    /** Sum of the reconciled leaves in {@code members}. */
+    public static double[] aggregate(double[][] leaves, BitSet members) {
+        double[] out = new double[leaves[0].length];
+        for (int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
+            for (int h = 0; h < out.length; h++) out[h] += leaves[i][h];
+        }
+        return out;
+    }
+
+    /**
+     * Solves {@code a x = b} in place for a symmetric positive definite {@code a}; {@code b}
+     * is overwritten with {@code x}.
+     */
+    static void choleskySolve(double[][] a, double[][] b) {
+        int k = a.length;
+        for (int j = 0; j < k; j++) {
+            double d = a[j][j];
+            for (int p = 0; p < j; p++) d -= a[j][p] * a[j][p];
+            if (!(d > 0.0)) {
+                throw new IllegalStateException("Reconciliation matrix is not positive definite");
+            }
+            a[j][j] = Math.sqrt(d);
+            for (int i = j + 1; i < k; i++) {
+                double s = a[i][j];
+                for (int p = 0; p < j; p++) s -= a[i][p] * a[j][p];
+                a[i][j] = s / a[j][j];
+            }
+        }
+        int horizon = k == 0 ? 0 : b[0].length;
+        for (int h = 0; h < horizon; h++) {
+            for (int i = 0; i < k; i++) {
+                double s = b[i][h];
+                for (int p = 0; p < i; p++) s -= a[i][p] * b[p][h];
+                b[i][h] = s / a[i][i];
+            }
+            for (int i = k - 1; i >= 0; i--) {
+                double s = b[i][h];
+                for (int p = i + 1; p < k; p++) s -= a[p][i] * b[p][h];
+                b[i][h] = s / a[i][i];
+            }
+        }
+    }
+}
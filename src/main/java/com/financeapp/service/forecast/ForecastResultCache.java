@@ -0,0 +1,101 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.config.AsyncCacheConfig;
+import com.financeapp.config.CacheRefreshRegistry;
+import com.financeapp.config.UserScopedKeyGenerator.UserScopedKey;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for forecast computations, backed by the bounded "forecasts" Caffeine cache.
+ * <p>
+ * Only successfully completed values are kept: a computation that fails is dropped so the
+ * next caller retries. Concurrent requests for the same key share one in-flight computation,
+ * which runs on the forecast executor. Because the service calls this directly rather than
+ * through a proxy annotation, internal fan-out (batch generation) hits the cache as well.
+ */
+@Component
+public class ForecastResultCache {
+
+    private final AsyncCache<Object, Object> cache;
+    private final Executor executor;
+    private final Map<String, Function<UserScopedKey, Object>> reloaders = new ConcurrentHashMap<>();
+
+    public ForecastResultCache(CacheManager cacheManager,
+                               CacheRefreshRegistry refreshRegistry,
+                               @Qualifier("taskExecutor") Executor executor) {
+        CaffeineCache caffeineCache = (CaffeineCache) cacheManager.getCache(AsyncCacheConfig.FORECASTS_CACHE);
+        this.cache = caffeineCache.getAsyncCache();
+        this.executor = executor;
+        refreshRegistry.register(AsyncCacheConfig.FORECASTS_CACHE, this::reload);
+    }
+
+    /**
+     * Returns the cached value for {@code key}, or runs {@code loader} once on the forecast
+     * executor and shares its result with every concurrent caller for the same key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(UserScopedKey key, Supplier<T> loader) {
+        CompletableFuture<Object> future = cache.get(key, (k, ignored) -> CompletableFuture.supplyAsync(loader, executor));
+        if (future.isCompletedExceptionally()) {
+            // Caffeine drops failed futures asynchronously; don't hand a stale failure to a new caller
+            cache.asMap().remove(key, future);
+            future = cache.get(key, (k, ignored) -> CompletableFuture.supplyAsync(loader, executor));
+        }
+        return (CompletableFuture<T>) future;
+    }
+
+    /**
+     * Bulk variant of {@link #get}: keys already cached or in flight are shared, and all
+     * remaining keys are handed to {@code loader} together in a single call. Keys the loader
+     * leaves out of its result are absent from the returned map and are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<Map<UserScopedKey, T>> getAll(Collection<UserScopedKey> keys,
+                                                              Function<Set<UserScopedKey>, Map<UserScopedKey, T>> loader) {
+        CompletableFuture<Map<Object, Object>> future = cache.getAll(keys, (missing, ignored) ->
+                CompletableFuture.supplyAsync(() -> (Map<Object, Object>) (Map<?, ?>) loader.apply((Set<UserScopedKey>) missing), executor));
+        return future.thenApply(found -> (Map<UserScopedKey, T>) (Map<?, ?>) found);
+    }
+
+    /**
+     * Stores an already computed value, e.g. to alias a result under a second key.
+     */
+    public void put(UserScopedKey key, Object value) {
+        cache.put(key, CompletableFuture.completedFuture(value));
+    }
+
+    /**
+     * Recomputes entries of the given method when the cache refreshes them.
+     * Keys without a reloader are dropped on refresh and recomputed on next access.
+     */
+    public void registerReloader(String method, Function<UserScopedKey, Object> reloader) {
+        reloaders.put(method, reloader);
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    private CompletableFuture<Object> reload(Object key, Executor ignored) {
+        if (key instanceof UserScopedKey userKey) {
+            Function<UserScopedKey, Object> reloader = reloaders.get(userKey.method());
+            if (reloader != null) {
+                return CompletableFuture.supplyAsync(() -> reloader.apply(userKey), executor);
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,153 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastState;
+import com.financeapp.entity.User;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastStateRepository;
+import com.financeapp.service.rollup.DailyTotalsListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps one {@link OnlineForecastState} per saved closed-form config in {@code forecast_states}.
+ * <p>
+ * Financial data writes reach it through the daily totals rollup: the days the rollup
+ * recomputes are read back once and applied, each in O(1), to the user's states whose window
+ * holds them, all inside the writing transaction. Only those states are locked; a write past
+ * a state's window (the usual case, today's transactions) leaves it alone until a forecast
+ * moves the window on. Forecasts fetch their state with {@link #stateFor}, which only reads
+ * the days the window gained since the state was last advanced. A state is rebuilt from the
+ * rollup when it is missing, was kept for other model parameters or another lookback, or the
+ * whole rollup was rebuilt. Configs that were never saved by their caller get no state.
+ */
+@Component
+public class ForecastStateMaintainer implements DailyTotalsListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastStateMaintainer.class);
+
+    private final ForecastStateRepository stateRepository;
+    private final FinancialDataRepository financialDataRepository;
+
+    public ForecastStateMaintainer(ForecastStateRepository stateRepository,
+                                   FinancialDataRepository financialDataRepository) {
+        this.stateRepository = stateRepository;
+        this.financialDataRepository = financialDataRepository;
+    }
+
+    @Override
+    public void daysRefreshed(Long userId, Set<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        List<ForecastState> states = stateRepository.findCovering(userId, Collections.min(days), Collections.max(days));
+        if (states.isEmpty()) {
+            return;
+        }
+        Map<LocalDate, BigDecimal> totals = new HashMap<>();
+        for (Object[] row : financialDataRepository.getDailyTotalsOn(userId, days)) {
+            totals.put((LocalDate) row[0], (BigDecimal) row[1]);
+        }
+        for (ForecastState stored : states) {
+            OnlineForecastState state = restore(stored);
+            if (state == null) {
+                // Unreadable; the next forecast rebuilds it
+                stateRepository.delete(stored);
+                continue;
+            }
+            for (LocalDate day : days) {
+                BigDecimal total = totals.get(day);
+                state.set(day, total != null ? total.doubleValue() : 0.0, total != null);
+            }
+            write(stored, state);
+        }
+    }
+
+    @Override
+    public void rebuilt(Long userId) {
+        int dropped = userId != null ? stateRepository.deleteByUser(userId) : clearAll();
+        log.debug("Dropped {} forecast states after a daily totals rebuild", dropped);
+    }
+
+    /**
+     * State of {@code config} over the window ending at {@code windowEnd}, advanced and saved if
+     * the stored one ends earlier. A window earlier than the stored one is rebuilt without
+     * being saved, so a one-off historical request does not set the state back. Only for
+     * configs their caller saved: one saved on the fly for a single request would leave a
+     * state behind that nothing reads again.
+     */
+    public OnlineForecastState stateFor(User user, ForecastConfig config, ModelSpec spec, int lookbackDays, LocalDate windowEnd) {
+        ForecastState stored = stateRepository.findByConfigId(config.getId()).orElse(null);
+        OnlineForecastState state = stored != null
+                && stored.getAlgorithm() == spec.algorithm()
+                && spec.encodeParams().equals(stored.getModelParams())
+                && stored.getLookbackDays() == lookbackDays
+                ? restore(stored) : null;
+
+        if (state != null && state.windowEnd().isAfter(windowEnd)) {
+            return build(user.getId(), spec, lookbackDays, windowEnd);
+        }
+        if (state != null) {
+            if (state.windowEnd().equals(windowEnd)) {
+                return state;
+            }
+            LocalDate from = state.windowEnd().plusDays(1);
+            LocalDate windowStart = windowEnd.minusDays(lookbackDays - 1L);
+            if (from.isBefore(windowStart)) from = windowStart;
+            state.advanceTo(windowEnd, financialDataRepository.getDailyTotals(user.getId(), from, windowEnd));
+        } else {
+            state = build(user.getId(), spec, lookbackDays, windowEnd);
+            if (stored == null) {
+                stored = new ForecastState();
+                stored.setConfig(config);
+                stored.setUser(user);
+            }
+            stored.setAlgorithm(spec.algorithm());
+            stored.setModelParams(spec.encodeParams());
+            stored.setLookbackDays(lookbackDays);
+        }
+        write(stored, state);
+        return state;
+    }
+
+    private OnlineForecastState build(Long userId, ModelSpec spec, int lookbackDays, LocalDate windowEnd) {
+        return OnlineForecastState.build(spec, lookbackDays, windowEnd, financialDataRepository.getDailyTotals(
+                userId, windowEnd.minusDays(lookbackDays - 1L), windowEnd));
+    }
+
+    private static OnlineForecastState restore(ForecastState stored) {
+        ModelSpec spec = ModelSpec.decode(stored.getAlgorithm(), stored.getModelParams());
+        if (!OnlineForecastState.supports(spec)) {
+            return null;
+        }
+        return OnlineForecastState.restore(spec, stored.getLookbackDays(), stored.getWindowEnd(),
+                stored.getStatistics(), stored.getRing());
+    }
+
+    /**
+     * The ring is the state's own array, already updated in place; only the window bounds and
+     * the statistics are set again.
+     */
+    private void write(ForecastState stored, OnlineForecastState state) {
+        stored.setWindowStart(state.windowStart());
+        stored.setWindowEnd(state.windowEnd());
+        stored.setStatistics(state.encodeStatistics());
+        stored.setRing(state.ring());
+        stateRepository.save(stored);
+    }
+
+    private int clearAll() {
+        int count = (int) stateRepository.count();
+        stateRepository.deleteAllInBatch();
+        return count;
+    }
+}
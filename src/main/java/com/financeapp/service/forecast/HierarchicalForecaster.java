@@ -0,0 +1,112 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.enums.TransactionType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forecasts one slice of a user's transactions (a type, a category, or both) as part of the
+ * whole: the grand total, each transaction type, the slice itself and every (type, category)
+ * leaf are fitted with the same config in parallel, then reconciled so that the leaves add up
+ * to every node above them. The slice's band is its base band moved with its point forecast.
+ */
+@Component
+public class HierarchicalForecaster {
+
+    private final ForecastBatchEngine batchEngine;
+
+    public HierarchicalForecaster(ForecastBatchEngine batchEngine) {
+        this.batchEngine = batchEngine;
+    }
+
+    /**
+     * @return the reconciled forecast of the leaves matching {@code filter}, or null when the
+     *         user has none
+     */
+    public IntervalForecast forecast(HierarchicalSeries data, SeriesFilter filter, ForecastConfig config,
+                                     int horizon, ForecastBatchEngine.ForecastModel model) {
+        BitSet target = data.members(filter);
+        if (target.isEmpty()) {
+            return null;
+        }
+        int leafCount = data.leaves().size();
+
+        // Nodes covering the same leaves are one node
+        Map<BitSet, Integer> index = new LinkedHashMap<>();
+        BitSet all = new BitSet(leafCount);
+        all.set(0, leafCount);
+        index.put(all, 0);
+        for (TransactionType type : TransactionType.values()) {
+            BitSet members = data.members(new SeriesFilter(type, null));
+            if (!members.isEmpty()) index.putIfAbsent(members, index.size());
+        }
+        index.putIfAbsent(target, index.size());
+        for (int i = 0; i < leafCount; i++) {
+            BitSet leaf = new BitSet(leafCount);
+            leaf.set(i);
+            index.putIfAbsent(leaf, index.size());
+        }
+        List<BitSet> nodes = new ArrayList<>(index.keySet());
+
+        List<DailySeries> series = new ArrayList<>(nodes.size());
+        for (BitSet members : nodes) series.add(data.sum(members));
+        IntervalForecast[] base = batchEngine.forecastEach(series, config, horizon, model);
+
+        double[][] points = new double[nodes.size()][];
+        double[] variances = new double[nodes.size()];
+        for (int n = 0; n < nodes.size(); n++) {
+            points[n] = steps(base[n].values(), horizon);
+            variances[n] = oneStepVariance(base[n], series.get(n));
+        }
+        double[][] leaves = ForecastReconciliation.reconcile(leafCount, nodes, points, variances);
+        double[] reconciled = ForecastReconciliation.aggregate(leaves, target);
+
+        IntervalForecast targetBase = base[index.get(target)];
+        if (!targetBase.hasInterval()) {
+            return IntervalForecast.pointOnly(reconciled);
+        }
+        double[] own = points[index.get(target)];
+        double[] low = steps(targetBase.low(), horizon);
+        double[] high = steps(targetBase.high(), horizon);
+        for (int h = 0; h < horizon; h++) {
+            double shift = reconciled[h] - own[h];
+            low[h] += shift;
+            high[h] += shift;
+        }
+        return new IntervalForecast(reconciled, low, high);
+    }
+
+    /** Exactly {@code horizon} steps, repeating the last one if a model returned fewer. */
+    private static double[] steps(double[] values, int horizon) {
+        double[] out = new double[horizon];
+        for (int h = 0; h < horizon; h++) out[h] = values[Math.min(h, values.length - 1)];
+        return out;
+    }
+
+    /**
+     * Squared width of the first step's band, which is proportional to the one-step error
+     * variance; the series' own variance when the model produced no band. Only the ratios
+     * between nodes matter to the reconciliation.
+     */
+    private static double oneStepVariance(IntervalForecast forecast, DailySeries series) {
+        if (forecast.hasInterval()) {
+            double width = forecast.high()[0] - forecast.low()[0];
+            return width * width;
+        }
+        double[] v = series.values();
+        int n = series.size();
+        double mean = 0.0;
+        for (int t = 0; t < n; t++) mean += v[t];
+        mean /= Math.max(1, n);
+        double ss = 0.0;
+        for (int t = 0; t < n; t++) ss += (v[t] - mean) * (v[t] - mean);
+        // Same scale as a 95% band (width = 2 * 1.96 sigma)
+        return n > 1 ? 4 * 1.96 * 1.96 * ss / (n - 1) : Double.NaN;
+    }
+}
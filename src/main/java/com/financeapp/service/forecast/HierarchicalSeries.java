@@ -0,0 +1,134 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense daily series of every (type, category) a user has, on one shared day axis.
+ * <p>
+ * Built from a single scan of the daily totals rollup. The axis spans the first day with any
+ * transaction to the given end day, like {@link DailySeries#fromDailyTotals(List, LocalDate)},
+ * so the leaves always sum to the series the ungrouped query would give. Aggregates are named by the set of leaf
+ * indexes they cover.
+ */
+public final class HierarchicalSeries {
+
+    public record Leaf(TransactionType type, Category category) {}
+
+    private static final HierarchicalSeries EMPTY = new HierarchicalSeries(null, 0, List.of(), new double[0][]);
+
+    private final LocalDate start;
+    private final int length;
+    private final List<Leaf> leaves;
+    private final double[][] values;
+
+    private HierarchicalSeries(LocalDate start, int length, List<Leaf> leaves, double[][] values) {
+        this.start = start;
+        this.length = length;
+        this.leaves = leaves;
+        this.values = values;
+    }
+
+    /**
+     * Build from {@code FinancialDataRepository.getDailyTotalsByTypeAndCategory} rows
+     * ([LocalDate, TransactionType, Category, BigDecimal], ordered by date), ending on the last
+     * observed day.
+     */
+    public static HierarchicalSeries fromGroupedTotals(List<Object[]> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return EMPTY;
+        }
+        return fromGroupedTotals(rows, (LocalDate) rows.get(rows.size() - 1)[0]);
+    }
+
+    /**
+     * Same as {@link #fromGroupedTotals(List)}, with the axis running on to {@code end} (the day
+     * before the forecast origin).
+     */
+    public static HierarchicalSeries fromGroupedTotals(List<Object[]> rows, LocalDate end) {
+        if (rows == null || rows.isEmpty()) {
+            return EMPTY;
+        }
+        LocalDate first = (LocalDate) rows.get(0)[0];
+        LocalDate last = (LocalDate) rows.get(rows.size() - 1)[0];
+        if (end.isAfter(last)) {
+            last = end;
+        }
+        int length = (int) ChronoUnit.DAYS.between(first, last) + 1;
+        Map<Leaf, double[]> byLeaf = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            double[] leaf = byLeaf.computeIfAbsent(new Leaf((TransactionType) row[1], (Category) row[2]), k -> new double[length]);
+            leaf[(int) ChronoUnit.DAYS.between(first, (LocalDate) row[0])] += ((BigDecimal) row[3]).doubleValue();
+        }
+        return new HierarchicalSeries(first, length, Collections.unmodifiableList(new ArrayList<>(byLeaf.keySet())),
+                byLeaf.values().toArray(new double[0][]));
+    }
+
+    public boolean isEmpty() { return length == 0; }
+
+    public int size() { return length; }
+
+    public LocalDate start() { return start; }
+
+    public List<Leaf> leaves() { return leaves; }
+
+    public DailySeries leaf(int i) {
+        return DailySeries.of(start, values[i]);
+    }
+
+    /** Leaves matching {@code filter}; empty when the user has no such transactions. */
+    public BitSet members(SeriesFilter filter) {
+        BitSet members = new BitSet(leaves.size());
+        for (int i = 0; i < leaves.size(); i++) {
+            if (filter.matches(leaves.get(i).type(), leaves.get(i).category())) members.set(i);
+        }
+        return members;
+    }
+
+    /** Day-by-day sum of the given leaves over the full axis. */
+    public DailySeries sum(BitSet members) {
+        if (members.cardinality() == 1) {
+            return leaf(members.nextSetBit(0));
+        }
+        double[] out = new double[length];
+        for (int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
+            double[] leaf = values[i];
+            for (int t = 0; t < length; t++) out[t] += leaf[t];
+        }
+        return DailySeries.of(start, out);
+    }
+
+    /**
+     * Sum of the matching leaves from its own first transaction day to the end of the axis,
+     * the series the ungrouped query would give for the same filter.
+     */
+    public DailySeries filtered(SeriesFilter filter) {
+        BitSet members = members(filter);
+        if (members.isEmpty()) {
+            return DailySeries.empty();
+        }
+        double[] v = sum(members).values();
+        int from = 0;
+        while (from < length - 1 && !observed(members, from)) from++;
+        double[] out = new double[length - from];
+        System.arraycopy(v, from, out, 0, out.length);
+        return DailySeries.of(start.plusDays(from), out);
+    }
+
+    private boolean observed(BitSet members, int day) {
+        for (int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
+            if (values[i][day] != 0.0) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,320 @@
+package com.financeapp.service.forecast;
+
+/**
+ * Additive and multiplicative Holt-Winters (triple exponential smoothing) over the first
+ * {@code n} entries of a primitive array.
+ * <p>
+ * Level, trend and seasonal indices are initialised from the first two seasons and the
+ * recursion runs from the second season onwards. Smoothing parameters are fitted by a
+ * bounded Nelder-Mead search on the one-step-ahead sum of squared errors; every evaluation
+ * reuses the buffers of a caller-owned {@link Workspace}.
+ */
+public final class HoltWinters {
+
+    /** Parameters are kept strictly inside (0, 1) so no component is frozen or memoryless. */
+    static final double LOWER = 1e-3;
+    static final double UPPER = 0.999;
+
+    private static final int DIM = 3;
+    private static final int MAX_EVALUATIONS = 300;
+    private static final double TOLERANCE = 1e-10;
+
+    private HoltWinters() {}
+
+    public record Fit(double alpha, double beta, double gamma, boolean multiplicative, int seasonLength, double sse) {
+
+        public boolean isValid() {
+            return Double.isFinite(sse);
+        }
+    }
+
+    /**
+     * Scratch space for one thread: seasonal indices, the level/trend state and the simplex.
+     */
+    public static final class Workspace {
+        double[] season = new double[0];
+        final double[] state = new double[2];
+        final double[] simplex = new double[(DIM + 1) * DIM];
+        final double[] scores = new double[DIM + 1];
+        final double[] centroid = new double[DIM];
+        final double[] reflected = new double[DIM];
+        final double[] moved = new double[DIM];
+
+        public Workspace ensure(int seasonLength) {
+            if (season.length < seasonLength) {
+                season = new double[seasonLength];
+            }
+            return this;
+        }
+    }
+
+    public static boolean canFit(int n, int seasonLength) {
+        return seasonLength > 1 && n >= 2 * seasonLength;
+    }
+
+    /**
+     * Multiplicative seasonality divides by the level and by seasonal indices, so it is only
+     * defined for strictly positive series.
+     */
+    public static boolean allPositive(double[] v, int n) {
+        for (int i = 0; i < n; i++) {
+            if (!(v[i] > 0.0)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * One-step-ahead in-sample SSE for the given parameters, or infinity if the recursion
+     * degenerates. Leaves the final level/trend in {@code ws.state} and indices in {@code ws.season}.
+     */
+    public static double sse(double[] v, int n, int m, double alpha, double beta, double gamma,
+                             boolean multiplicative, Workspace ws) {
+        return run(v, n, m, alpha, beta, gamma, multiplicative, ws, null);
+    }
+
+    /**
+     * Writes the one-step-ahead errors of a fitted model to {@code out} and returns how many
+     * were written ({@code n - seasonLength}).
+     */
+    public static int residuals(double[] v, int n, Fit fit, Workspace ws, double[] out) {
+        run(v, n, fit.seasonLength(), fit.alpha(), fit.beta(), fit.gamma(), fit.multiplicative(), ws, out);
+        return n - fit.seasonLength();
+    }
+
+    /**
+     * Forecast error weights of the additive model in its state-space form, so the h-step
+     * error variance is {@code sigma2 * sum(psi[0..h)^2)}. Not defined for the multiplicative form.
+     */
+    public static double[] psiWeights(Fit fit, int horizon) {
+        double[] psi = new double[horizon];
+        int m = fit.seasonLength();
+        for (int j = 0; j < horizon; j++) {
+            psi[j] = j == 0 ? 1.0 : fit.alpha() * (1 + j * fit.beta())
+                    + (j % m == 0 ? fit.gamma() * (1 - fit.alpha()) : 0.0);
+        }
+        return psi;
+    }
+
+    private static double run(double[] v, int n, int m, double alpha, double beta, double gamma,
+                              boolean multiplicative, Workspace ws, double[] errors) {
+        double[] season = ws.ensure(m).season;
+        double[] state = ws.state;
+        if (!initialise(v, m, multiplicative, season, state)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double sse = 0.0;
+        for (int t = m; t < n; t++) {
+            double error = step(v[t], t % m, alpha, beta, gamma, multiplicative, season, state);
+            sse += error * error;
+            if (errors != null) errors[t - m] = error;
+        }
+        return Double.isFinite(sse) ? sse : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Level from the first season's mean, trend from the change to the second season's mean,
+     * seasonal indices from the first season. False when multiplicative is undefined.
+     */
+    private static boolean initialise(double[] v, int m, boolean multiplicative, double[] season, double[] state) {
+        double first = 0.0, second = 0.0;
+        for (int i = 0; i < m; i++) {
+            first += v[i];
+            second += v[m + i];
+        }
+        first /= m;
+        second /= m;
+        if (multiplicative && first <= 0.0) {
+            return false;
+        }
+        state[0] = first;
+        state[1] = (second - first) / m;
+        for (int i = 0; i < m; i++) {
+            season[i] = multiplicative ? v[i] / first : v[i] - first;
+        }
+        return true;
+    }
+
+    /**
+     * Advances level/trend in {@code state} and seasonal index {@code s} by one observation;
+     * returns the one-step-ahead error made before seeing {@code y}.
+     */
+    private static double step(double y, int s, double alpha, double beta, double gamma,
+                               boolean multiplicative, double[] season, double[] state) {
+        double level = state[0], trend = state[1];
+        double base = level + trend;
+        double error = y - (multiplicative ? base * season[s] : base + season[s]);
+        if (multiplicative) {
+            level = alpha * (y / season[s]) + (1 - alpha) * base;
+            trend = beta * (level - state[0]) + (1 - beta) * trend;
+            season[s] = gamma * (y / level) + (1 - gamma) * season[s];
+        } else {
+            level = alpha * (y - season[s]) + (1 - alpha) * base;
+            trend = beta * (level - state[0]) + (1 - beta) * trend;
+            season[s] = gamma * (y - level) + (1 - gamma) * season[s];
+        }
+        state[0] = level;
+        state[1] = trend;
+        return error;
+    }
+
+    /**
+     * Walks the smoothing recursion forward under one fit so forecasts can be taken from
+     * successive origins without restarting. Origins must be requested in ascending order.
+     */
+    public static final class Replay {
+        private final double[] v;
+        private final Fit fit;
+        private final double[] season;
+        private final double[] state = new double[2];
+        private int position;
+
+        public Replay(double[] v, Fit fit) {
+            this.v = v;
+            this.fit = fit;
+            this.season = new double[fit.seasonLength()];
+            initialise(v, fit.seasonLength(), fit.multiplicative(), season, state);
+            this.position = fit.seasonLength();
+        }
+
+        /**
+         * Forecast {@code horizon} steps as if the series ended after {@code origin} observations.
+         */
+        public void forecast(int origin, int horizon, double[] out) {
+            if (origin < position) {
+                throw new IllegalArgumentException("Origins must not move backwards");
+            }
+            int m = fit.seasonLength();
+            for (; position < origin; position++) {
+                step(v[position], position % m, fit.alpha(), fit.beta(), fit.gamma(), fit.multiplicative(), season, state);
+            }
+            for (int h = 1; h <= horizon; h++) {
+                double s = season[(origin + h - 1) % m];
+                double base = state[0] + h * state[1];
+                out[h - 1] = fit.multiplicative() ? base * s : base + s;
+            }
+        }
+    }
+
+    /**
+     * Projects {@code horizon} steps past the series with a fitted parameter set.
+     */
+    public static void forecast(double[] v, int n, Fit fit, int horizon, Workspace ws, double[] out) {
+        int m = fit.seasonLength();
+        sse(v, n, m, fit.alpha(), fit.beta(), fit.gamma(), fit.multiplicative(), ws);
+        double level = ws.state[0], trend = ws.state[1];
+        double[] season = ws.season;
+        for (int h = 1; h <= horizon; h++) {
+            double s = season[(n + h - 1) % m];
+            double base = level + h * trend;
+            out[h - 1] = fit.multiplicative() ? base * s : base + s;
+        }
+    }
+
+    /**
+     * Minimises the in-sample SSE over (alpha, beta, gamma) with Nelder-Mead, starting from
+     * {@code start} and clamping every vertex into [{@link #LOWER}, {@link #UPPER}].
+     */
+    public static Fit optimise(double[] v, int n, int m, boolean multiplicative, double[] start, Workspace ws) {
+        double[] simplex = ws.simplex, scores = ws.scores;
+        for (int i = 0; i <= DIM; i++) {
+            for (int j = 0; j < DIM; j++) {
+                double x = start[j];
+                if (i == j + 1) {
+                    x += x + 0.1 <= UPPER ? 0.1 : -0.1;
+                }
+                simplex[i * DIM + j] = clamp(x);
+            }
+            scores[i] = evaluate(v, n, m, multiplicative, simplex, i * DIM, ws);
+        }
+
+        int evaluations = DIM + 1;
+        while (evaluations < MAX_EVALUATIONS) {
+            sortVertices(simplex, scores);
+            double best = scores[0], worst = scores[DIM];
+            if (Double.isFinite(worst) && worst - best <= TOLERANCE * (Math.abs(best) + TOLERANCE)) {
+                break;
+            }
+            double[] c = ws.centroid;
+            for (int j = 0; j < DIM; j++) {
+                double sum = 0.0;
+                for (int i = 0; i < DIM; i++) sum += simplex[i * DIM + j];
+                c[j] = sum / DIM;
+            }
+            int w = DIM * DIM;
+            double reflectedScore = moveToward(v, n, m, multiplicative, c, simplex, w, -1.0, ws.reflected, ws);
+            evaluations++;
+            if (reflectedScore < best) {
+                double expandedScore = moveToward(v, n, m, multiplicative, c, simplex, w, -2.0, ws.moved, ws);
+                evaluations++;
+                if (expandedScore < reflectedScore) {
+                    replaceWorst(simplex, scores, ws.moved, expandedScore);
+                } else {
+                    replaceWorst(simplex, scores, ws.reflected, reflectedScore);
+                }
+            } else if (reflectedScore < scores[DIM - 1]) {
+                replaceWorst(simplex, scores, ws.reflected, reflectedScore);
+            } else {
+                double contractedScore = moveToward(v, n, m, multiplicative, c, simplex, w, 0.5, ws.moved, ws);
+                evaluations++;
+                if (contractedScore < worst) {
+                    replaceWorst(simplex, scores, ws.moved, contractedScore);
+                } else {
+                    // Shrink everything toward the best vertex
+                    for (int i = 1; i <= DIM; i++) {
+                        for (int j = 0; j < DIM; j++) {
+                            simplex[i * DIM + j] = clamp(simplex[j] + 0.5 * (simplex[i * DIM + j] - simplex[j]));
+                        }
+                        scores[i] = evaluate(v, n, m, multiplicative, simplex, i * DIM, ws);
+                    }
+                    evaluations += DIM;
+                }
+            }
+        }
+        sortVertices(simplex, scores);
+        return new Fit(simplex[0], simplex[1], simplex[2], multiplicative, m, scores[0]);
+    }
+
+    /**
+     * Point {@code c + coefficient * (worst - c)}: -1 reflects, -2 expands, 0.5 contracts.
+     */
+    private static double moveToward(double[] v, int n, int m, boolean multiplicative, double[] c,
+                                     double[] simplex, int worstOffset, double coefficient,
+                                     double[] target, Workspace ws) {
+        for (int j = 0; j < DIM; j++) {
+            target[j] = clamp(c[j] + coefficient * (simplex[worstOffset + j] - c[j]));
+        }
+        return evaluate(v, n, m, multiplicative, target, 0, ws);
+    }
+
+    private static double evaluate(double[] v, int n, int m, boolean multiplicative,
+                                   double[] point, int offset, Workspace ws) {
+        return sse(v, n, m, point[offset], point[offset + 1], point[offset + 2], multiplicative, ws);
+    }
+
+    private static void replaceWorst(double[] simplex, double[] scores, double[] point, double score) {
+        System.arraycopy(point, 0, simplex, DIM * DIM, DIM);
+        scores[DIM] = score;
+    }
+
+    /**
+     * Insertion sort of the DIM + 1 vertices by score, best first.
+     */
+    private static void sortVertices(double[] simplex, double[] scores) {
+        for (int i = 1; i <= DIM; i++) {
+            for (int k = i; k > 0 && scores[k] < scores[k - 1]; k--) {
+                double tmp = scores[k];
+                scores[k] = scores[k - 1];
+                scores[k - 1] = tmp;
+                for (int j = 0; j < DIM; j++) {
+                    double x = simplex[k * DIM + j];
+                    simplex[k * DIM + j] = simplex[(k - 1) * DIM + j];
+                    simplex[(k - 1) * DIM + j] = x;
+                }
+            }
+        }
+    }
+
+    private static double clamp(double x) {
+        return Math.min(UPPER, Math.max(LOWER, x));
+    }
+}
@@ -0,0 +1,94 @@
+package com.financeapp.service.forecast;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Tunes {@link HoltWinters} parameters on the forecast compute pool.
+ * <p>
+ * Nelder-Mead is local, so the search is restarted from a fixed spread of starting points
+ * and the restarts run in parallel; the lowest SSE wins. Starting points are deterministic
+ * so the same series always yields the same parameters.
+ */
+@Component
+public class HoltWintersEngine {
+
+    private static final double[][] STARTS = {
+            {0.1, 0.01, 0.1},
+            {0.3, 0.05, 0.1},
+            {0.5, 0.1, 0.3},
+            {0.2, 0.2, 0.5},
+            {0.8, 0.05, 0.05},
+            {0.05, 0.01, 0.6},
+            {0.6, 0.3, 0.2},
+            {0.3, 0.01, 0.9}
+    };
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<HoltWinters.Workspace> workspaces = ThreadLocal.withInitial(HoltWinters.Workspace::new);
+
+    public HoltWintersEngine(@Qualifier("forecastComputePool") ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Best parameters over all restarts, or null when the series is shorter than two seasons.
+     * Multiplicative seasonality falls back to additive for series with zero or negative days.
+     */
+    public HoltWinters.Fit fit(DailySeries series, int seasonLength, boolean multiplicative) {
+        double[] values = series.values();
+        int n = series.size();
+        if (!HoltWinters.canFit(n, seasonLength)) {
+            return null;
+        }
+        boolean mult = multiplicative && HoltWinters.allPositive(values, n);
+        HoltWinters.Fit[] fits = new HoltWinters.Fit[STARTS.length];
+        pool.submit(() -> IntStream.range(0, STARTS.length).parallel()
+                        .forEach(i -> fits[i] = HoltWinters.optimise(values, n, seasonLength, mult, STARTS[i], workspaces.get())))
+                .join();
+        HoltWinters.Fit best = fits[0];
+        for (HoltWinters.Fit fit : fits) {
+            if (fit.sse() < best.sse()) best = fit;
+        }
+        return best.isValid() ? best : null;
+    }
+
+    /**
+     * Cheap stand-in for {@link #fit}: a single Nelder-Mead run from one moderate starting
+     * point instead of every restart. Used to screen Holt-Winters in a model race.
+     */
+    public HoltWinters.Fit screeningFit(DailySeries series, int seasonLength, boolean multiplicative) {
+        double[] values = series.values();
+        int n = series.size();
+        if (!HoltWinters.canFit(n, seasonLength)) {
+            return null;
+        }
+        boolean mult = multiplicative && HoltWinters.allPositive(values, n);
+        HoltWinters.Fit fit = HoltWinters.optimise(values, n, seasonLength, mult, STARTS[1], workspaces.get());
+        return fit.isValid() ? fit : null;
+    }
+
+    /**
+     * Forecast with tuned parameters; null when the series cannot be fitted.
+     */
+    public double[] forecast(DailySeries series, int seasonLength, boolean multiplicative, int horizon) {
+        HoltWinters.Fit fit = fit(series, seasonLength, multiplicative);
+        return fit != null ? forecast(series, fit, horizon) : null;
+    }
+
+    public double[] forecast(DailySeries series, HoltWinters.Fit fit, int horizon) {
+        double[] out = new double[horizon];
+        HoltWinters.forecast(series.values(), series.size(), fit, horizon, workspaces.get(), out);
+        return out;
+    }
+
+    /**
+     * One-step-ahead in-sample errors of {@code fit}; returns how many were written to {@code out}.
+     */
+    public int residuals(DailySeries series, HoltWinters.Fit fit, double[] out) {
+        return HoltWinters.residuals(series.values(), series.size(), fit, workspaces.get(), out);
+    }
+}
@@ -0,0 +1,16 @@
+package com.financeapp.service.forecast;
+
+/**
+ * Point forecast with per-step prediction bounds. {@code low} and {@code high} are null when
+ * there were too few residuals to estimate the error distribution.
+ */
+public record IntervalForecast(double[] values, double[] low, double[] high) {
+
+    public static IntervalForecast pointOnly(double[] values) {
+        return new IntervalForecast(values, null, null);
+    }
+
+    public boolean hasInterval() {
+        return low != null && high != null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns a config into a {@link ModelSpec} for a given series: estimates ARIMA orders and
+ * coefficients or Holt-Winters smoothing weights, and takes the fixed parameters of the
+ * other algorithms from the config (with the service's defaults). Series too short for ARIMA
+ * fall back to linear regression, and too short for Holt-Winters to seasonal decomposition.
+ */
+@Component
+public class ModelFitter {
+
+    private final ArimaEngine arimaEngine;
+    private final HoltWintersEngine holtWintersEngine;
+
+    public ModelFitter(ArimaEngine arimaEngine, HoltWintersEngine holtWintersEngine) {
+        this.arimaEngine = arimaEngine;
+        this.holtWintersEngine = holtWintersEngine;
+    }
+
+    public ModelSpec fit(DailySeries series, ForecastConfig config) {
+        ModelSpec closedForm = closedForm(config);
+        if (closedForm != null) {
+            return closedForm;
+        }
+        int season = config.getSeasonLength() != null ? config.getSeasonLength() : 7;
+        return switch (config.getAlgorithm()) {
+            case ARIMA -> {
+                ArimaModel.Fit fit = arimaEngine.autoFit(series);
+                // Too short or degenerate for any candidate order
+                yield fit.isValid() ? ModelSpec.arima(fit) : ModelSpec.linearRegression();
+            }
+            case HOLT_WINTERS_ADDITIVE, HOLT_WINTERS_MULTIPLICATIVE -> {
+                HoltWinters.Fit fit = holtWintersEngine.fit(series, season,
+                        config.getAlgorithm() == ForecastConfig.AlgorithmType.HOLT_WINTERS_MULTIPLICATIVE);
+                yield fit != null ? ModelSpec.holtWinters(fit) : ModelSpec.seasonalDecomposition(season);
+            }
+            case AUTO -> throw new IllegalArgumentException("AUTO is resolved by AutoModelSelector");
+            default -> throw new IllegalArgumentException("Unsupported algorithm");
+        };
+    }
+
+    /**
+     * Spec of an algorithm whose parameters come straight from the config, without looking at
+     * the series; null for ARIMA, Holt-Winters and AUTO.
+     */
+    public static ModelSpec closedForm(ForecastConfig config) {
+        return switch (config.getAlgorithm()) {
+            case SMA -> ModelSpec.sma(config.getWindowSize() != null ? config.getWindowSize() : 7);
+            case EWMA -> ModelSpec.ewma(config.getSmoothingFactor() != null ? config.getSmoothingFactor() : 0.3d);
+            case LINEAR_REGRESSION -> ModelSpec.linearRegression();
+            case SEASONAL_DECOMPOSITION -> ModelSpec.seasonalDecomposition(config.getSeasonLength() != null ? config.getSeasonLength() : 7);
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig.AlgorithmType;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * A concrete algorithm with everything needed to forecast without fitting again, stored as a
+ * flat parameter vector so it can be persisted in one column.
+ * <p>
+ * Layout by algorithm: SMA {@code [window]}; EWMA {@code [alpha]}; LINEAR_REGRESSION {@code []};
+ * SEASONAL_DECOMPOSITION {@code [seasonLength]}; ARIMA {@code [p, d, q, mean, sigma2, aic,
+ * ar..., ma...]}; HOLT_WINTERS_* {@code [seasonLength, alpha, beta, gamma, sse]}.
+ */
+public record ModelSpec(AlgorithmType algorithm, double[] params) {
+
+    public static ModelSpec sma(int window) {
+        return new ModelSpec(AlgorithmType.SMA, new double[]{window});
+    }
+
+    public static ModelSpec ewma(double alpha) {
+        return new ModelSpec(AlgorithmType.EWMA, new double[]{alpha});
+    }
+
+    public static ModelSpec linearRegression() {
+        return new ModelSpec(AlgorithmType.LINEAR_REGRESSION, new double[0]);
+    }
+
+    public static ModelSpec seasonalDecomposition(int seasonLength) {
+        return new ModelSpec(AlgorithmType.SEASONAL_DECOMPOSITION, new double[]{seasonLength});
+    }
+
+    public static ModelSpec arima(ArimaModel.Fit fit) {
+        double[] params = new double[6 + fit.p() + fit.q()];
+        params[0] = fit.p();
+        params[1] = fit.d();
+        params[2] = fit.q();
+        params[3] = fit.mean();
+        params[4] = fit.sigma2();
+        params[5] = fit.aic();
+        System.arraycopy(fit.ar(), 0, params, 6, fit.p());
+        System.arraycopy(fit.ma(), 0, params, 6 + fit.p(), fit.q());
+        return new ModelSpec(AlgorithmType.ARIMA, params);
+    }
+
+    public static ModelSpec holtWinters(HoltWinters.Fit fit) {
+        return new ModelSpec(fit.multiplicative() ? AlgorithmType.HOLT_WINTERS_MULTIPLICATIVE : AlgorithmType.HOLT_WINTERS_ADDITIVE,
+                new double[]{fit.seasonLength(), fit.alpha(), fit.beta(), fit.gamma(), fit.sse()});
+    }
+
+    public int window() {
+        return (int) params[0];
+    }
+
+    public double alpha() {
+        return params[0];
+    }
+
+    public int seasonLength() {
+        return (int) params[0];
+    }
+
+    public ArimaModel.Fit arimaFit() {
+        int p = (int) params[0], d = (int) params[1], q = (int) params[2];
+        return new ArimaModel.Fit(p, d, q,
+                Arrays.copyOfRange(params, 6, 6 + p), Arrays.copyOfRange(params, 6 + p, 6 + p + q),
+                params[3], params[4], params[5]);
+    }
+
+    public HoltWinters.Fit holtWintersFit() {
+        return new HoltWinters.Fit(params[1], params[2], params[3],
+                algorithm == AlgorithmType.HOLT_WINTERS_MULTIPLICATIVE, (int) params[0], params[4]);
+    }
+
+    /**
+     * Comma-separated parameters; round-trips exactly through {@link #decode}.
+     */
+    public String encodeParams() {
+        StringJoiner joiner = new StringJoiner(",");
+        for (double param : params) joiner.add(Double.toString(param));
+        return joiner.toString();
+    }
+
+    public static ModelSpec decode(AlgorithmType algorithm, String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return new ModelSpec(algorithm, new double[0]);
+        }
+        String[] parts = encoded.split(",");
+        double[] params = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) params[i] = Double.parseDouble(parts[i].trim());
+        return new ModelSpec(algorithm, params);
+    }
+}
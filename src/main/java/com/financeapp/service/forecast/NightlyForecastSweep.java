@@ -0,0 +1,221 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.config.ForecastSweepProperties;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.ForecastService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nightly sweep that regenerates forecasts for every user with stored forecast configs.
+ * <p>
+ * Users are read in keyset pages (id ascending), split into partitions and processed by a
+ * bounded number of workers. Each user gets one {@link ForecastJob} per run date, unique in the
+ * database; users whose job is already COMPLETED are skipped, so re-running the sweep for the
+ * same date after a crash resumes with the users that are still pending, running or failed.
+ * A worker only forecasts a user after claiming the job with a conditional status update, so
+ * sweeps on several instances (or a manual run next to the scheduled one) never process the
+ * same user twice; a RUNNING job is only taken over once it is older than {@code stale-after}.
+ * <p>
+ * Metrics: {@code forecast.sweep.users} (by outcome), {@code forecast.sweep.duration},
+ * {@code forecast.sweep.throughput} (users/sec of the current or last run on this instance) and
+ * {@code forecast.sweep.lag} (seconds since the newest run date whose jobs all completed
+ * finished). The lag's finish time is read from {@code forecast_jobs} at startup, so it survives
+ * restarts, and again after each sweep; scrapes only read the field.
+ */
+@Component
+public class NightlyForecastSweep {
+
+    private static final Logger log = LoggerFactory.getLogger(NightlyForecastSweep.class);
+
+    private static final EnumSet<ForecastJob.Status> CLAIMABLE = EnumSet.of(ForecastJob.Status.PENDING, ForecastJob.Status.FAILED);
+
+    private enum Outcome { COMPLETED, FAILED, HELD_ELSEWHERE }
+
+    private final UserRepository userRepository;
+    private final ForecastConfigRepository forecastConfigRepository;
+    private final ForecastJobRepository forecastJobRepository;
+    private final ForecastService forecastService;
+    private final ForecastSweepProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Timer duration;
+    private volatile double throughput;
+    private volatile OffsetDateTime lastCleanFinish;
+
+    public NightlyForecastSweep(UserRepository userRepository,
+                                ForecastConfigRepository forecastConfigRepository,
+                                ForecastJobRepository forecastJobRepository,
+                                ForecastService forecastService,
+                                ForecastSweepProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.forecastConfigRepository = forecastConfigRepository;
+        this.forecastJobRepository = forecastJobRepository;
+        this.forecastService = forecastService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.duration = Timer.builder("forecast.sweep.duration").register(meterRegistry);
+        Gauge.builder("forecast.sweep.throughput", this, sweep -> sweep.throughput)
+                .baseUnit("users/s")
+                .register(meterRegistry);
+        Gauge.builder("forecast.sweep.lag", this, NightlyForecastSweep::lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void loadLastCleanFinish() {
+        lastCleanFinish = forecastJobRepository.findLastCleanRunFinish(ForecastJob.Status.COMPLETED);
+    }
+
+    /**
+     * Runs (or resumes) the sweep for {@code runDate}. Returns the users processed in this call,
+     * or -1 if another sweep is already in progress on this instance.
+     */
+    public int run(LocalDate runDate) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Nightly forecast sweep for {} skipped: a sweep is already running on this instance", runDate);
+            return -1;
+        }
+        long started = System.nanoTime();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        throughput = 0;
+        try (ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()),
+                Thread.ofPlatform().name("forecast-sweep-", 0).factory())) {
+            long afterId = 0L;
+            while (true) {
+                List<Long> page = userRepository.findIdsWithForecastConfigsAfter(afterId,
+                        PageRequest.of(0, properties.getPageSize()));
+                if (page.isEmpty()) break;
+                afterId = page.get(page.size() - 1);
+
+                Set<Long> done = new HashSet<>(forecastJobRepository.findUserIdsByRunDateAndStatus(
+                        runDate, ForecastJob.Status.COMPLETED, page));
+                meterRegistry.counter("forecast.sweep.users", "outcome", "skipped").increment(done.size());
+                List<Long> pending = page.stream().filter(id -> !done.contains(id)).toList();
+
+                List<Future<?>> partitions = new ArrayList<>();
+                for (int from = 0; from < pending.size(); from += properties.getPartitionSize()) {
+                    List<Long> partition = pending.subList(from, Math.min(pending.size(), from + properties.getPartitionSize()));
+                    partitions.add(workers.submit(() -> {
+                        for (Long userId : partition) {
+                            Outcome outcome = forecastUser(userId, runDate);
+                            if (outcome == Outcome.HELD_ELSEWHERE) continue;
+                            if (outcome == Outcome.FAILED) failed.incrementAndGet();
+                            throughput = processed.incrementAndGet() / elapsedSeconds(started);
+                        }
+                    }));
+                }
+                // Finish the page before fetching the next so memory and in-flight work stay bounded
+                for (Future<?> partition : partitions) {
+                    awaitPartition(partition);
+                }
+            }
+        } finally {
+            duration.record(Duration.ofNanos(System.nanoTime() - started));
+            running.set(false);
+        }
+        // Jobs of this run date may also have been completed by sweeps on other instances
+        loadLastCleanFinish();
+        log.info("Nightly forecast sweep for {} finished: processed={}, failed={}", runDate, processed.get(), failed.get());
+        return processed.get();
+    }
+
+    private Outcome forecastUser(Long userId, LocalDate runDate) {
+        createJobIfAbsent(userId, runDate);
+        OffsetDateTime now = OffsetDateTime.now();
+        if (forecastJobRepository.claim(userId, runDate, ForecastJob.Status.RUNNING, CLAIMABLE,
+                now, now.minus(properties.getStaleAfter())) == 0) {
+            // Completed meanwhile, or another sweep is working on this user
+            meterRegistry.counter("forecast.sweep.users", "outcome", "skipped").increment();
+            return Outcome.HELD_ELSEWHERE;
+        }
+        ForecastJob job = forecastJobRepository.findByUserIdAndRunDate(userId, runDate).orElseThrow();
+        try {
+            List<ForecastConfig> configs = forecastConfigRepository.findByUserId(userId);
+            if (!configs.isEmpty()) {
+                forecastService.batchGenerateForecasts(userId, configs, runDate.plusDays(1), properties.getHorizonDays()).join();
+            }
+            job.setStatus(ForecastJob.Status.COMPLETED);
+            forecastJobRepository.save(job);
+            meterRegistry.counter("forecast.sweep.users", "outcome", "completed").increment();
+            return Outcome.COMPLETED;
+        } catch (RuntimeException e) {
+            log.warn("Nightly forecast failed for user {}: {}", userId, e.getMessage());
+            job.setStatus(ForecastJob.Status.FAILED);
+            String message = String.valueOf(e.getMessage());
+            job.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+            forecastJobRepository.save(job);
+            meterRegistry.counter("forecast.sweep.users", "outcome", "failed").increment();
+            return Outcome.FAILED;
+        }
+    }
+
+    /**
+     * Inserts a PENDING job unless one exists; losing the insert race to another sweep is fine,
+     * the unique (run_date, user_id) index keeps a single row and the claim decides who runs it.
+     */
+    private void createJobIfAbsent(Long userId, LocalDate runDate) {
+        if (forecastJobRepository.findByUserIdAndRunDate(userId, runDate).isPresent()) {
+            return;
+        }
+        ForecastJob created = new ForecastJob();
+        created.setUser(userRepository.getReferenceById(userId));
+        created.setRunDate(runDate);
+        created.setDescription("Nightly forecast " + runDate);
+        try {
+            forecastJobRepository.saveAndFlush(created);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Nightly forecast job for user {} on {} was created by another sweep", userId, runDate);
+        }
+    }
+
+    private static double elapsedSeconds(long startedNanos) {
+        return Math.max(1e-9, (System.nanoTime() - startedNanos) / 1_000_000_000d);
+    }
+
+    private double lagSeconds() {
+        OffsetDateTime last = lastCleanFinish;
+        return last == null ? Double.NaN : Duration.between(last, OffsetDateTime.now()).toSeconds();
+    }
+
+    private static void awaitPartition(Future<?> partition) {
+        try {
+            partition.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Nightly forecast sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Nightly forecast partition failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig.AlgorithmType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Sufficient statistics of one user's daily series for a closed-form model (SMA, EWMA, linear
+ * regression, seasonal decomposition), maintained day by day so a forecast is a projection
+ * rather than a refit.
+ * <p>
+ * The series is the one {@code ForecastServiceImpl} would load: daily totals over a fixed
+ * lookback window ending at {@link #windowEnd()}, from the first day that has any transaction
+ * to the window's end, with quiet days as zero. The window's totals live in a compact binary
+ * ring indexed by epoch day (see {@link #ring()}), next to {@code Σy}, the age-weighted
+ * {@code Σ(end-d)·y}, the trailing SMA sum, the EWMA level and per-residue seasonal sums.
+ * Every statistic is linear in each day's total with a weight that depends only on the day's
+ * age and whether it starts the series, so changing, adding or clearing a day is O(1), and
+ * so is moving the window forward apart from the days it drops. Only clearing the first
+ * day's transactions scans the ring for the next day that has some.
+ * <p>
+ * Not thread-safe.
+ */
+public final class OnlineForecastState {
+
+    /** {@link #first} of a state without any transaction in its window. */
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final ModelSpec spec;
+    private final int lookback;
+    private final int window;
+    private final double alpha;
+    private final int seasonLength;
+
+    private final byte[] ring;
+    private final ByteBuffer totals;
+    private final double[] seasonSum;
+    private long windowEnd;
+    /** First day of the series as an epoch day; the series runs from it to {@code windowEnd}. */
+    private long first = NONE;
+    private double sumY;
+    private double sumAgeY;
+    private double smaSum;
+    private double level;
+
+    private OnlineForecastState(ModelSpec spec, int lookback, long windowEnd, byte[] ring) {
+        if (!supports(spec)) {
+            throw new IllegalArgumentException("No online state for " + spec.algorithm());
+        }
+        this.spec = spec;
+        this.lookback = lookback;
+        this.window = spec.algorithm() == AlgorithmType.SMA ? Math.max(1, spec.window()) : 1;
+        this.alpha = spec.algorithm() == AlgorithmType.EWMA ? spec.alpha() : 0.5;
+        this.seasonLength = spec.algorithm() == AlgorithmType.SEASONAL_DECOMPOSITION ? Math.max(1, spec.seasonLength()) : 1;
+        this.ring = ring;
+        this.totals = ByteBuffer.wrap(ring);
+        this.seasonSum = new double[seasonLength];
+        this.windowEnd = windowEnd;
+    }
+
+    public static boolean supports(ModelSpec spec) {
+        return switch (spec.algorithm()) {
+            case SMA, EWMA, LINEAR_REGRESSION, SEASONAL_DECOMPOSITION -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Size of the ring for a lookback: one double per day, then one bit per day that has
+     * transactions.
+     */
+    public static int ringBytes(int lookback) {
+        return lookback * Double.BYTES + (lookback + 7) / 8;
+    }
+
+    /**
+     * State over the window ending at {@code windowEnd} from
+     * {@code FinancialDataRepository.getDailyTotals} rows ([LocalDate, BigDecimal]).
+     */
+    public static OnlineForecastState build(ModelSpec spec, int lookback, LocalDate windowEnd, List<Object[]> dailyTotals) {
+        OnlineForecastState state = new OnlineForecastState(spec, lookback, windowEnd.toEpochDay(), new byte[ringBytes(lookback)]);
+        state.load(dailyTotals);
+        state.recompute();
+        return state;
+    }
+
+    /**
+     * State around a persisted ring, which it keeps using (and updating) in place rather than
+     * copying. Null when the ring was written for another lookback.
+     */
+    public static OnlineForecastState restore(ModelSpec spec, int lookback, LocalDate windowEnd, String statistics, byte[] ring) {
+        if (ring == null || ring.length != ringBytes(lookback)) {
+            return null;
+        }
+        OnlineForecastState state = new OnlineForecastState(spec, lookback, windowEnd.toEpochDay(), ring);
+        String[] parts = statistics.split(",");
+        if (parts.length != 5 + state.seasonLength) {
+            // Written for other parameters; the window itself is still good
+            state.recompute();
+            return state;
+        }
+        state.first = Long.parseLong(parts[0].trim());
+        state.sumY = Double.parseDouble(parts[1].trim());
+        state.sumAgeY = Double.parseDouble(parts[2].trim());
+        state.smaSum = Double.parseDouble(parts[3].trim());
+        state.level = Double.parseDouble(parts[4].trim());
+        for (int r = 0; r < state.seasonLength; r++) state.seasonSum[r] = Double.parseDouble(parts[5 + r].trim());
+        return state;
+    }
+
+    public ModelSpec spec() { return spec; }
+
+    public int lookback() { return lookback; }
+
+    public LocalDate windowEnd() { return LocalDate.ofEpochDay(windowEnd); }
+
+    public LocalDate windowStart() { return LocalDate.ofEpochDay(startDay()); }
+
+    public boolean isEmpty() { return first == NONE; }
+
+    /**
+     * The window's daily totals: {@code lookback} big-endian doubles by {@code epochDay mod
+     * lookback}, then a bitset of the slots whose day has transactions. This is the state's own
+     * backing array, so callers persisting it see every later change.
+     */
+    public byte[] ring() { return ring; }
+
+    /**
+     * Records the new total of {@code day}; {@code observed} is false once the day has no
+     * transactions left. Days outside the window are ignored: earlier ones never re-enter it
+     * and later ones are read when the window advances past them.
+     */
+    public void set(LocalDate day, double total, boolean isObserved) {
+        long d = day.toEpochDay();
+        if (d < startDay() || d > windowEnd) {
+            return;
+        }
+        double updated = isObserved ? total : 0.0;
+        if (first == NONE || d < first) {
+            if (!isObserved) {
+                return; // still before the series
+            }
+            if (first != NONE) {
+                // The old first day stops seeding the EWMA and weighs in like any later day
+                level -= decay(age(first) + 1) * total(first);
+            }
+            put(d, updated, true);
+            first = d;
+            add(d, updated, decay(age(d)));
+            return;
+        }
+        if (d == first && !isObserved) {
+            dropFirst();
+            return;
+        }
+        double delta = updated - total(d);
+        put(d, updated, isObserved);
+        add(d, delta, d == first ? decay(age(d)) : alpha * decay(age(d)));
+    }
+
+    /**
+     * Slides the window forward to end at {@code newEnd}, dropping the days that fall out of
+     * it, then adds the {@code dailyTotals} rows of the days it gains.
+     */
+    public void advanceTo(LocalDate newEnd, List<Object[]> dailyTotals) {
+        long end = newEnd.toEpochDay();
+        if (end < windowEnd) {
+            throw new IllegalArgumentException("Window only moves forward");
+        }
+        long k = end - windowEnd;
+        if (k >= lookback) {
+            Arrays.fill(ring, (byte) 0);
+            clearStatistics();
+        } else if (k > 0) {
+            long newStart = end - lookback + 1;
+            while (first != NONE && first < newStart) dropFirst();
+            if (first != NONE) {
+                // The gained days are zero until their rows are applied: every day ages by k
+                if (k >= window) {
+                    smaSum = 0.0;
+                } else {
+                    for (long d = Math.max(first, windowEnd - window + 1); d <= end - window; d++) smaSum -= total(d);
+                }
+                sumAgeY += k * sumY;
+                level *= decay(k);
+            }
+        }
+        windowEnd = end;
+        for (Object[] row : dailyTotals) {
+            set((LocalDate) row[0], ((BigDecimal) row[1]).doubleValue(), true);
+        }
+    }
+
+    /**
+     * Projects {@code horizon} days past the window into {@code out}. False when the state
+     * cannot answer (no data, or too few days for the SMA window), so the caller refits.
+     */
+    public boolean forecast(int horizon, double[] out) {
+        if (first == NONE) {
+            return false;
+        }
+        long n = windowEnd - first + 1;
+        switch (spec.algorithm()) {
+            case SMA -> {
+                if (n < window) return false;
+                ForecastKernels.fill(out, horizon, smaSum / window);
+            }
+            case EWMA -> ForecastKernels.fill(out, horizon, level);
+            case LINEAR_REGRESSION -> trend(n, horizon, out);
+            case SEASONAL_DECOMPOSITION -> {
+                if (seasonLength <= 1 || n < 2L * seasonLength) {
+                    // Same short-series fallback as ForecastServiceImpl.seasonalDecomposition
+                    int w = (int) Math.min(7, Math.max(2, n));
+                    if (n < w) return false;
+                    double sum = 0.0;
+                    for (long d = windowEnd - w + 1; d <= windowEnd; d++) sum += total(d);
+                    ForecastKernels.fill(out, horizon, sum / w);
+                    return true;
+                }
+                trend(n, horizon, out);
+                for (int i = 0; i < horizon; i++) {
+                    int r = residue(windowEnd + 1 + i);
+                    // Days of the series sharing the target's position in the season
+                    long lastWithResidue = windowEnd - Math.floorMod(windowEnd - r, (long) seasonLength);
+                    long count = lastWithResidue < first ? 0 : (lastWithResidue - first) / seasonLength + 1;
+                    out[i] += count > 0 ? seasonSum[r] / count : 0.0;
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The series itself, for residual-based prediction bands.
+     */
+    public DailySeries series() {
+        if (first == NONE) {
+            return DailySeries.empty();
+        }
+        double[] v = new double[(int) (windowEnd - first + 1)];
+        for (int i = 0; i < v.length; i++) v[i] = total(first + i);
+        return DailySeries.of(LocalDate.ofEpochDay(first), v);
+    }
+
+    /**
+     * Running statistics as comma-separated numbers; see {@link #restore}.
+     */
+    public String encodeStatistics() {
+        StringJoiner joiner = new StringJoiner(",");
+        joiner.add(Long.toString(first));
+        joiner.add(Double.toString(sumY)).add(Double.toString(sumAgeY));
+        joiner.add(Double.toString(smaSum)).add(Double.toString(level));
+        for (double s : seasonSum) joiner.add(Double.toString(s));
+        return joiner.toString();
+    }
+
+    private void load(List<Object[]> dailyTotals) {
+        long start = startDay();
+        for (Object[] row : dailyTotals) {
+            long d = ((LocalDate) row[0]).toEpochDay();
+            if (d < start || d > windowEnd) continue;
+            put(d, total(d) + ((BigDecimal) row[1]).doubleValue(), true);
+        }
+    }
+
+    /**
+     * Adds {@code v} to day {@code d}'s share of every statistic; {@code levelWeight} is the
+     * day's weight in the EWMA level.
+     */
+    private void add(long d, double v, double levelWeight) {
+        long age = age(d);
+        sumY += v;
+        sumAgeY += age * v;
+        if (age < window) smaSum += v;
+        level += levelWeight * v;
+        seasonSum[residue(d)] += v;
+    }
+
+    /**
+     * Removes the first day of the series; the next day with transactions starts it and
+     * becomes the EWMA seed.
+     */
+    private void dropFirst() {
+        long d = first;
+        add(d, -total(d), decay(age(d)));
+        put(d, 0.0, false);
+        long next = d + 1;
+        while (next <= windowEnd && !observed(next)) next++;
+        if (next > windowEnd) {
+            clearStatistics();
+            return;
+        }
+        first = next;
+        level += decay(age(next) + 1) * total(next);
+    }
+
+    /**
+     * Rebuilds every statistic from the ring.
+     */
+    private void recompute() {
+        clearStatistics();
+        for (long d = startDay(); d <= windowEnd; d++) {
+            if (observed(d)) {
+                first = d;
+                break;
+            }
+        }
+        if (first == NONE) {
+            return;
+        }
+        for (long d = first; d <= windowEnd; d++) {
+            double v = total(d);
+            long age = age(d);
+            sumY += v;
+            sumAgeY += age * v;
+            if (age < window) smaSum += v;
+            level = d == first ? v : alpha * v + (1 - alpha) * level;
+            seasonSum[residue(d)] += v;
+        }
+    }
+
+    private void clearStatistics() {
+        first = NONE;
+        sumY = 0.0;
+        sumAgeY = 0.0;
+        smaSum = 0.0;
+        level = 0.0;
+        Arrays.fill(seasonSum, 0.0);
+    }
+
+    /**
+     * OLS line on x = 1..n from the running sums, as ForecastKernels.linearRegressionForecast.
+     * Day d sits at x = n - age(d), so Σxy = n·Σy - Σ age·y.
+     */
+    private void trend(long n, int horizon, double[] out) {
+        double sumX = n * (n + 1) / 2.0;
+        double sumXX = n * (n + 1) * (2.0 * n + 1) / 6.0;
+        double sumXY = n * sumY - sumAgeY;
+        double denom = n * sumXX - sumX * sumX;
+        if (denom == 0) denom = 1e-9;
+        double slope = (n * sumXY - sumX * sumY) / denom;
+        double intercept = (sumY - slope * sumX) / n;
+        for (int i = 0; i < horizon; i++) {
+            out[i] = intercept + slope * (n + 1 + i);
+        }
+    }
+
+    private double total(long epochDay) {
+        return totals.getDouble(slot(epochDay) * Double.BYTES);
+    }
+
+    private boolean observed(long epochDay) {
+        int slot = slot(epochDay);
+        return (ring[lookback * Double.BYTES + (slot >>> 3)] & (1 << (slot & 7))) != 0;
+    }
+
+    private void put(long epochDay, double total, boolean isObserved) {
+        int slot = slot(epochDay);
+        totals.putDouble(slot * Double.BYTES, total);
+        int index = lookback * Double.BYTES + (slot >>> 3);
+        ring[index] = (byte) (isObserved ? ring[index] | (1 << (slot & 7)) : ring[index] & ~(1 << (slot & 7)));
+    }
+
+    private double decay(long days) {
+        return Math.pow(1 - alpha, days);
+    }
+
+    private long age(long epochDay) {
+        return windowEnd - epochDay;
+    }
+
+    private long startDay() {
+        return windowEnd - lookback + 1;
+    }
+
+    private int slot(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) lookback);
+    }
+
+    private int residue(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) seasonLength);
+    }
+}
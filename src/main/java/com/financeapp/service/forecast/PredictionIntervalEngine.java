@@ -0,0 +1,182 @@
+package com.financeapp.service.forecast;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Prediction intervals around a point forecast.
+ * <p>
+ * Models with a linear error representation (ARIMA, additive Holt-Winters) get analytic
+ * Gaussian bands from sigma² and their psi weights. Everything else is bootstrapped: each
+ * simulated path draws centred in-sample residuals with replacement, propagates them through
+ * the model's psi weights, and the band is read off the per-step empirical quantiles.
+ * <p>
+ * Paths are split into a fixed number of chunks, each with its own {@link SplittableRandom}
+ * split from a seed derived from the residuals, and run in parallel on the compute pool.
+ * The chunking does not depend on the pool size, so a given series always gets the same band.
+ */
+@Component
+public class PredictionIntervalEngine {
+
+    /** Fewer residuals than this give no useful error distribution; no band is produced. */
+    static final int MIN_RESIDUALS = 10;
+
+    private static final int CHUNKS = 16;
+
+    private final ForkJoinPool pool;
+    private final int paths;
+    private final double level;
+    private final long seed;
+    private final double z;
+
+    public PredictionIntervalEngine(@Qualifier("forecastComputePool") ForkJoinPool pool,
+                                    @Value("${app.forecast.intervals.bootstrap-paths:2000}") int paths,
+                                    @Value("${app.forecast.intervals.level:0.95}") double level,
+                                    @Value("${app.forecast.intervals.seed:20240101}") long seed) {
+        if (!(level > 0.0 && level < 1.0)) {
+            throw new IllegalArgumentException("Interval level must be in (0,1)");
+        }
+        this.pool = pool;
+        this.paths = Math.max(CHUNKS, paths);
+        this.level = level;
+        this.seed = seed;
+        this.z = inverseNormal(0.5 + level / 2.0);
+    }
+
+    /**
+     * Psi weights for models whose error does not carry over between steps ({@code tail = 0})
+     * or carries over with a constant weight, like simple exponential smoothing ({@code tail = alpha}).
+     */
+    public static double[] constantPsi(int horizon, double tail) {
+        double[] psi = new double[horizon];
+        Arrays.fill(psi, tail);
+        if (horizon > 0) psi[0] = 1.0;
+        return psi;
+    }
+
+    /**
+     * Gaussian band {@code point ± z * sqrt(sigma2 * cumulative sum of psi²)}.
+     */
+    public IntervalForecast analytic(double[] point, double sigma2, double[] psi) {
+        if (!(sigma2 >= 0.0) || !Double.isFinite(sigma2)) {
+            return IntervalForecast.pointOnly(point);
+        }
+        double[] low = new double[point.length];
+        double[] high = new double[point.length];
+        double cumulative = 0.0;
+        for (int h = 0; h < point.length; h++) {
+            double weight = h < psi.length ? psi[h] : 0.0;
+            cumulative += weight * weight;
+            double half = z * Math.sqrt(sigma2 * cumulative);
+            low[h] = point[h] - half;
+            high[h] = point[h] + half;
+        }
+        return new IntervalForecast(point, low, high);
+    }
+
+    /**
+     * Empirical band from {@code paths} resampled error paths over {@code residuals[0..count)}.
+     */
+    public IntervalForecast bootstrap(double[] point, double[] residuals, int count, double[] psi) {
+        int horizon = point.length;
+        if (count < MIN_RESIDUALS || horizon == 0) {
+            return IntervalForecast.pointOnly(point);
+        }
+        double mean = 0.0;
+        for (int i = 0; i < count; i++) mean += residuals[i];
+        mean /= count;
+        double[] centred = new double[count];
+        for (int i = 0; i < count; i++) centred[i] = residuals[i] - mean;
+
+        // Column-major: the paths for step h occupy [h * paths, (h + 1) * paths)
+        double[] deviations = new double[horizon * paths];
+        SplittableRandom root = new SplittableRandom(seedFor(centred, count, horizon));
+        SplittableRandom[] streams = new SplittableRandom[CHUNKS];
+        for (int c = 0; c < CHUNKS; c++) streams[c] = root.split();
+
+        pool.submit(() -> IntStream.range(0, CHUNKS).parallel()
+                        .forEach(c -> simulate(centred, psi, horizon, streams[c],
+                                c * paths / CHUNKS, (c + 1) * paths / CHUNKS, deviations)))
+                .join();
+
+        double tail = (1.0 - level) / 2.0;
+        double[] low = new double[horizon];
+        double[] high = new double[horizon];
+        for (int h = 0; h < horizon; h++) {
+            int from = h * paths;
+            Arrays.sort(deviations, from, from + paths);
+            low[h] = point[h] + quantile(deviations, from, paths, tail);
+            high[h] = point[h] + quantile(deviations, from, paths, 1.0 - tail);
+        }
+        return new IntervalForecast(point, low, high);
+    }
+
+    private void simulate(double[] residuals, double[] psi, int horizon, SplittableRandom random,
+                          int fromPath, int toPath, double[] deviations) {
+        int count = residuals.length;
+        double[] shocks = new double[horizon];
+        for (int p = fromPath; p < toPath; p++) {
+            for (int h = 0; h < horizon; h++) {
+                shocks[h] = residuals[random.nextInt(count)];
+                double deviation = 0.0;
+                // Error at step h is the sum of psi_j times the shock from j steps earlier
+                for (int j = 0; j <= h && j < psi.length; j++) deviation += psi[j] * shocks[h - j];
+                deviations[h * paths + p] = deviation;
+            }
+        }
+    }
+
+    /**
+     * Linear interpolation between order statistics of the sorted slice {@code [from, from + size)}.
+     */
+    static double quantile(double[] sorted, int from, int size, double q) {
+        double position = q * (size - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(size - 1, lower + 1);
+        double fraction = position - lower;
+        return sorted[from + lower] + fraction * (sorted[from + upper] - sorted[from + lower]);
+    }
+
+    private long seedFor(double[] residuals, int count, int horizon) {
+        long h = seed ^ (31L * count + horizon);
+        for (int i = 0; i < count; i++) {
+            h = (h ^ Double.doubleToLongBits(residuals[i])) * 0x9E3779B97F4A7C15L;
+        }
+        return h;
+    }
+
+    /**
+     * Acklam's rational approximation of the standard normal quantile (relative error below 1.2e-9).
+     */
+    static double inverseNormal(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
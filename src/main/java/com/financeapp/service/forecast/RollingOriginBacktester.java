@@ -0,0 +1,303 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rolling-origin cross-validation: forecasts from every origin {@code o} (training on the first
+ * {@code o} days, or the last {@code slidingWindowDays} of them) and scores each step against
+ * the days that follow, all in one pass over the series.
+ * <p>
+ * Origins are visited in ascending order and each model keeps incremental state instead of
+ * refitting: moving averages and regression lines come from prefix sums, EWMA and Holt-Winters
+ * advance their recursion one day at a time, and ARIMA reuses one set of residuals. Models with
+ * estimated parameters (ARIMA order and coefficients, Holt-Winters smoothing weights) are
+ * fitted once on the data before the first origin, so no origin sees its own future.
+ * The sliding window applies to the regression-based models; the recursive ones carry their
+ * whole history in their state either way.
+ */
+@Component
+public class RollingOriginBacktester {
+
+    /** Fewest training days any origin may use. */
+    static final int MIN_TRAIN = 7;
+    /** Fewest training days before ARIMA coefficients are estimated. */
+    static final int MIN_ARIMA_TRAIN = 30;
+
+    private final ArimaEngine arimaEngine;
+    private final HoltWintersEngine holtWintersEngine;
+    private final int slidingWindowDays;
+
+    public RollingOriginBacktester(ArimaEngine arimaEngine,
+                                   HoltWintersEngine holtWintersEngine,
+                                   @Value("${app.forecast.backtest.sliding-window-days:0}") int slidingWindowDays) {
+        this.arimaEngine = arimaEngine;
+        this.holtWintersEngine = holtWintersEngine;
+        this.slidingWindowDays = Math.max(0, slidingWindowDays);
+    }
+
+    /**
+     * Evaluates origins from {@code n - evaluationDays} (or the model's minimum training size,
+     * if later) up to the last day. Returns null when the series leaves no origin to evaluate.
+     */
+    public BacktestReport run(DailySeries series, ForecastConfig config, int horizon, int evaluationDays) {
+        Evaluation evaluation = start(series, config, horizon, evaluationDays);
+        if (evaluation == null) {
+            return null;
+        }
+        evaluation.advance(series.size());
+        return evaluation.report();
+    }
+
+    /**
+     * Fits the model and positions it at the first origin without scoring anything yet, so a
+     * caller can score origins in slices (and give up on a poor model early). Null when the
+     * series leaves no origin to evaluate.
+     */
+    public Evaluation start(DailySeries series, ForecastConfig config, int horizon, int evaluationDays) {
+        return start(series, config, horizon, evaluationDays, false);
+    }
+
+    /**
+     * Like {@link #start}, but ARIMA and Holt-Winters are fitted with the engines' cheap
+     * screening fits (one order, one Nelder-Mead run). The result reports
+     * {@link Evaluation#isScreening()} so a race can start the full fit only for the models
+     * that survive screening.
+     */
+    public Evaluation startScreening(DailySeries series, ForecastConfig config, int horizon, int evaluationDays) {
+        return start(series, config, horizon, evaluationDays, true);
+    }
+
+    private Evaluation start(DailySeries series, ForecastConfig config, int horizon, int evaluationDays, boolean screening) {
+        int firstOrigin = Math.max(minimumTrain(config), series.size() - evaluationDays);
+        if (horizon <= 0 || firstOrigin >= series.size()) {
+            return null;
+        }
+        boolean screened = screening && ModelFitter.closedForm(config) == null;
+        return new Evaluation(series, config, horizon, firstOrigin, screened,
+                forecaster(series, config, firstOrigin, screened));
+    }
+
+    /**
+     * Incremental rolling-origin evaluation of one config. Not thread-safe; one caller at a time.
+     */
+    public static final class Evaluation {
+        private final DailySeries series;
+        private final ForecastConfig config;
+        private final int horizon;
+        private final int firstOrigin;
+        private final boolean screening;
+        private final OriginForecaster model;
+        private final BacktestReport.Accumulator overall = new BacktestReport.Accumulator();
+        private final BacktestReport.Accumulator[] byHorizon;
+        private final BacktestReport.Metrics[] byOrigin;
+        private final double[] out;
+        private int nextOrigin;
+
+        private Evaluation(DailySeries series, ForecastConfig config, int horizon, int firstOrigin,
+                           boolean screening, OriginForecaster model) {
+            this.series = series;
+            this.config = config;
+            this.horizon = horizon;
+            this.firstOrigin = firstOrigin;
+            this.screening = screening;
+            this.model = model;
+            this.byHorizon = new BacktestReport.Accumulator[horizon];
+            for (int h = 0; h < horizon; h++) byHorizon[h] = new BacktestReport.Accumulator();
+            this.byOrigin = new BacktestReport.Metrics[series.size() - firstOrigin];
+            this.out = new double[horizon];
+            this.nextOrigin = firstOrigin;
+        }
+
+        public ForecastConfig config() {
+            return config;
+        }
+
+        public int firstOrigin() {
+            return firstOrigin;
+        }
+
+        /** True when the model's parameters come from a screening fit rather than the full one. */
+        public boolean isScreening() {
+            return screening;
+        }
+
+        public boolean isComplete() {
+            return nextOrigin >= series.size();
+        }
+
+        /**
+         * Scores every origin before {@code untilOrigin} that has not been scored yet.
+         */
+        public void advance(int untilOrigin) {
+            double[] v = series.values();
+            int n = series.size();
+            int end = Math.min(untilOrigin, n);
+            for (; nextOrigin < end; nextOrigin++) {
+                int origin = nextOrigin;
+                model.forecast(origin, horizon, out);
+                BacktestReport.Accumulator atOrigin = new BacktestReport.Accumulator();
+                int steps = Math.min(horizon, n - origin);
+                for (int h = 0; h < steps; h++) {
+                    double actual = v[origin + h];
+                    overall.add(actual, out[h]);
+                    byHorizon[h].add(actual, out[h]);
+                    atOrigin.add(actual, out[h]);
+                }
+                byOrigin[origin - firstOrigin] = atOrigin.toMetrics();
+            }
+        }
+
+        /**
+         * Errors over the origins scored so far.
+         */
+        public BacktestReport.Metrics overall() {
+            return overall.toMetrics();
+        }
+
+        /**
+         * Full report; scores any remaining origins first.
+         */
+        public BacktestReport report() {
+            advance(series.size());
+            double[] finalForecast = new double[horizon];
+            model.forecast(series.size(), horizon, finalForecast);
+            BacktestReport.Metrics[] horizonMetrics = new BacktestReport.Metrics[horizon];
+            for (int h = 0; h < horizon; h++) horizonMetrics[h] = byHorizon[h].toMetrics();
+            return new BacktestReport(firstOrigin, horizon, overall.toMetrics(), horizonMetrics, byOrigin, finalForecast);
+        }
+    }
+
+    /**
+     * Fewest training days the config's model needs at its first origin.
+     */
+    static int minimumTrain(ForecastConfig config) {
+        return switch (config.getAlgorithm()) {
+            case SMA -> Math.max(MIN_TRAIN, windowSize(config));
+            case ARIMA -> MIN_ARIMA_TRAIN;
+            case HOLT_WINTERS_ADDITIVE, HOLT_WINTERS_MULTIPLICATIVE -> Math.max(MIN_TRAIN, 2 * seasonLength(config));
+            default -> MIN_TRAIN;
+        };
+    }
+
+    private OriginForecaster forecaster(DailySeries series, ForecastConfig config, int firstOrigin, boolean screening) {
+        double[] v = series.values();
+        return switch (config.getAlgorithm()) {
+            case SMA -> sma(v, series.size(), windowSize(config));
+            case EWMA -> ewma(v, config.getSmoothingFactor() != null ? config.getSmoothingFactor() : 0.3d);
+            case LINEAR_REGRESSION -> trend(v, series.size(), 0);
+            case SEASONAL_DECOMPOSITION -> trend(v, series.size(), seasonLength(config));
+            case ARIMA -> {
+                DailySeries train = series.head(firstOrigin);
+                ArimaModel.Fit fit = screening ? arimaEngine.screeningFit(train) : arimaEngine.autoFit(train);
+                if (!fit.isValid()) {
+                    yield trend(v, series.size(), 0);
+                }
+                ArimaModel.Replay replay = new ArimaModel.Replay(v, series.size(), fit);
+                double[] lastLevel = new double[fit.d()];
+                yield (origin, horizon, out) -> replay.forecast(origin, horizon, lastLevel, out);
+            }
+            case HOLT_WINTERS_ADDITIVE, HOLT_WINTERS_MULTIPLICATIVE -> {
+                boolean multiplicative = config.getAlgorithm() == ForecastConfig.AlgorithmType.HOLT_WINTERS_MULTIPLICATIVE;
+                HoltWinters.Fit fit = screening
+                        ? holtWintersEngine.screeningFit(series.head(firstOrigin), seasonLength(config), multiplicative)
+                        : holtWintersEngine.fit(series.head(firstOrigin), seasonLength(config), multiplicative);
+                if (fit == null) {
+                    yield trend(v, series.size(), seasonLength(config));
+                }
+                HoltWinters.Replay replay = new HoltWinters.Replay(v, fit);
+                yield replay::forecast;
+            }
+            case AUTO -> throw new IllegalArgumentException("AUTO must be resolved to a concrete algorithm before backtesting");
+        };
+    }
+
+    private static OriginForecaster sma(double[] v, int n, int window) {
+        double[] prefix = prefixSums(v, n);
+        return (origin, horizon, out) -> ForecastKernels.fill(out, horizon,
+                (prefix[origin] - prefix[origin - window]) / window);
+    }
+
+    private static OriginForecaster ewma(double[] v, double alpha) {
+        double[] level = {v[0]};
+        int[] position = {1};
+        return (origin, horizon, out) -> {
+            for (; position[0] < origin; position[0]++) {
+                level[0] = alpha * v[position[0]] + (1 - alpha) * level[0];
+            }
+            ForecastKernels.fill(out, horizon, level[0]);
+        };
+    }
+
+    /**
+     * OLS line over the training days from prefix sums of y and t*y, plus per-position seasonal
+     * means when {@code seasonLength > 1}, matching ForecastKernels.seasonalDecomposition. With
+     * fewer than two seasons of training it falls back to a short SMA level, as the service does.
+     */
+    private OriginForecaster trend(double[] v, int n, int seasonLength) {
+        double[] sumY = prefixSums(v, n);
+        double[] sumTY = new double[n + 1];
+        for (int t = 0; t < n; t++) sumTY[t + 1] = sumTY[t] + (t + 1) * v[t];
+        boolean seasonal = seasonLength > 1;
+        // Per-residue (t % seasonLength) sums over the window, maintained as it moves
+        double[] seasonSum = seasonal ? new double[seasonLength] : null;
+        int[] seasonCount = seasonal ? new int[seasonLength] : null;
+        int[] cursor = {0, 0}; // next day to add, next day to drop
+        return (origin, horizon, out) -> {
+            int from = slidingWindowDays > 0 ? Math.max(0, origin - slidingWindowDays) : 0;
+            int len = origin - from;
+            if (seasonal) {
+                for (; cursor[0] < origin; cursor[0]++) {
+                    seasonSum[cursor[0] % seasonLength] += v[cursor[0]];
+                    seasonCount[cursor[0] % seasonLength]++;
+                }
+                for (; cursor[1] < from; cursor[1]++) {
+                    seasonSum[cursor[1] % seasonLength] -= v[cursor[1]];
+                    seasonCount[cursor[1] % seasonLength]--;
+                }
+            }
+            if (seasonal && len < 2 * seasonLength) {
+                int w = Math.min(7, Math.max(2, len));
+                ForecastKernels.fill(out, horizon, (sumY[origin] - sumY[origin - w]) / w);
+                return;
+            }
+            // x runs 1..len over the window; shift the absolute t*y sums onto that scale
+            double sy = sumY[origin] - sumY[from];
+            double sxy = (sumTY[origin] - sumTY[from]) - from * sy;
+            double sx = len * (len + 1) / 2.0;
+            double sxx = len * (len + 1) * (2.0 * len + 1) / 6.0;
+            double denom = len * sxx - sx * sx;
+            if (denom == 0) denom = 1e-9;
+            double slope = (len * sxy - sx * sy) / denom;
+            double intercept = (sy - slope * sx) / len;
+            for (int h = 0; h < horizon; h++) {
+                out[h] = intercept + slope * (len + 1 + h);
+                if (seasonal) {
+                    int r = (origin + h) % seasonLength;
+                    out[h] += seasonCount[r] > 0 ? seasonSum[r] / seasonCount[r] : 0.0;
+                }
+            }
+        };
+    }
+
+    private static double[] prefixSums(double[] v, int n) {
+        double[] prefix = new double[n + 1];
+        for (int t = 0; t < n; t++) prefix[t + 1] = prefix[t] + v[t];
+        return prefix;
+    }
+
+    private static int windowSize(ForecastConfig config) {
+        return config.getWindowSize() != null ? config.getWindowSize() : 7;
+    }
+
+    private static int seasonLength(ForecastConfig config) {
+        return config.getSeasonLength() != null ? config.getSeasonLength() : 7;
+    }
+
+    @FunctionalInterface
+    private interface OriginForecaster {
+        /** Called with non-decreasing origins; {@code origin} is the number of training days. */
+        void forecast(int origin, int horizon, double[] out);
+    }
+}
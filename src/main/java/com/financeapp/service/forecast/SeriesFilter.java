@@ -0,0 +1,50 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+
+import java.util.Locale;
+
+/**
+ * The transaction type and category a config forecasts; a null part matches any value.
+ */
+public record SeriesFilter(TransactionType type, Category category) {
+
+    private static final SeriesFilter NONE = new SeriesFilter(null, null);
+
+    public static SeriesFilter none() {
+        return NONE;
+    }
+
+    /**
+     * Filter named by a config's {@code transactionType} and {@code category}; blank names
+     * match anything.
+     *
+     * @throws IllegalArgumentException for a name that is not a known type or category
+     */
+    public static SeriesFilter of(ForecastConfig config) {
+        TransactionType type = parse(TransactionType.class, config.getTransactionType(), "transaction type");
+        Category category = parse(Category.class, config.getCategory(), "category");
+        return type == null && category == null ? NONE : new SeriesFilter(type, category);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> enumType, String name, String what) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(enumType, name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + what + ": " + name);
+        }
+    }
+
+    public boolean isEmpty() {
+        return type == null && category == null;
+    }
+
+    public boolean matches(TransactionType t, Category c) {
+        return (type == null || type == t) && (category == null || category == c);
+    }
+}
@@ -0,0 +1,19 @@
+package com.financeapp.service.forecast;
+
+/**
+ * The {@link ForecastKernels} reductions that have SIMD versions. The implementation lives in
+ * the {@code vector} build profile's source root and is looked up by name, so the default
+ * build neither compiles nor links against {@code jdk.incubator.vector}.
+ */
+interface SimdKernels {
+
+    /** Doubles per vector. */
+    int lanes();
+
+    void linearRegressionForecast(double[] v, int n, int horizon, double[] out);
+
+    /** Per-position sums of {@code v}, without dividing by the counts. */
+    void seasonSums(double[] v, int n, int seasonLength, double[] season);
+
+    int detectAnomalies(double[] v, int n, double thresholdSigma, int[] out);
+}
@@ -10,6 +10,7 @@ import com.financeapp.entity.User;
 import com.financeapp.repository.CategoryRepository;
 import com.financeapp.repository.UserRepository;
 import com.financeapp.service.CategoryService;
+import com.financeapp.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -655,6 +656,10 @@ public class CategoryServiceImpl implements CategoryService {
             throw new RuntimeException("User not authenticated");
         }
         
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+
         String username = authentication.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
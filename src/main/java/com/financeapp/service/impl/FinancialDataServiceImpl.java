@@ -1,5 +1,9 @@
 package com.financeapp.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeapp.dto.CountedPage;
+import com.financeapp.dto.CursorPageDto;
 import com.financeapp.dto.FinancialDataDto;
 import com.financeapp.dto.FinancialDataCreateDto;
 import com.financeapp.dto.FinancialDataResponseDto;
@@ -8,29 +12,70 @@ import com.financeapp.entity.FinancialData;
 import com.financeapp.entity.User;
 import com.financeapp.entity.enums.Category;
 import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.entity.enums.TrendPeriod;
 import com.financeapp.exception.FinancialDataNotFoundException;
 import com.financeapp.exception.ValidationException;
+import com.financeapp.repository.FinancialDataBatchWriter;
 import com.financeapp.repository.FinancialDataRepository;
 import com.financeapp.repository.UserRepository;
+import com.financeapp.security.AuthenticatedUser;
+import com.financeapp.service.FinancialDataCursor;
 import com.financeapp.service.FinancialDataService;
+import com.financeapp.service.anomaly.StreamingAnomalyDetector;
+import com.financeapp.service.event.FinancialDataChangedEvent;
+import com.financeapp.service.event.FinancialDataChangedEvent.ChangeType;
+import com.financeapp.service.rollup.DailyTotalsMaintainer;
+import com.financeapp.service.rollup.FinancialDataCounter;
+import com.financeapp.service.rollup.FinancialSummaries;
+import com.financeapp.specification.FinancialDataFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Savepoint;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -38,6 +83,9 @@ public class FinancialDataServiceImpl implements FinancialDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(FinancialDataServiceImpl.class);
 
+    /** Largest page a scrolling client may ask for. */
+    private static final int MAX_SCROLL_SIZE = 200;
+
     @Autowired
     private FinancialDataRepository financialDataRepository;
 
@@ -47,19 +95,98 @@ public class FinancialDataServiceImpl implements FinancialDataService {
     @Autowired
     private FinancialDataMapper financialDataMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private FinancialDataBatchWriter financialDataBatchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DailyTotalsMaintainer dailyTotalsMaintainer;
+
+    @Autowired
+    private StreamingAnomalyDetector anomalyDetector;
+
+    @Autowired
+    private FinancialDataCounter financialDataCounter;
+
+    @Autowired
+    private FinancialSummaries financialSummaries;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.ingest.chunk-size:1000}")
+    private int ingestChunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     @Transactional(readOnly = true)
-    public Page<FinancialDataResponseDto> getAllFinancialData(Specification<FinancialData> spec, Pageable pageable) {
+    public CountedPage<FinancialDataResponseDto> getAllFinancialData(FinancialDataFilter filter, Pageable pageable) {
         logger.info("Fetching financial data with pagination - page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
-        
-        // Add user filter to specification
+        return countedPage(getCurrentUserId(), filter, pageable);
+    }
+
+    /**
+     * One page of the user's rows plus a total from {@link FinancialDataCounter} instead of a
+     * count query. A short page is the last one, so its total is known exactly anyway.
+     */
+    private CountedPage<FinancialDataResponseDto> countedPage(Long userId, FinancialDataFilter filter, Pageable pageable) {
+        Specification<FinancialData> userSpec = filter.toSpecification().and((root, query, criteriaBuilder) ->
+            criteriaBuilder.equal(root.get("user").get("id"), userId));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FinancialData> query = cb.createQuery(FinancialData.class);
+        Root<FinancialData> root = query.from(FinancialData.class);
+        query.where(userSpec.toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        TypedQuery<FinancialData> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<FinancialDataResponseDto> content = typed.getResultList().stream()
+                .map(financialDataMapper::toResponseDto)
+                .toList();
+
+        boolean lastPage = pageable.isUnpaged() || (content.size() < pageable.getPageSize()
+                && (!content.isEmpty() || pageable.getOffset() == 0));
+        FinancialDataCounter.TotalCount total = lastPage
+                ? new FinancialDataCounter.TotalCount((pageable.isPaged() ? pageable.getOffset() : 0) + content.size(), true)
+                : financialDataCounter.count(userId, filter, userSpec);
+        return new CountedPage<>(content, pageable, total.value(), total.exact());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<FinancialDataResponseDto> scrollFinancialData(Specification<FinancialData> spec, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        KeysetScrollPosition position = FinancialDataCursor.decode(cursor);
+        logger.info("Scrolling financial data - size: {}, first page: {}", limit, position.isInitial());
+
         Long currentUserId = getCurrentUserId();
-        Specification<FinancialData> userSpec = spec.and((root, query, criteriaBuilder) -> 
+        Specification<FinancialData> userSpec = spec.and((root, query, criteriaBuilder) ->
             criteriaBuilder.equal(root.get("user").get("id"), currentUserId));
-        
-        Page<FinancialData> financialDataPage = financialDataRepository.findAll(userSpec, pageable);
-        
-        return financialDataPage.map(financialDataMapper::toResponseDto);
+
+        // Reads limit + 1 rows to learn whether another page exists; never counts
+        Window<FinancialData> window = financialDataRepository.findBy(userSpec, query -> query
+                .sortBy(FinancialDataCursor.ORDER)
+                .limit(limit)
+                .scroll(position));
+
+        List<FinancialDataResponseDto> content = window.stream().map(financialDataMapper::toResponseDto).toList();
+        String nextCursor = window.hasNext() ? FinancialDataCursor.encode(window.getContent().get(window.size() - 1)) : null;
+        return new CursorPageDto<>(content, content.size(), nextCursor, window.hasNext());
     }
 
     @Override
@@ -95,6 +222,7 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         financialData.setUpdatedAt(java.time.OffsetDateTime.now());
         
         FinancialData savedFinancialData = financialDataRepository.save(financialData);
+        publishChange(currentUserId, ChangeType.CREATED);
         
         logger.info("Financial data created successfully with ID: {}", savedFinancialData.getId());
         return financialDataMapper.toResponseDto(savedFinancialData);
@@ -136,6 +264,7 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         financialData.setUpdatedAt(java.time.OffsetDateTime.now());
 
         FinancialData saved = financialDataRepository.save(financialData);
+        publishChange(currentUserId, ChangeType.CREATED);
         return financialDataMapper.toResponseDto(saved);
     }
 
@@ -154,6 +283,8 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         }
         
         FinancialData financialData = existingFinancialData.get();
+        // The update is flushed only at commit, after the rollup's before-commit hook would register
+        dailyTotalsMaintainer.recordChange(currentUserId, financialData.getDate());
         if (financialDataDto.date() != null) {
             financialData.setDate(financialDataDto.date());
         }
@@ -170,8 +301,10 @@ public class FinancialDataServiceImpl implements FinancialDataService {
             financialData.setType(TransactionType.valueOf(financialDataDto.type()));
         }
         financialData.setUpdatedAt(java.time.OffsetDateTime.now());
+        dailyTotalsMaintainer.recordChange(currentUserId, financialData.getDate());
         
         FinancialData updatedFinancialData = financialDataRepository.save(financialData);
+        publishChange(currentUserId, ChangeType.UPDATED);
         
         logger.info("Financial data updated successfully with ID: {}", updatedFinancialData.getId());
         return Optional.of(financialDataMapper.toResponseDto(updatedFinancialData));
@@ -189,29 +322,41 @@ public class FinancialDataServiceImpl implements FinancialDataService {
             return false;
         }
         
+        // Same for the delete, which is flushed only at commit
+        dailyTotalsMaintainer.recordChange(currentUserId, financialData.get().getDate());
         financialDataRepository.delete(financialData.get());
+        publishChange(currentUserId, ChangeType.DELETED);
         
         logger.info("Financial data deleted successfully with ID: {}", id);
         return true;
     }
 
+    /**
+     * Validates all records in parallel, including the entity's Bean Validation constraints that
+     * the JDBC batch does not run, then inserts the valid ones in chunks of
+     * {@code app.ingest.chunk-size} rows, one JDBC batch and one transaction per chunk.
+     * A chunk that fails is rolled back on its own and reported; later chunks still run.
+     * When called inside an existing transaction, each chunk runs to a JDBC savepoint of it instead:
+     * a failed chunk rolls back to its savepoint without marking the caller's transaction
+     * rollback-only, and the others are reported {@code APPLIED}, to commit with the caller.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Map<String, Object> bulkCreateFinancialData(List<FinancialDataDto> financialDataList) {
-        logger.info("Bulk creating {} financial data records", financialDataList.size());
-        
         if (financialDataList == null || financialDataList.isEmpty()) {
             throw new ValidationException("Financial data list cannot be empty");
         }
+        logger.info("Bulk creating {} financial data records", financialDataList.size());
         
         Long currentUserId = getCurrentUserId();
         User user = userRepository.findById(currentUserId)
                 .orElseThrow(() -> new ValidationException("User not found"));
         
-        List<FinancialData> validFinancialData = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        
-        for (int i = 0; i < financialDataList.size(); i++) {
+        int total = financialDataList.size();
+        FinancialData[] rows = new FinancialData[total];
+        String[] rowErrors = new String[total];
+        java.time.OffsetDateTime now = java.time.OffsetDateTime.now();
+        java.util.stream.IntStream.range(0, total).parallel().forEach(i -> {
             try {
                 FinancialDataDto dto = financialDataList.get(i);
                 validateFinancialData(dto);
@@ -223,32 +368,106 @@ public class FinancialDataServiceImpl implements FinancialDataService {
                 financialData.setCategory(Category.valueOf(dto.category()));
                 financialData.setDescription(dto.description());
                 financialData.setType(TransactionType.valueOf(dto.type()));
-                financialData.setCreatedAt(java.time.OffsetDateTime.now());
-                financialData.setUpdatedAt(java.time.OffsetDateTime.now());
+                financialData.setCreatedAt(now);
+                financialData.setUpdatedAt(now);
+                validateEntity(financialData);
                 
-                validFinancialData.add(financialData);
+                rows[i] = financialData;
             } catch (Exception e) {
-                errors.add(String.format("Record %d: %s", i + 1, e.getMessage()));
+                rowErrors[i] = String.format("Record %d: %s", i + 1, e.getMessage());
             }
+        });
+        
+        List<String> errors = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            if (rows[i] != null) validIndexes.add(i);
+            else errors.add(rowErrors[i]);
         }
         
-        List<FinancialData> savedFinancialData = financialDataRepository.saveAll(validFinancialData);
+        List<Long> createdIds = new ArrayList<>(validIndexes.size());
+        List<Map<String, Object>> chunks = new ArrayList<>();
+        int failedRows = errors.size();
+        int chunkCount = (validIndexes.size() + ingestChunkSize - 1) / ingestChunkSize;
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        boolean joined = TransactionSynchronizationManager.isActualTransactionActive();
+        for (int c = 0; c < chunkCount; c++) {
+            List<Integer> indexes = validIndexes.subList(c * ingestChunkSize, Math.min(validIndexes.size(), (c + 1) * ingestChunkSize));
+            List<FinancialData> chunkRows = new ArrayList<>(indexes.size());
+            for (int i : indexes) chunkRows.add(rows[i]);
+            
+            Map<String, Object> chunk = new LinkedHashMap<>();
+            chunk.put("chunk", c + 1);
+            chunk.put("firstRecord", indexes.get(0) + 1);
+            chunk.put("lastRecord", indexes.get(indexes.size() - 1) + 1);
+            chunk.put("size", indexes.size());
+            try {
+                Supplier<List<Long>> insertChunk = () -> {
+                    List<Long> inserted = financialDataBatchWriter.insertBatch(chunkRows);
+                    chunkRows.stream().map(FinancialData::getDate).distinct()
+                            .forEach(day -> dailyTotalsMaintainer.recordChange(currentUserId, day));
+                    for (int r = 0; r < inserted.size(); r++) {
+                        anomalyDetector.record(inserted.get(r), chunkRows.get(r));
+                    }
+                    return inserted;
+                };
+                List<Long> ids = joined ? inSavepoint(insertChunk) : chunkTransaction.execute(status -> insertChunk.get());
+                createdIds.addAll(ids);
+                chunk.put("status", joined ? "APPLIED" : "COMMITTED");
+                chunk.put("createdCount", ids.size());
+                logger.info("Bulk chunk {}/{} {}: {} records", c + 1, chunkCount, joined ? "applied" : "committed", ids.size());
+            } catch (RuntimeException e) {
+                failedRows += indexes.size();
+                String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                errors.add(String.format("Records %d-%d: chunk failed: %s", indexes.get(0) + 1, indexes.get(indexes.size() - 1) + 1, message));
+                chunk.put("status", "FAILED");
+                chunk.put("createdCount", 0);
+                chunk.put("error", message);
+                logger.warn("Bulk chunk {}/{} failed: {}", c + 1, chunkCount, message);
+            }
+            chunks.add(chunk);
+        }
+        if (!createdIds.isEmpty()) {
+            publishChange(currentUserId, ChangeType.BULK_CREATED);
+        }
         
         Map<String, Object> result = new HashMap<>();
-        result.put("createdCount", savedFinancialData.size());
-        result.put("failedCount", errors.size());
+        result.put("createdCount", createdIds.size());
+        result.put("failedCount", failedRows);
         result.put("errors", errors);
-        result.put("createdIds", savedFinancialData.stream().map(FinancialData::getId).collect(Collectors.toList()));
+        result.put("createdIds", createdIds);
+        result.put("chunks", chunks);
         
         logger.info("Bulk creation completed - created: {}, failed: {}", 
-                   savedFinancialData.size(), errors.size());
+                   createdIds.size(), failedRows);
         
         return result;
     }
 
+    /**
+     * Runs {@code work} to a savepoint of the current transaction's connection and rolls back to
+     * it if {@code work} fails. Plain JDBC because Hibernate's JPA dialect has no savepoints for
+     * {@code PROPAGATION_NESTED}, and no transaction boundary is crossed, so nothing marks the
+     * transaction rollback-only.
+     */
+    private <T> T inSavepoint(Supplier<T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            T result;
+            try {
+                result = work.get();
+            } catch (RuntimeException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+            connection.releaseSavepoint(savepoint);
+            return result;
+        });
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public String exportFinancialData(String format, String type, String category, LocalDate dateFrom, LocalDate dateTo) {
+    public ExportWriter streamFinancialData(String format, String type, String category, LocalDate dateFrom, LocalDate dateTo) {
         logger.info("Exporting financial data in {} format", format);
         
         Long currentUserId = getCurrentUserId();
@@ -256,16 +475,31 @@ public class FinancialDataServiceImpl implements FinancialDataService {
                 ? TransactionType.valueOf(type.toUpperCase()) : null;
         Category categoryEnum = (category != null && !category.trim().isEmpty()) 
                 ? Category.valueOf(category.toUpperCase()) : null;
-        List<FinancialData> financialDataList = financialDataRepository.findByUserIdAndFilters(
-                currentUserId, transactionType, categoryEnum, dateFrom, dateTo);
-        
-        if ("csv".equalsIgnoreCase(format)) {
-            return exportToCsv(financialDataList);
-        } else if ("json".equalsIgnoreCase(format)) {
-            return exportToJson(financialDataList);
-        } else {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"json".equalsIgnoreCase(format)) {
             throw new ValidationException("Unsupported export format: " + format);
         }
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return out -> {
+            try {
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<FinancialData> rows = financialDataRepository.streamByUserIdAndFilters(
+                            currentUserId, transactionType, categoryEnum, dateFrom, dateTo)) {
+                        if (csv) {
+                            writeCsv(rows, out);
+                        } else {
+                            writeJson(rows, out);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
     }
 
     @Override
@@ -274,24 +508,14 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         logger.info("Fetching financial summaries - dateFrom: {}, dateTo: {}", dateFrom, dateTo);
         
         Long currentUserId = getCurrentUserId();
-        
-        // Use database-optimized queries
-        BigDecimal totalIncome = financialDataRepository.getTotalAmountByTypeAndDateRange(
-                currentUserId, TransactionType.INCOME, dateFrom, dateTo);
-        BigDecimal totalExpense = financialDataRepository.getTotalAmountByTypeAndDateRange(
-                currentUserId, TransactionType.EXPENSE, dateFrom, dateTo);
-        Long totalTransactions = financialDataRepository.getCountByTypeAndDateRange(
-                currentUserId, null, dateFrom, dateTo);
-        BigDecimal averageAmount = financialDataRepository.getAverageAmountByDateRange(
-                currentUserId, dateFrom, dateTo);
+        FinancialSummaries.Summary summary = financialSummaries.summarize(currentUserId, dateFrom, dateTo);
         
         Map<String, Object> summaries = new HashMap<>();
-        summaries.put("totalIncome", totalIncome != null ? totalIncome : BigDecimal.ZERO);
-        summaries.put("totalExpense", totalExpense != null ? totalExpense : BigDecimal.ZERO);
-        summaries.put("netAmount", (totalIncome != null ? totalIncome : BigDecimal.ZERO)
-                .subtract(totalExpense != null ? totalExpense : BigDecimal.ZERO));
-        summaries.put("totalTransactions", totalTransactions != null ? totalTransactions : 0L);
-        summaries.put("averageAmount", averageAmount != null ? averageAmount : BigDecimal.ZERO);
+        summaries.put("totalIncome", summary.totalIncome());
+        summaries.put("totalExpense", summary.totalExpense());
+        summaries.put("netAmount", summary.netAmount());
+        summaries.put("totalTransactions", summary.totalTransactions());
+        summaries.put("averageAmount", summary.averageAmount());
         summaries.put("dateFrom", dateFrom);
         summaries.put("dateTo", dateTo);
         
@@ -305,6 +529,7 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         logger.info("Fetching category aggregations - type: {}, dateFrom: {}, dateTo: {}", type, dateFrom, dateTo);
         
         Long currentUserId = getCurrentUserId();
+        dailyTotalsMaintainer.flushPending();
         TransactionType transactionType = (type != null && !type.trim().isEmpty()) 
                 ? TransactionType.valueOf(type.toUpperCase()) : null;
         List<Object[]> results = financialDataRepository.getCategoryAggregations(
@@ -332,6 +557,7 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         logger.info("Fetching monthly trends - type: {}, months: {}", type, months);
         
         Long currentUserId = getCurrentUserId();
+        dailyTotalsMaintainer.flushPending();
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusMonths(months - 1).withDayOfMonth(1);
         
@@ -342,12 +568,13 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         
         List<Map<String, Object>> trends = results.stream()
                 .map(row -> {
+                    int yearMonth = ((Number) row[0]).intValue();
                     Map<String, Object> trend = new HashMap<>();
-                    trend.put("year", row[0]);
-                    trend.put("month", row[1]);
-                    trend.put("totalAmount", row[2]);
-                    trend.put("transactionCount", row[3]);
-                    trend.put("averageAmount", row[4]);
+                    trend.put("year", yearMonth / 100);
+                    trend.put("month", yearMonth % 100);
+                    trend.put("totalAmount", row[1]);
+                    trend.put("transactionCount", row[2]);
+                    trend.put("averageAmount", row[3]);
                     return trend;
                 })
                 .collect(Collectors.toList());
@@ -380,19 +607,12 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         return statistics;
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public Page<FinancialDataResponseDto> searchFinancialData(Specification<FinancialData> spec, Pageable pageable) {
-        return getAllFinancialData(spec, pageable);
-    }
-
     @Override
     @Transactional(readOnly = true)
     public Page<FinancialDataResponseDto> getFinancialDataByUserId(Long userId, Pageable pageable) {
         logger.info("Fetching financial data for user ID: {}", userId);
         
-        Page<FinancialData> financialDataPage = financialDataRepository.findByUserId(userId, pageable);
-        return financialDataPage.map(financialDataMapper::toResponseDto);
+        return countedPage(userId, FinancialDataFilter.none(), pageable);
     }
 
     @Override
@@ -460,6 +680,7 @@ public class FinancialDataServiceImpl implements FinancialDataService {
                    type, startDate, endDate);
         
         Long currentUserId = getCurrentUserId();
+        dailyTotalsMaintainer.flushPending();
         TransactionType transactionType = TransactionType.valueOf(type.toUpperCase());
         BigDecimal total = financialDataRepository.getTotalAmountByTypeAndDateRange(
                 currentUserId, transactionType, startDate, endDate);
@@ -474,6 +695,7 @@ public class FinancialDataServiceImpl implements FinancialDataService {
                    category, startDate, endDate);
         
         Long currentUserId = getCurrentUserId();
+        dailyTotalsMaintainer.flushPending();
         Category categoryEnum = Category.valueOf(category.toUpperCase());
         BigDecimal average = financialDataRepository.getAverageAmountByCategoryAndDateRange(
                 currentUserId, categoryEnum, startDate, endDate);
@@ -488,6 +710,7 @@ public class FinancialDataServiceImpl implements FinancialDataService {
                    type, startDate, endDate);
         
         Long currentUserId = getCurrentUserId();
+        dailyTotalsMaintainer.flushPending();
         TransactionType transactionType = TransactionType.valueOf(type.toUpperCase());
         Long count = financialDataRepository.getCountByTypeAndDateRange(
                 currentUserId, transactionType, startDate, endDate);
@@ -502,6 +725,7 @@ public class FinancialDataServiceImpl implements FinancialDataService {
                    type, startDate, endDate, limit);
         
         Long currentUserId = getCurrentUserId();
+        dailyTotalsMaintainer.flushPending();
         TransactionType transactionType = (type != null && !type.trim().isEmpty()) 
                 ? TransactionType.valueOf(type.toUpperCase()) : null;
         List<Object[]> results = financialDataRepository.getTopCategoriesByAmount(
@@ -524,15 +748,16 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         logger.info("Fetching trends by period - period: {}, type: {}, limit: {}", period, type, limit);
         
         Long currentUserId = getCurrentUserId();
+        TrendPeriod trendPeriod = parseTrendPeriod(period);
         TransactionType transactionType = (type != null && !type.trim().isEmpty()) 
                 ? TransactionType.valueOf(type.toUpperCase()) : null;
         List<Object[]> results = financialDataRepository.getTrendsByPeriod(
-                currentUserId, period, transactionType, PageRequest.of(0, limit));
+                currentUserId, trendPeriod, transactionType, PageRequest.of(0, limit));
         
         return results.stream()
                 .map(row -> {
                     Map<String, Object> trend = new HashMap<>();
-                    trend.put("period", row[0]);
+                    trend.put("period", trendPeriod.label(((Number) row[0]).intValue()));
                     trend.put("totalAmount", row[1]);
                     trend.put("transactionCount", row[2]);
                     return trend;
@@ -540,14 +765,39 @@ public class FinancialDataServiceImpl implements FinancialDataService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public int rebuildDailyTotals(Long userId) {
+        logger.info("Rebuilding daily totals - userId: {}", userId);
+        return dailyTotalsMaintainer.rebuild(userId);
+    }
+
     // Helper methods
 
+    private static TrendPeriod parseTrendPeriod(String period) {
+        try {
+            if (period != null) {
+                return TrendPeriod.valueOf(period.trim().toUpperCase());
+            }
+        } catch (IllegalArgumentException ignored) {
+            // reported below
+        }
+        throw new ValidationException("Invalid period: " + period + " (expected daily, weekly, monthly or yearly)");
+    }
+
+    private void publishChange(Long userId, ChangeType changeType) {
+        eventPublisher.publishEvent(new FinancialDataChangedEvent(userId, changeType));
+    }
+
     private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new ValidationException("User not authenticated");
         }
         
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+
         String username = authentication.getName();
         return userRepository.findByUsername(username)
                 .map(User::getId)
@@ -576,48 +826,53 @@ public class FinancialDataServiceImpl implements FinancialDataService {
         }
     }
 
-    private String exportToCsv(List<FinancialData> financialDataList) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,Type,Category,Amount,Date,Description\n");
+    private void validateEntity(FinancialData financialData) {
+        Set<ConstraintViolation<FinancialData>> violations = validator.validate(financialData);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private void writeCsv(Stream<FinancialData> rows, OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write("ID,Type,Category,Amount,Date,Description\n");
         
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         
-        for (FinancialData data : financialDataList) {
-            csv.append(data.getId()).append(",")
-               .append(data.getType()).append(",")
-               .append(data.getCategory()).append(",")
-               .append(data.getAmount()).append(",")
-               .append(data.getDate().format(formatter)).append(",")
-               .append("\"").append(data.getDescription().replace("\"", "\"\"")).append("\"\n");
+        for (Iterator<FinancialData> it = rows.iterator(); it.hasNext(); ) {
+            FinancialData data = it.next();
+            String description = data.getDescription() != null ? data.getDescription() : "";
+            csv.write(data.getId() + "," + data.getType() + "," + data.getCategory() + "," + data.getAmount() + ","
+                    + data.getDate().format(formatter) + ",\"" + description.replace("\"", "\"\"") + "\"\n");
+            // Written rows are not needed again; keep the persistence context from growing with the export
+            entityManager.detach(data);
         }
-        
-        return csv.toString();
+        csv.flush();
     }
 
-    private String exportToJson(List<FinancialData> financialDataList) {
-        List<Map<String, Object>> jsonData = financialDataList.stream()
-                .map(financialDataMapper::toResponseDto)
-                .map(dto -> {
-                    Map<String, Object> json = new HashMap<>();
-                    json.put("id", dto.id());
-                    json.put("type", dto.type());
-                    json.put("category", dto.category());
-                    json.put("amount", dto.amount());
-                    json.put("date", dto.date());
-                    json.put("description", dto.description());
-                    json.put("createdAt", dto.createdAt());
-                    json.put("updatedAt", dto.updatedAt());
-                    return json;
-                })
-                .collect(Collectors.toList());
-        
-        try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.writeValueAsString(jsonData);
-        } catch (Exception e) {
-            logger.error("Error converting to JSON", e);
-            throw new RuntimeException("Error converting to JSON", e);
+    private void writeJson(Stream<FinancialData> rows, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            for (Iterator<FinancialData> it = rows.iterator(); it.hasNext(); ) {
+                FinancialData data = it.next();
+                FinancialDataResponseDto dto = financialDataMapper.toResponseDto(data);
+                json.writeStartObject();
+                json.writeObjectField("id", dto.id());
+                json.writeObjectField("type", dto.type());
+                json.writeObjectField("category", dto.category());
+                json.writeObjectField("amount", dto.amount());
+                json.writeObjectField("date", dto.date());
+                json.writeObjectField("description", dto.description());
+                json.writeObjectField("createdAt", dto.createdAt());
+                json.writeObjectField("updatedAt", dto.updatedAt());
+                json.writeEndObject();
+                entityManager.detach(data);
+            }
+            json.writeEndArray();
         }
     }
 }
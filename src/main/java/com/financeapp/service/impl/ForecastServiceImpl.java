@@ -1,200 +1,465 @@
 package com.financeapp.service.impl;
 
+import com.financeapp.config.UserScopedKeyGenerator.UserScopedKey;
 import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastPerformance;
 import com.financeapp.entity.ForecastResult;
 import com.financeapp.entity.User;
 import com.financeapp.repository.ForecastResultRepository;
 import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastPerformanceRepository;
 import com.financeapp.repository.UserRepository;
 import com.financeapp.repository.FinancialDataRepository;
 import com.financeapp.service.ForecastService;
+import com.financeapp.service.forecast.ArimaEngine;
+import com.financeapp.service.forecast.AutoModelSelector;
+import com.financeapp.service.forecast.ArimaModel;
+import com.financeapp.service.forecast.BacktestReport;
+import com.financeapp.service.forecast.DailySeries;
+import com.financeapp.service.forecast.ForecastBatchEngine;
+import com.financeapp.service.forecast.ForecastKernels;
+import com.financeapp.service.forecast.ForecastResultCache;
+import com.financeapp.service.forecast.ForecastStateMaintainer;
+import com.financeapp.service.forecast.HierarchicalForecaster;
+import com.financeapp.service.forecast.HierarchicalSeries;
+import com.financeapp.service.forecast.HoltWinters;
+import com.financeapp.service.forecast.HoltWintersEngine;
+import com.financeapp.service.forecast.IntervalForecast;
+import com.financeapp.service.forecast.ModelFitter;
+import com.financeapp.service.forecast.ModelSpec;
+import com.financeapp.service.forecast.OnlineForecastState;
+import com.financeapp.service.forecast.PredictionIntervalEngine;
+import com.financeapp.service.forecast.RollingOriginBacktester;
+import com.financeapp.service.forecast.SeriesFilter;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.LinkedHashMap;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static com.financeapp.config.UserScopedKeyGenerator.keyFor;
 
 @Service
 public class ForecastServiceImpl implements ForecastService {
 
     private static final Logger log = LoggerFactory.getLogger(ForecastServiceImpl.class);
 
+    /** Days of history a forecast is fitted on, ending the day before its start date. */
+    private static final int LOOKBACK_DAYS = 180;
+
     private final FinancialDataRepository financialDataRepository;
     private final ForecastResultRepository forecastResultRepository;
     private final UserRepository userRepository;
     private final ForecastConfigRepository forecastConfigRepository;
+    private final ForecastPerformanceRepository forecastPerformanceRepository;
+    private final ForecastResultCache resultCache;
+    private final ForecastBatchEngine batchEngine;
+    private final ArimaEngine arimaEngine;
+    private final HoltWintersEngine holtWintersEngine;
+    private final PredictionIntervalEngine intervalEngine;
+    private final RollingOriginBacktester backtester;
+    private final ModelFitter modelFitter;
+    private final AutoModelSelector modelSelector;
+    private final ForecastStateMaintainer stateMaintainer;
+    private final HierarchicalForecaster hierarchicalForecaster;
+    private final TransactionTemplate transactionTemplate;
 
     public ForecastServiceImpl(FinancialDataRepository financialDataRepository,
                                ForecastResultRepository forecastResultRepository,
                                UserRepository userRepository,
-                               ForecastConfigRepository forecastConfigRepository) {
+                               ForecastConfigRepository forecastConfigRepository,
+                               ForecastPerformanceRepository forecastPerformanceRepository,
+                               ForecastResultCache resultCache,
+                               ForecastBatchEngine batchEngine,
+                               ArimaEngine arimaEngine,
+                               HoltWintersEngine holtWintersEngine,
+                               PredictionIntervalEngine intervalEngine,
+                               RollingOriginBacktester backtester,
+                               ModelFitter modelFitter,
+                               AutoModelSelector modelSelector,
+                               ForecastStateMaintainer stateMaintainer,
+                               HierarchicalForecaster hierarchicalForecaster,
+                               PlatformTransactionManager transactionManager) {
         this.financialDataRepository = financialDataRepository;
         this.forecastResultRepository = forecastResultRepository;
         this.userRepository = userRepository;
         this.forecastConfigRepository = forecastConfigRepository;
+        this.forecastPerformanceRepository = forecastPerformanceRepository;
+        this.resultCache = resultCache;
+        this.batchEngine = batchEngine;
+        this.arimaEngine = arimaEngine;
+        this.holtWintersEngine = holtWintersEngine;
+        this.intervalEngine = intervalEngine;
+        this.backtester = backtester;
+        this.modelFitter = modelFitter;
+        this.modelSelector = modelSelector;
+        this.stateMaintainer = stateMaintainer;
+        this.hierarchicalForecaster = hierarchicalForecaster;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Refreshed forecast entries are recomputed from the saved config but not written again:
+     * the rows stored when the entry was first computed stay the persisted forecast. Entries
+     * keyed by an unsaved config's parameters cannot be reloaded and are simply dropped on refresh.
+     */
+    @PostConstruct
+    void registerCacheReloaders() {
+        resultCache.registerReloader("generateForecast", this::reloadForecast);
+    }
+
+    private Object reloadForecast(UserScopedKey key) {
+        if (!(key.parts().get(0) instanceof Long configId)) {
+            return null;
+        }
+        return transactionTemplate.execute(status -> forecastConfigRepository.findById(configId)
+                .map(cfg -> computeForecast(key.userId(), cfg, (LocalDate) key.parts().get(1), (Integer) key.parts().get(2), false))
+                .orElse(null));
     }
 
     @Override
-    @Transactional
-    @Async
-    @Cacheable(value = "forecasts", key = "#userId + '-' + #config.id + '-' + #startDate + '-' + #horizonDays")
-    public java.util.concurrent.CompletableFuture<List<ForecastResult>> generateForecast(Long userId, ForecastConfig config, LocalDate startDate, int horizonDays) {
+    public CompletableFuture<List<ForecastResult>> generateForecast(Long userId, ForecastConfig config, LocalDate startDate, int horizonDays) {
+        boolean unsaved = config.getId() == null;
+        return resultCache.get(keyFor(userId, "generateForecast", config, startDate, horizonDays),
+                () -> {
+                    List<ForecastResult> results = transactionTemplate.execute(status ->
+                            computeForecast(userId, config, startDate, horizonDays, true));
+                    if (unsaved && config.getId() != null) {
+                        // Later calls will pass the now-saved config; answer them from the same entry
+                        resultCache.put(keyFor(userId, "generateForecast", config, startDate, horizonDays), results);
+                    }
+                    return results;
+                });
+    }
+
+    private List<ForecastResult> computeForecast(Long userId, ForecastConfig config, LocalDate startDate,
+                                                 int horizonDays, boolean persist) {
         log.info("Generating forecast: userId={}, algo={}, horizon={}", userId, config.getAlgorithm(), horizonDays);
 
         User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         // Ensure config is persisted to satisfy non-nullable association
-        if (config.getId() == null) {
+        boolean adHoc = config.getId() == null;
+        if (adHoc) {
+            if (config.getUser() == null) config.setUser(user);
             config = forecastConfigRepository.save(config);
         }
 
+        SeriesFilter filter = SeriesFilter.of(config);
+        if (!filter.isEmpty()) {
+            IntervalForecast forecast = hierarchicalForecast(loadGroupedSeries(userId, startDate), filter, config, horizonDays);
+            return forecast == null ? Collections.emptyList()
+                    : store(toResults(config, user, startDate, forecast, horizonDays), persist);
+        }
+
+        SeriesLoader series = new SeriesLoader(userId, startDate);
+        ModelSpec spec = config.getAlgorithm() == ForecastConfig.AlgorithmType.AUTO
+                ? modelSelector.select(user, config, series, horizonDays)
+                : ModelFitter.closedForm(config);
+        IntervalForecast forecast = adHoc ? null : stateForecast(user, config, spec, startDate, horizonDays);
+        if (forecast == null) {
+            if (series.get().isEmpty()) {
+                return Collections.emptyList();
+            }
+            forecast = spec != null ? forecastWith(series.get(), spec, horizonDays) : forecastValues(series.get(), config, horizonDays);
+        }
+        return store(toResults(config, user, startDate, forecast, horizonDays), persist);
+    }
+
+    /**
+     * Forecast of a saved config whose (selected) model is closed-form, projected from its
+     * maintained statistics instead of reloading the window. Null when the model has no online
+     * state or the state cannot answer, so the caller fits the loaded series.
+     */
+    private IntervalForecast stateForecast(User user, ForecastConfig config, ModelSpec spec, LocalDate startDate, int horizonDays) {
+        if (spec == null || !OnlineForecastState.supports(spec)) {
+            return null;
+        }
+        OnlineForecastState state = stateMaintainer.stateFor(user, config, spec, LOOKBACK_DAYS, startDate.minusDays(1));
+        double[] point = new double[horizonDays];
+        return state.forecast(horizonDays, point) ? closedFormInterval(state.series(), spec, point) : null;
+    }
+
+    /**
+     * The lookback window's series, loaded on first use: a forecast answered from an online
+     * state or a stored AUTO selection may never need it.
+     */
+    private final class SeriesLoader implements Supplier<DailySeries> {
+        private final Long userId;
+        private final LocalDate startDate;
+        private DailySeries series;
+
+        SeriesLoader(Long userId, LocalDate startDate) {
+            this.userId = userId;
+            this.startDate = startDate;
+        }
+
+        @Override
+        public DailySeries get() {
+            if (series == null) series = loadSeries(userId, startDate);
+            return series;
+        }
+    }
+
+    private List<ForecastResult> store(List<ForecastResult> results, boolean persist) {
+        return Collections.unmodifiableList(persist ? forecastResultRepository.saveAll(results) : results);
+    }
+
+    private DailySeries loadSeries(Long userId, LocalDate startDate) {
         // Retrieve daily totals from FinancialData with DB-agnostic queries
         // For H2 and PostgreSQL compatibility, we rely on repository helpers already present
-        LocalDate fromDate = startDate.minusDays(180); // lookback window
+        LocalDate fromDate = startDate.minusDays(LOOKBACK_DAYS); // lookback window
+        LocalDate toDate = startDate.minusDays(1);
+        return DailySeries.fromDailyTotals(financialDataRepository.getDailyTotals(userId, fromDate, toDate), toDate);
+    }
 
-        List<Object[]> dailyTotals = financialDataRepository.getDailyTotals(userId, fromDate, startDate.minusDays(1));
-        List<Double> values = new ArrayList<>();
-        for (Object[] row : dailyTotals) {
-            BigDecimal amount = (BigDecimal) row[1];
-            values.add(amount.doubleValue());
-        }
+    /**
+     * Every type and category of the lookback window in one scan, for filtered configs.
+     */
+    private HierarchicalSeries loadGroupedSeries(Long userId, LocalDate startDate) {
+        LocalDate toDate = startDate.minusDays(1);
+        return HierarchicalSeries.fromGroupedTotals(financialDataRepository.getDailyTotalsByTypeAndCategory(
+                userId, startDate.minusDays(LOOKBACK_DAYS), toDate), toDate);
+    }
 
-        if (values.isEmpty()) {
-            return java.util.concurrent.CompletableFuture.completedFuture(Collections.emptyList());
+    /**
+     * Forecast of a filtered config, reconciled with the rest of the user's hierarchy; null
+     * when nothing matches the filter. AUTO races the candidates on the slice itself and fits
+     * the winner to every node.
+     */
+    private IntervalForecast hierarchicalForecast(HierarchicalSeries data, SeriesFilter filter,
+                                                  ForecastConfig config, int horizonDays) {
+        BitSet slice = data.members(filter);
+        if (slice.isEmpty()) {
+            return null;
+        }
+        ForecastConfig model = config;
+        if (config.getAlgorithm() == ForecastConfig.AlgorithmType.AUTO) {
+            AutoModelSelector.RaceResult race = modelSelector.race(data.sum(slice), config, horizonDays);
+            model = race != null ? race.winner() : linearRegressionConfig();
         }
+        return hierarchicalForecaster.forecast(data, filter, model, horizonDays, this::forecastValues);
+    }
 
-        double[] forecasts;
-        switch (config.getAlgorithm()) {
+    private static ForecastConfig linearRegressionConfig() {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        return cfg;
+    }
+
+    private IntervalForecast forecastValues(DailySeries series, ForecastConfig config, int horizonDays) {
+        return forecastWith(series, modelFitter.fit(series, config), horizonDays);
+    }
+
+    /**
+     * Point forecast plus prediction band for an already-fitted model. ARIMA and additive
+     * Holt-Winters use their analytic error variance; the other models bootstrap their one-step
+     * in-sample residuals. A stored model that no longer fits the series (it has shrunk below
+     * the model's order or two seasons) degrades the same way a fresh fit would.
+     */
+    private IntervalForecast forecastWith(DailySeries series, ModelSpec spec, int horizonDays) {
+        double[] v = series.values();
+        int n = series.size();
+        switch (spec.algorithm()) {
             case SMA -> {
-                int w = config.getWindowSize() != null ? config.getWindowSize() : 7;
-                forecasts = projectFromHistory(simpleMovingAverage(values, w), horizonDays);
+                double[] forecasts = new double[horizonDays];
+                ForecastKernels.fill(forecasts, horizonDays, ForecastKernels.smaLevel(v, n, spec.window()));
+                return closedFormInterval(series, spec, forecasts);
             }
             case EWMA -> {
-                double alpha = config.getSmoothingFactor() != null ? config.getSmoothingFactor() : 0.3d;
-                forecasts = projectFromHistory(exponentialWeightedMovingAverage(values, alpha), horizonDays);
+                double[] forecasts = new double[horizonDays];
+                ForecastKernels.fill(forecasts, horizonDays, ForecastKernels.ewmaLevel(v, n, spec.alpha()));
+                return closedFormInterval(series, spec, forecasts);
+            }
+            case LINEAR_REGRESSION -> {
+                return linearRegressionWithInterval(series, horizonDays);
             }
-            case LINEAR_REGRESSION -> forecasts = linearRegressionForecast(values, horizonDays);
             case SEASONAL_DECOMPOSITION -> {
-                int season = config.getSeasonLength() != null ? config.getSeasonLength() : 7;
-                forecasts = seasonalDecomposition(values, season, horizonDays);
+                return seasonalWithInterval(series, spec.seasonLength(), horizonDays);
+            }
+            case ARIMA -> {
+                ArimaModel.Fit fit = spec.arimaFit();
+                if (n < fit.d() + Math.max(fit.p(), fit.q()) + 2) {
+                    return linearRegressionWithInterval(series, horizonDays);
+                }
+                double[] forecasts = arimaEngine.forecast(series, fit, horizonDays);
+                return intervalEngine.analytic(forecasts, fit.sigma2(), ArimaModel.psiWeights(fit, horizonDays));
+            }
+            case HOLT_WINTERS_ADDITIVE, HOLT_WINTERS_MULTIPLICATIVE -> {
+                HoltWinters.Fit fit = spec.holtWintersFit();
+                int season = fit.seasonLength();
+                if (!HoltWinters.canFit(n, season) || (fit.multiplicative() && !HoltWinters.allPositive(v, n))) {
+                    return seasonalWithInterval(series, season, horizonDays);
+                }
+                double[] forecasts = holtWintersEngine.forecast(series, fit, horizonDays);
+                double[] psi = HoltWinters.psiWeights(fit, horizonDays);
+                if (!fit.multiplicative()) {
+                    return intervalEngine.analytic(forecasts, fit.sse() / (n - season), psi);
+                }
+                // No closed form for multiplicative errors; resample with the additive weights
+                double[] residuals = new double[n];
+                return intervalEngine.bootstrap(forecasts, residuals,
+                        holtWintersEngine.residuals(series, fit, residuals), psi);
             }
             default -> throw new IllegalArgumentException("Unsupported algorithm");
         }
+    }
 
-        List<ForecastResult> results = new ArrayList<>();
+    private IntervalForecast linearRegressionWithInterval(DailySeries series, int horizonDays) {
+        return closedFormInterval(series, ModelSpec.linearRegression(), linearRegressionForecast(series, horizonDays));
+    }
+
+    private IntervalForecast seasonalWithInterval(DailySeries series, int seasonLength, int horizonDays) {
+        return closedFormInterval(series, ModelSpec.seasonalDecomposition(seasonLength),
+                seasonalDecomposition(series, seasonLength, horizonDays));
+    }
+
+    /**
+     * Band around a closed-form model's point forecast, bootstrapped from the model's one-step
+     * in-sample residuals over {@code series}.
+     */
+    private IntervalForecast closedFormInterval(DailySeries series, ModelSpec spec, double[] forecasts) {
+        double[] v = series.values();
+        int n = series.size();
+        int horizonDays = forecasts.length;
+        double[] residuals = new double[n];
+        double tail = 0.0;
+        int count;
+        switch (spec.algorithm()) {
+            case SMA -> count = ForecastKernels.smaResiduals(v, n, spec.window(), residuals);
+            case EWMA -> {
+                count = ForecastKernels.ewmaResiduals(v, n, spec.alpha(), residuals);
+                tail = spec.alpha();
+            }
+            case LINEAR_REGRESSION -> count = ForecastKernels.trendResiduals(v, n, 0, null, residuals);
+            case SEASONAL_DECOMPOSITION -> {
+                int seasonLength = spec.seasonLength();
+                count = seasonLength <= 1 || n < seasonLength * 2
+                        // Mirrors the SMA fallback in seasonalDecomposition
+                        ? ForecastKernels.smaResiduals(v, n, Math.min(7, Math.max(2, n)), residuals)
+                        : ForecastKernels.trendResiduals(v, n, seasonLength, new double[seasonLength], residuals);
+            }
+            default -> throw new IllegalArgumentException("Not a closed-form algorithm: " + spec.algorithm());
+        }
+        return intervalEngine.bootstrap(forecasts, residuals, count, PredictionIntervalEngine.constantPsi(horizonDays, tail));
+    }
+
+    private static List<ForecastResult> toResults(ForecastConfig config, User user, LocalDate startDate,
+                                                  IntervalForecast forecast, int horizonDays) {
+        double[] forecasts = forecast.values();
+        List<ForecastResult> results = new ArrayList<>(horizonDays);
         for (int i = 0; i < horizonDays; i++) {
+            int idx = Math.min(i, forecasts.length - 1);
             ForecastResult fr = new ForecastResult();
             fr.setConfig(config);
             fr.setUser(user);
             fr.setTargetDate(startDate.plusDays(i));
-            fr.setForecastValue(BigDecimal.valueOf(forecasts[Math.min(i, forecasts.length - 1)]));
+            fr.setForecastValue(BigDecimal.valueOf(forecasts[idx]));
+            if (forecast.hasInterval()) {
+                fr.setConfidenceLow(BigDecimal.valueOf(forecast.low()[idx]));
+                fr.setConfidenceHigh(BigDecimal.valueOf(forecast.high()[idx]));
+            }
             results.add(fr);
         }
-
-        return java.util.concurrent.CompletableFuture.completedFuture(forecastResultRepository.saveAll(results));
+        return results;
     }
 
-    private double[] projectFromHistory(double[] smoothed, int horizon) {
-        double last = smoothed[smoothed.length - 1];
-        double[] out = new double[horizon];
-        for (int i = 0; i < horizon; i++) out[i] = last;
-        return out;
+    @Override
+    public double[] simpleMovingAverage(List<Double> values, int window) {
+        return simpleMovingAverage(DailySeries.of(null, DailySeries.toArray(values)), window);
     }
 
     @Override
-    public double[] simpleMovingAverage(List<Double> values, int window) {
-        if (window <= 0 || values.size() < window) {
+    public double[] simpleMovingAverage(DailySeries series, int window) {
+        if (window <= 0 || series.size() < window) {
             throw new IllegalArgumentException("Invalid window size for SMA");
         }
-        double[] out = new double[values.size() - window + 1];
-        double sum = 0.0;
-        for (int i = 0; i < values.size(); i++) {
-            sum += values.get(i);
-            if (i >= window) sum -= values.get(i - window);
-            if (i >= window - 1) out[i - window + 1] = sum / window;
-        }
+        double[] out = new double[ForecastKernels.smaLength(series.size(), window)];
+        ForecastKernels.simpleMovingAverage(series.values(), series.size(), window, out);
         return out;
     }
 
     @Override
     public double[] exponentialWeightedMovingAverage(List<Double> values, double alpha) {
-        if (alpha <= 0 || alpha >= 1) {
-            throw new IllegalArgumentException("Alpha must be in (0,1)");
-        }
-        double[] out = new double[values.size()];
-        out[0] = values.get(0);
-        for (int i = 1; i < values.size(); i++) {
-            out[i] = alpha * values.get(i) + (1 - alpha) * out[i - 1];
-        }
+        return exponentialWeightedMovingAverage(DailySeries.of(null, DailySeries.toArray(values)), alpha);
+    }
+
+    @Override
+    public double[] exponentialWeightedMovingAverage(DailySeries series, double alpha) {
+        double[] out = new double[series.size()];
+        ForecastKernels.exponentialWeightedMovingAverage(series.values(), series.size(), alpha, out);
         return out;
     }
 
     @Override
     public double[] linearRegressionForecast(List<Double> values, int horizon) {
-        int n = values.size();
-        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
-        for (int i = 0; i < n; i++) {
-            double x = i + 1;
-            double y = values.get(i);
-            sumX += x; sumY += y; sumXX += x * x; sumXY += x * y;
-        }
-        double denom = n * sumXX - sumX * sumX;
-        if (denom == 0) denom = 1e-9;
-        double slope = (n * sumXY - sumX * sumY) / denom;
-        double intercept = (sumY - slope * sumX) / n;
+        return linearRegressionForecast(DailySeries.of(null, DailySeries.toArray(values)), horizon);
+    }
 
+    @Override
+    public double[] linearRegressionForecast(DailySeries series, int horizon) {
         double[] out = new double[horizon];
-        for (int i = 0; i < horizon; i++) {
-            double x = n + 1 + i;
-            out[i] = intercept + slope * x;
-        }
+        ForecastKernels.linearRegressionForecast(series.values(), series.size(), horizon, out);
         return out;
     }
 
     @Override
     public double[] seasonalDecomposition(List<Double> values, int seasonLength, int horizon) {
-        if (seasonLength <= 1 || values.size() < seasonLength * 2) {
-            // Not enough data; fallback to SMA
-            return projectFromHistory(simpleMovingAverage(values, Math.min(7, Math.max(2, values.size()))), horizon);
-        }
-        // Compute seasonal indices (naive average by position in season)
-        double[] season = new double[seasonLength];
-        int[] counts = new int[seasonLength];
-        for (int i = 0; i < values.size(); i++) {
-            int idx = i % seasonLength;
-            season[idx] += values.get(i);
-            counts[idx] += 1;
-        }
-        for (int i = 0; i < seasonLength; i++) {
-            if (counts[i] > 0) season[i] /= counts[i]; else season[i] = 0.0;
-        }
+        return seasonalDecomposition(DailySeries.of(null, DailySeries.toArray(values)), seasonLength, horizon);
+    }
 
-        // Trend via linear regression
-        double[] trend = linearRegressionForecast(values, horizon + seasonLength);
+    @Override
+    public double[] seasonalDecomposition(DailySeries series, int seasonLength, int horizon) {
+        int n = series.size();
         double[] out = new double[horizon];
-        for (int i = 0; i < horizon; i++) {
-            out[i] = Math.max(0.0, trend[i] + season[(values.size() + i) % seasonLength] - seasonLength > 0 ? 0 : 0);
-            // simplified: trend plus seasonal component (centered minimalistically)
-            out[i] = trend[i] + season[(values.size() + i) % seasonLength];
+        if (seasonLength <= 1 || n < seasonLength * 2) {
+            // Not enough data; fallback to SMA
+            ForecastKernels.fill(out, horizon,
+                    ForecastKernels.smaLevel(series.values(), n, Math.min(7, Math.max(2, n))));
+            return out;
         }
+        // Trend via linear regression plus naive seasonal index by position in season
+        ForecastKernels.seasonalDecomposition(series.values(), n, seasonLength, horizon,
+                new double[seasonLength], out);
         return out;
     }
 
-    // Advanced algorithms (lightweight stubs; ready to replace with full impls)
     @Override
     public double[] arimaForecast(List<Double> values, int p, int d, int q, int horizon) {
-        // Placeholder: fallback to linear regression projection
-        return linearRegressionForecast(values, horizon);
+        return arimaForecast(DailySeries.of(null, DailySeries.toArray(values)), p, d, q, horizon);
+    }
+
+    @Override
+    public double[] arimaForecast(DailySeries series, int p, int d, int q, int horizon) {
+        double[] out = arimaEngine.forecast(series, arimaEngine.fit(series, p, d, q), horizon);
+        // Series too short for the requested order: fall back to a linear projection
+        return out != null ? out : linearRegressionForecast(series, horizon);
+    }
+
+    @Override
+    public double[] holtWintersForecast(List<Double> values, int seasonLength, boolean multiplicative, int horizon) {
+        return holtWintersForecast(DailySeries.of(null, DailySeries.toArray(values)), seasonLength, multiplicative, horizon);
+    }
+
+    @Override
+    public double[] holtWintersForecast(DailySeries series, int seasonLength, boolean multiplicative, int horizon) {
+        double[] out = holtWintersEngine.forecast(series, seasonLength, multiplicative, horizon);
+        // Fewer than two full seasons: use the decomposition's own short-series fallback
+        return out != null ? out : seasonalDecomposition(series, seasonLength, horizon);
     }
 
     @Override
@@ -202,6 +467,11 @@ public class ForecastServiceImpl implements ForecastService {
         return seasonalDecomposition(values, seasonLength, horizon);
     }
 
+    @Override
+    public double[] prophetLikeDecomposition(DailySeries series, int seasonLength, int horizon) {
+        return seasonalDecomposition(series, seasonLength, horizon);
+    }
+
     @Override
     public double[] ensembleForecast(List<double[]> memberForecasts) {
         if (memberForecasts == null || memberForecasts.isEmpty()) return new double[0];
@@ -220,117 +490,250 @@ public class ForecastServiceImpl implements ForecastService {
     @Override
     public List<Integer> detectAnomalies(List<Double> values, double thresholdSigma) {
         if (values.isEmpty()) return Collections.emptyList();
-        double mean = 0.0;
-        for (double v : values) mean += v;
-        mean /= values.size();
-        double var = 0.0;
-        for (double v : values) var += (v - mean) * (v - mean);
-        var /= Math.max(1, values.size() - 1);
-        double std = Math.sqrt(var);
-        List<Integer> idxs = new ArrayList<>();
-        double thr = Math.max(1e-9, thresholdSigma) * (std <= 1e-9 ? 1.0 : std);
-        for (int i = 0; i < values.size(); i++) {
-            if (Math.abs(values.get(i) - mean) > thr) idxs.add(i);
-        }
-        return idxs;
+        int[] idxs = detectAnomalies(DailySeries.of(null, DailySeries.toArray(values)), thresholdSigma);
+        List<Integer> out = new ArrayList<>(idxs.length);
+        for (int idx : idxs) out.add(idx);
+        return out;
     }
 
     @Override
-    @Transactional
-    @Async
-    @Cacheable(value = "forecasts", key = "'bt-' + #userId + '-' + #config.id + '-' + #startDate + '-' + #horizonDays + '-' + #lookbackDays")
-    public java.util.concurrent.CompletableFuture<List<ForecastResult>> backtestAndStoreAccuracy(Long userId,
-                                                                                                 ForecastConfig config,
-                                                                                                 LocalDate startDate,
-                                                                                                 int horizonDays,
-                                                                                                 int lookbackDays) {
+    public int[] detectAnomalies(DailySeries series, double thresholdSigma) {
+        int[] idxs = new int[series.size()];
+        int count = ForecastKernels.detectAnomalies(series.values(), series.size(), thresholdSigma, idxs);
+        return java.util.Arrays.copyOf(idxs, count);
+    }
+
+    @Override
+    public CompletableFuture<List<ForecastResult>> backtestAndStoreAccuracy(Long userId,
+                                                                            ForecastConfig config,
+                                                                            LocalDate startDate,
+                                                                            int horizonDays,
+                                                                            int lookbackDays) {
+        boolean unsaved = config.getId() == null;
+        return resultCache.get(keyFor(userId, "backtestAndStoreAccuracy", config, startDate, horizonDays, lookbackDays),
+                () -> {
+                    List<ForecastResult> results = transactionTemplate.execute(status ->
+                            computeBacktest(userId, config, startDate, horizonDays, lookbackDays));
+                    if (unsaved && config.getId() != null) {
+                        resultCache.put(keyFor(userId, "backtestAndStoreAccuracy", config, startDate, horizonDays, lookbackDays), results);
+                    }
+                    return results;
+                });
+    }
+
+    private List<ForecastResult> computeBacktest(Long userId,
+                                                 ForecastConfig config,
+                                                 LocalDate startDate,
+                                                 int horizonDays,
+                                                 int lookbackDays) {
         User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
         if (config.getId() == null) {
+            if (config.getUser() == null) config.setUser(user);
             config = forecastConfigRepository.save(config);
         }
 
         LocalDate historyFrom = startDate.minusDays(lookbackDays + horizonDays);
         LocalDate historyTo = startDate.minusDays(1);
-        List<Object[]> dailyTotals = financialDataRepository.getDailyTotals(userId, historyFrom, historyTo);
-
-        List<Double> values = new ArrayList<>();
-        for (Object[] row : dailyTotals) {
-            java.math.BigDecimal amount = (java.math.BigDecimal) row[1];
-            values.add(amount.doubleValue());
-        }
+        SeriesFilter filter = SeriesFilter.of(config);
+        DailySeries values = filter.isEmpty()
+                ? DailySeries.fromDailyTotals(financialDataRepository.getDailyTotals(userId, historyFrom, historyTo), historyTo)
+                : HierarchicalSeries.fromGroupedTotals(financialDataRepository.getDailyTotalsByTypeAndCategory(
+                        userId, historyFrom, historyTo), historyTo).filtered(filter);
         if (values.size() < Math.max(7, horizonDays)) {
-            return java.util.concurrent.CompletableFuture.completedFuture(Collections.emptyList());
+            return Collections.emptyList();
         }
 
-        // Split into train/test
-        int split = Math.max(1, values.size() - horizonDays);
-        List<Double> train = values.subList(0, split);
-        List<Double> actual = values.subList(split, values.size());
-
-        double[] forecast;
-        switch (config.getAlgorithm()) {
-            case SMA -> {
-                int w = config.getWindowSize() != null ? config.getWindowSize() : 7;
-                forecast = linearRegressionForecast(train, horizonDays); // simple baseline; could use SMA projection
-            }
-            case EWMA -> {
-                double alpha = config.getSmoothingFactor() != null ? config.getSmoothingFactor() : 0.3d;
-                double[] ew = exponentialWeightedMovingAverage(train, alpha);
-                forecast = projectFromHistory(ew, horizonDays);
-            }
-            case LINEAR_REGRESSION -> forecast = linearRegressionForecast(train, horizonDays);
-            case SEASONAL_DECOMPOSITION -> {
-                int season = config.getSeasonLength() != null ? config.getSeasonLength() : 7;
-                forecast = seasonalDecomposition(train, season, horizonDays);
-            }
-            default -> throw new IllegalArgumentException("Unsupported algorithm");
+        BacktestReport report;
+        ForecastConfig model = config;
+        if (config.getAlgorithm() == ForecastConfig.AlgorithmType.AUTO) {
+            // Score what AUTO would have picked: the race winner over the same origins
+            AutoModelSelector.RaceResult race = modelSelector.race(values, config, horizonDays, lookbackDays);
+            report = race != null ? race.report() : null;
+            model = race != null ? race.winner() : null;
+        } else {
+            report = backtester.run(values, config, horizonDays, lookbackDays);
         }
-
-        // Compute MAPE
-        double mape = 0.0;
-        int n = Math.min(actual.size(), forecast.length);
-        for (int i = 0; i < n; i++) {
-            double a = Math.max(1e-9, Math.abs(actual.get(i)));
-            mape += Math.abs((actual.get(i) - forecast[i]) / a);
+        if (report == null) {
+            return Collections.emptyList();
         }
-        mape = (mape / n) * 100.0;
 
+        // One accuracy row per config and horizon, overwritten by each new backtest
+        ForecastPerformance performance = forecastPerformanceRepository
+                .findFirstByConfigIdAndHorizonDaysAndAlgorithmIsNullOrderByIdDesc(config.getId(), horizonDays)
+                .orElseGet(ForecastPerformance::new);
+        performance.setConfig(config);
+        performance.setUser(user);
+        performance.setHorizonDays(horizonDays);
+        performance.setLookbackDays(lookbackDays);
+        performance.setOrigins(report.origins());
+        BacktestReport.Metrics overall = report.overall();
+        performance.setMape(finiteOrNull(overall.mape()));
+        performance.setSmape(finiteOrNull(overall.smape()));
+        performance.setMae(finiteOrNull(overall.mae()));
+        performance.setRmse(finiteOrNull(overall.rmse()));
+        performance.setBias(finiteOrNull(overall.bias()));
+        forecastPerformanceRepository.save(performance);
+
+        // The backtest estimated ARIMA and Holt-Winters parameters before its first origin;
+        // the forecast past the last day is refitted on the whole history instead
+        double[] forecast = ModelFitter.closedForm(model) != null
+                ? report.finalForecast()
+                : forecastValues(values, model, horizonDays).values();
+
+        // Each row is stamped with the MAPE observed at its own step ahead
         List<ForecastResult> results = new ArrayList<>();
         for (int i = 0; i < horizonDays; i++) {
             ForecastResult fr = new ForecastResult();
             fr.setConfig(config);
             fr.setUser(user);
             fr.setTargetDate(startDate.plusDays(i));
-            fr.setForecastValue(java.math.BigDecimal.valueOf(forecast[Math.min(i, forecast.length - 1)]));
-            fr.setMape(mape);
+            fr.setForecastValue(java.math.BigDecimal.valueOf(forecast[i]));
+            fr.setMape(finiteOrNull(report.byHorizon()[i].mape()));
             results.add(fr);
         }
-        return java.util.concurrent.CompletableFuture.completedFuture(forecastResultRepository.saveAll(results));
+        return Collections.unmodifiableList(forecastResultRepository.saveAll(results));
     }
 
+    /**
+     * Configs already cached (or being computed) are shared with other callers; the rest are
+     * fitted together by {@link #computeBatch}. The map follows config order and is read-only.
+     * Unsaved configs are looked up in the cache by their parameters, then saved before any
+     * result is keyed, so each one gets its own id and slot in the map. They stay ad hoc: no
+     * online state is kept for them.
+     */
     @Override
-    @Transactional
-    @Async
-    @Cacheable(value = "forecasts", key = "'batch-' + #userId + '-' + #startDate + '-' + #horizonDays + '-' + #configs.hashCode()")
     public CompletableFuture<Map<Long, List<ForecastResult>>> batchGenerateForecasts(Long userId,
                                                                                       List<ForecastConfig> configs,
                                                                                       LocalDate startDate,
                                                                                       int horizonDays) {
-        Map<Long, List<ForecastResult>> out = new LinkedHashMap<>();
-        List<CompletableFuture<?>> futures = new ArrayList<>();
+        List<UserScopedKey> keys = new ArrayList<>(configs.size());
+        Map<UserScopedKey, ForecastConfig> configsByKey = new LinkedHashMap<>();
         for (ForecastConfig cfg : configs) {
-            CompletableFuture<List<ForecastResult>> f = generateForecast(userId, cfg, startDate, horizonDays)
-                .thenApply(results -> {
-                    Long key = cfg.getId() != null ? cfg.getId() : -1L;
-                    out.put(key, results);
-                    return results;
-                });
-            futures.add(f);
+            UserScopedKey key = keyFor(userId, "generateForecast", cfg, startDate, horizonDays);
+            keys.add(key);
+            configsByKey.putIfAbsent(key, cfg);
+        }
+        Set<ForecastConfig> adHoc = saveAdHoc(userId, configs);
+        CompletableFuture<Map<UserScopedKey, List<ForecastResult>>> found = resultCache.getAll(keys, missing -> {
+            Map<UserScopedKey, ForecastConfig> todo = new LinkedHashMap<>();
+            for (UserScopedKey key : missing) todo.put(key, configsByKey.get(key));
+            Map<UserScopedKey, List<ForecastResult>> computed = transactionTemplate.execute(status ->
+                    computeBatch(userId, todo, adHoc, startDate, horizonDays));
+            todo.forEach((key, cfg) -> {
+                if (key.parts().get(0) instanceof List<?>) {
+                    resultCache.put(keyFor(userId, "generateForecast", cfg, startDate, horizonDays), computed.get(key));
+                }
+            });
+            return computed;
+        });
+        return found.thenApply(results -> {
+            Map<Long, List<ForecastResult>> out = new LinkedHashMap<>();
+            for (int i = 0; i < configs.size(); i++) {
+                out.put(configs.get(i).getId(), results.getOrDefault(keys.get(i), Collections.emptyList()));
+            }
+            return Collections.unmodifiableMap(out);
+        });
+    }
+
+    /**
+     * Saves the configs that have no id yet and returns them, compared by identity.
+     */
+    private Set<ForecastConfig> saveAdHoc(Long userId, List<ForecastConfig> configs) {
+        Set<ForecastConfig> adHoc = Collections.newSetFromMap(new IdentityHashMap<>());
+        configs.stream().filter(cfg -> cfg.getId() == null).forEach(adHoc::add);
+        if (!adHoc.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+                adHoc.stream().filter(cfg -> cfg.getUser() == null).forEach(cfg -> cfg.setUser(user));
+                forecastConfigRepository.saveAll(adHoc);
+            });
         }
-        // Wait for all
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-        return CompletableFuture.completedFuture(out);
+        return adHoc;
     }
+
+    /**
+     * Projects saved closed-form configs (and AUTO ones whose selection is closed-form) from
+     * their online states, loads the user's series at most once for the rest and fits those in
+     * parallel on the compute pool, then writes all result rows in a single batched insert.
+     */
+    private Map<UserScopedKey, List<ForecastResult>> computeBatch(Long userId,
+                                                                 Map<UserScopedKey, ForecastConfig> todo,
+                                                                 Set<ForecastConfig> adHoc,
+                                                                 LocalDate startDate,
+                                                                 int horizonDays) {
+        log.info("Generating batch forecast: userId={}, configs={}, horizon={}", userId, todo.size(), horizonDays);
+        User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        List<ForecastConfig> configs = new ArrayList<>(todo.values());
+
+        Map<UserScopedKey, List<ForecastResult>> out = new LinkedHashMap<>();
+        SeriesLoader series = new SeriesLoader(userId, startDate);
+
+        // Filtered configs forecast their slice of the hierarchy, all from one grouped scan
+        IntervalForecast[] forecasts = new IntervalForecast[configs.size()];
+        List<ForecastConfig> whole = new ArrayList<>(configs.size());
+        List<Integer> wholeIndexes = new ArrayList<>(configs.size());
+        HierarchicalSeries grouped = null;
+        for (int i = 0; i < configs.size(); i++) {
+            ForecastConfig cfg = configs.get(i);
+            SeriesFilter filter = SeriesFilter.of(cfg);
+            if (filter.isEmpty()) {
+                whole.add(cfg);
+                wholeIndexes.add(i);
+                continue;
+            }
+            if (grouped == null) grouped = loadGroupedSeries(userId, startDate);
+            forecasts[i] = hierarchicalForecast(grouped, filter, cfg, horizonDays);
+        }
+
+        // AUTO selections read and write forecast_performance, and online states are locked
+        // rows, so resolve both on this thread; only the configs left over are fitted in parallel
+        Map<ForecastConfig, ModelSpec> selected = new IdentityHashMap<>();
+        List<ForecastConfig> fitted = new ArrayList<>(whole.size());
+        List<Integer> fittedIndexes = new ArrayList<>(whole.size());
+        for (int w = 0; w < whole.size(); w++) {
+            ForecastConfig cfg = whole.get(w);
+            ModelSpec spec = cfg.getAlgorithm() == ForecastConfig.AlgorithmType.AUTO
+                    ? modelSelector.select(user, cfg, series, horizonDays)
+                    : ModelFitter.closedForm(cfg);
+            if (spec != null) selected.put(cfg, spec);
+            IntervalForecast fromState = adHoc.contains(cfg) ? null : stateForecast(user, cfg, spec, startDate, horizonDays);
+            if (fromState != null) {
+                forecasts[wholeIndexes.get(w)] = fromState;
+            } else {
+                fitted.add(cfg);
+                fittedIndexes.add(wholeIndexes.get(w));
+            }
+        }
+        if (!fitted.isEmpty() && !series.get().isEmpty()) {
+            IntervalForecast[] fittedForecasts = batchEngine.forecastAll(series.get(), fitted, horizonDays, (s, cfg, h) -> {
+                ModelSpec spec = selected.get(cfg);
+                return spec != null ? forecastWith(s, spec, h) : forecastValues(s, cfg, h);
+            });
+            for (int f = 0; f < fittedForecasts.length; f++) forecasts[fittedIndexes.get(f)] = fittedForecasts[f];
+        }
+
+        List<ForecastResult> rows = new ArrayList<>(configs.size() * horizonDays);
+        for (int i = 0; i < configs.size(); i++) {
+            if (forecasts[i] != null) rows.addAll(toResults(configs.get(i), user, startDate, forecasts[i], horizonDays));
+        }
+        List<ForecastResult> saved = forecastResultRepository.saveAll(rows);
+
+        int i = 0;
+        int from = 0;
+        for (UserScopedKey key : todo.keySet()) {
+            int count = forecasts[i] != null ? horizonDays : 0;
+            out.put(key, Collections.unmodifiableList(new ArrayList<>(saved.subList(from, from + count))));
+            from += count;
+            i++;
+        }
+        return out;
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
 }
 
 
@@ -9,6 +9,7 @@ import com.financeapp.entity.UserProfile;
 import com.financeapp.repository.UserProfileRepository;
 import com.financeapp.repository.UserRepository;
 import com.financeapp.service.UserProfileService;
+import com.financeapp.security.AuthenticatedUser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -477,6 +478,10 @@ public class UserProfileServiceImpl implements UserProfileService {
             throw new RuntimeException("User not authenticated");
         }
         
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+
         String username = authentication.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
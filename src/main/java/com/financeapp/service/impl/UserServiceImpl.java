@@ -11,6 +11,8 @@ import com.financeapp.exception.UserNotFoundException;
 import com.financeapp.exception.ValidationException;
 import com.financeapp.repository.UserRepository;
 import com.financeapp.service.UserService;
+import com.financeapp.service.event.UserChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -35,11 +37,14 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, UserMapper userMapper) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, UserMapper userMapper,
+                           ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.userMapper = userMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     // Password validation patterns
@@ -183,6 +188,7 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedAt(OffsetDateTime.now());
         
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         logger.info("User profile updated successfully for ID: {}", userId);
         
         return userMapper.toResponseDto(updatedUser);
@@ -215,6 +221,7 @@ public class UserServiceImpl implements UserService {
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(OffsetDateTime.now());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         
         logger.info("Password updated successfully for user ID: {}", userId);
         return true;
@@ -262,6 +269,7 @@ public class UserServiceImpl implements UserService {
         }
         
         userRepository.deleteById(userId);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         logger.info("User deleted successfully with ID: {}", userId);
         return true;
     }
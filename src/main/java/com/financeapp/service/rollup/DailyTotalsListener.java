@@ -0,0 +1,21 @@
+package com.financeapp.service.rollup;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Told by {@link DailyTotalsMaintainer} when rollup rows change, inside the transaction that
+ * changed them, so derived state can follow the rollup without rescanning it.
+ */
+public interface DailyTotalsListener {
+
+    /**
+     * The rollup rows of {@code days} were just recomputed for {@code userId}.
+     */
+    void daysRefreshed(Long userId, Set<LocalDate> days);
+
+    /**
+     * The rollup of {@code userId}, or of every user when null, was rebuilt from scratch.
+     */
+    void rebuilt(Long userId);
+}
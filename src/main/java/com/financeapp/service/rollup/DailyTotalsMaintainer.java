@@ -0,0 +1,150 @@
+package com.financeapp.service.rollup;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.FinancialDataWritten;
+import com.financeapp.repository.FinancialDailyTotalWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps the {@code financial_daily_totals} rollup in step with {@code financial_data}.
+ * <p>
+ * Writes mark the user-days they touch via {@link #recordChange}, entity writes through their
+ * {@link FinancialDataWritten} events; the marks are held per transaction and the affected
+ * days are recomputed just before it commits, so the rollup commits or rolls back together
+ * with the rows it summarises. Readers of the rollup call {@link #flushPending()} first so
+ * they also see writes made earlier in their own transaction.
+ * {@link DailyTotalsListener}s hear about each refresh before the transaction commits.
+ * <p>
+ * Updates and deletes of managed rows reach the database only in the commit-time flush, after
+ * the transaction has collected its before-commit callbacks; a first mark made from that flush
+ * would never be applied. Write paths that update or delete rows therefore mark the row's days
+ * with {@link #recordChange} up front, which also runs that flush early from {@code beforeCommit}.
+ */
+@Component
+public class DailyTotalsMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyTotalsMaintainer.class);
+
+    private final FinancialDailyTotalWriter writer;
+    private final ObjectProvider<DailyTotalsListener> listeners;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public DailyTotalsMaintainer(FinancialDailyTotalWriter writer, ObjectProvider<DailyTotalsListener> listeners) {
+        this.writer = writer;
+        this.listeners = listeners;
+    }
+
+    /** Marks the day of an entity write, and the day it moved away from on an update. */
+    @EventListener
+    public void onFinancialDataWritten(FinancialDataWritten event) {
+        FinancialData data = event.data();
+        Long userId = data.getUser().getId();
+        if (event.previousDate() != null) {
+            recordChange(userId, event.previousDate());
+        }
+        recordChange(userId, data.getDate());
+    }
+
+    public void recordChange(Long userId, LocalDate date) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.warn("Financial data for user {} on {} changed outside a transaction; daily totals not updated", userId, date);
+            return;
+        }
+        pendingDays(true).computeIfAbsent(userId, id -> new TreeSet<>()).add(date);
+    }
+
+    /**
+     * Flushes pending entity changes and applies all days marked so far in this transaction.
+     * No-op outside a read-write transaction.
+     */
+    public void flushPending() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        entityManager.flush();
+        Map<Long, Set<LocalDate>> pending = pendingDays(false);
+        if (pending == null) {
+            return;
+        }
+        // Users in id order so concurrent transactions take the user locks in the same order
+        while (!pending.isEmpty()) {
+            Map<Long, Set<LocalDate>> batch = new TreeMap<>(pending);
+            pending.clear();
+            batch.forEach((userId, days) -> {
+                writer.refreshDays(userId, days);
+                listeners.orderedStream().forEach(listener -> listener.daysRefreshed(userId, days));
+            });
+        }
+    }
+
+    /**
+     * Recomputes the rollup for one user, or for every user when {@code userId} is null.
+     * @return number of rollup rows written
+     */
+    @Transactional
+    public int rebuild(Long userId) {
+        int rows = userId != null ? writer.rebuildUser(userId) : writer.rebuildAll();
+        listeners.orderedStream().forEach(listener -> listener.rebuilt(userId));
+        log.info("Rebuilt daily totals for {}: {} rows", userId != null ? "user " + userId : "all users", rows);
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Set<LocalDate>> pendingDays(boolean create) {
+        Map<Long, Set<LocalDate>> pending = (Map<Long, Set<LocalDate>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null && create) {
+            Map<Long, Set<LocalDate>> days = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, days);
+            TransactionSynchronizationManager.registerSynchronization(new PendingDaysSynchronization(days));
+            pending = days;
+        }
+        return pending;
+    }
+
+    private final class PendingDaysSynchronization implements TransactionSynchronization {
+
+        private final Map<Long, Set<LocalDate>> days;
+
+        PendingDaysSynchronization(Map<Long, Set<LocalDate>> days) {
+            this.days = days;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flushPending();
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(DailyTotalsMaintainer.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(DailyTotalsMaintainer.this, days);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DailyTotalsMaintainer.this);
+        }
+    }
+}
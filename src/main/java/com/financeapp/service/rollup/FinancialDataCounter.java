@@ -0,0 +1,92 @@
+package com.financeapp.service.rollup;
+
+import com.financeapp.config.AsyncCacheConfig;
+import com.financeapp.config.UserScopedKeyGenerator.UserScopedKey;
+import com.financeapp.entity.FinancialData;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.specification.FinancialDataFilter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.financeapp.config.UserScopedKeyGenerator.keyFor;
+
+/**
+ * Totals for paged financial data listings without a {@code COUNT(*)} over the user's rows.
+ * <p>
+ * The daily totals rollup already keeps an exact row count per user, day, type and category,
+ * maintained on every write, so filters on those columns are counted from it. Amount and
+ * description filters are not: their exact count is computed once in the background and
+ * cached under the user's {@link UserDataVersions data version}, so the next write retires it,
+ * and until it is ready the rollup count of the other filters is returned as an upper bound,
+ * flagged as not exact.
+ */
+@Component
+public class FinancialDataCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(FinancialDataCounter.class);
+
+    public record TotalCount(long value, boolean exact) {}
+
+    private final FinancialDataRepository financialDataRepository;
+    private final DailyTotalsMaintainer dailyTotalsMaintainer;
+    private final UserDataVersions userDataVersions;
+    private final AsyncCache<Object, Object> cache;
+    private final Executor executor;
+    private final TransactionTemplate readOnly;
+
+    public FinancialDataCounter(FinancialDataRepository financialDataRepository,
+                                DailyTotalsMaintainer dailyTotalsMaintainer,
+                                UserDataVersions userDataVersions,
+                                CacheManager cacheManager,
+                                @Qualifier("taskExecutor") Executor executor,
+                                PlatformTransactionManager transactionManager) {
+        this.financialDataRepository = financialDataRepository;
+        this.dailyTotalsMaintainer = dailyTotalsMaintainer;
+        this.userDataVersions = userDataVersions;
+        this.cache = ((CaffeineCache) cacheManager.getCache(AsyncCacheConfig.FINANCIAL_DATA_COUNTS_CACHE)).getAsyncCache();
+        this.executor = executor;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Total rows of {@code userId} matching {@code filter}; {@code userSpec} is the filter's
+     * specification already restricted to the user, used for the background exact count.
+     */
+    public TotalCount count(Long userId, FinancialDataFilter filter, Specification<FinancialData> userSpec) {
+        dailyTotalsMaintainer.flushPending();
+        long rollupCount = financialDataRepository.getCountByTypeCategoryAndDateRange(userId,
+                filter.transactionType(), filter.categoryValue(), filter.dateFrom(), filter.dateTo());
+        if (filter.countableFromRollup()) {
+            return new TotalCount(rollupCount, true);
+        }
+
+        UserScopedKey key = keyFor(userId, "countFinancialData", userDataVersions.current(userId), filter.keyParts());
+        CompletableFuture<Object> exact = cache.getIfPresent(key);
+        if (exact != null && exact.isDone() && !exact.isCompletedExceptionally()) {
+            return new TotalCount((Long) exact.join(), true);
+        }
+        if (exact == null) {
+            CompletableFuture<Object> started = cache.get(key, (k, ignored) -> CompletableFuture.supplyAsync(
+                    () -> readOnly.execute(status -> financialDataRepository.count(userSpec)), executor));
+            started.whenComplete((value, failure) -> {
+                if (failure != null) {
+                    cache.asMap().remove(key, started);
+                    log.warn("Background count for user {} failed", userId, failure);
+                }
+            });
+        }
+        return new TotalCount(rollupCount, false);
+    }
+}
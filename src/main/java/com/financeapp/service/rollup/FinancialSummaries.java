@@ -0,0 +1,81 @@
+package com.financeapp.service.rollup;
+
+import com.financeapp.config.AsyncCacheConfig;
+import com.financeapp.config.UserScopedKeyGenerator.UserScopedKey;
+import com.financeapp.entity.FinancialDailyTotal;
+import com.financeapp.repository.FinancialDataRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.financeapp.config.UserScopedKeyGenerator.keyFor;
+
+/**
+ * Income, expense, net, count and average of a user's transactions over a date range.
+ * <p>
+ * All five come from one conditional-aggregation scan of the daily totals rollup, and the
+ * result is cached under the user's {@link UserDataVersions data version}, so repeated
+ * dashboard loads of a user who has not written since are answered from memory.
+ */
+@Component
+public class FinancialSummaries {
+
+    public record Summary(BigDecimal totalIncome, BigDecimal totalExpense, BigDecimal netAmount,
+                          long totalTransactions, BigDecimal averageAmount) {}
+
+    private final FinancialDataRepository financialDataRepository;
+    private final DailyTotalsMaintainer dailyTotalsMaintainer;
+    private final UserDataVersions userDataVersions;
+    private final AsyncCache<Object, Object> cache;
+
+    public FinancialSummaries(FinancialDataRepository financialDataRepository,
+                              DailyTotalsMaintainer dailyTotalsMaintainer,
+                              UserDataVersions userDataVersions,
+                              CacheManager cacheManager) {
+        this.financialDataRepository = financialDataRepository;
+        this.dailyTotalsMaintainer = dailyTotalsMaintainer;
+        this.userDataVersions = userDataVersions;
+        this.cache = ((CaffeineCache) cacheManager.getCache(AsyncCacheConfig.FINANCIAL_SUMMARIES_CACHE)).getAsyncCache();
+    }
+
+    /**
+     * Summary of {@code userId}'s rows dated within the optional bounds. Runs in the caller's
+     * transaction, so it includes the caller's own uncommitted writes.
+     */
+    public Summary summarize(Long userId, LocalDate dateFrom, LocalDate dateTo) {
+        // Flushing may refresh the user's days and bump the version, so read the version after it
+        dailyTotalsMaintainer.flushPending();
+        UserScopedKey key = keyFor(userId, "financialSummaries", userDataVersions.current(userId), dateFrom, dateTo);
+        CompletableFuture<Object> cached = cache.getIfPresent(key);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            return (Summary) cached.join();
+        }
+        Summary summary = compute(userId, dateFrom, dateTo);
+        cache.put(key, CompletableFuture.completedFuture(summary));
+        return summary;
+    }
+
+    private Summary compute(Long userId, LocalDate dateFrom, LocalDate dateTo) {
+        List<Object[]> rows = financialDataRepository.getSummaryTotalsByDateRange(userId, dateFrom, dateTo);
+        Object[] row = rows.isEmpty() ? new Object[4] : rows.get(0);
+        BigDecimal totalIncome = decimal(row[0]);
+        BigDecimal totalExpense = decimal(row[1]);
+        long count = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+        BigDecimal totalAmount = decimal(row[3]);
+        BigDecimal average = count > 0 ? FinancialDailyTotal.average(totalAmount, count) : BigDecimal.ZERO;
+        return new Summary(totalIncome, totalExpense, totalIncome.subtract(totalExpense), count, average);
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal d ? d : new BigDecimal(value.toString());
+    }
+}
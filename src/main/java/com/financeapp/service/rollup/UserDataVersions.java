@@ -0,0 +1,62 @@
+package com.financeapp.service.rollup;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A per-user data version for keying cached results, so a user's cached entries go stale on
+ * their next write without being evicted, and results of users who did not write stay valid.
+ * <p>
+ * Every financial data write reaches the daily totals rollup, so the version follows the
+ * rollup: it is bumped when the writing transaction refreshes the user's days, which its own
+ * later reads see, and again once that transaction completes, which drops anything other
+ * threads cached from the rows before the commit or from rows that were rolled back.
+ * A full rebuild bumps every user.
+ */
+@Component
+public class UserDataVersions implements DailyTotalsListener {
+
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+
+    /**
+     * Current version of {@code userId}'s data; only ever increases.
+     */
+    public long current(Long userId) {
+        AtomicLong version = versions.get(userId);
+        return epoch.get() + (version != null ? version.get() : 0L);
+    }
+
+    @Override
+    public void daysRefreshed(Long userId, Set<LocalDate> days) {
+        bump(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump(userId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void rebuilt(Long userId) {
+        if (userId != null) {
+            bump(userId);
+        } else {
+            epoch.incrementAndGet();
+        }
+    }
+
+    private void bump(Long userId) {
+        versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,68 @@
+package com.financeapp.specification;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The filters of a financial data listing, kept as values so a count can be answered from
+ * the daily totals rollup when they allow it; {@link #toSpecification()} gives the query.
+ */
+public record FinancialDataFilter(String type, String category, LocalDate dateFrom, LocalDate dateTo,
+                                  BigDecimal amountFrom, BigDecimal amountTo, String search) {
+
+    private static final FinancialDataFilter NONE = new FinancialDataFilter(null, null, null, null, null, null, null);
+
+    public static FinancialDataFilter none() {
+        return NONE;
+    }
+
+    public Specification<FinancialData> toSpecification() {
+        return FinancialDataSpecification.buildSpecification(
+                type, category, dateFrom, dateTo, amountFrom, amountTo, search);
+    }
+
+    /**
+     * Whether the rollup, which keeps a row count per user, day, type and category, counts
+     * exactly the rows this filter matches: no amount or description filter, and type and
+     * category (if any) name real values.
+     */
+    public boolean countableFromRollup() {
+        return amountFrom == null && amountTo == null && !StringUtils.hasText(search)
+                && (!StringUtils.hasText(type) || transactionType() != null)
+                && (!StringUtils.hasText(category) || categoryValue() != null);
+    }
+
+    /** The type filter as an enum; null when absent or not a known type. */
+    public TransactionType transactionType() {
+        return parse(TransactionType.class, type);
+    }
+
+    /** The category filter as an enum; null when absent or not a known category. */
+    public Category categoryValue() {
+        return parse(Category.class, category);
+    }
+
+    /** Cache key parts; equal filters give equal lists. */
+    public List<Object> keyParts() {
+        return Arrays.asList(type, category, dateFrom, dateTo, amountFrom, amountTo, search);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> enumType, String name) {
+        if (!StringUtils.hasText(name)) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(enumType, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
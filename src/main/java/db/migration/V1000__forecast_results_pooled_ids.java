@@ -0,0 +1,39 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Forecast result ids are allocated by Hibernate in blocks of 50 from
+ * {@code forecast_results_id_seq} so batch forecasts can be written with JDBC batching.
+ * <p>
+ * On PostgreSQL the sequence is the BIGSERIAL one and already past every id, but on H2 the
+ * identity column keeps its own counter, so the sequence is created here and would start at 1,
+ * handing out ids of existing rows. Hibernate's pooled optimizer treats the first value it
+ * reads as the top of a block of 50 ({@code ForecastResult}'s allocation size), so the sequence
+ * restarts at {@code max(id) + 50}. Plain JDBC because the start value has to be computed first,
+ * and {@code RESTART WITH} takes a literal on both databases.
+ */
+public class V1000__forecast_results_pooled_ids extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS forecast_results_id_seq");
+            long restartWith = 1;
+            try (ResultSet rs = statement.executeQuery("SELECT MAX(id) FROM forecast_results")) {
+                if (rs.next()) {
+                    long maxId = rs.getLong(1);
+                    if (!rs.wasNull()) restartWith = maxId + ALLOCATION_SIZE;
+                }
+            }
+            statement.execute("ALTER SEQUENCE forecast_results_id_seq INCREMENT BY " + ALLOCATION_SIZE
+                    + " RESTART WITH " + restartWith);
+        }
+    }
+}
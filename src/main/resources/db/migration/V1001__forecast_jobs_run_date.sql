@@ -0,0 +1,9 @@
+-- Nightly forecast sweeps record one job per user and run date so an interrupted
+-- run can skip users it already completed. The database enforces the one job, so two
+-- instances (or a manual run racing the scheduled one) cannot both create a job for the
+-- same user. Jobs without a run_date are not sweep jobs and stay unconstrained (NULLs are
+-- distinct).
+
+alter table forecast_jobs add column if not exists run_date date;
+
+create unique index if not exists uq_forecast_jobs_run_user on forecast_jobs (run_date, user_id);
@@ -0,0 +1,23 @@
+-- Application-maintained rollup of financial_data per user, day, type and category.
+-- Replaces the materialized view sketched in V13; rows are recomputed per touched
+-- user-day in the same transaction as the financial_data write.
+
+create table if not exists financial_daily_totals (
+    user_id bigint not null,
+    date date not null,
+    type varchar(50) not null,
+    category varchar(50) not null,
+    amount_sum decimal(19,2) not null,
+    row_count bigint not null,
+    amount_min decimal(19,2) not null,
+    amount_max decimal(19,2) not null,
+    constraint pk_financial_daily_totals primary key (user_id, date, type, category),
+    constraint fk_financial_daily_totals_user foreign key (user_id) references users(id) on delete cascade
+);
+
+-- Backfill from existing rows
+delete from financial_daily_totals;
+insert into financial_daily_totals (user_id, date, type, category, amount_sum, row_count, amount_min, amount_max)
+select user_id, date, type, category, sum(amount), count(*), min(amount), max(amount)
+from financial_data
+group by user_id, date, type, category;
@@ -0,0 +1,18 @@
+-- Rolling-origin backtests record a full error summary per (user, config, horizon).
+-- MAPE is undefined when every actual in the evaluation window is zero, so it becomes nullable.
+-- A backtest updates the row of its config and horizon instead of adding one per run, so rows
+-- from earlier runs keep only the newest per (config, horizon).
+
+alter table forecast_performance add column if not exists smape double precision;
+alter table forecast_performance add column if not exists mae double precision;
+alter table forecast_performance add column if not exists rmse double precision;
+alter table forecast_performance add column if not exists bias double precision;
+alter table forecast_performance add column if not exists origins int;
+alter table forecast_performance alter column mape drop not null;
+
+delete from forecast_performance p
+where exists (select 1 from forecast_performance q
+              where q.config_id = p.config_id and q.horizon_days = p.horizon_days and q.id > p.id);
+
+create index if not exists idx_forecast_perf_user_config on forecast_performance (user_id, config_id, horizon_days);
+create index if not exists idx_forecast_perf_config_horizon on forecast_performance (config_id, horizon_days);
@@ -0,0 +1,11 @@
+-- AUTO forecasts store the winning algorithm and its fitted parameters alongside the
+-- backtest summary; valid_until bounds how long the selection is reused. A selection is only
+-- reused for configs whose window, season and alpha hints match the ones the candidates were
+-- raced with.
+
+alter table forecast_performance add column if not exists algorithm varchar(64);
+alter table forecast_performance add column if not exists model_params varchar(1024);
+alter table forecast_performance add column if not exists selection_hints varchar(128);
+alter table forecast_performance add column if not exists valid_until timestamp with time zone;
+
+create index if not exists idx_forecast_perf_selection on forecast_performance (user_id, horizon_days, selection_hints, valid_until);
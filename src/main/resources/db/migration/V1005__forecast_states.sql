@@ -0,0 +1,23 @@
+-- Online state of closed-form forecast configs: the lookback window's daily totals as a
+-- fixed-size binary ring updated in place, and the running statistics kept from them, updated
+-- with each financial_data write. The window's start is stored with its end so a write only
+-- locks the states whose window holds its day; that index also backs the user foreign key.
+
+create table if not exists forecast_states (
+    id bigint generated by default as identity primary key,
+    config_id bigint not null,
+    user_id bigint not null,
+    algorithm varchar(64) not null,
+    model_params varchar(1024),
+    lookback_days int not null,
+    window_start date not null,
+    window_end date not null,
+    statistics text not null,
+    ring bytea not null,
+    updated_at timestamp with time zone,
+    constraint uk_forecast_states_config unique (config_id),
+    constraint fk_forecast_states_config foreign key (config_id) references forecast_configs(id) on delete cascade,
+    constraint fk_forecast_states_user foreign key (user_id) references users(id) on delete cascade
+);
+
+create index if not exists idx_forecast_states_user_window on forecast_states (user_id, window_end, window_start);
@@ -0,0 +1,4 @@
+-- Latest amounts of one user's category, newest first: warms the streaming anomaly
+-- detector's window without sorting the user's rows.
+
+create index if not exists idx_financial_data_user_category_id on financial_data (user_id, category, id);
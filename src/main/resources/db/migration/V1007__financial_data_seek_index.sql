@@ -0,0 +1,11 @@
+-- Cursor pagination of a user's rows newest first: (date, created_at, id) descending is
+-- read straight off this index, so a page after a cursor is a seek rather than an offset.
+-- The seek compares created_at, so rows from before the audit columns get one, and rows
+-- inserted without one (such as the seed data) default to the time of the insert.
+
+update financial_data set created_at = coalesce(updated_at, current_timestamp) where created_at is null;
+
+alter table financial_data alter column created_at set default current_timestamp;
+alter table financial_data alter column created_at set not null;
+
+create index if not exists idx_financial_data_user_date_seek on financial_data (user_id, date, created_at, id);
@@ -0,0 +1,16 @@
+-- Integer date buckets for trend grouping, set by the application with every write of date:
+-- epoch_day (days since 1970-01-01), year_week (ISO week-based year * 100 + ISO week) and
+-- year_month (year * 100 + month). Trends group and order on these through the indexes below
+-- instead of building a string or calling date functions per row.
+-- Existing rows are backfilled by DateBucketBackfill after migrating, since ISO weeks and
+-- epoch days have no SQL shared by H2 and PostgreSQL.
+
+alter table financial_data add column if not exists epoch_day integer;
+alter table financial_data add column if not exists year_week integer;
+alter table financial_data add column if not exists year_month integer;
+
+alter table financial_daily_totals add column if not exists year_month integer;
+
+create index if not exists idx_financial_data_user_epoch_day on financial_data (user_id, epoch_day);
+create index if not exists idx_financial_data_user_year_week on financial_data (user_id, year_week);
+create index if not exists idx_financial_data_user_year_month on financial_data (user_id, year_month);
@@ -0,0 +1,66 @@
+package com.financeapp.config;
+
+import com.financeapp.service.event.FinancialDataChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private CacheManager cacheManager(long maxWeight) {
+        CachingProperties props = new CachingProperties();
+        CachingProperties.Spec spec = new CachingProperties.Spec();
+        spec.setMaximumWeight(maxWeight);
+        spec.setExpireAfterWrite(Duration.ofMinutes(5));
+        spec.setRefreshAfterWrite(Duration.ofMinutes(1));
+        props.getSpecs().put(AsyncCacheConfig.FORECASTS_CACHE, spec);
+        return new AsyncCacheConfig().cacheManager(props, new CacheRefreshRegistry(), registry);
+    }
+
+    private static UserScopedKeyGenerator.UserScopedKey key(long userId, int part) {
+        return new UserScopedKeyGenerator.UserScopedKey(userId, "generateForecast", List.of(part));
+    }
+
+    @Test
+    void forecastsCache_shouldExposeStatsThroughMicrometer() {
+        Cache cache = cacheManager(100).getCache(AsyncCacheConfig.FORECASTS_CACHE);
+        cache.put(key(1L, 1), List.of("a", "b"));
+        assertThat(cache.get(key(1L, 1))).isNotNull();
+        assertThat(cache.get(key(1L, 2))).isNull();
+
+        assertThat(registry.get("cache.gets").tag("cache", "forecasts").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "forecasts").tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.find("cache.evictions").tag("cache", "forecasts").functionCounter()).isNotNull();
+    }
+
+    @Test
+    void evictUser_shouldOnlyDropThatUsersEntries() {
+        CacheManager manager = cacheManager(100);
+        Cache cache = manager.getCache(AsyncCacheConfig.FORECASTS_CACHE);
+        cache.put(key(1L, 1), List.of("a"));
+        cache.put(key(1L, 2), List.of("b"));
+        cache.put(key(2L, 1), List.of("c"));
+
+        new UserCacheEvictionListener(manager)
+                .onFinancialDataChanged(new FinancialDataChangedEvent(1L, FinancialDataChangedEvent.ChangeType.CREATED));
+
+        assertThat(cache.get(key(1L, 1))).isNull();
+        assertThat(cache.get(key(1L, 2))).isNull();
+        assertThat(cache.get(key(2L, 1))).isNotNull();
+    }
+
+    @Test
+    void weigher_shouldCountResultRows() {
+        assertThat(AsyncCacheConfig.weigh(List.of(1, 2, 3))).isEqualTo(3);
+        assertThat(AsyncCacheConfig.weigh(java.util.Map.of(1L, List.of(1, 2), 2L, List.of(3)))).isEqualTo(3);
+        assertThat(AsyncCacheConfig.weigh(List.of())).isEqualTo(1);
+    }
+}
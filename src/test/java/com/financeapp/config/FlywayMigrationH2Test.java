@@ -0,0 +1,112 @@
+package com.financeapp.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every Flyway migration, seed data included, on a fresh H2 database as the default
+ * profile does, and upgrades a database left at the seed migration V999 by earlier releases.
+ * The other tests build their schema from the entities with Flyway off, so this is the only
+ * place the migrations themselves run on H2.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:flyway-migration;DB_CLOSE_DELAY=-1",
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=none"
+})
+@ActiveProfiles("test")
+class FlywayMigrationH2Test {
+
+	@Autowired
+	Flyway flyway;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	DateBucketBackfill dateBucketBackfill;
+
+	@Autowired
+	DailyTotalsBackfill dailyTotalsBackfill;
+
+	@Test
+	void migrate_shouldApplyEveryMigration() {
+		assertThat(flyway.info().pending()).isEmpty();
+		assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("1008");
+	}
+
+	@Test
+	void migrate_FromSchemaAtV999_ShouldApplyTheNewerMigrations() {
+		String url = "jdbc:h2:mem:flyway-upgrade;DB_CLOSE_DELAY=-1";
+		// The schema and history as shipped: V1 to V14 and the seed
+		Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").target("999")
+				.load().migrate();
+
+		Flyway upgrade = Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration")
+				.callbacks(dateBucketBackfill, dailyTotalsBackfill).load();
+		// Migrations numbered below V999 would count as ignored here, not pending
+		assertThat(upgrade.info().pending()).isNotEmpty().allSatisfy(info ->
+				assertThat(info.getVersion()).isGreaterThan(MigrationVersion.fromVersion("999")));
+		assertThat(upgrade.migrate().success).isTrue();
+
+		assertThat(upgrade.info().pending()).isEmpty();
+		assertThat(upgrade.info().all()).extracting(MigrationInfo::getState)
+				.doesNotContain(MigrationState.IGNORED);
+		assertThat(upgrade.validateWithResult().validationSuccessful).isTrue();
+		assertThat(upgrade.info().current().getVersion().getVersion()).isEqualTo("1008");
+
+		JdbcTemplate upgraded = new JdbcTemplate(upgrade.getConfiguration().getDataSource());
+		assertThat(upgraded.queryForObject(
+				"SELECT COUNT(*) FROM financial_data WHERE epoch_day IS NULL OR created_at IS NULL", Integer.class)).isZero();
+		assertThat(upgraded.queryForObject(
+				"SELECT SUM(row_count) FROM financial_daily_totals", Long.class))
+				.isEqualTo(upgraded.queryForObject("SELECT COUNT(*) FROM financial_data", Long.class));
+	}
+
+	@Test
+	void migratedTables_shouldHaveTheColumnsTheEntitiesMap() {
+		jdbcTemplate.queryForList("SELECT id, config_id, user_id, algorithm, model_params, lookback_days, " +
+				"window_start, window_end, statistics, ring, updated_at FROM forecast_states");
+		jdbcTemplate.queryForList("SELECT smape, mae, rmse, bias, origins, algorithm, model_params, " +
+				"selection_hints, valid_until FROM forecast_performance");
+		jdbcTemplate.queryForList("SELECT run_date FROM forecast_jobs");
+		jdbcTemplate.queryForList("SELECT user_id, date, type, category, year_month, amount_sum, row_count, " +
+				"amount_min, amount_max FROM financial_daily_totals");
+		assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR forecast_results_id_seq", Long.class))
+				.isGreaterThan(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM forecast_results", Long.class));
+	}
+
+	@Test
+	void seedData_shouldHaveItsDateBucketsAndCreationTimes() {
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM financial_data WHERE epoch_day IS NULL", Integer.class)).isZero();
+		// The cursor seeks on created_at, so no row may lack one
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM financial_data WHERE created_at IS NULL", Integer.class)).isZero();
+	}
+
+	@Test
+	void seedData_shouldBeInTheDailyTotals() {
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM financial_daily_totals", Integer.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT SUM(row_count) FROM financial_daily_totals", Long.class))
+				.isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM financial_data", Long.class));
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT SUM(amount_sum) FROM financial_daily_totals", BigDecimal.class))
+				.isEqualByComparingTo(jdbcTemplate.queryForObject("SELECT SUM(amount) FROM financial_data", BigDecimal.class));
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM financial_daily_totals WHERE year_month IS NULL", Integer.class)).isZero();
+	}
+}
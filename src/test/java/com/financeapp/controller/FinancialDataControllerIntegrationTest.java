@@ -6,6 +6,7 @@ import com.financeapp.entity.FinancialData;
 import com.financeapp.entity.User;
 import com.financeapp.repository.FinancialDataRepository;
 import com.financeapp.repository.UserRepository;
+import com.financeapp.testsupport.TestDatabaseCleaner;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,7 +18,9 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
@@ -50,6 +53,9 @@ class FinancialDataControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private TestDatabaseCleaner cleaner;
+
     private MockMvc mockMvc;
     private User testUser;
     private FinancialData testFinancialData;
@@ -61,9 +67,8 @@ class FinancialDataControllerIntegrationTest {
                 .apply(springSecurity())
                 .build();
 
-        // Clean up database
-        financialDataRepository.deleteAll();
-        userRepository.deleteAll();
+        // Clean all tables in FK-safe order; some tests commit their rows
+        cleaner.clean();
 
         // Create test user
         testUser = new User();
@@ -103,7 +108,33 @@ class FinancialDataControllerIntegrationTest {
                 .andExpect(jsonPath("$.totalElements").value(6))
                 .andExpect(jsonPath("$.totalPages").value(2))
                 .andExpect(jsonPath("$.first").value(true))
-                .andExpect(jsonPath("$.last").value(false));
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(header().string("X-Total-Count-Exact", "true"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should stop counting a row once its delete has committed")
+    void getAllFinancialData_AfterCommittedDelete_ShouldReturnExactTotal() throws Exception {
+        try {
+            createTestFinancialData(5);
+
+            mockMvc.perform(delete("/api/v1/financial-data/{id}", testFinancialData.getId()))
+                    .andExpect(status().isNoContent());
+
+            // A full first page, so the total comes from the rollup rather than the page itself
+            mockMvc.perform(get("/api/v1/financial-data")
+                    .param("page", "0")
+                    .param("size", "3"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(3))
+                    .andExpect(jsonPath("$.totalElements").value(5))
+                    .andExpect(header().string("X-Total-Count-Exact", "true"));
+        } finally {
+            // Outside the test transaction the rows are committed, so nothing rolls them back
+            cleaner.clean();
+        }
     }
 
     @Test
@@ -334,8 +365,12 @@ class FinancialDataControllerIntegrationTest {
         // Create additional test data
         createTestFinancialData(3);
 
-        mockMvc.perform(get("/api/v1/financial-data/export")
+        MvcResult started = mockMvc.perform(get("/api/v1/financial-data/export")
                 .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", "text/csv"))
                 .andExpect(header().string("Content-Disposition", containsString("attachment")))
@@ -346,14 +381,63 @@ class FinancialDataControllerIntegrationTest {
     @WithMockUser(username = "testuser", roles = "USER")
     @DisplayName("Should export financial data as JSON")
     void exportFinancialData_AsJSON_ShouldReturnJSONData() throws Exception {
-        mockMvc.perform(get("/api/v1/financial-data/export")
+        MvcResult started = mockMvc.perform(get("/api/v1/financial-data/export")
                 .param("format", "json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", "application/json"))
                 .andExpect(header().string("Content-Disposition", containsString("attachment")))
                 .andExpect(content().string(containsString("[")));
     }
 
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should export every committed row as CSV and JSON")
+    void exportFinancialData_WithCommittedRows_ShouldExportEveryRow() throws Exception {
+        try {
+            // The export reads in its own transaction on the async thread, so the rows must be committed
+            createTestFinancialData(3);
+
+            String csv = export("csv");
+            assertThat(csv.lines()).hasSize(1 + 4)
+                    .first().isEqualTo("ID,Type,Category,Amount,Date,Description");
+            assertThat(csv).contains("Lunch at restaurant", "Test expense 2");
+
+            var json = objectMapper.readTree(export("json"));
+            assertThat(json.isArray()).isTrue();
+            assertThat(json).hasSize(4);
+            assertThat(json.get(0).get("type").asText()).isEqualTo("EXPENSE");
+        } finally {
+            // Outside the test transaction the rows are committed, so nothing rolls them back
+            cleaner.clean();
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @DisplayName("Should gzip the export when requested")
+    void exportFinancialData_WithGzip_ShouldReturnCompressedCSV() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/financial-data/export")
+                .param("format", "csv")
+                .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (var in = new java.util.zip.GZIPInputStream(new java.io.ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8))
+                    .startsWith("ID,Type,Category,Amount,Date,Description");
+        }
+    }
+
     @Test
     @WithMockUser(username = "testuser", roles = "USER")
     @DisplayName("Should get financial summaries")
@@ -406,6 +490,31 @@ class FinancialDataControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].transactionCount").exists());
     }
 
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @DisplayName("Should get yearly trends")
+    void getTrendsByPeriod_Yearly_ShouldReturnOneRowPerYear() throws Exception {
+        createTestFinancialDataWithDate(LocalDate.now().minusYears(1), 2);
+
+        mockMvc.perform(get("/api/v1/financial-data/trends")
+                .param("period", "yearly"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].period").value(Integer.toString(LocalDate.now().getYear())))
+                .andExpect(jsonPath("$[0].transactionCount").value(1))
+                .andExpect(jsonPath("$[1].period").value(Integer.toString(LocalDate.now().getYear() - 1)))
+                .andExpect(jsonPath("$[1].transactionCount").value(2));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @DisplayName("Should reject an unknown trend period")
+    void getTrendsByPeriod_WithUnknownPeriod_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/v1/financial-data/trends")
+                .param("period", "hourly"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should require authentication for all endpoints")
     void allEndpoints_WithoutAuthentication_ShouldReturn401() throws Exception {
@@ -420,6 +529,17 @@ class FinancialDataControllerIntegrationTest {
 
     // Helper methods
 
+    private String export(String format) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/financial-data/export")
+                .param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
     private void createTestFinancialData(int count) {
         for (int i = 0; i < count; i++) {
             FinancialData data = new FinancialData();
@@ -2,6 +2,7 @@ package com.financeapp.entity;
 
 import com.financeapp.entity.enums.Category;
 import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.entity.enums.TrendPeriod;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -45,6 +46,23 @@ class FinancialDataEntityTest {
         assertTrue(violations.isEmpty(), "Valid financial data should have no validation violations");
     }
 
+    @Test
+    void testDateBucketsFollowDate() {
+        FinancialData data = new FinancialData();
+        data.setDate(LocalDate.of(2024, 12, 30));
+        assertEquals(20087, data.getEpochDay());
+        assertEquals(202501, data.getYearWeek(), "ISO week 1 of 2025 starts on Monday 2024-12-30");
+        assertEquals(202412, data.getYearMonth());
+
+        data.setDate(LocalDate.of(2025, 3, 5));
+        assertEquals(202510, data.getYearWeek());
+        assertEquals(202503, data.getYearMonth());
+        assertEquals("2025-03-05", TrendPeriod.DAILY.label(data.getEpochDay()));
+        assertEquals("2025-W10", TrendPeriod.WEEKLY.label(data.getYearWeek()));
+        assertEquals("2025-03", TrendPeriod.MONTHLY.label(data.getYearMonth()));
+        assertEquals("2025", TrendPeriod.YEARLY.label(data.getYearMonth() / 100));
+    }
+
     @Test
     void testFinancialDataWithNullUser() {
         FinancialData data = new FinancialData();
@@ -388,6 +388,18 @@ class FinancialDataRepositoryComprehensiveTest {
         assertThat(result.getContent()).hasSize(1); // Only transport expense 100 is in range 100-200
     }
 
+    @Test
+    void testFindByCriteriaSorted() {
+        Pageable pageable = PageRequest.of(0, 3, Sort.by("amount").descending());
+
+        Page<FinancialData> result = financialDataRepository.findByCriteria(
+                user1.getId(), null, null, null, null, null, null, pageable);
+
+        assertThat(result.getContent()).hasSize(3);
+        assertThat(result.getContent()).extracting(FinancialData::getAmount)
+                .isSortedAccordingTo(java.util.Comparator.reverseOrder());
+    }
+
     @Test
     void testPaginationAndSorting() {
         // Test pagination
@@ -0,0 +1,49 @@
+package com.financeapp.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShapedQueryTest {
+
+    private static ShapedQuery query(String type, LocalDate from, LocalDate to) {
+        return ShapedQuery.named("shapedQueryTest")
+                .where("d.userId = :userId", "userId", 1L)
+                .and("d.type = :type", "type", type)
+                .and("d.date >= :startDate", "startDate", from)
+                .and("d.date <= :endDate", "endDate", to);
+    }
+
+    @Test
+    void jpql_shouldOnlyContainSuppliedPredicates() {
+        assertThat(query(null, null, null).jpql("SELECT SUM(d.amountSum) FROM FinancialDailyTotal d", ""))
+                .isEqualTo("SELECT SUM(d.amountSum) FROM FinancialDailyTotal d WHERE d.userId = :userId");
+        assertThat(query(null, LocalDate.now(), null).jpql("SELECT SUM(d.amountSum) FROM FinancialDailyTotal d", " GROUP BY d.type"))
+                .isEqualTo("SELECT SUM(d.amountSum) FROM FinancialDailyTotal d WHERE d.userId = :userId " +
+                        "AND d.date >= :startDate GROUP BY d.type");
+        assertThat(query("EXPENSE", LocalDate.now(), LocalDate.now()).jpql("SELECT SUM(d.amountSum) FROM FinancialDailyTotal d", ""))
+                .doesNotContain("IS NULL")
+                .contains("d.type = :type AND d.date >= :startDate AND d.date <= :endDate");
+    }
+
+    @Test
+    void jpql_shouldReuseTheTextOfAShape() {
+        String first = query("INCOME", null, LocalDate.of(2024, 1, 31)).jpql("SELECT COUNT(d) FROM FinancialDailyTotal d", "");
+        String second = query("EXPENSE", null, LocalDate.of(2025, 6, 30)).jpql("SELECT COUNT(d) FROM FinancialDailyTotal d", "");
+        String otherShape = query("EXPENSE", LocalDate.of(2025, 1, 1), null).jpql("SELECT COUNT(d) FROM FinancialDailyTotal d", "");
+
+        assertThat(second).isSameAs(first);
+        assertThat(otherShape).isNotEqualTo(first);
+    }
+
+    @Test
+    void jpql_shouldKeepTheSelectsOfOneNameApart() {
+        String sum = query("EXPENSE", LocalDate.of(2025, 1, 1), null).jpql("SELECT SUM(d.amountSum) FROM FinancialDailyTotal d", "");
+        String count = query("EXPENSE", LocalDate.of(2025, 1, 1), null).jpql("SELECT COUNT(d) FROM FinancialDailyTotal d", "");
+
+        assertThat(sum).startsWith("SELECT SUM(d.amountSum) ");
+        assertThat(count).startsWith("SELECT COUNT(d) ");
+    }
+}
@@ -5,9 +5,13 @@ import com.financeapp.entity.User;
 import com.financeapp.repository.UserRepository;
 import com.financeapp.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
@@ -22,7 +26,11 @@ import com.financeapp.testsupport.TestDataUtil;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
 // import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -47,9 +55,15 @@ public class SecurityIntegrationTest {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Value("${app.jwt.secret:finance-forecast-app-super-secret-key-for-jwt-token-generation-2024}")
+    private String jwtSecret;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
     private String seededUsername;
@@ -171,6 +185,69 @@ public class SecurityIntegrationTest {
         assert seededUsername.equals(jwtTokenProvider.getUsernameFromJWT(token));
     }
 
+    @Test
+    void testTokenCarriesUserIdAndCachedPrincipalIsDroppedOnDelete() throws Exception {
+        String loginRequest = """
+                {
+                    "emailOrUsername": "%s",
+                    "password": "Password@123"
+                }
+                """.formatted(seededUsername);
+
+        String response = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(loginRequest))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String token = objectMapper.readTree(response).get("token").get("accessToken").asText();
+        Long userId = userRepository.findByUsername(seededUsername).map(User::getId).orElseThrow();
+        JwtClaims claims = jwtTokenProvider.parseToken(token).orElseThrow();
+        assertThat(claims.userId()).isEqualTo(userId);
+        assertThat(claims.username()).isEqualTo(seededUsername);
+
+        // Controllers may not be mapped in this slice; anything but 401 means the token authenticated
+        mockMvc.perform(get("/api/financial-data").header("Authorization", "Bearer " + token))
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotEqualTo(401));
+        mockMvc.perform(get("/api/financial-data").header("Authorization", "Bearer " + token))
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotEqualTo(401));
+        assertThat(principalCache.get(userId, id -> null).getPassword()).isEmpty();
+
+        userService.deleteUser(userId);
+
+        mockMvc.perform(get("/api/financial-data").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testCachedClaimsDoNotLeakToTamperedTokens() {
+        String token = jwtTokenProvider.generateTokenFromUsername(seededUsername, 42L);
+        assertThat(jwtTokenProvider.validateToken(token)).isTrue();
+        assertThat(jwtTokenProvider.parseToken(token).orElseThrow().userId()).isEqualTo(42L);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThat(jwtTokenProvider.validateToken(tampered)).isFalse();
+        assertThat(jwtTokenProvider.validateToken(token)).isTrue();
+        assertThat(jwtTokenProvider.isRefreshToken(token)).isFalse();
+        assertThat(jwtTokenProvider.isTokenExpired(token)).isFalse();
+    }
+
+    @Test
+    void testTokenWithoutExpiryIsVerifiedEachTimeInsteadOfCached() {
+        String token = Jwts.builder()
+                .setSubject(seededUsername)
+                .setIssuedAt(new Date())
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+
+        assertThat(jwtTokenProvider.validateToken(token)).isTrue();
+        assertThat(jwtTokenProvider.validateToken(token)).isTrue();
+        assertThat(jwtTokenProvider.parseToken(token).orElseThrow().expiration()).isNull();
+        assertThat(jwtTokenProvider.getUsernameFromJWT(token)).isEqualTo(seededUsername);
+    }
+
     @Test
     void testRefreshToken() throws Exception {
         // Login to get tokens
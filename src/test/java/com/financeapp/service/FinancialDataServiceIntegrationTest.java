@@ -1,35 +1,47 @@
 package com.financeapp.service;
 
+import com.financeapp.dto.CountedPage;
+import com.financeapp.dto.CursorPageDto;
 import com.financeapp.dto.FinancialDataDto;
 import com.financeapp.dto.FinancialDataResponseDto;
 import com.financeapp.entity.FinancialData;
 import com.financeapp.entity.User;
+import com.financeapp.exception.ValidationException;
 import com.financeapp.repository.FinancialDataRepository;
 import com.financeapp.repository.UserRepository;
+import com.financeapp.specification.FinancialDataFilter;
 import com.financeapp.specification.FinancialDataSpecification;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import com.financeapp.testsupport.TestDatabaseCleaner;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -51,6 +63,12 @@ class FinancialDataServiceIntegrationTest {
     @Autowired
     private TestDatabaseCleaner cleaner;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private User testUser;
     private FinancialData testFinancialData;
 
@@ -88,20 +106,92 @@ class FinancialDataServiceIntegrationTest {
         // Create additional test data
         createTestFinancialData(5);
 
-        Specification<FinancialData> spec = FinancialDataSpecification.buildSpecification(
-                null, null, null, null, null, null, null);
+        FinancialDataFilter filter = new FinancialDataFilter(null, null, null, null, null, null, null);
         Pageable pageable = PageRequest.of(0, 3);
 
-        Page<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(spec, pageable);
+        CountedPage<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(filter, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(3);
         assertThat(result.getTotalElements()).isEqualTo(6);
+        assertThat(result.isTotalExact()).isTrue();
         assertThat(result.getTotalPages()).isEqualTo(2);
         assertThat(result.isFirst()).isTrue();
         assertThat(result.isLast()).isFalse();
     }
 
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @DisplayName("Should scroll financial data with cursors and no gaps or repeats")
+    void scrollFinancialData_ShouldWalkAllRowsNewestFirst() {
+        createTestFinancialData(5);
+        // Same day as the setUp row, so the cursor has to break the tie on createdAt and id
+        createTestFinancialDataWithDate(LocalDate.now(), 3);
+
+        Specification<FinancialData> spec = FinancialDataSpecification.buildSpecification(
+                null, null, null, null, null, null, null);
+        List<Long> seen = new java.util.ArrayList<>();
+        List<LocalDate> dates = new java.util.ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDto<FinancialDataResponseDto> page = financialDataService.scrollFinancialData(spec, cursor, 3);
+            assertThat(page.size()).isEqualTo(page.content().size()).isLessThanOrEqualTo(3);
+            page.content().forEach(row -> {
+                seen.add(row.id());
+                dates.add(row.date());
+            });
+            assertThat(page.hasNext()).isEqualTo(page.nextCursor() != null);
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(9).doesNotHaveDuplicates();
+        assertThat(dates).isSortedAccordingTo(java.util.Comparator.reverseOrder());
+
+        CursorPageDto<FinancialDataResponseDto> income = financialDataService.scrollFinancialData(
+                FinancialDataSpecification.buildSpecification("INCOME", null, null, null, null, null, null), null, 3);
+        assertThat(income.content()).isEmpty();
+        assertThat(income.hasNext()).isFalse();
+
+        org.assertj.core.api.Assertions.assertThatThrownBy(() -> financialDataService.scrollFinancialData(spec, "not-a-cursor", 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @DisplayName("Should total pages from the rollup without counting rows")
+    void getAllFinancialData_WithFilter_ShouldTotalFromRollup() {
+        createTestFinancialData(5);
+        createTestFinancialData("INCOME", "SALARY", 4);
+        Pageable pageable = PageRequest.of(0, 2);
+
+        CountedPage<FinancialDataResponseDto> all = financialDataService.getAllFinancialData(FinancialDataFilter.none(), pageable);
+        assertThat(all.getContent()).hasSize(2);
+        assertThat(all.getTotalElements()).isEqualTo(10);
+        assertThat(all.isTotalExact()).isTrue();
+
+        CountedPage<FinancialDataResponseDto> income = financialDataService.getAllFinancialData(
+                new FinancialDataFilter("INCOME", "SALARY", null, null, null, null, null), pageable);
+        assertThat(income.getTotalElements()).isEqualTo(4);
+        assertThat(income.isTotalExact()).isTrue();
+
+        // The rollup cannot see amounts: an upper bound, flagged as such
+        CountedPage<FinancialDataResponseDto> large = financialDataService.getAllFinancialData(
+                new FinancialDataFilter("EXPENSE", null, null, null, new BigDecimal("20"), null, null), pageable);
+        assertThat(large.getContent()).hasSize(2);
+        assertThat(large.isTotalExact()).isFalse();
+        assertThat(large.getTotalElements()).isEqualTo(6);
+
+        // A short last page knows its total exactly
+        CountedPage<FinancialDataResponseDto> last = financialDataService.getAllFinancialData(
+                new FinancialDataFilter("EXPENSE", null, null, null, new BigDecimal("20"), null, null), PageRequest.of(1, 3));
+        assertThat(last.getContent()).hasSize(1);
+        assertThat(last.getTotalElements()).isEqualTo(4);
+        assertThat(last.isTotalExact()).isTrue();
+    }
+
     @Test
     @WithMockUser(username = "testuser", roles = "USER")
     @DisplayName("Should filter financial data by type")
@@ -109,11 +199,10 @@ class FinancialDataServiceIntegrationTest {
         // Create income data
         createTestFinancialData("INCOME", "SALARY", 3);
 
-        Specification<FinancialData> spec = FinancialDataSpecification.buildSpecification(
-                "EXPENSE", null, null, null, null, null, null);
+        FinancialDataFilter filter = new FinancialDataFilter("EXPENSE", null, null, null, null, null, null);
         Pageable pageable = PageRequest.of(0, 10);
 
-        Page<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(spec, pageable);
+        CountedPage<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(filter, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
@@ -127,11 +216,10 @@ class FinancialDataServiceIntegrationTest {
         // Create different category data
         createTestFinancialData("EXPENSE", "TRANSPORT", 2);
 
-        Specification<FinancialData> spec = FinancialDataSpecification.buildSpecification(
-                null, "FOOD", null, null, null, null, null);
+        FinancialDataFilter filter = new FinancialDataFilter(null, "FOOD", null, null, null, null, null);
         Pageable pageable = PageRequest.of(0, 10);
 
-        Page<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(spec, pageable);
+        CountedPage<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(filter, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
@@ -150,11 +238,10 @@ class FinancialDataServiceIntegrationTest {
         createTestFinancialDataWithDate(yesterday, 2);
         createTestFinancialDataWithDate(tomorrow, 2);
 
-        Specification<FinancialData> spec = FinancialDataSpecification.buildSpecification(
-                null, null, today, tomorrow, null, null, null);
+        FinancialDataFilter filter = new FinancialDataFilter(null, null, today, tomorrow, null, null, null);
         Pageable pageable = PageRequest.of(0, 10);
 
-        Page<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(spec, pageable);
+        CountedPage<FinancialDataResponseDto> result = financialDataService.getAllFinancialData(filter, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(3); // 1 existing + 2 new
@@ -278,14 +365,100 @@ class FinancialDataServiceIntegrationTest {
         assertThat(allData).hasSize(4); // 1 existing + 3 new
     }
 
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should bulk create in chunks and report invalid records")
+    void bulkCreateFinancialData_LargeImport_ShouldReportChunksAndFailures() {
+        List<FinancialDataDto> dtoList = new java.util.ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            String category = i == 1200 ? "NOT_A_CATEGORY" : "FOOD";
+            dtoList.add(new FinancialDataDto((long) i + 1, 1L, LocalDate.now().minusDays(i % 90), new BigDecimal("12.50"),
+                    category, "Import " + i, "EXPENSE", OffsetDateTime.now(), OffsetDateTime.now()));
+        }
+
+        Map<String, Object> result;
+        try {
+            result = financialDataService.bulkCreateFinancialData(dtoList);
+            assertThat(financialDataRepository.count()).isEqualTo(2500); // 1 existing + the committed chunks
+        } finally {
+            // Outside the test transaction the rows are committed, so nothing rolls them back
+            cleaner.clean();
+        }
+
+        assertThat(result.get("createdCount")).isEqualTo(2499);
+        assertThat(result.get("failedCount")).isEqualTo(1);
+        assertThat((List<?>) result.get("errors")).singleElement().asString().startsWith("Record 1201:");
+        assertThat((List<?>) result.get("createdIds")).hasSize(2499).doesNotHaveDuplicates();
+        assertThat((List<?>) result.get("chunks")).hasSize(3)
+                .allSatisfy(chunk -> assertThat(((Map<?, ?>) chunk).get("status")).isEqualTo("COMMITTED"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @DisplayName("Should report records that break the entity constraints one by one")
+    void bulkCreateFinancialData_WithEntityConstraintViolations_ShouldRejectOnlyThoseRecords() {
+        List<FinancialDataDto> dtoList = List.of(
+                new FinancialDataDto(1L, 1L, LocalDate.now(), new BigDecimal("15.00"), "FOOD", "Breakfast", "EXPENSE", OffsetDateTime.now(), OffsetDateTime.now()),
+                // Three decimal places, which NUMERIC(19,2) would silently round
+                new FinancialDataDto(2L, 1L, LocalDate.now(), new BigDecimal("10.005"), "FOOD", "Lunch", "EXPENSE", OffsetDateTime.now(), OffsetDateTime.now()),
+                new FinancialDataDto(3L, 1L, LocalDate.now(), new BigDecimal("5.00"), "TRANSPORT", "x".repeat(501), "EXPENSE", OffsetDateTime.now(), OffsetDateTime.now()),
+                new FinancialDataDto(4L, 1L, LocalDate.now(), new BigDecimal("1000.00"), "BONUS", "Performance bonus", "INCOME", OffsetDateTime.now(), OffsetDateTime.now())
+        );
+
+        Map<String, Object> result = financialDataService.bulkCreateFinancialData(dtoList);
+
+        assertThat(result.get("createdCount")).isEqualTo(2);
+        assertThat(result.get("failedCount")).isEqualTo(2);
+        assertThat((List<?>) result.get("errors")).extracting(Object::toString).satisfiesExactly(
+                error -> assertThat(error).startsWith("Record 2: amount:"),
+                error -> assertThat(error).startsWith("Record 3: description:"));
+        assertThat((List<?>) result.get("chunks")).singleElement()
+                .satisfies(chunk -> assertThat(((Map<?, ?>) chunk).get("size")).isEqualTo(2));
+        assertThat(financialDataRepository.findAll()).extracting(FinancialData::getDescription)
+                .doesNotContain("Lunch");
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should roll back only the failed chunk when bulk create joins a transaction")
+    void bulkCreateFinancialData_InsideTransaction_ShouldRollBackOnlyTheFailedChunk() {
+        List<FinancialDataDto> dtoList = new java.util.ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            // Passes validation but not the constraint below, failing the second chunk
+            String description = i == 1200 ? "Rejected by the database" : "Import " + i;
+            dtoList.add(new FinancialDataDto((long) i + 1, 1L, LocalDate.now().minusDays(i % 90), new BigDecimal("12.50"),
+                    "FOOD", description, "EXPENSE", OffsetDateTime.now(), OffsetDateTime.now()));
+        }
+
+        jdbcTemplate.execute("ALTER TABLE financial_data ADD CONSTRAINT ck_financial_data_bulk_test " +
+                "CHECK (description <> 'Rejected by the database')");
+        Map<String, Object> result;
+        try {
+            // The caller's transaction commits rather than failing with UnexpectedRollbackException
+            result = new TransactionTemplate(transactionManager)
+                    .execute(status -> financialDataService.bulkCreateFinancialData(dtoList));
+            assertThat(financialDataRepository.count()).isEqualTo(1001); // 1 existing + the applied chunk
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE financial_data DROP CONSTRAINT ck_financial_data_bulk_test");
+            cleaner.clean();
+        }
+
+        assertThat(result.get("createdCount")).isEqualTo(1000);
+        assertThat(result.get("failedCount")).isEqualTo(500);
+        assertThat((List<?>) result.get("chunks")).extracting(chunk -> (Object) ((Map<?, ?>) chunk).get("status"))
+                .containsExactly("APPLIED", "FAILED");
+    }
+
     @Test
     @WithMockUser(username = "testuser", roles = "USER")
     @DisplayName("Should export financial data as CSV")
-    void exportFinancialData_AsCSV_ShouldReturnCSVData() {
+    void exportFinancialData_AsCSV_ShouldReturnCSVData() throws IOException {
         // Create additional test data
         createTestFinancialData(3);
 
-        String result = financialDataService.exportFinancialData("csv", null, null, null, null);
+        String result = export("csv");
 
         assertThat(result).isNotNull();
         assertThat(result).contains("ID,Type,Category,Amount,Date,Description");
@@ -296,8 +469,8 @@ class FinancialDataServiceIntegrationTest {
     @Test
     @WithMockUser(username = "testuser", roles = "USER")
     @DisplayName("Should export financial data as JSON")
-    void exportFinancialData_AsJSON_ShouldReturnJSONData() {
-        String result = financialDataService.exportFinancialData("json", null, null, null, null);
+    void exportFinancialData_AsJSON_ShouldReturnJSONData() throws IOException {
+        String result = export("json");
 
         assertThat(result).isNotNull();
         assertThat(result).startsWith("[");
@@ -323,6 +496,63 @@ class FinancialDataServiceIntegrationTest {
         assertThat(result).containsKey("averageAmount");
     }
 
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @DisplayName("Should serve repeated summaries from cache until the next write")
+    void getFinancialSummaries_ShouldFollowWrites() {
+        createTestFinancialData("INCOME", "SALARY", 2);
+
+        Map<String, Object> first = financialDataService.getFinancialSummaries(null, null);
+        assertThat((BigDecimal) first.get("totalIncome")).isEqualByComparingTo("25");
+        assertThat((BigDecimal) first.get("totalExpense")).isEqualByComparingTo("25.50");
+        assertThat((BigDecimal) first.get("netAmount")).isEqualByComparingTo("-0.50");
+        assertThat(first.get("totalTransactions")).isEqualTo(3L);
+        assertThat((BigDecimal) first.get("averageAmount")).isEqualByComparingTo("16.8333");
+        assertThat(financialDataService.getFinancialSummaries(null, null)).isEqualTo(first);
+
+        createTestFinancialData("EXPENSE", "FOOD", 1);
+
+        Map<String, Object> afterWrite = financialDataService.getFinancialSummaries(null, null);
+        assertThat((BigDecimal) afterWrite.get("totalExpense")).isEqualByComparingTo("35.50");
+        assertThat((BigDecimal) afterWrite.get("netAmount")).isEqualByComparingTo("-10.50");
+        assertThat(afterWrite.get("totalTransactions")).isEqualTo(4L);
+
+        Map<String, Object> ranged = financialDataService.getFinancialSummaries(LocalDate.now().minusDays(1), LocalDate.now().minusDays(1));
+        assertThat((BigDecimal) ranged.get("totalIncome")).isEqualByComparingTo("15");
+        assertThat((BigDecimal) ranged.get("totalExpense")).isEqualByComparingTo("0");
+        assertThat(ranged.get("totalTransactions")).isEqualTo(1L);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should recompute cached summaries after committed updates and deletes")
+    void getFinancialSummaries_AfterCommittedUpdateAndDelete_ShouldFollowRows() {
+        try {
+            createTestFinancialData("INCOME", "SALARY", 2);
+            assertThat(financialDataService.getFinancialSummaries(null, null).get("totalTransactions")).isEqualTo(3L);
+
+            financialDataService.updateFinancialData(testFinancialData.getId(), new FinancialDataDto(testFinancialData.getId(), testUser.getId(),
+                    LocalDate.now(), new BigDecimal("40.00"), "FOOD", "Dinner", "EXPENSE", null, null));
+
+            Map<String, Object> updated = financialDataService.getFinancialSummaries(null, null);
+            assertThat((BigDecimal) updated.get("totalExpense")).isEqualByComparingTo("40.00");
+            assertThat((BigDecimal) updated.get("netAmount")).isEqualByComparingTo("-15.00");
+            assertThat(updated.get("totalTransactions")).isEqualTo(3L);
+            assertThat((BigDecimal) updated.get("averageAmount")).isEqualByComparingTo("21.6667");
+
+            financialDataService.deleteFinancialData(testFinancialData.getId());
+
+            Map<String, Object> deleted = financialDataService.getFinancialSummaries(null, null);
+            assertThat((BigDecimal) deleted.get("totalIncome")).isEqualByComparingTo("25");
+            assertThat((BigDecimal) deleted.get("totalExpense")).isEqualByComparingTo("0");
+            assertThat(deleted.get("totalTransactions")).isEqualTo(2L);
+            assertThat((BigDecimal) deleted.get("averageAmount")).isEqualByComparingTo("12.5");
+        } finally {
+            cleaner.clean();
+        }
+    }
+
     @Test
     @WithMockUser(username = "testuser", roles = "USER")
     @DisplayName("Should get category aggregations")
@@ -353,6 +583,8 @@ class FinancialDataServiceIntegrationTest {
 
         assertThat(result).isNotNull();
         assertThat(result).isNotEmpty();
+        assertThat(result.get(0).get("year")).isEqualTo(LocalDate.now().getYear());
+        assertThat(result.get(0).get("month")).isEqualTo(LocalDate.now().getMonthValue());
         assertThat(result.get(0)).containsKey("year");
         assertThat(result.get(0)).containsKey("month");
         assertThat(result.get(0)).containsKey("totalAmount");
@@ -508,8 +740,120 @@ class FinancialDataServiceIntegrationTest {
         assertThat(result.get(0)).containsKey("transactionCount");
     }
 
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @DisplayName("Should group trends on the persisted date buckets, newest first")
+    void getTrendsByPeriod_ShouldGroupOnDateBuckets() {
+        // Monday and Sunday of ISO week 2025-W01, which starts in December 2024
+        createTestFinancialDataWithDate(LocalDate.of(2024, 12, 30), 1);
+        createTestFinancialDataWithDate(LocalDate.of(2025, 1, 5), 2);
+        createTestFinancialDataWithDate(LocalDate.of(2024, 11, 12), 1);
+        financialDataRepository.deleteById(testFinancialData.getId());
+
+        List<Map<String, Object>> weekly = financialDataService.getTrendsByPeriod("weekly", "EXPENSE", 5);
+        assertThat(weekly).extracting(t -> t.get("period")).containsExactly("2025-W01", "2024-W46");
+        assertThat(weekly.get(0).get("transactionCount")).isEqualTo(3L);
+
+        List<Map<String, Object>> monthly = financialDataService.getTrendsByPeriod("MONTHLY", null, 5);
+        assertThat(monthly).extracting(t -> t.get("period")).containsExactly("2025-01", "2024-12", "2024-11");
+
+        List<Map<String, Object>> yearly = financialDataService.getTrendsByPeriod("yearly", null, 5);
+        assertThat(yearly).extracting(t -> t.get("period")).containsExactly("2025", "2024");
+        assertThat((BigDecimal) yearly.get(1).get("totalAmount")).isEqualByComparingTo("20");
+
+        assertThatThrownBy(() -> financialDataService.getTrendsByPeriod("hourly", null, 5))
+                .isInstanceOf(ValidationException.class);
+    }
+
     // Helper methods
 
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @DisplayName("Should keep daily totals in step with creates, moves and deletes")
+    void dailyTotals_ShouldFollowWritesAndMatchRebuild() {
+        LocalDate today = LocalDate.now();
+        FinancialData other = new FinancialData(testUser, today.minusDays(1), new BigDecimal("10.00"),
+                com.financeapp.entity.enums.Category.FOOD, "Snack", com.financeapp.entity.enums.TransactionType.EXPENSE);
+        other = financialDataRepository.save(other);
+
+        assertThat(financialDataService.getTotalAmountByTypeAndDateRange("EXPENSE", null, null))
+                .isEqualByComparingTo("35.50");
+
+        // Move the setup row three days back, then delete the other one
+        testFinancialData.setDate(today.minusDays(3));
+        financialDataRepository.save(testFinancialData);
+        financialDataRepository.delete(other);
+
+        assertThat(financialDataService.getCountByTypeAndDateRange("EXPENSE", null, null)).isEqualTo(1L);
+        List<Object[]> days = financialDataRepository.getDailyTotals(testUser.getId(), today.minusDays(10), today);
+        assertThat(days).hasSize(1);
+        assertThat(days.get(0)[0]).isEqualTo(today.minusDays(3));
+        assertThat((BigDecimal) days.get(0)[1]).isEqualByComparingTo("25.50");
+
+        assertThat(financialDataService.rebuildDailyTotals(testUser.getId())).isEqualTo(1);
+        assertThat(financialDataRepository.getDailyTotals(testUser.getId(), today.minusDays(10), today))
+                .extracting(row -> row[0]).containsExactly(today.minusDays(3));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should keep daily totals in step with a committed update")
+    void dailyTotals_AfterCommittedUpdate_ShouldMatchRebuild() {
+        LocalDate today = LocalDate.now();
+        try {
+            financialDataRepository.save(new FinancialData(testUser, today.minusDays(1), new BigDecimal("10.00"),
+                    com.financeapp.entity.enums.Category.FOOD, "Snack", com.financeapp.entity.enums.TransactionType.EXPENSE));
+
+            // Moves the setup row three days back and changes its amount, committing on return
+            financialDataService.updateFinancialData(testFinancialData.getId(), new FinancialDataDto(testFinancialData.getId(), testUser.getId(),
+                    today.minusDays(3), new BigDecimal("40.00"), "FOOD", "Dinner", "EXPENSE", null, null));
+
+            List<List<Object>> maintained = rollupRows(today);
+            assertThat(maintained).extracting(row -> row.get(0)).containsExactly(today.minusDays(3), today.minusDays(1));
+            assertThat((BigDecimal) maintained.get(0).get(3)).isEqualByComparingTo("40.00");
+            financialDataService.rebuildDailyTotals(testUser.getId());
+            assertThat(rollupRows(today)).isEqualTo(maintained);
+        } finally {
+            cleaner.clean();
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should keep daily totals in step with a committed delete")
+    void dailyTotals_AfterCommittedDelete_ShouldMatchRebuild() {
+        LocalDate today = LocalDate.now();
+        try {
+            financialDataRepository.save(new FinancialData(testUser, today, new BigDecimal("10.00"),
+                    com.financeapp.entity.enums.Category.FOOD, "Snack", com.financeapp.entity.enums.TransactionType.EXPENSE));
+
+            assertThat(financialDataService.deleteFinancialData(testFinancialData.getId())).isTrue();
+
+            List<List<Object>> maintained = rollupRows(today);
+            assertThat(maintained).hasSize(1);
+            assertThat((BigDecimal) maintained.get(0).get(3)).isEqualByComparingTo("10.00");
+            financialDataService.rebuildDailyTotals(testUser.getId());
+            assertThat(rollupRows(today)).isEqualTo(maintained);
+        } finally {
+            cleaner.clean();
+        }
+    }
+
+    /** Runs a streaming export of all the test user's rows in this thread. */
+    private String export(String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        financialDataService.streamFinancialData(format, null, null, null, null).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /** The test user's rollup rows for the last ten days, comparable with {@code equals}. */
+    private List<List<Object>> rollupRows(LocalDate today) {
+        return financialDataRepository.getDailyTotalsByTypeAndCategory(testUser.getId(), today.minusDays(10), today)
+                .stream().map(row -> Arrays.<Object>asList(row)).toList();
+    }
+
     private void createTestFinancialData(int count) {
         for (int i = 0; i < count; i++) {
             FinancialData data = new FinancialData();
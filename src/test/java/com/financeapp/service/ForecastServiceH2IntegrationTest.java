@@ -1,19 +1,37 @@
 package com.financeapp.service;
 
+import com.financeapp.config.AsyncCacheConfig;
+import com.financeapp.config.CacheRefreshRegistry;
+import com.financeapp.config.UserScopedKeyGenerator;
+import com.financeapp.dto.FinancialDataDto;
 import com.financeapp.entity.ForecastConfig;
 import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastAnomaly;
+import com.financeapp.entity.ForecastPerformance;
 import com.financeapp.entity.enums.Category;
 import com.financeapp.entity.enums.TransactionType;
 import com.financeapp.entity.User;
+import com.financeapp.repository.ForecastAnomalyRepository;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastPerformanceRepository;
 import com.financeapp.repository.ForecastResultRepository;
+import com.financeapp.repository.ForecastStateRepository;
 import com.financeapp.repository.UserRepository;
 import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.service.event.FinancialDataChangedEvent;
+import com.financeapp.service.forecast.AutoModelSelector;
+import com.financeapp.service.forecast.DailySeries;
+import com.financeapp.service.forecast.ModelSpec;
+import com.financeapp.service.forecast.OnlineForecastState;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -24,6 +42,9 @@ public class ForecastServiceH2IntegrationTest {
     @Autowired
     private ForecastService forecastService;
 
+    @Autowired
+    private FinancialDataService financialDataService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -33,6 +54,24 @@ public class ForecastServiceH2IntegrationTest {
     @Autowired
     private FinancialDataRepository financialDataRepository;
 
+    @Autowired
+    private ForecastPerformanceRepository forecastPerformanceRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ForecastStateRepository forecastStateRepository;
+
+    @Autowired
+    private ForecastConfigRepository forecastConfigRepository;
+
+    @Autowired
+    private ForecastAnomalyRepository forecastAnomalyRepository;
+
+    @Autowired
+    private CacheRefreshRegistry cacheRefreshRegistry;
+
     @Test
     void generateForecast_SMA_ShouldPersistResults() {
         User user = new User();
@@ -62,6 +101,494 @@ public class ForecastServiceH2IntegrationTest {
         assertThat(results).hasSize(5);
         assertThat(forecastResultRepository.findByUser(user, org.springframework.data.domain.PageRequest.of(0, 10))).isNotNull();
     }
-}
 
+    @Test
+    void generateForecast_ShouldPersistPredictionBands() {
+        User user = new User();
+        user.setUsername("forecast-band-user");
+        user.setEmail("fband@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 30; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(50 + (i * 37) % 23));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Seed " + i);
+            financialDataRepository.save(fd);
+        }
+
+        for (ForecastConfig.AlgorithmType algo : List.of(ForecastConfig.AlgorithmType.SMA, ForecastConfig.AlgorithmType.ARIMA)) {
+            ForecastConfig cfg = new ForecastConfig();
+            cfg.setUser(user);
+            cfg.setAlgorithm(algo);
+
+            var results = forecastService.generateForecast(user.getId(), cfg, LocalDate.now(), 5).join();
+
+            assertThat(results).hasSize(5).allSatisfy(r -> {
+                assertThat(r.getConfidenceLow()).isNotNull();
+                assertThat(r.getConfidenceHigh()).isNotNull();
+                assertThat(r.getConfidenceLow()).isLessThan(r.getForecastValue());
+                assertThat(r.getConfidenceHigh()).isGreaterThan(r.getForecastValue());
+            });
+        }
+    }
+
+    @Test
+    void backtest_ShouldPersistRollingOriginSummary() {
+        User user = new User();
+        user.setUsername("forecast-backtest-user");
+        user.setEmail("fbacktest@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 40; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(20 + i % 7));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Seed " + i);
+            financialDataRepository.save(fd);
+        }
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        cfg.setWindowSize(7);
+        long before = forecastPerformanceRepository.count();
+
+        var results = forecastService.backtestAndStoreAccuracy(user.getId(), cfg, LocalDate.now(), 5, 30).join();
+
+        assertThat(results).hasSize(5).allSatisfy(r -> assertThat(r.getMape()).isNotNull());
+        assertThat(forecastPerformanceRepository.count()).isEqualTo(before + 1);
+        var summary = forecastPerformanceRepository.findAll().stream()
+                .filter(p -> p.getConfig().getId().equals(cfg.getId()))
+                .findFirst().orElseThrow();
+        assertThat(summary.getHorizonDays()).isEqualTo(5);
+        // 35 days of history (lookback + horizon); origins start once SMA has 7 training days
+        assertThat(summary.getOrigins()).isEqualTo(35 - 7);
+        assertThat(summary.getMae()).isPositive();
+        assertThat(summary.getRmse()).isGreaterThanOrEqualTo(summary.getMae());
+        assertThat(summary.getSmape()).isNotNull();
+        assertThat(summary.getBias()).isNotNull();
+
+        // A later backtest of the same config and horizon replaces the summary
+        forecastService.backtestAndStoreAccuracy(user.getId(), cfg, LocalDate.now(), 5, 20).join();
+        assertThat(forecastPerformanceRepository.count()).isEqualTo(before + 1);
+        var replaced = forecastPerformanceRepository.findById(summary.getId()).orElseThrow();
+        assertThat(replaced.getLookbackDays()).isEqualTo(20);
+        assertThat(replaced.getOrigins()).isEqualTo(25 - 7);
+    }
+
+    @Test
+    void autoForecast_ShouldStoreSelectionAndReuseItUntilDataChanges() {
+        User user = new User();
+        user.setUsername("forecast-auto-user");
+        user.setEmail("fauto@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 90; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(40 + 25 * ((i % 7) == 0 ? 1 : 0) + (i * 13) % 5));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Seed " + i);
+            financialDataRepository.save(fd);
+        }
+        Long userId = user.getId();
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.AUTO);
+        var results = forecastService.generateForecast(userId, cfg, LocalDate.now(), 7).join();
+
+        assertThat(results).hasSize(7).allSatisfy(r -> assertThat(r.getForecastValue()).isNotNull());
+        var selections = forecastPerformanceRepository.findAll().stream()
+                .filter(p -> p.getUser().getId().equals(userId) && p.getAlgorithm() != null)
+                .toList();
+        assertThat(selections).hasSize(1);
+        var selection = selections.get(0);
+        assertThat(selection.getAlgorithm()).isNotEqualTo(ForecastConfig.AlgorithmType.AUTO);
+        assertThat(selection.getModelParams()).isNotNull();
+        assertThat(selection.getValidUntil()).isAfter(java.time.OffsetDateTime.now());
+        assertThat(selection.getOrigins()).isPositive();
+
+        // A different start date misses the result cache but not the stored selection
+        ForecastConfig again = new ForecastConfig();
+        again.setUser(user);
+        again.setAlgorithm(ForecastConfig.AlgorithmType.AUTO);
+        forecastService.generateForecast(userId, again, LocalDate.now().minusDays(1), 7).join();
+        assertThat(forecastPerformanceRepository.findAll().stream()
+                .filter(p -> p.getUser().getId().equals(userId) && p.getAlgorithm() != null)
+                .count()).isEqualTo(1);
+
+        // Other candidate hints race their own candidates and store their own selection
+        ForecastConfig monthly = new ForecastConfig();
+        monthly.setUser(user);
+        monthly.setAlgorithm(ForecastConfig.AlgorithmType.AUTO);
+        monthly.setSeasonLength(30);
+        forecastService.generateForecast(userId, monthly, LocalDate.now().minusDays(2), 7).join();
+        assertThat(forecastPerformanceRepository.findAll().stream()
+                .filter(p -> p.getUser().getId().equals(userId) && p.getAlgorithm() != null)
+                .map(ForecastPerformance::getSelectionHints))
+                .containsExactlyInAnyOrder(AutoModelSelector.selectionHints(cfg), AutoModelSelector.selectionHints(monthly));
+
+        eventPublisher.publishEvent(new FinancialDataChangedEvent(userId, FinancialDataChangedEvent.ChangeType.CREATED));
+        assertThat(forecastPerformanceRepository
+                .findFirstByUserIdAndHorizonDaysAndSelectionHintsAndAlgorithmIsNotNullAndValidUntilAfterOrderByIdDesc(
+                        userId, 7, AutoModelSelector.selectionHints(cfg), java.time.OffsetDateTime.now()))
+                .isEmpty();
+    }
+
+    @Test
+    void closedFormForecast_ShouldFollowWritesThroughItsOnlineState() {
+        User user = new User();
+        user.setUsername("forecast-online-user");
+        user.setEmail("fonline@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 20; i >= 2; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(30 + i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Seed " + i);
+            financialDataRepository.save(fd);
+        }
+
+        Long userId = user.getId();
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        forecastConfigRepository.save(cfg);
+        forecastService.generateForecast(userId, cfg, LocalDate.now(), 3).join();
+        var state = forecastStateRepository.findAll().stream()
+                .filter(s -> s.getConfig().getId().equals(cfg.getId()))
+                .findFirst().orElseThrow();
+        assertThat(state.getWindowEnd()).isEqualTo(LocalDate.now().minusDays(1));
+        assertThat(state.getWindowStart()).isEqualTo(LocalDate.now().minusDays(180));
+
+        // A config saved only to answer one request keeps no state behind
+        ForecastConfig adHoc = new ForecastConfig();
+        adHoc.setUser(user);
+        adHoc.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        forecastService.generateForecast(userId, adHoc, LocalDate.now(), 3).join();
+        assertThat(forecastStateRepository.findAll().stream()
+                .filter(s -> s.getConfig().getId().equals(adHoc.getId()))).isEmpty();
+
+        // Batch forecasts of saved configs keep their states too
+        ForecastConfig sma = new ForecastConfig();
+        sma.setUser(user);
+        sma.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        sma.setWindowSize(5);
+        forecastConfigRepository.save(sma);
+        forecastService.batchGenerateForecasts(userId, List.of(sma), LocalDate.now().minusDays(1), 3).join();
+        assertThat(forecastStateRepository.findAll().stream()
+                .filter(s -> s.getConfig().getId().equals(sma.getId()))
+                .map(s -> s.getWindowEnd()))
+                .containsExactly(LocalDate.now().minusDays(2));
+
+        // A write for yesterday reaches the state through the rollup, without a forecast call
+        FinancialData late = new FinancialData();
+        late.setUser(user);
+        late.setAmount(java.math.BigDecimal.valueOf(500));
+        late.setType(TransactionType.EXPENSE);
+        late.setCategory(Category.FOOD);
+        late.setDate(LocalDate.now().minusDays(1));
+        late.setDescription("Late");
+        financialDataRepository.save(late);
+        var kept = forecastStateRepository.findById(state.getId()).orElseThrow();
+        var restored = OnlineForecastState.restore(ModelSpec.linearRegression(), kept.getLookbackDays(), kept.getWindowEnd(),
+                kept.getStatistics(), kept.getRing());
+        assertThat(restored.series().last()).isEqualTo(500.0);
+
+        var results = forecastService.generateForecast(userId, cfg, LocalDate.now(), 4).join();
+        double[] expected = forecastService.linearRegressionForecast(DailySeries.fromDailyTotals(
+                financialDataRepository.getDailyTotals(userId, LocalDate.now().minusDays(180), LocalDate.now().minusDays(1)),
+                LocalDate.now().minusDays(1)), 4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(results.get(i).getForecastValue().doubleValue()).isCloseTo(expected[i], org.assertj.core.api.Assertions.within(1e-6));
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "forecast-edit-user", roles = "USER")
+    void onlineState_ShouldFollowCommittedEditsAndDeletesInsideItsWindow() {
+        User user = new User();
+        user.setUsername("forecast-edit-user");
+        user.setEmail("fedit@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        List<FinancialData> seed = new java.util.ArrayList<>();
+        for (int i = 20; i >= 1; i--) {
+            seed.add(financialDataRepository.save(transaction(user, Category.FOOD, 30 + i, LocalDate.now().minusDays(i))));
+        }
+        FinancialData edited = seed.get(20 - 5);
+        FinancialData removed = seed.get(20 - 3);
 
+        Long userId = user.getId();
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        forecastConfigRepository.save(cfg);
+        forecastService.generateForecast(userId, cfg, LocalDate.now(), 3).join();
+
+        // Both commit through the service, without a forecast call to move the window
+        financialDataService.updateFinancialData(edited.getId(), new FinancialDataDto(edited.getId(), userId,
+                edited.getDate(), java.math.BigDecimal.valueOf(300), "FOOD", "Edited", "EXPENSE", null, null));
+        financialDataService.deleteFinancialData(removed.getId());
+
+        var kept = forecastStateRepository.findAll().stream()
+                .filter(s -> s.getConfig().getId().equals(cfg.getId()))
+                .findFirst().orElseThrow();
+        var restored = OnlineForecastState.restore(ModelSpec.linearRegression(), kept.getLookbackDays(), kept.getWindowEnd(),
+                kept.getStatistics(), kept.getRing());
+        var rebuilt = OnlineForecastState.build(ModelSpec.linearRegression(), kept.getLookbackDays(), kept.getWindowEnd(),
+                financialDataRepository.getDailyTotals(userId, restored.windowStart(), restored.windowEnd()));
+        DailySeries series = restored.series();
+        assertThat(series.get((int) (edited.getDate().toEpochDay() - series.start().toEpochDay()))).isEqualTo(300.0);
+        assertThat(series.get((int) (removed.getDate().toEpochDay() - series.start().toEpochDay()))).isEqualTo(0.0);
+        assertThat(series.toArray()).containsExactly(rebuilt.series().toArray());
+
+        double[] maintained = new double[4];
+        double[] fresh = new double[4];
+        assertThat(restored.forecast(4, maintained)).isTrue();
+        assertThat(rebuilt.forecast(4, fresh)).isTrue();
+        for (int i = 0; i < 4; i++) {
+            assertThat(maintained[i]).isCloseTo(fresh[i], org.assertj.core.api.Assertions.within(1e-6));
+        }
+    }
+
+    @Test
+    void newTransactions_ShouldBeScoredAndOutliersRecordedAsAnomalies() throws InterruptedException {
+        User user = new User();
+        user.setUsername("forecast-anomaly-user");
+        user.setEmail("fanomaly@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        List<FinancialData> seed = new java.util.ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            seed.add(transaction(user, Category.FOOD, 40 + (i * 7) % 11, LocalDate.now().minusDays(20 - i)));
+        }
+        financialDataRepository.saveAll(seed);
+        // Normal for FOOD, but the first amount of its own category stream
+        financialDataRepository.save(transaction(user, Category.TRANSPORTATION, 900, LocalDate.now()));
+        financialDataRepository.save(transaction(user, Category.FOOD, 45, LocalDate.now()));
+        financialDataRepository.save(transaction(user, Category.FOOD, 900, LocalDate.now()));
+
+        List<ForecastAnomaly> anomalies = List.of();
+        for (long deadline = System.currentTimeMillis() + 10_000; anomalies.isEmpty() && System.currentTimeMillis() < deadline; ) {
+            Thread.sleep(50);
+            anomalies = forecastAnomalyRepository.findByUserIdOrderByIdAsc(user.getId());
+        }
+
+        assertThat(anomalies).hasSize(1);
+        ForecastAnomaly anomaly = anomalies.get(0);
+        assertThat(anomaly.getValue()).isEqualTo(900.0);
+        assertThat(anomaly.getDate()).isEqualTo(LocalDate.now());
+        assertThat(anomaly.getZscore()).isGreaterThan(3.5);
+        assertThat(anomaly.getParamsJson()).contains("\"category\":\"FOOD\"", "\"median\"", "\"mad\"", "\"samples\":21");
+    }
+
+    @Test
+    void filteredConfigs_ShouldForecastCoherentSlicesOfTheUsersTotal() {
+        User user = new User();
+        user.setUsername("forecast-slice-user");
+        user.setEmail("fslice@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        List<FinancialData> seed = new java.util.ArrayList<>();
+        for (int i = 40; i >= 1; i--) {
+            LocalDate day = LocalDate.now().minusDays(i);
+            seed.add(transaction(user, Category.FOOD, 20 + (i * 13) % 17, day));
+            if (i % 3 == 0) seed.add(transaction(user, Category.TRANSPORTATION, 15 + i % 4, day));
+            if (i % 14 == 0) {
+                FinancialData salary = transaction(user, Category.SALARY, 3000, day);
+                salary.setType(TransactionType.INCOME);
+                seed.add(salary);
+            }
+        }
+        financialDataRepository.saveAll(seed);
+
+        double[] food = sliceForecast(user, "food", null);
+        double[] transportation = sliceForecast(user, "TRANSPORTATION", "EXPENSE");
+        double[] expense = sliceForecast(user, null, "EXPENSE");
+        for (int i = 0; i < 5; i++) {
+            assertThat(food[i] + transportation[i]).isCloseTo(expense[i], org.assertj.core.api.Assertions.within(1e-6));
+        }
+        assertThat(sliceForecast(user, "HOUSING", null)).isEmpty();
+
+        ForecastConfig unknown = new ForecastConfig();
+        unknown.setUser(user);
+        unknown.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        unknown.setCategory("GROCERIES");
+        Long userId = user.getId();
+        org.assertj.core.api.Assertions.assertThatThrownBy(() -> forecastService.generateForecast(userId, unknown, LocalDate.now(), 5).join())
+                .hasRootCauseInstanceOf(IllegalArgumentException.class)
+                .rootCause().hasMessageContaining("GROCERIES");
+    }
+
+    private double[] sliceForecast(User user, String category, String type) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        cfg.setCategory(category);
+        cfg.setTransactionType(type);
+        return forecastService.generateForecast(user.getId(), cfg, LocalDate.now(), 5).join().stream()
+                .mapToDouble(r -> r.getForecastValue().doubleValue()).toArray();
+    }
+
+    private static FinancialData transaction(User user, Category category, double amount, LocalDate date) {
+        FinancialData fd = new FinancialData();
+        fd.setUser(user);
+        fd.setAmount(java.math.BigDecimal.valueOf(amount));
+        fd.setType(TransactionType.EXPENSE);
+        fd.setCategory(category);
+        fd.setDate(date);
+        fd.setDescription("Anomaly " + amount);
+        return fd;
+    }
+
+    @Test
+    void batchGenerate_ShouldReuseCachedForecastsWithoutRepersisting() {
+        User user = new User();
+        user.setUsername("forecast-cache-user");
+        user.setEmail("fcache@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 10; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(5 * i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Seed " + i);
+            financialDataRepository.save(fd);
+        }
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+
+        LocalDate start = LocalDate.now().plusDays(1);
+        var first = forecastService.generateForecast(user.getId(), cfg, start, 4).join();
+        long persisted = forecastResultRepository.count();
+
+        var batch = forecastService.batchGenerateForecasts(user.getId(), List.of(cfg), start, 4).join();
+        assertThat(batch).containsOnlyKeys(cfg.getId());
+        assertThat(batch.get(cfg.getId())).isSameAs(first);
+        assertThat(forecastResultRepository.count()).isEqualTo(persisted);
+    }
+
+    @Test
+    void batchGenerate_ShouldFitAllConfigsAndKeepConfigOrder() {
+        User user = new User();
+        user.setUsername("forecast-batch-user");
+        user.setEmail("fbatch@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 20; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(3 * i + 1));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Seed " + i);
+            financialDataRepository.save(fd);
+        }
+
+        List<ForecastConfig> configs = new java.util.ArrayList<>();
+        for (ForecastConfig.AlgorithmType algo : ForecastConfig.AlgorithmType.values()) {
+            ForecastConfig cfg = new ForecastConfig();
+            cfg.setUser(user);
+            cfg.setAlgorithm(algo);
+            configs.add(cfg);
+        }
+        long before = forecastResultRepository.count();
+
+        var batch = forecastService.batchGenerateForecasts(user.getId(), configs, LocalDate.now().plusDays(1), 6).join();
+
+        assertThat(batch.keySet()).containsExactlyElementsOf(configs.stream().map(ForecastConfig::getId).toList());
+        assertThat(batch.values()).allSatisfy(results -> assertThat(results).hasSize(6));
+        assertThat(forecastResultRepository.count()).isEqualTo(before + 6L * configs.size());
+    }
+
+    @Test
+    void batchGenerate_ShouldGiveEveryUnsavedConfigItsOwnSlot() {
+        User user = new User();
+        user.setUsername("forecast-unsaved-user");
+        user.setEmail("funsaved@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        // No data, so every result list is empty; two configs share all their parameters
+        List<ForecastConfig> configs = new java.util.ArrayList<>();
+        for (ForecastConfig.AlgorithmType algo : List.of(ForecastConfig.AlgorithmType.SMA,
+                ForecastConfig.AlgorithmType.EWMA, ForecastConfig.AlgorithmType.EWMA)) {
+            ForecastConfig cfg = new ForecastConfig();
+            cfg.setUser(user);
+            cfg.setAlgorithm(algo);
+            configs.add(cfg);
+        }
+
+        var batch = forecastService.batchGenerateForecasts(user.getId(), configs, LocalDate.now().plusDays(1), 3).join();
+
+        assertThat(configs).extracting(ForecastConfig::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(batch.keySet()).containsExactlyElementsOf(configs.stream().map(ForecastConfig::getId).toList());
+        assertThat(batch.values()).allSatisfy(results -> assertThat(results).isEmpty());
+        assertThat(forecastStateRepository.findAll().stream()
+                .filter(s -> configs.stream().anyMatch(cfg -> cfg.getId().equals(s.getConfig().getId())))).isEmpty();
+    }
+
+    @Test
+    void refreshedForecast_ShouldNotPersistResultsAgain() {
+        User user = new User();
+        user.setUsername("forecast-refresh-user");
+        user.setEmail("frefresh@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 14; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(java.math.BigDecimal.valueOf(20 + i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(LocalDate.now().minusDays(i));
+            fd.setDescription("Seed " + i);
+            financialDataRepository.save(fd);
+        }
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.LINEAR_REGRESSION);
+        LocalDate start = LocalDate.now().plusDays(2);
+        var first = forecastService.generateForecast(user.getId(), cfg, start, 4).join();
+        long stored = forecastResultRepository.count();
+
+        // What refreshAfterWrite runs for a hot key
+        Object refreshed = cacheRefreshRegistry.reload(AsyncCacheConfig.FORECASTS_CACHE,
+                UserScopedKeyGenerator.keyFor(user.getId(), "generateForecast", cfg, start, 4), Runnable::run).join();
+
+        assertThat((List<?>) refreshed).hasSize(first.size());
+        assertThat(forecastResultRepository.count()).isEqualTo(stored);
+    }
+}
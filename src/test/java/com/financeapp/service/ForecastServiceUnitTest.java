@@ -1,18 +1,24 @@
 package com.financeapp.service;
 
+import com.financeapp.service.forecast.DailySeries;
 import com.financeapp.service.impl.ForecastServiceImpl;
+import com.financeapp.testsupport.TestDataFactory;
+import org.assertj.core.data.Offset;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 public class ForecastServiceUnitTest {
 
     @Test
     void simpleMovingAverage_shouldComputeCorrectValues() {
-        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null);
+        ForecastServiceImpl svc = TestDataFactory.algorithmsOnlyForecastService();
         List<Double> vals = Arrays.asList(1d, 2d, 3d, 4d, 5d);
         double[] sma = svc.simpleMovingAverage(vals, 3);
         assertThat(sma).containsExactly(2.0, 3.0, 4.0);
@@ -20,7 +26,7 @@ public class ForecastServiceUnitTest {
 
     @Test
     void ewma_shouldSmoothSeries() {
-        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null);
+        ForecastServiceImpl svc = TestDataFactory.algorithmsOnlyForecastService();
         List<Double> vals = Arrays.asList(10d, 20d, 30d, 40d);
         double[] ewma = svc.exponentialWeightedMovingAverage(vals, 0.5);
         assertThat(ewma.length).isEqualTo(vals.size());
@@ -30,7 +36,7 @@ public class ForecastServiceUnitTest {
 
     @Test
     void linearRegressionForecast_shouldProjectTrend() {
-        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null);
+        ForecastServiceImpl svc = TestDataFactory.algorithmsOnlyForecastService();
         List<Double> vals = Arrays.asList(1d, 2d, 3d, 4d, 5d);
         double[] fc = svc.linearRegressionForecast(vals, 3);
         assertThat(fc.length).isEqualTo(3);
@@ -40,11 +46,59 @@ public class ForecastServiceUnitTest {
 
     @Test
     void seasonalDecomposition_shouldUseSeasonLength() {
-        ForecastServiceImpl svc = new ForecastServiceImpl(null, null, null, null);
+        ForecastServiceImpl svc = TestDataFactory.algorithmsOnlyForecastService();
         List<Double> vals = Arrays.asList(10d, 20d, 30d, 10d, 20d, 30d, 10d, 20d, 30d);
         double[] fc = svc.seasonalDecomposition(vals, 3, 3);
         assertThat(fc.length).isEqualTo(3);
     }
-}
 
+    @Test
+    void dailySeries_shouldGapFillMissingDays() {
+        LocalDate d0 = LocalDate.of(2024, 1, 1);
+        List<Object[]> rows = List.of(
+                new Object[]{d0, new BigDecimal("10.00")},
+                new Object[]{d0.plusDays(3), new BigDecimal("40.00")});
+        DailySeries series = DailySeries.fromDailyTotals(rows);
+        assertThat(series.start()).isEqualTo(d0);
+        assertThat(series.size()).isEqualTo(4);
+        assertThat(series.toArray()).containsExactly(10.0, 0.0, 0.0, 40.0);
+        assertThat(series.dateAt(3)).isEqualTo(d0.plusDays(3));
+
+        DailySeries toOrigin = DailySeries.fromDailyTotals(rows, d0.plusDays(5));
+        assertThat(toOrigin.start()).isEqualTo(d0);
+        assertThat(toOrigin.toArray()).containsExactly(10.0, 0.0, 0.0, 40.0, 0.0, 0.0);
+        assertThat(DailySeries.fromDailyTotals(List.of(), d0)).isSameAs(DailySeries.empty());
+    }
+
+    @Test
+    void primitiveOverloads_shouldMatchHandComputedValues() {
+        ForecastServiceImpl svc = TestDataFactory.algorithmsOnlyForecastService();
+        List<Double> vals = Arrays.asList(10d, 20d, 30d, 10d, 20d, 30d, 10d, 20d, 90d);
+        DailySeries series = DailySeries.of(LocalDate.of(2024, 1, 1), DailySeries.toArray(vals));
+        Offset<Double> eps = within(1e-9);
+
+        double[] sma = {20, 20, 20, 20, 20, 20, 40};
+        assertThat(svc.simpleMovingAverage(series, 3)).containsExactly(sma, eps);
+        assertThat(svc.simpleMovingAverage(vals, 3)).containsExactly(sma, eps);
 
+        double[] ewma = {10, 14, 20.4, 16.24, 17.744, 22.6464, 17.58784, 18.552704, 47.1316224};
+        assertThat(svc.exponentialWeightedMovingAverage(series, 0.4)).containsExactly(ewma, eps);
+        assertThat(svc.exponentialWeightedMovingAverage(vals, 0.4)).containsExactly(ewma, eps);
+
+        // OLS on x = 1..9: slope 5, intercept 5/3
+        double[] trend = {155 / 3.0, 170 / 3.0, 185 / 3.0, 200 / 3.0};
+        assertThat(svc.linearRegressionForecast(series, 4)).containsExactly(trend, eps);
+        assertThat(svc.linearRegressionForecast(vals, 4)).containsExactly(trend, eps);
+
+        // Seasonal means by position: 10, 20, 50; the horizon starts at position 9 % 3 = 0
+        double[] seasonal = {185 / 3.0, 230 / 3.0, 335 / 3.0, 230 / 3.0};
+        assertThat(svc.seasonalDecomposition(series, 3, 4)).containsExactly(seasonal, eps);
+        assertThat(svc.seasonalDecomposition(vals, 3, 4)).containsExactly(seasonal, eps);
+
+        // Mean 80/3, sample sd 25: only the 90 is more than two sd away
+        assertThat(svc.detectAnomalies(series, 2.0)).containsExactly(8);
+        assertThat(svc.detectAnomalies(vals, 2.0)).containsExactly(8);
+
+        assertThat(svc.linearRegressionForecast(series.head(3), 2)).containsExactly(new double[]{40, 50}, eps);
+    }
+}
@@ -0,0 +1,139 @@
+package com.financeapp.service;
+
+import com.financeapp.entity.FinancialData;
+import com.financeapp.entity.ForecastConfig;
+import com.financeapp.entity.ForecastJob;
+import com.financeapp.entity.User;
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.repository.FinancialDataRepository;
+import com.financeapp.repository.ForecastConfigRepository;
+import com.financeapp.repository.ForecastJobRepository;
+import com.financeapp.repository.UserRepository;
+import com.financeapp.service.forecast.NightlyForecastSweep;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class NightlyForecastSweepH2Test {
+
+    @Autowired
+    private NightlyForecastSweep sweep;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FinancialDataRepository financialDataRepository;
+    @Autowired
+    private ForecastConfigRepository forecastConfigRepository;
+    @Autowired
+    private ForecastJobRepository forecastJobRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void sweep_shouldSkipUsersAlreadyCompletedForTheRunDate() {
+        LocalDate runDate = LocalDate.of(2030, 1, 15);
+        User done = userWithConfig("sweep-done", runDate);
+        User pending = userWithConfig("sweep-pending", runDate);
+
+        // Simulate a crashed run that finished the first user only
+        ForecastJob completed = new ForecastJob();
+        completed.setUser(done);
+        completed.setRunDate(runDate);
+        completed.setStatus(ForecastJob.Status.COMPLETED);
+        forecastJobRepository.save(completed);
+
+        assertThat(sweep.run(runDate)).isPositive();
+
+        assertThat(forecastJobRepository.findByUserIdAndRunDate(pending.getId(), runDate))
+                .get().extracting(ForecastJob::getStatus).isEqualTo(ForecastJob.Status.COMPLETED);
+        assertThat(forecastJobRepository.findByUserIdAndRunDate(done.getId(), runDate))
+                .get().extracting(ForecastJob::getId).isEqualTo(completed.getId());
+
+        // Everything is complete now, so a second run has nothing left to do
+        assertThat(sweep.run(runDate)).isZero();
+        assertThat(meterRegistry.get("forecast.sweep.users").tag("outcome", "skipped").counter().count()).isPositive();
+        assertThat(meterRegistry.get("forecast.sweep.lag").gauge().value()).isGreaterThanOrEqualTo(0.0);
+    }
+
+    @Test
+    void sweep_shouldLeaveJobsClaimedByAnotherSweep() {
+        LocalDate runDate = LocalDate.of(2030, 2, 1);
+        User held = userWithConfig("sweep-held", runDate);
+
+        // Another instance claimed this user moments ago
+        ForecastJob running = new ForecastJob();
+        running.setUser(held);
+        running.setRunDate(runDate);
+        running.setStatus(ForecastJob.Status.RUNNING);
+        forecastJobRepository.save(running);
+
+        sweep.run(runDate);
+        assertThat(forecastJobRepository.findByUserIdAndRunDate(held.getId(), runDate)).get()
+                .satisfies(job -> assertThat(job.getId()).isEqualTo(running.getId()))
+                .extracting(ForecastJob::getStatus).isEqualTo(ForecastJob.Status.RUNNING);
+
+        // Once it has gone stale the job is taken over, still as the same row
+        OffsetDateTime longAgo = OffsetDateTime.now().minusDays(1);
+        assertThat(forecastJobRepository.claim(held.getId(), runDate, ForecastJob.Status.RUNNING,
+                EnumSet.of(ForecastJob.Status.PENDING), longAgo, longAgo)).isZero();
+        OffsetDateTime now = OffsetDateTime.now();
+        assertThat(forecastJobRepository.claim(held.getId(), runDate, ForecastJob.Status.RUNNING,
+                EnumSet.of(ForecastJob.Status.PENDING), now, now.plusSeconds(1))).isOne();
+    }
+
+    @Test
+    void jobs_shouldBeUniquePerUserAndRunDate() {
+        LocalDate runDate = LocalDate.of(2030, 3, 1);
+        User user = userWithConfig("sweep-unique", runDate);
+        ForecastJob first = new ForecastJob();
+        first.setUser(user);
+        first.setRunDate(runDate);
+        forecastJobRepository.saveAndFlush(first);
+
+        ForecastJob second = new ForecastJob();
+        second.setUser(user);
+        second.setRunDate(runDate);
+        assertThatThrownBy(() -> forecastJobRepository.saveAndFlush(second))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private User userWithConfig(String username, LocalDate runDate) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("Password@123");
+        user = userRepository.save(user);
+
+        for (int i = 10; i >= 1; i--) {
+            FinancialData fd = new FinancialData();
+            fd.setUser(user);
+            fd.setAmount(BigDecimal.valueOf(20 + i));
+            fd.setType(TransactionType.EXPENSE);
+            fd.setCategory(Category.FOOD);
+            fd.setDate(runDate.minusDays(i));
+            fd.setDescription("Sweep " + i);
+            financialDataRepository.save(fd);
+        }
+
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setUser(user);
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.SMA);
+        cfg.setWindowSize(3);
+        forecastConfigRepository.save(cfg);
+        return user;
+    }
+}
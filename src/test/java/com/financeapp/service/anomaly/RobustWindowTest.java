@@ -0,0 +1,91 @@
+package com.financeapp.service.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RobustWindowTest {
+
+    private static double[] sorted(Deque<Double> window) {
+        double[] s = window.stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(s);
+        return s;
+    }
+
+    @Test
+    void slidingStatistics_shouldMatchABruteForceWindow() {
+        Random rnd = new Random(3);
+        RobustWindow window = new RobustWindow(25);
+        Deque<Double> brute = new ArrayDeque<>();
+
+        for (int step = 0; step < 2000; step++) {
+            // Rounded amounts so ties are common
+            double x = Math.round((rnd.nextInt(10) == 0 ? 500 : 50) * rnd.nextDouble()) / 2.0;
+            window.add(x);
+            brute.addLast(x);
+            if (brute.size() > 25) brute.removeFirst();
+
+            double[] s = sorted(brute);
+            int n = s.length;
+            double median = n % 2 == 1 ? s[n / 2] : (s[n / 2 - 1] + s[n / 2]) / 2;
+            double mean = Arrays.stream(s).average().orElseThrow();
+            assertThat(window.size()).isEqualTo(n);
+            assertThat(window.median()).isEqualTo(median);
+            assertThat(window.mean()).isCloseTo(mean, within(1e-9));
+            if (n >= 2) {
+                double ss = Arrays.stream(s).map(v -> (v - mean) * (v - mean)).sum();
+                assertThat(window.stddev()).isCloseTo(Math.sqrt(ss / (n - 1)), within(1e-6));
+            }
+            if (n >= 4) {
+                double q1 = (s[n / 4 - 1] + s[n / 4]) / 2;
+                double q3 = (s[3 * n / 4 - 1] + s[3 * n / 4]) / 2;
+                assertThat(window.mad()).isEqualTo((q3 - q1) / 2);
+            }
+        }
+    }
+
+    @Test
+    void mad_shouldApproximateTheExactMadOnSymmetricData() {
+        Random rnd = new Random(17);
+        RobustWindow window = new RobustWindow(400);
+        double[] values = new double[400];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100 + 15 * rnd.nextGaussian();
+            window.add(values[i]);
+        }
+        double median = window.median();
+        double[] deviations = Arrays.stream(values).map(v -> Math.abs(v - median)).sorted().toArray();
+        double exactMad = (deviations[199] + deviations[200]) / 2;
+
+        assertThat(window.mad()).isCloseTo(exactMad, within(0.1 * exactMad));
+    }
+
+    @Test
+    void score_shouldFlagOutliersThatInflateTheClassicZScore() {
+        RobustWindow window = new RobustWindow(20);
+        for (int i = 0; i < 18; i++) window.add(40 + i % 5);
+        window.add(2000); // an earlier outlier in the window inflates the stddev
+        window.add(42);
+
+        RobustWindow.Score outlier = window.score(400);
+        assertThat(outlier.robustZ()).isGreaterThan(3.5);
+        assertThat(outlier.zscore()).isLessThan(3.5);
+        assertThat(outlier.primary()).isEqualTo(outlier.robustZ());
+        assertThat(outlier.samples()).isEqualTo(20);
+
+        assertThat(Math.abs(window.score(43).primary())).isLessThan(3.5);
+
+        // A constant window has no MAD, so the classic z-score decides
+        RobustWindow constant = new RobustWindow(8);
+        for (int i = 0; i < 8; i++) constant.add(i == 7 ? 11 : 10);
+        RobustWindow.Score score = constant.score(30);
+        assertThat(score.robustZ()).isNaN();
+        assertThat(score.primary()).isEqualTo(score.zscore()).isGreaterThan(3.5);
+    }
+}
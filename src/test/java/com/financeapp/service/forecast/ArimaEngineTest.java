@@ -0,0 +1,79 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ArimaEngineTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ArimaEngine engine = new ArimaEngine(pool);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private static double[] ar1(int n, double phi, double mean, long seed) {
+        Random rnd = new Random(seed);
+        double[] y = new double[n];
+        double x = 0.0;
+        for (int t = 0; t < n; t++) {
+            x = phi * x + rnd.nextGaussian();
+            y[t] = mean + x;
+        }
+        return y;
+    }
+
+    @Test
+    void fit_shouldRecoverAr1Coefficient() {
+        DailySeries series = DailySeries.of(null, ar1(365, 0.7, 100.0, 42));
+
+        ArimaModel.Fit fit = engine.fit(series, 1, 0, 0);
+
+        assertThat(fit.isValid()).isTrue();
+        assertThat(fit.ar()[0]).isCloseTo(0.7, within(0.1));
+        assertThat(fit.mean()).isCloseTo(100.0, within(1.0));
+        assertThat(fit.sigma2()).isCloseTo(1.0, within(0.2));
+    }
+
+    @Test
+    void autoFit_shouldDifferenceRandomWalkAndKeepStationarySeriesLevel() {
+        Random rnd = new Random(7);
+        double[] walk = new double[365];
+        for (int t = 1; t < walk.length; t++) walk[t] = walk[t - 1] + rnd.nextGaussian();
+
+        assertThat(engine.autoFit(DailySeries.of(null, walk)).d()).isEqualTo(1);
+
+        ArimaModel.Fit stationary = engine.autoFit(DailySeries.of(null, ar1(365, 0.5, 50.0, 3)));
+        assertThat(stationary.d()).isZero();
+        assertThat(stationary.p() + stationary.q()).isPositive();
+    }
+
+    @Test
+    void forecast_shouldContinueTrendAndRevertToMean() {
+        double[] trend = new double[120];
+        Random rnd = new Random(11);
+        for (int t = 0; t < trend.length; t++) trend[t] = 10.0 + 2.0 * t + 0.1 * rnd.nextGaussian();
+        double[] up = engine.forecast(DailySeries.of(null, trend), engine.fit(DailySeries.of(null, trend), 0, 1, 0), 5);
+        assertThat(up[0]).isCloseTo(trend[119] + 2.0, within(0.2));
+        assertThat(up[4]).isCloseTo(trend[119] + 10.0, within(0.5));
+
+        DailySeries stationary = DailySeries.of(null, ar1(365, 0.7, 100.0, 42));
+        double[] out = engine.forecast(stationary, engine.fit(stationary, 1, 0, 0), 60);
+        assertThat(out[59]).isCloseTo(100.0, within(1.0));
+    }
+
+    @Test
+    void fit_shouldRejectSeriesTooShortForOrder() {
+        ArimaModel.Fit fit = engine.fit(DailySeries.of(null, new double[]{1, 2, 3, 4, 5}), 2, 0, 1);
+
+        assertThat(fit.isValid()).isFalse();
+        assertThat(engine.forecast(DailySeries.of(null, new double[]{1, 2, 3}), fit, 3)).isNull();
+    }
+}
@@ -0,0 +1,109 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutoModelSelectorTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ArimaEngine arimaEngine = new ArimaEngine(pool);
+    private final HoltWintersEngine holtWintersEngine = new HoltWintersEngine(pool);
+    private final RollingOriginBacktester backtester = new RollingOriginBacktester(arimaEngine, holtWintersEngine, 0);
+    private final ModelFitter fitter = new ModelFitter(arimaEngine, holtWintersEngine);
+    private final AutoModelSelector selector = new AutoModelSelector(pool, backtester, fitter, null, 28, Duration.ofHours(24));
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private static ForecastConfig auto() {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(ForecastConfig.AlgorithmType.AUTO);
+        return cfg;
+    }
+
+    @Test
+    void race_shouldPickASeasonalModelForAStrongWeeklyPattern() {
+        Random rnd = new Random(11);
+        double[] v = new double[120];
+        for (int t = 0; t < v.length; t++) v[t] = 100 + (t % 7 == 0 ? 60 : 0) + rnd.nextGaussian();
+
+        AutoModelSelector.RaceResult race = selector.race(DailySeries.of(null, v), auto(), 7);
+
+        assertThat(race).isNotNull();
+        assertThat(race.winner().getAlgorithm()).isIn(EnumSet.of(
+                ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION,
+                ForecastConfig.AlgorithmType.HOLT_WINTERS_ADDITIVE,
+                ForecastConfig.AlgorithmType.HOLT_WINTERS_MULTIPLICATIVE));
+        // The winner survived every round, so it was scored on the whole holdout
+        assertThat(race.report().origins()).isEqualTo(28);
+        assertThat(race.candidates()).isEqualTo(7);
+        // ... with its full fit, not the screening one
+        assertThat(race.report().overall())
+                .isEqualTo(backtester.run(DailySeries.of(null, v), race.winner(), 7, 28).overall());
+    }
+
+    @Test
+    void screening_shouldOnlyApplyToEstimatedModels() {
+        Random rnd = new Random(3);
+        double[] v = new double[90];
+        for (int t = 0; t < v.length; t++) v[t] = 40 + 10 * Math.sin(2 * Math.PI * t / 7) + rnd.nextGaussian();
+        DailySeries series = DailySeries.of(null, v);
+
+        for (ForecastConfig.AlgorithmType algorithm : ForecastConfig.AlgorithmType.values()) {
+            if (algorithm == ForecastConfig.AlgorithmType.AUTO) continue;
+            ForecastConfig cfg = new ForecastConfig();
+            cfg.setAlgorithm(algorithm);
+            assertThat(backtester.startScreening(series, cfg, 7, 28).isScreening())
+                    .as(algorithm.name())
+                    .isEqualTo(ModelFitter.closedForm(cfg) == null);
+            assertThat(backtester.start(series, cfg, 7, 28).isScreening()).isFalse();
+        }
+    }
+
+    @Test
+    void race_shouldSkipMultiplicativeModelsAndGiveUpOnShortSeries() {
+        double[] mixed = new double[60];
+        for (int t = 0; t < mixed.length; t++) mixed[t] = t % 5 == 0 ? 0.0 : 10.0 + t;
+        AutoModelSelector.RaceResult race = selector.race(DailySeries.of(null, mixed), auto(), 3);
+        assertThat(race.candidates()).isEqualTo(6);
+        assertThat(race.winner().getAlgorithm()).isNotEqualTo(ForecastConfig.AlgorithmType.HOLT_WINTERS_MULTIPLICATIVE);
+
+        // ARIMA needs 30 training days, leaving no origin in a 30-day series
+        assertThat(selector.race(DailySeries.of(null, new double[30]), auto(), 3)).isNull();
+    }
+
+    @Test
+    void modelSpec_shouldRoundTripThroughItsEncoding() {
+        Random rnd = new Random(5);
+        double[] v = new double[100];
+        for (int t = 0; t < v.length; t++) v[t] = 50 + 0.2 * t + 5 * Math.sin(2 * Math.PI * t / 7) + rnd.nextGaussian();
+        DailySeries series = DailySeries.of(null, v);
+
+        ForecastConfig arima = new ForecastConfig();
+        arima.setAlgorithm(ForecastConfig.AlgorithmType.ARIMA);
+        ModelSpec arimaSpec = fitter.fit(series, arima);
+        ModelSpec decoded = ModelSpec.decode(arimaSpec.algorithm(), arimaSpec.encodeParams());
+        assertThat(decoded.arimaFit().ar()).containsExactly(arimaSpec.arimaFit().ar());
+        assertThat(decoded.arimaFit().ma()).containsExactly(arimaSpec.arimaFit().ma());
+        assertThat(arimaEngine.forecast(series, decoded.arimaFit(), 5))
+                .containsExactly(arimaEngine.forecast(series, arimaEngine.autoFit(series), 5));
+
+        ForecastConfig hw = new ForecastConfig();
+        hw.setAlgorithm(ForecastConfig.AlgorithmType.HOLT_WINTERS_MULTIPLICATIVE);
+        ModelSpec hwSpec = fitter.fit(series, hw);
+        assertThat(hwSpec.algorithm()).isEqualTo(ForecastConfig.AlgorithmType.HOLT_WINTERS_MULTIPLICATIVE);
+        assertThat(ModelSpec.decode(hwSpec.algorithm(), hwSpec.encodeParams()).holtWintersFit()).isEqualTo(hwSpec.holtWintersFit());
+
+        assertThat(ModelSpec.decode(ForecastConfig.AlgorithmType.LINEAR_REGRESSION, "").params()).isEmpty();
+    }
+}
@@ -0,0 +1,114 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.enums.Category;
+import com.financeapp.entity.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ForecastReconciliationTest {
+
+    private static BitSet of(int... leaves) {
+        BitSet members = new BitSet();
+        for (int leaf : leaves) members.set(leaf);
+        return members;
+    }
+
+    @Test
+    void reconcile_shouldMakeEveryNodeTheSumOfItsLeaves() {
+        Random rnd = new Random(9);
+        // total, two branches, four leaves
+        List<BitSet> nodes = List.of(of(0, 1, 2, 3), of(0, 1), of(2, 3), of(0), of(1), of(2), of(3));
+        double[][] base = new double[nodes.size()][5];
+        double[] variances = new double[nodes.size()];
+        for (int n = 0; n < nodes.size(); n++) {
+            for (int h = 0; h < 5; h++) base[n][h] = 100 * rnd.nextDouble();
+            variances[n] = 1 + 50 * rnd.nextDouble();
+        }
+
+        double[][] leaves = ForecastReconciliation.reconcile(4, nodes, base, variances);
+
+        double[][] reconciled = new double[nodes.size()][];
+        for (int n = 0; n < nodes.size(); n++) reconciled[n] = ForecastReconciliation.aggregate(leaves, nodes.get(n));
+        for (int h = 0; h < 5; h++) {
+            assertThat(reconciled[0][h]).isCloseTo(reconciled[1][h] + reconciled[2][h], within(1e-9));
+            assertThat(reconciled[1][h]).isCloseTo(leaves[0][h] + leaves[1][h], within(1e-9));
+        }
+
+        // The weighted least squares optimum: no coherent perturbation lowers the weighted error
+        double best = weightedError(nodes, base, variances, leaves);
+        for (int trial = 0; trial < 50; trial++) {
+            double[][] moved = new double[4][];
+            for (int i = 0; i < 4; i++) {
+                moved[i] = leaves[i].clone();
+                for (int h = 0; h < 5; h++) moved[i][h] += rnd.nextGaussian() * 0.5;
+            }
+            assertThat(weightedError(nodes, base, variances, moved)).isGreaterThanOrEqualTo(best);
+        }
+    }
+
+    private static double weightedError(List<BitSet> nodes, double[][] base, double[] variances, double[][] leaves) {
+        double total = 0.0;
+        for (int n = 0; n < nodes.size(); n++) {
+            double[] sum = ForecastReconciliation.aggregate(leaves, nodes.get(n));
+            for (int h = 0; h < sum.length; h++) total += (sum[h] - base[n][h]) * (sum[h] - base[n][h]) / variances[n];
+        }
+        return total;
+    }
+
+    @Test
+    void reconcile_shouldSplitTheGapByVariance() {
+        // total forecast 120 against leaves 50 + 50: the gap of 20 goes to the nodes by variance
+        List<BitSet> nodes = List.of(of(0, 1), of(0), of(1));
+        double[][] base = {{120}, {50}, {50}};
+
+        double[][] equal = ForecastReconciliation.reconcile(2, nodes, base, new double[]{1, 1, 1});
+        assertThat(equal[0][0] + equal[1][0]).isCloseTo(120 - 20.0 / 3, within(1e-9));
+
+        // A near-certain total wins; the noisier leaf absorbs four times the correction
+        double[][] sure = ForecastReconciliation.reconcile(2, nodes, base, new double[]{1e-12, 1, 4});
+        assertThat(sure[0][0]).isCloseTo(54, within(1e-4));
+        assertThat(sure[1][0]).isCloseTo(66, within(1e-4));
+
+        // A node without a known variance is trusted like the worst known one
+        assertThat(ForecastReconciliation.reconcile(2, nodes, base, new double[]{1, Double.NaN, 4}))
+                .isDeepEqualTo(ForecastReconciliation.reconcile(2, nodes, base, new double[]{1, 4, 4}));
+    }
+
+    @Test
+    void hierarchicalSeries_shouldAlignLeavesOnOneAxis() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{day, TransactionType.EXPENSE, Category.FOOD, new BigDecimal("10.00")});
+        rows.add(new Object[]{day.plusDays(1), TransactionType.INCOME, Category.SALARY, new BigDecimal("500.00")});
+        rows.add(new Object[]{day.plusDays(3), TransactionType.EXPENSE, Category.FOOD, new BigDecimal("12.50")});
+        rows.add(new Object[]{day.plusDays(3), TransactionType.EXPENSE, Category.SHOPPING, new BigDecimal("40.00")});
+
+        HierarchicalSeries data = HierarchicalSeries.fromGroupedTotals(rows);
+
+        assertThat(data.size()).isEqualTo(4);
+        assertThat(data.leaves()).hasSize(3);
+        BitSet expense = data.members(new SeriesFilter(TransactionType.EXPENSE, null));
+        assertThat(expense.cardinality()).isEqualTo(2);
+        assertThat(data.sum(expense).toArray()).containsExactly(10.0, 0.0, 0.0, 52.5);
+        assertThat(data.sum(data.members(new SeriesFilter(null, Category.SALARY))).toArray()).containsExactly(0.0, 500.0, 0.0, 0.0);
+
+        DailySeries salary = data.filtered(new SeriesFilter(null, Category.SALARY));
+        assertThat(salary.start()).isEqualTo(day.plusDays(1));
+        assertThat(salary.toArray()).containsExactly(500.0, 0.0, 0.0);
+        assertThat(data.filtered(new SeriesFilter(TransactionType.TRANSFER, null)).isEmpty()).isTrue();
+
+        HierarchicalSeries toOrigin = HierarchicalSeries.fromGroupedTotals(rows, day.plusDays(5));
+        assertThat(toOrigin.size()).isEqualTo(6);
+        assertThat(toOrigin.filtered(new SeriesFilter(null, Category.SALARY)).toArray())
+                .containsExactly(500.0, 0.0, 0.0, 0.0, 0.0);
+    }
+}
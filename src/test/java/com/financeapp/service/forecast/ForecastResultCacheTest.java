@@ -0,0 +1,79 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.config.AsyncCacheConfig;
+import com.financeapp.config.CacheRefreshRegistry;
+import com.financeapp.config.CachingProperties;
+import com.financeapp.config.UserScopedKeyGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForecastResultCacheTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private ForecastResultCache newCache() {
+        CacheRefreshRegistry registry = new CacheRefreshRegistry();
+        var manager = new AsyncCacheConfig().cacheManager(new CachingProperties(), registry, new SimpleMeterRegistry());
+        return new ForecastResultCache(manager, registry, executor);
+    }
+
+    @Test
+    void concurrentRequestsForSameKey_shouldShareOneComputation() throws Exception {
+        ForecastResultCache cache = newCache();
+        var key = UserScopedKeyGenerator.keyFor(1L, "generateForecast", 10L, LocalDate.of(2024, 1, 1), 7);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<List<Integer>> a = cache.get(key, () -> {
+            computations.incrementAndGet();
+            await(release);
+            return List.of(1, 2, 3);
+        });
+        CompletableFuture<List<Integer>> b = cache.get(key, () -> {
+            computations.incrementAndGet();
+            return List.of(9);
+        });
+        release.countDown();
+
+        assertThat(a.get(5, TimeUnit.SECONDS)).containsExactly(1, 2, 3);
+        assertThat(b.get(5, TimeUnit.SECONDS)).isSameAs(a.get());
+        assertThat(cache.<List<Integer>>get(key, () -> List.of(9)).join()).isSameAs(a.get());
+        assertThat(computations).hasValue(1);
+        executor.shutdown();
+    }
+
+    @Test
+    void failedComputation_shouldNotBeCached() {
+        ForecastResultCache cache = newCache();
+        var key = UserScopedKeyGenerator.keyFor(2L, "generateForecast", 11L, LocalDate.of(2024, 1, 1), 7);
+
+        CompletableFuture<List<Integer>> failed = cache.get(key, () -> {
+            throw new IllegalArgumentException("User not found");
+        });
+        assertThatThrownBy(failed::join).isInstanceOf(CompletionException.class);
+
+        assertThat(cache.<List<Integer>>get(key, () -> List.of(4)).join()).containsExactly(4);
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
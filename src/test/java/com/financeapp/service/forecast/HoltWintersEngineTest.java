@@ -0,0 +1,83 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HoltWintersEngineTest {
+
+    private static final double[] WEEKLY = {1.0, 1.1, 1.2, 1.0, 0.9, 1.3, 0.5};
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final HoltWintersEngine engine = new HoltWintersEngine(pool);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private static double[] series(int n, boolean multiplicative, long seed) {
+        Random rnd = new Random(seed);
+        double[] y = new double[n];
+        for (int t = 0; t < n; t++) {
+            double base = 100.0 + 0.5 * t;
+            double s = WEEKLY[t % 7];
+            y[t] = (multiplicative ? base * s : base + 40.0 * (s - 1.0)) + rnd.nextGaussian();
+        }
+        return y;
+    }
+
+    @Test
+    void additive_shouldTrackTrendAndWeeklyPattern() {
+        double[] y = series(182, false, 1);
+        double[] out = engine.forecast(DailySeries.of(null, y), 7, false, 14);
+
+        for (int h = 0; h < 14; h++) {
+            int t = 182 + h;
+            double expected = 100.0 + 0.5 * t + 40.0 * (WEEKLY[t % 7] - 1.0);
+            assertThat(out[h]).isCloseTo(expected, within(4.0));
+        }
+    }
+
+    @Test
+    void multiplicative_shouldScaleSeasonWithLevel() {
+        double[] y = series(182, true, 2);
+        HoltWinters.Fit fit = engine.fit(DailySeries.of(null, y), 7, true);
+
+        assertThat(fit.multiplicative()).isTrue();
+        assertThat(fit.alpha()).isBetween(HoltWinters.LOWER, HoltWinters.UPPER);
+        assertThat(fit.beta()).isBetween(HoltWinters.LOWER, HoltWinters.UPPER);
+        assertThat(fit.gamma()).isBetween(HoltWinters.LOWER, HoltWinters.UPPER);
+
+        double[] out = engine.forecast(DailySeries.of(null, y), 7, true, 7);
+        for (int h = 0; h < 7; h++) {
+            int t = 182 + h;
+            assertThat(out[h]).isCloseTo((100.0 + 0.5 * t) * WEEKLY[t % 7], within(8.0));
+        }
+    }
+
+    @Test
+    void tunedParameters_shouldBeatDefaultStartingPoint() {
+        double[] y = series(182, false, 3);
+        HoltWinters.Fit fit = engine.fit(DailySeries.of(null, y), 7, false);
+
+        double untuned = HoltWinters.sse(y, y.length, 7, 0.3, 0.05, 0.1, false, new HoltWinters.Workspace());
+        assertThat(fit.sse()).isLessThanOrEqualTo(untuned);
+    }
+
+    @Test
+    void multiplicative_shouldFallBackToAdditiveForNonPositiveDays() {
+        double[] y = series(70, false, 4);
+        y[10] = 0.0;
+
+        HoltWinters.Fit fit = engine.fit(DailySeries.of(null, y), 7, true);
+
+        assertThat(fit.multiplicative()).isFalse();
+        assertThat(engine.fit(DailySeries.of(null, new double[10]), 7, false)).isNull();
+    }
+}
@@ -0,0 +1,168 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OnlineForecastStateTest {
+
+    private static final int LOOKBACK = 60;
+    private static final int HORIZON = 5;
+    private static final LocalDate DAY0 = LocalDate.of(2024, 1, 1);
+
+    private static final List<ModelSpec> SPECS = List.of(
+            ModelSpec.sma(7), ModelSpec.ewma(0.3), ModelSpec.linearRegression(),
+            ModelSpec.seasonalDecomposition(7), ModelSpec.seasonalDecomposition(5));
+
+    /** What ForecastServiceImpl computes when it loads the window and refits. */
+    private static double[] refit(ModelSpec spec, Map<LocalDate, Double> days, LocalDate windowEnd) {
+        List<Object[]> rows = rows(days, windowEnd.minusDays(LOOKBACK - 1), windowEnd);
+        DailySeries series = DailySeries.fromDailyTotals(rows, windowEnd);
+        double[] v = series.values();
+        int n = series.size();
+        double[] out = new double[HORIZON];
+        switch (spec.algorithm()) {
+            case SMA -> ForecastKernels.fill(out, HORIZON, ForecastKernels.smaLevel(v, n, spec.window()));
+            case EWMA -> ForecastKernels.fill(out, HORIZON, ForecastKernels.ewmaLevel(v, n, spec.alpha()));
+            case LINEAR_REGRESSION -> ForecastKernels.linearRegressionForecast(v, n, HORIZON, out);
+            default -> {
+                int m = spec.seasonLength();
+                if (n < 2 * m) {
+                    ForecastKernels.fill(out, HORIZON, ForecastKernels.smaLevel(v, n, Math.min(7, Math.max(2, n))));
+                } else {
+                    ForecastKernels.seasonalDecomposition(v, n, m, HORIZON, new double[m], out);
+                }
+            }
+        }
+        return out;
+    }
+
+    private static List<Object[]> rows(Map<LocalDate, Double> days, LocalDate from, LocalDate to) {
+        List<Object[]> rows = new ArrayList<>();
+        days.forEach((day, total) -> {
+            if (!day.isBefore(from) && !day.isAfter(to)) rows.add(new Object[]{day, BigDecimal.valueOf(total)});
+        });
+        return rows;
+    }
+
+    private static void assertMatchesRefit(OnlineForecastState state, Map<LocalDate, Double> days) {
+        double[] online = new double[HORIZON];
+        assertThat(state.forecast(HORIZON, online)).isTrue();
+        double[] expected = refit(state.spec(), days, state.windowEnd());
+        for (int h = 0; h < HORIZON; h++) {
+            assertThat(online[h]).as("%s step %d", state.spec().algorithm(), h).isCloseTo(expected[h], within(1e-6));
+        }
+        assertThat(state.series().toArray())
+                .containsExactly(DailySeries.fromDailyTotals(rows(days, state.windowStart(), state.windowEnd()), state.windowEnd()).toArray());
+    }
+
+    @Test
+    void writesAndWindowMoves_shouldKeepMatchingARefit() {
+        Random rnd = new Random(7);
+        Map<LocalDate, Double> days = new TreeMap<>();
+        for (int t = 0; t < 90; t++) {
+            if (rnd.nextInt(5) > 0) days.put(DAY0.plusDays(t), Math.round((50 + 10 * Math.sin(t) + rnd.nextGaussian() * 5) * 100) / 100.0);
+        }
+        LocalDate end = DAY0.plusDays(89);
+
+        for (ModelSpec spec : SPECS) {
+            Map<LocalDate, Double> live = new TreeMap<>(days);
+            OnlineForecastState state = OnlineForecastState.build(spec, LOOKBACK, end, rows(live, end.minusDays(LOOKBACK - 1), end));
+            assertMatchesRefit(state, live);
+
+            Random ops = new Random(spec.algorithm().ordinal() * 31L + spec.params().length);
+            for (int step = 0; step < 200; step++) {
+                int kind = ops.nextInt(10);
+                if (kind < 6) {
+                    // Edit, add or clear a day anywhere in (or just outside) the window
+                    LocalDate day = state.windowEnd().minusDays(ops.nextInt(LOOKBACK + 5));
+                    if (ops.nextInt(4) == 0) {
+                        live.remove(day);
+                        state.set(day, 0.0, false);
+                    } else {
+                        double total = Math.round(ops.nextDouble() * 10000) / 100.0;
+                        live.put(day, total);
+                        state.set(day, total, true);
+                    }
+                } else if (kind < 9) {
+                    // Tomorrow's transactions, then the window moves onto them
+                    LocalDate next = state.windowEnd().plusDays(1 + ops.nextInt(3));
+                    double total = Math.round(ops.nextDouble() * 10000) / 100.0;
+                    live.put(next, total);
+                    state.set(next, total, true); // beyond the window: ignored until it advances
+                    state.advanceTo(next, rows(live, state.windowEnd().plusDays(1), next));
+                } else {
+                    // The same state after a round trip through its persisted form
+                    state = OnlineForecastState.restore(spec, LOOKBACK, state.windowEnd(), state.encodeStatistics(), state.ring().clone());
+                }
+                if (!state.isEmpty() && state.series().size() >= 7) {
+                    assertMatchesRefit(state, live);
+                }
+            }
+        }
+    }
+
+    @Test
+    void quietTrailingDays_shouldCountAsZeroUpToTheWindowEnd() {
+        Map<LocalDate, Double> days = new TreeMap<>();
+        for (int t = 0; t < 20; t++) days.put(DAY0.plusDays(t), 10.0 + t);
+        LocalDate end = DAY0.plusDays(29);
+        OnlineForecastState state = OnlineForecastState.build(ModelSpec.ewma(0.3), LOOKBACK, end, rows(days, DAY0, end));
+
+        assertThat(state.series().size()).isEqualTo(30);
+        assertThat(state.series().last()).isZero();
+        assertMatchesRefit(state, days);
+
+        // A quiet week passes: no rows, only the window moves
+        state.advanceTo(end.plusDays(7), List.of());
+        assertThat(state.series().size()).isEqualTo(37);
+        assertMatchesRefit(state, days);
+    }
+
+    @Test
+    void restore_shouldUpdateThePersistedRingInPlaceAndRejectOtherLookbacks() {
+        Map<LocalDate, Double> days = new TreeMap<>();
+        for (int t = 0; t < 30; t++) days.put(DAY0.plusDays(t), 10.0 + t);
+        LocalDate end = DAY0.plusDays(29);
+        OnlineForecastState built = OnlineForecastState.build(ModelSpec.sma(7), LOOKBACK, end, rows(days, DAY0, end));
+        byte[] persisted = built.ring().clone();
+        assertThat(persisted).hasSize(OnlineForecastState.ringBytes(LOOKBACK));
+
+        OnlineForecastState state = OnlineForecastState.restore(ModelSpec.sma(7), LOOKBACK, end, built.encodeStatistics(), persisted);
+        assertThat(state.ring()).isSameAs(persisted);
+        days.put(end, 99.0);
+        state.set(end, 99.0, true);
+        assertMatchesRefit(state, days);
+        assertThat(persisted).isNotEqualTo(built.ring());
+
+        assertThat(OnlineForecastState.restore(ModelSpec.sma(7), LOOKBACK + 1, end, built.encodeStatistics(), persisted)).isNull();
+    }
+
+    @Test
+    void advancingPastTheWholeWindow_shouldStartOver() {
+        Map<LocalDate, Double> days = new TreeMap<>();
+        for (int t = 0; t < 30; t++) days.put(DAY0.plusDays(t), 10.0 + t);
+        OnlineForecastState state = OnlineForecastState.build(ModelSpec.linearRegression(), LOOKBACK, DAY0.plusDays(29),
+                rows(days, DAY0.minusDays(LOOKBACK), DAY0.plusDays(29)));
+
+        LocalDate end = DAY0.plusDays(29 + LOOKBACK + 10);
+        state.advanceTo(end, List.of());
+        assertThat(state.isEmpty()).isTrue();
+        assertThat(state.forecast(HORIZON, new double[HORIZON])).isFalse();
+
+        for (int t = 0; t < 10; t++) {
+            days.put(end.minusDays(t), 5.0 * t);
+            state.set(end.minusDays(t), 5.0 * t, true);
+        }
+        assertMatchesRefit(state, days);
+    }
+}
@@ -0,0 +1,73 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PredictionIntervalEngineTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private PredictionIntervalEngine engine(int paths) {
+        return new PredictionIntervalEngine(pool, paths, 0.95, 42L);
+    }
+
+    private static double[] gaussian(int n, long seed) {
+        Random rnd = new Random(seed);
+        double[] r = new double[n];
+        for (int i = 0; i < n; i++) r[i] = rnd.nextGaussian();
+        return r;
+    }
+
+    @Test
+    void analytic_shouldWidenWithAccumulatedPsiWeights() {
+        IntervalForecast band = engine(100).analytic(new double[]{10, 10, 10}, 4.0, new double[]{1, 1, 1});
+
+        assertThat(band.high()[0] - 10).isCloseTo(1.96 * 2.0, within(1e-3));
+        assertThat(band.high()[2] - 10).isCloseTo(1.96 * 2.0 * Math.sqrt(3), within(1e-3));
+        assertThat(band.low()[2]).isCloseTo(20 - band.high()[2], within(1e-9));
+    }
+
+    @Test
+    void bootstrap_shouldApproximateGaussianBandAndBeReproducible() {
+        double[] residuals = gaussian(2000, 5);
+        double[] point = {0, 0, 0, 0};
+        double[] psi = PredictionIntervalEngine.constantPsi(4, 1.0);
+
+        IntervalForecast band = engine(20000).bootstrap(point, residuals, residuals.length, psi);
+
+        assertThat(band.high()[0]).isCloseTo(1.96, within(0.15));
+        assertThat(band.low()[0]).isCloseTo(-1.96, within(0.15));
+        assertThat(band.high()[3]).isCloseTo(1.96 * 2.0, within(0.3));
+
+        IntervalForecast again = engine(20000).bootstrap(point, residuals, residuals.length, psi);
+        assertThat(again.low()).containsExactly(band.low());
+        assertThat(again.high()).containsExactly(band.high());
+    }
+
+    @Test
+    void bootstrap_shouldSkipBandWhenTooFewResiduals() {
+        IntervalForecast band = engine(100).bootstrap(new double[]{1, 2}, new double[]{0.5, -0.5}, 2,
+                PredictionIntervalEngine.constantPsi(2, 0.0));
+
+        assertThat(band.hasInterval()).isFalse();
+        assertThat(band.values()).containsExactly(1, 2);
+    }
+
+    @Test
+    void inverseNormal_shouldMatchKnownQuantiles() {
+        assertThat(PredictionIntervalEngine.inverseNormal(0.975)).isCloseTo(1.959964, within(1e-6));
+        assertThat(PredictionIntervalEngine.inverseNormal(0.5)).isCloseTo(0.0, within(1e-9));
+        assertThat(PredictionIntervalEngine.inverseNormal(0.005)).isCloseTo(-2.575829, within(1e-6));
+    }
+}
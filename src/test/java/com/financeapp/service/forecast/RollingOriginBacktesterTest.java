@@ -0,0 +1,151 @@
+package com.financeapp.service.forecast;
+
+import com.financeapp.entity.ForecastConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RollingOriginBacktesterTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ArimaEngine arimaEngine = new ArimaEngine(pool);
+    private final HoltWintersEngine holtWintersEngine = new HoltWintersEngine(pool);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private static double[] weeklySeries(int n, long seed) {
+        Random rnd = new Random(seed);
+        double[] y = new double[n];
+        for (int t = 0; t < n; t++) y[t] = 100 + 0.3 * t + 10 * Math.sin(2 * Math.PI * t / 7) + rnd.nextGaussian();
+        return y;
+    }
+
+    private static ForecastConfig config(ForecastConfig.AlgorithmType algo) {
+        ForecastConfig cfg = new ForecastConfig();
+        cfg.setAlgorithm(algo);
+        return cfg;
+    }
+
+    /**
+     * Scores the forecasts {@code direct} makes at each origin, refitting from scratch.
+     */
+    private static BacktestReport.Metrics[] directByHorizon(double[] v, int firstOrigin, int horizon, DirectModel direct) {
+        BacktestReport.Accumulator[] acc = new BacktestReport.Accumulator[horizon];
+        for (int h = 0; h < horizon; h++) acc[h] = new BacktestReport.Accumulator();
+        for (int origin = firstOrigin; origin < v.length; origin++) {
+            double[] out = direct.forecast(origin);
+            for (int h = 0; h < Math.min(horizon, v.length - origin); h++) acc[h].add(v[origin + h], out[h]);
+        }
+        BacktestReport.Metrics[] metrics = new BacktestReport.Metrics[horizon];
+        for (int h = 0; h < horizon; h++) metrics[h] = acc[h].toMetrics();
+        return metrics;
+    }
+
+    private interface DirectModel {
+        double[] forecast(int origin);
+    }
+
+    private static void assertSameMetrics(BacktestReport.Metrics[] actual, BacktestReport.Metrics[] expected) {
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int h = 0; h < actual.length; h++) {
+            assertThat(actual[h].count()).isEqualTo(expected[h].count());
+            assertThat(actual[h].mae()).isCloseTo(expected[h].mae(), within(1e-6));
+            assertThat(actual[h].rmse()).isCloseTo(expected[h].rmse(), within(1e-6));
+            assertThat(actual[h].bias()).isCloseTo(expected[h].bias(), within(1e-6));
+            assertThat(actual[h].smape()).isCloseTo(expected[h].smape(), within(1e-6));
+        }
+    }
+
+    @Test
+    void incrementalModels_shouldMatchRefittingAtEveryOrigin() {
+        double[] v = weeklySeries(90, 1);
+        int horizon = 5;
+        RollingOriginBacktester backtester = new RollingOriginBacktester(arimaEngine, holtWintersEngine, 0);
+
+        BacktestReport lr = backtester.run(DailySeries.of(null, v), config(ForecastConfig.AlgorithmType.LINEAR_REGRESSION), horizon, 60);
+        assertSameMetrics(lr.byHorizon(), directByHorizon(v, lr.firstOrigin(), horizon, origin -> {
+            double[] out = new double[horizon];
+            ForecastKernels.linearRegressionForecast(v, origin, horizon, out);
+            return out;
+        }));
+
+        BacktestReport sd = backtester.run(DailySeries.of(null, v), config(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION), horizon, 60);
+        assertSameMetrics(sd.byHorizon(), directByHorizon(v, sd.firstOrigin(), horizon, origin -> {
+            double[] out = new double[horizon];
+            ForecastKernels.seasonalDecomposition(v, origin, 7, horizon, new double[7], out);
+            return out;
+        }));
+
+        BacktestReport ewma = backtester.run(DailySeries.of(null, v), config(ForecastConfig.AlgorithmType.EWMA), horizon, 60);
+        assertSameMetrics(ewma.byHorizon(), directByHorizon(v, ewma.firstOrigin(), horizon, origin -> {
+            double[] out = new double[horizon];
+            ForecastKernels.fill(out, horizon, ForecastKernels.ewmaLevel(v, origin, 0.3));
+            return out;
+        }));
+    }
+
+    @Test
+    void slidingWindow_shouldFitOnlyTheMostRecentDays() {
+        double[] v = weeklySeries(80, 2);
+        int horizon = 3;
+        RollingOriginBacktester backtester = new RollingOriginBacktester(arimaEngine, holtWintersEngine, 21);
+
+        BacktestReport report = backtester.run(DailySeries.of(null, v), config(ForecastConfig.AlgorithmType.SEASONAL_DECOMPOSITION), horizon, 40);
+
+        assertSameMetrics(report.byHorizon(), directByHorizon(v, report.firstOrigin(), horizon, origin -> {
+            int from = Math.max(0, origin - 21);
+            double[] window = java.util.Arrays.copyOfRange(v, from, origin);
+            double[] out = new double[horizon];
+            ForecastKernels.seasonalDecomposition(window, window.length, 7, horizon, new double[7], out);
+            return out;
+        }));
+    }
+
+    @Test
+    void recursiveModels_shouldReplayTheirFitWithoutRestarting() {
+        double[] v = weeklySeries(120, 3);
+        int horizon = 7;
+        RollingOriginBacktester backtester = new RollingOriginBacktester(arimaEngine, holtWintersEngine, 0);
+
+        BacktestReport hw = backtester.run(DailySeries.of(null, v), config(ForecastConfig.AlgorithmType.HOLT_WINTERS_ADDITIVE), horizon, 60);
+        HoltWinters.Fit hwFit = holtWintersEngine.fit(DailySeries.of(null, v).head(hw.firstOrigin()), 7, false);
+        assertSameMetrics(hw.byHorizon(), directByHorizon(v, hw.firstOrigin(), horizon, origin -> {
+            double[] out = new double[horizon];
+            HoltWinters.forecast(v, origin, hwFit, horizon, new HoltWinters.Workspace(), out);
+            return out;
+        }));
+
+        BacktestReport arima = backtester.run(DailySeries.of(null, v), config(ForecastConfig.AlgorithmType.ARIMA), horizon, 60);
+        ArimaModel.Fit arimaFit = arimaEngine.autoFit(DailySeries.of(null, v).head(arima.firstOrigin()));
+        assertSameMetrics(arima.byHorizon(), directByHorizon(v, arima.firstOrigin(), horizon, origin -> {
+            double[] out = new double[horizon];
+            ArimaModel.forecast(v, origin, arimaFit, horizon, new ArimaModel.Workspace(), out);
+            return out;
+        }));
+    }
+
+    @Test
+    void report_shouldCoverEveryOriginAndSkipZeroActualsInMape() {
+        double[] v = new double[40];
+        for (int t = 0; t < v.length; t++) v[t] = t % 2 == 0 ? 0.0 : 10.0;
+        RollingOriginBacktester backtester = new RollingOriginBacktester(arimaEngine, holtWintersEngine, 0);
+
+        BacktestReport report = backtester.run(DailySeries.of(null, v), config(ForecastConfig.AlgorithmType.SMA), 4, 20);
+
+        assertThat(report.firstOrigin()).isEqualTo(20);
+        assertThat(report.origins()).isEqualTo(20);
+        assertThat(report.byOrigin()[19].count()).isEqualTo(1);
+        // A 7-day SMA over alternating 0/10 sits at 40/7 or 30/7; MAPE only counts the 10s
+        assertThat(report.overall().mape()).isBetween(40.0, 60.0);
+        assertThat(report.overall().count()).isEqualTo(4 * 17 + 3 + 2 + 1);
+        assertThat(report.finalForecast()).hasSize(4);
+    }
+}
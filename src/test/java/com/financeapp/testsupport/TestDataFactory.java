@@ -4,6 +4,9 @@ import com.financeapp.entity.FinancialData;
 import com.financeapp.entity.User;
 import com.financeapp.entity.enums.Category;
 import com.financeapp.entity.enums.TransactionType;
+import com.financeapp.service.forecast.ArimaEngine;
+import com.financeapp.service.forecast.HoltWintersEngine;
+import com.financeapp.service.impl.ForecastServiceImpl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,6 +37,19 @@ public final class TestDataFactory {
         f.setUpdatedAt(OffsetDateTime.now());
         return f;
     }
-}
 
+    /**
+     * A forecast service for its pure algorithm methods only: no repositories, caches or
+     * transactions, so anything that touches persistence fails with a NullPointerException.
+     */
+    public static ForecastServiceImpl algorithmsOnlyForecastService() {
+        return algorithmsOnlyForecastService(null, null);
+    }
 
+    /** Same, with the engines the ARIMA and Holt-Winters methods fit on. */
+    public static ForecastServiceImpl algorithmsOnlyForecastService(ArimaEngine arimaEngine, HoltWintersEngine holtWintersEngine) {
+        return new ForecastServiceImpl(null, null, null, null, null, null, null,
+                arimaEngine, holtWintersEngine,
+                null, null, null, null, null, null, null);
+    }
+}
@@ -15,10 +15,12 @@ public class TestDatabaseCleaner {
     public void clean() {
         // Delete in FK-safe order; tables may not all exist in H2 for every test run
         String[] tablesInOrder = new String[]{
+                "forecast_states",
                 "forecast_anomalies",
-                "forecast_performances",
+                "forecast_performance",
                 "forecast_results",
                 "forecasts",
+                "financial_daily_totals",
                 "financial_data",
                 "categories",
                 "user_profiles",
@@ -0,0 +1,81 @@
+package com.financeapp.service.forecast;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Compares the SIMD kernels with the scalar loops, which the test JVM uses by default. Only
+ * compiled and run by the {@code vector} profile.
+ */
+class VectorKernelsTest {
+
+    private static final VectorKernels VECTOR = new VectorKernels();
+
+    @BeforeAll
+    static void scalarReference() {
+        assumeFalse(ForecastKernels.VECTORIZED, "reference kernels are vectorised in this JVM");
+    }
+
+    /** Several years of daily spend with a weekly cycle, and lengths around the vector width. */
+    private static double[] series(int n, long seed) {
+        Random rnd = new Random(seed);
+        double[] y = new double[n];
+        for (int t = 0; t < n; t++) y[t] = 50 + 0.01 * t + 15 * Math.sin(2 * Math.PI * t / 7) + 5 * rnd.nextGaussian();
+        return y;
+    }
+
+    private static int[] lengths() {
+        int lanes = VECTOR.lanes();
+        return new int[]{1, lanes - 1, lanes, lanes + 1, 3 * lanes + 2, 365, 3650};
+    }
+
+    @Test
+    void linearRegressionForecast_shouldMatchScalar() {
+        for (int n : lengths()) {
+            if (n < 2) continue;
+            double[] v = series(n, 7 * n);
+            double[] expected = new double[14];
+            double[] actual = new double[14];
+            ForecastKernels.linearRegressionForecast(v, n, 14, expected);
+            VECTOR.linearRegressionForecast(v, n, 14, actual);
+            for (int h = 0; h < 14; h++) assertThat(actual[h]).isCloseTo(expected[h], within(1e-7 * Math.abs(expected[h]) + 1e-9));
+        }
+    }
+
+    @Test
+    void seasonSums_shouldMatchScalarExactly() {
+        for (int n : lengths()) {
+            double[] v = series(n, 3 * n);
+            for (int seasonLength : new int[]{1, 7, 12, 30}) {
+                double[] expected = new double[seasonLength];
+                for (int i = 0; i < n; i++) expected[i % seasonLength] += v[i];
+                double[] actual = new double[seasonLength];
+                VECTOR.seasonSums(v, n, seasonLength, actual);
+                assertThat(actual).containsExactly(expected);
+            }
+        }
+    }
+
+    @Test
+    void detectAnomalies_shouldFlagTheSameDays() {
+        for (int n : lengths()) {
+            double[] v = series(n, 11 * n);
+            if (n > 10) {
+                v[n / 2] += 500;
+                v[n - 1] -= 400;
+            }
+            int[] expected = new int[n];
+            int[] actual = new int[n];
+            int expectedCount = ForecastKernels.detectAnomalies(v, n, 2.0, expected);
+            int actualCount = VECTOR.detectAnomalies(v, n, 2.0, actual);
+            assertThat(actualCount).isEqualTo(expectedCount);
+            for (int i = 0; i < expectedCount; i++) assertThat(actual[i]).isEqualTo(expected[i]);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.financeapp.service.forecast;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD versions of the {@link ForecastKernels} reductions, on the platform's preferred vector
+ * width. Only compiled by the {@code vector} profile, and only loaded by ForecastKernels once it
+ * has checked that {@code jdk.incubator.vector} is in the boot layer.
+ * <p>
+ * Lanes accumulate independently and are reduced at the end, so sums differ from the scalar
+ * loops in the last bits only; the seasonal sums add the same values in the same order per
+ * position and match exactly.
+ */
+final class VectorKernels implements SimdKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    /** x = 1..LANES, the regression abscissa of the first vector. */
+    private static final double[] FIRST_X = new double[LANES];
+
+    static {
+        for (int i = 0; i < LANES; i++) FIRST_X[i] = i + 1;
+    }
+
+    @Override
+    public int lanes() {
+        return LANES;
+    }
+
+    private static double sum(double[] v, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += LANES) {
+            acc = acc.add(DoubleVector.fromArray(SPECIES, v, i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) sum += v[i];
+        return sum;
+    }
+
+    /**
+     * Sum of y and of x * y on x = 1..n; the x sums are closed-form and exact.
+     */
+    @Override
+    public void linearRegressionForecast(double[] v, int n, int horizon, double[] out) {
+        DoubleVector sumY = DoubleVector.zero(SPECIES);
+        DoubleVector sumXY = DoubleVector.zero(SPECIES);
+        DoubleVector x = DoubleVector.fromArray(SPECIES, FIRST_X, 0);
+        DoubleVector step = DoubleVector.broadcast(SPECIES, LANES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(n); i < bound; i += LANES) {
+            DoubleVector y = DoubleVector.fromArray(SPECIES, v, i);
+            sumY = sumY.add(y);
+            sumXY = y.fma(x, sumXY);
+            x = x.add(step);
+        }
+        double sy = sumY.reduceLanes(VectorOperators.ADD);
+        double sxy = sumXY.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sy += v[i];
+            sxy += (i + 1) * v[i];
+        }
+        double dn = n;
+        double sumX = dn * (dn + 1) / 2;
+        double sumXX = dn * (dn + 1) * (2 * dn + 1) / 6;
+        ForecastKernels.projectTrend(n, sumX, sy, sumXX, sxy, horizon, out);
+    }
+
+    /**
+     * Adds each full season to {@code season} a vector of positions at a time; the partial
+     * last season is scalar.
+     */
+    @Override
+    public void seasonSums(double[] v, int n, int seasonLength, double[] season) {
+        for (int i = 0; i < seasonLength; i++) season[i] = 0.0;
+        int bound = SPECIES.loopBound(seasonLength);
+        int full = n - n % seasonLength;
+        for (int base = 0; base < full; base += seasonLength) {
+            int k = 0;
+            for (; k < bound; k += LANES) {
+                DoubleVector.fromArray(SPECIES, season, k)
+                        .add(DoubleVector.fromArray(SPECIES, v, base + k))
+                        .intoArray(season, k);
+            }
+            for (; k < seasonLength; k++) season[k] += v[base + k];
+        }
+        for (int i = full; i < n; i++) season[i - full] += v[i];
+    }
+
+    /**
+     * Mean and variance in vectors; the threshold test runs a vector at a time and only
+     * blocks with an outlier are scanned for its index.
+     */
+    @Override
+    public int detectAnomalies(double[] v, int n, double thresholdSigma, int[] out) {
+        double mean = sum(v, 0, n) / n;
+        DoubleVector meanV = DoubleVector.broadcast(SPECIES, mean);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector d = DoubleVector.fromArray(SPECIES, v, i).sub(meanV);
+            acc = d.fma(d, acc);
+        }
+        double var = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) var += (v[i] - mean) * (v[i] - mean);
+        var /= Math.max(1, n - 1);
+        double std = Math.sqrt(var);
+        double thr = Math.max(1e-9, thresholdSigma) * (std <= 1e-9 ? 1.0 : std);
+
+        DoubleVector thrV = DoubleVector.broadcast(SPECIES, thr);
+        int count = 0;
+        for (i = 0; i < bound; i += LANES) {
+            VectorMask<Double> outliers = DoubleVector.fromArray(SPECIES, v, i).sub(meanV)
+                    .lanewise(VectorOperators.ABS).compare(VectorOperators.GT, thrV);
+            for (int lane = outliers.firstTrue(); lane < LANES; lane++) {
+                if (outliers.laneIsSet(lane)) out[count++] = i + lane;
+            }
+        }
+        for (; i < n; i++) {
+            if (Math.abs(v[i] - mean) > thr) out[count++] = i;
+        }
+        return count;
+    }
+}